@@ -0,0 +1,50 @@
+package org.partiql.eval;
+
+import org.jetbrains.annotations.NotNull;
+import org.partiql.spi.errors.PRuntimeException;
+import org.partiql.spi.value.Datum;
+
+import java.util.Iterator;
+
+/**
+ * A cursor over the values of a statement's result, which are computed on demand as the cursor is advanced. The
+ * cursor must be closed to release the resources of the statement's operators; closing a cursor before it is
+ * exhausted cancels the remaining execution.
+ *
+ * @see Statement#open()
+ */
+public interface Cursor extends Iterator<Datum>, AutoCloseable {
+
+    /**
+     * @return true if there is another value.
+     * @throws PRuntimeException if an error was encountered during execution
+     */
+    @Override
+    boolean hasNext() throws PRuntimeException;
+
+    /**
+     * @return the next value.
+     * @throws PRuntimeException if an error was encountered during execution
+     */
+    @NotNull
+    @Override
+    Datum next() throws PRuntimeException;
+
+    /**
+     * Releases the resources of the cursor; this may be called more than once, and at any time.
+     */
+    @Override
+    void close();
+
+    /**
+     * Returns a cursor over the given (already computed) result; the values of a collection are its elements, and
+     * any other value is the only value of the cursor.
+     *
+     * @param result the result.
+     * @return a cursor over the result.
+     */
+    @NotNull
+    static Cursor of(@NotNull Datum result) {
+        return new DatumCursor(result);
+    }
+}
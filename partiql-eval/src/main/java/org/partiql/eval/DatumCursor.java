@@ -0,0 +1,48 @@
+package org.partiql.eval;
+
+import org.jetbrains.annotations.NotNull;
+import org.partiql.spi.types.PType;
+import org.partiql.spi.value.Datum;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link Cursor} over a {@link Datum}; see {@link Cursor#of(Datum)}.
+ */
+class DatumCursor implements Cursor {
+
+    @NotNull
+    private final Datum result;
+
+    private Iterator<Datum> values = null;
+
+    DatumCursor(@NotNull Datum result) {
+        this.result = result;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (values == null) {
+            int code = result.getType().code();
+            boolean collection = !result.isNull() && !result.isMissing() && (code == PType.BAG || code == PType.ARRAY);
+            values = collection ? result.iterator() : Collections.singletonList(result).iterator();
+        }
+        return values.hasNext();
+    }
+
+    @NotNull
+    @Override
+    public Datum next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return values.next();
+    }
+
+    @Override
+    public void close() {
+        values = Collections.emptyIterator();
+    }
+}
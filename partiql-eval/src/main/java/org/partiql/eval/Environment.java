@@ -20,36 +20,61 @@ import org.partiql.spi.value.Datum;
  */
 public class Environment {
 
-    private final Row[] stack;
+    /**
+     * The row at depth 0, or null if the stack is empty.
+     */
+    private final Row row;
+
+    /**
+     * The environment of the enclosing scope (depth 1), or null if the stack is empty.
+     */
+    private final Environment parent;
+
+    /**
+     * The values bound to the parameters of the statement; shared by every scope.
+     */
+    private final Datum[] parameters;
 
     /**
      * Default constructor with empty stack.
      */
     public Environment() {
-        this.stack = new Row[]{};
+        this(new Datum[0]);
+    }
+
+    /**
+     * Constructor with empty stack and the values of the statement's parameters.
+     *
+     * @param parameters the values of the parameters, in order.
+     */
+    public Environment(Datum[] parameters) {
+        this.row = null;
+        this.parent = null;
+        this.parameters = parameters;
     }
 
     /**
-     * Private constructor with given stack.
-     * @param stack
+     * Private constructor with given top of stack.
+     * @param row
+     * @param parent
      */
-    private Environment(Row[] stack) {
-        this.stack = stack;
+    private Environment(Row row, Environment parent) {
+        this.row = row;
+        this.parent = parent;
+        this.parameters = parent.parameters;
     }
 
     /**
      * Push a new row onto the stack.
+     * <br>
+     * The stack is a persistent (immutable) linked list, so pushing is a single allocation and never copies the stack.
+     * Environments may be captured by lazy values (see above), so the stack is never mutated in place.
+     *
      * @param row the row to push
      * @return the new environment
      */
     public Environment push(Row row) {
-        int n = stack.length;
-        Row[] next = new Row[n + 1];
-        next[0] = row;
-        if (n > 0) {
-            System.arraycopy(stack, 0, next, 1, n);
-        }
-        return new Environment(next);
+        return new Environment(row, this);
     }
 
     /**
@@ -60,22 +85,43 @@ public class Environment {
      * @return  Datum.
      */
     public Datum get(int depth, int offset) {
+        Environment env = this;
+        for (int i = 0; i < depth && env != null; i++) {
+            env = env.parent;
+        }
+        if (env == null || env.row == null) {
+            throw new RuntimeException("Invalid variable reference [" + depth + ":" + offset + "]\n" + this);
+        }
         try {
-            return stack[depth].getValues()[offset];
+            return env.row.getValues()[offset];
         } catch (IndexOutOfBoundsException ex) {
-            throw new RuntimeException("Invalid variable reference [$depth:$offset]\n$this");
+            throw new RuntimeException("Invalid variable reference [" + depth + ":" + offset + "]\n" + this);
+        }
+    }
+
+    /**
+     * Returns the value bound to the parameter at the specified position.
+     *
+     * @param index 1-indexed parameter position.
+     * @return  Datum.
+     */
+    public Datum getParameter(int index) {
+        if (index < 1 || index > parameters.length) {
+            throw new IllegalArgumentException("No value is bound to parameter " + index);
         }
+        return parameters[index - 1];
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("[stack]--------------\n");
-        for (int i = 0; i < stack.length; i++) {
-            sb.append("$i: $row");
-            sb.append("---------------------");
+        int i = 0;
+        for (Environment env = this; env != null && env.row != null; env = env.parent) {
+            sb.append(i++).append(": ").append(env.row).append("\n");
+            sb.append("---------------------\n");
         }
-        if (stack.length == 0) {
+        if (i == 0) {
             sb.append("empty\n");
             sb.append("---------------------\n");
         }
@@ -19,4 +19,58 @@ public interface Statement {
      */
     @NotNull
     public Datum execute() throws PRuntimeException;
+
+    /**
+     * Executes the statement with the given values bound to its parameters (e.g. {@code ?}), in order; the first
+     * value is bound to the first parameter of the statement's text, and so on. A prepared statement may be executed
+     * any number of times with different values.
+     * <p></p>
+     * The default implementation only executes a statement without parameters.
+     *
+     * @param parameters the values of the statement's parameters.
+     * @return Datum execution result.
+     * @throws PRuntimeException if an error was encountered during execution
+     * @throws IllegalArgumentException if the number of values is not the number of the statement's parameters.
+     */
+    @NotNull
+    public default Datum execute(@NotNull Datum... parameters) throws PRuntimeException {
+        if (parameters.length != 0) {
+            throw new IllegalArgumentException("Expected 0 parameters, found: " + parameters.length);
+        }
+        return execute();
+    }
+
+    /**
+     * Executes the statement, returning a cursor over the values of its result. The values of a query's result are
+     * computed as the cursor is advanced, so a client may process values before the query has finished, and may stop
+     * early by closing the cursor; the cursor must be closed to release the resources of the statement.
+     * <p></p>
+     * The default implementation returns a cursor over the result of {@link #execute()}.
+     *
+     * @return a cursor over the values of the statement's result.
+     * @throws PRuntimeException if an error was encountered during execution
+     */
+    @NotNull
+    public default Cursor open() throws PRuntimeException {
+        return Cursor.of(execute());
+    }
+
+    /**
+     * Executes the statement with the given values bound to its parameters (see {@link #execute(Datum...)}),
+     * returning a cursor over the values of its result (see {@link #open()}).
+     * <p></p>
+     * The default implementation only opens a statement without parameters.
+     *
+     * @param parameters the values of the statement's parameters.
+     * @return a cursor over the values of the statement's result.
+     * @throws PRuntimeException if an error was encountered during execution
+     * @throws IllegalArgumentException if the number of values is not the number of the statement's parameters.
+     */
+    @NotNull
+    public default Cursor open(@NotNull Datum... parameters) throws PRuntimeException {
+        if (parameters.length != 0) {
+            throw new IllegalArgumentException("Expected 0 parameters, found: " + parameters.length);
+        }
+        return open();
+    }
 }
@@ -0,0 +1,108 @@
+package org.partiql.eval;
+
+import org.jetbrains.annotations.NotNull;
+import org.partiql.spi.catalog.Namespace;
+import org.partiql.spi.catalog.Session;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of prepared statements, keyed by the text of a query along with the current catalog and namespace of
+ * the session; the least recently used statement is evicted once the cache is full.
+ * <p></p>
+ * A query whose literal values differ from execution to execution should use parameters (e.g. {@code ?}) so that it is
+ * parsed, planned, and compiled once, and then executed with the values of its parameters; see
+ * {@link Statement#execute(org.partiql.spi.value.Datum...)}.
+ * <p></p>
+ * The statements of a cache should be prepared the same way (e.g. by the same planner and compiler, in the same mode).
+ * A statement's execution is not thread-safe, so the statements of a cache should not be executed concurrently.
+ */
+public final class StatementCache {
+
+    private final Map<Key, Statement> statements;
+
+    /**
+     * Creates a cache of at most {@code capacity} statements.
+     *
+     * @param capacity the maximum number of statements.
+     * @throws IllegalArgumentException if the capacity is less than one.
+     */
+    public StatementCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least one, found: " + capacity);
+        }
+        this.statements = new LinkedHashMap<Key, Statement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Statement> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached statement of the query for the session; or prepares (and caches) the statement of the query
+     * if there is none. A statement which fails to be prepared is not cached.
+     *
+     * @param query the text of the query.
+     * @param session the session; its current catalog and namespace are part of the key.
+     * @param prepare parses, plans, and compiles the query.
+     * @return the prepared statement.
+     */
+    @NotNull
+    public synchronized Statement get(
+            @NotNull String query,
+            @NotNull Session session,
+            @NotNull Function<String, Statement> prepare
+    ) {
+        Key key = new Key(query, session.getCatalog(), session.getNamespace());
+        Statement statement = statements.get(key);
+        if (statement == null) {
+            statement = prepare.apply(query);
+            statements.put(key, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * @return the number of cached statements.
+     */
+    public synchronized int size() {
+        return statements.size();
+    }
+
+    /**
+     * Removes all statements from the cache; e.g. once the schema of a table has changed.
+     */
+    public synchronized void clear() {
+        statements.clear();
+    }
+
+    private static final class Key {
+
+        private final String query;
+        private final String catalog;
+        private final Namespace namespace;
+
+        private Key(String query, String catalog, Namespace namespace) {
+            this.query = query;
+            this.catalog = catalog;
+            this.namespace = namespace;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return query.equals(key.query) && catalog.equals(key.catalog) && namespace.equals(key.namespace);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, catalog, namespace);
+        }
+    }
+}
@@ -65,6 +65,15 @@ public interface PartiQLCompiler {
         //
         private final List<Strategy> strategies = new ArrayList<>();
 
+        //
+        private boolean vectorized = false;
+
+        //
+        private int parallelism = 1;
+
+        //
+        private boolean inlined = false;
+
         private Builder() {
             // empty
         }
@@ -80,11 +89,61 @@ public interface PartiQLCompiler {
             return this;
         }
 
+        /**
+         * Enables (or disables) batch execution, in which filters and projections exchange batches of rows and evaluate
+         * their expressions over a whole batch at a time; all other operators are evaluated row-at-a-time. This is
+         * disabled by default.
+         *
+         * @param vectorized True to enable batch execution.
+         * @return this.
+         */
+        public Builder vectorized(boolean vectorized) {
+            this.vectorized = vectorized;
+            return this;
+        }
+
+        /**
+         * Enables (or disables) the inlining of built-in operators on statically typed operands, in which a call of an
+         * arithmetic, comparison, or boolean operator on operands of the operator's exact types is evaluated directly
+         * rather than by invoking the function with an array of arguments; a chain of such operators (e.g.
+         * {@code x * 2 - y > z}) is evaluated on primitives, without a value for each intermediate result. This is
+         * disabled by default.
+         *
+         * @param inlined True to inline the built-in operators.
+         * @return this.
+         */
+        public Builder inlined(boolean inlined) {
+            this.inlined = inlined;
+            return this;
+        }
+
+        /**
+         * Sets the degree of parallelism of a query. With a degree greater than one, a pipeline of filters and
+         * projections over an (unordered) scan is run by that many workers, which share the scanned values; a grouped
+         * aggregation of such a pipeline is partitioned by its group keys across the workers. The rows of a parallel
+         * pipeline are returned in no particular order. The default is 1 (sequential execution).
+         * <p></p>
+         * The scan of an ordered input (e.g. an array, or a subquery with an ORDER BY) is never split, so its pipeline
+         * is run sequentially and preserves its order. The workers of all compilers share a single pool of daemon
+         * threads, which needs no shutdown.
+         *
+         * @param parallelism The number of workers of a parallel pipeline.
+         * @return this.
+         * @throws IllegalArgumentException if the parallelism is less than one.
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("Parallelism must be at least one, found: " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
         /**
          * @return A new [PartiQLCompiler].
          */
         public PartiQLCompiler build() {
-            return new StandardCompiler(strategies);
+            return new StandardCompiler(strategies, vectorized, parallelism, inlined);
         }
     }
 }
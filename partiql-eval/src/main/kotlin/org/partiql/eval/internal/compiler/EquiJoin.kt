@@ -0,0 +1,104 @@
+package org.partiql.eval.internal.compiler
+
+import org.partiql.plan.JoinType
+import org.partiql.plan.rel.RelJoin
+import org.partiql.plan.rex.Rex
+import org.partiql.plan.rex.RexCall
+
+/**
+ * An equi-join is a join whose condition is a conjunction which contains (at least one) equality predicate between an
+ * expression of only the left input and an expression of only the right input. The remaining conjuncts are kept as a
+ * residual predicate.
+ *
+ * The join condition is evaluated against the concatenation of the left and right rows, so a variable (at depth 0)
+ * with an offset less than the degree of the left input references the left row, and all others reference the right.
+ *
+ * @property lhsKeys    Key expressions over the left row.
+ * @property rhsKeys    Key expressions over the concatenated row; these only reference the right row's offsets.
+ * @property residual   The remaining conjuncts of the join condition.
+ */
+internal class EquiJoin private constructor(
+    @JvmField val lhsKeys: List<Rex>,
+    @JvmField val rhsKeys: List<Rex>,
+    @JvmField val residual: List<Rex>,
+) {
+
+    companion object {
+
+        private const val AND = "\uFDEFand"
+        private const val EQ = "\uFDEFeq"
+
+        /**
+         * Returns the [EquiJoin] of the [join], or null if the join cannot be executed as an equi-join. This requires
+         * the right input to not reference the left row (i.e. not lateral).
+         *
+         * @param join
+         * @return
+         */
+        @JvmStatic
+        fun of(join: RelJoin): EquiJoin? {
+            val lateral = when (join.getJoinType().code()) {
+                JoinType.INNER, JoinType.LEFT -> VariableReferences.isReferenced(join.getRight(), 0)
+                else -> false
+            }
+            if (lateral) {
+                return null
+            }
+            val degree = join.getLeft().getType().getDegree()
+            val lhsKeys = mutableListOf<Rex>()
+            val rhsKeys = mutableListOf<Rex>()
+            val residual = mutableListOf<Rex>()
+            for (conjunct in conjuncts(join.getCondition())) {
+                val operands = operands(conjunct, EQ)
+                if (operands == null) {
+                    residual.add(conjunct)
+                    continue
+                }
+                val (l, r) = operands
+                val lRefs = VariableReferences.of(l, 0)
+                val rRefs = VariableReferences.of(r, 0)
+                when {
+                    lRefs.isLeft(degree) && rRefs.isRight(degree) -> {
+                        lhsKeys.add(l)
+                        rhsKeys.add(r)
+                    }
+                    lRefs.isRight(degree) && rRefs.isLeft(degree) -> {
+                        lhsKeys.add(r)
+                        rhsKeys.add(l)
+                    }
+                    else -> residual.add(conjunct)
+                }
+            }
+            if (lhsKeys.isEmpty()) {
+                return null
+            }
+            return EquiJoin(lhsKeys, rhsKeys, residual)
+        }
+
+        /**
+         * Flattens a tree of AND calls into its conjuncts.
+         */
+        private fun conjuncts(rex: Rex): List<Rex> {
+            val (l, r) = operands(rex, AND) ?: return listOf(rex)
+            return conjuncts(l) + conjuncts(r)
+        }
+
+        /**
+         * Returns the operands of the [rex] iff it's a binary call to the function [name].
+         */
+        private fun operands(rex: Rex, name: String): Pair<Rex, Rex>? {
+            if (rex !is RexCall) {
+                return null
+            }
+            val args = rex.getArgs()
+            if (rex.getFunction().getSignature().getName() != name || args.size != 2) {
+                return null
+            }
+            return Pair(args[0], args[1])
+        }
+
+        private fun Set<Int>?.isLeft(degree: Int): Boolean = this != null && this.isNotEmpty() && this.all { it < degree }
+
+        private fun Set<Int>?.isRight(degree: Int): Boolean = this != null && this.isNotEmpty() && this.all { it >= degree }
+    }
+}
@@ -0,0 +1,170 @@
+package org.partiql.eval.internal.compiler
+
+import org.partiql.plan.rel.Rel
+import org.partiql.plan.rel.RelFilter
+import org.partiql.plan.rel.RelIterate
+import org.partiql.plan.rel.RelLimit
+import org.partiql.plan.rel.RelOffset
+import org.partiql.plan.rel.RelProject
+import org.partiql.plan.rel.RelScan
+import org.partiql.plan.rel.RelSort
+import org.partiql.plan.rex.Rex
+import org.partiql.plan.rex.RexCall
+import org.partiql.plan.rex.RexCast
+import org.partiql.plan.rex.RexLit
+import org.partiql.plan.rex.RexPathIndex
+import org.partiql.plan.rex.RexPathKey
+import org.partiql.plan.rex.RexPathSymbol
+import org.partiql.plan.rex.RexSelect
+import org.partiql.plan.rex.RexStruct
+import org.partiql.plan.rex.RexVar
+import org.partiql.spi.function.RoutineSignature
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+
+/**
+ * Derives (conservatively) the ordering of a relation's rows from its plan.
+ */
+internal object Ordering {
+
+    private val comparator = Datum.comparator()
+
+    /**
+     * Returns true if all rows of the [rel] with equal [keys] are known to be adjacent. This is the case if the rows are
+     * sorted by some prefix of collations which are exactly the [keys] (in any order).
+     *
+     * Filter, limit, and offset preserve both the order and the schema of their input, so they are looked through. A
+     * projection, and the scan of a subquery (e.g. `FROM (SELECT ... ORDER BY ...) AS t`), preserve the order of their
+     * input, so they are looked through by substituting the projected expressions for the variables of the [keys].
+     *
+     * @param rel
+     * @param keys  Expressions over a row of the [rel].
+     * @return
+     */
+    @JvmStatic
+    fun isGrouped(rel: Rel, keys: List<Rex>): Boolean {
+        if (keys.isEmpty()) {
+            return false
+        }
+        var input = rel
+        var exprs = keys
+        while (true) {
+            input = when (input) {
+                is RelFilter -> input.getInput()
+                is RelLimit -> input.getInput()
+                is RelOffset -> input.getInput()
+                is RelProject -> {
+                    val projections = input.getProjections()
+                    exprs = exprs.map { substitute(it, projections) ?: return false }
+                    input.getInput()
+                }
+                is RelScan -> {
+                    val select = input.getRex() as? RexSelect ?: return false
+                    exprs = exprs.map { substitute(it, listOf(select.getConstructor())) ?: return false }
+                    select.getInput()
+                }
+                is RelIterate -> {
+                    val select = input.getRex() as? RexSelect ?: return false
+                    exprs = exprs.map { substitute(it, listOf(select.getConstructor())) ?: return false }
+                    select.getInput()
+                }
+                else -> break
+            }
+        }
+        if (input !is RelSort) {
+            return false
+        }
+        val collations = input.getCollations()
+        if (collations.size < exprs.size) {
+            return false
+        }
+        val prefix = collations.subList(0, exprs.size).map { it.getColumn() }
+        return exprs.all { key -> prefix.any { equivalent(key, it) } } &&
+            prefix.all { column -> exprs.any { equivalent(column, it) } }
+    }
+
+    /**
+     * Returns true if the expressions are structurally equal; this only considers deterministic expressions of
+     * variables, paths, literals, casts, and function calls.
+     */
+    @JvmStatic
+    fun equivalent(l: Rex, r: Rex): Boolean = when {
+        l is RexVar && r is RexVar -> l.getScope() == r.getScope() && l.getOffset() == r.getOffset()
+        l is RexLit && r is RexLit -> {
+            val lv = l.getDatum()
+            val rv = r.getDatum()
+            lv.type == rv.type && comparator.compare(lv, rv) == 0
+        }
+        l is RexPathKey && r is RexPathKey -> equivalent(l.getOperand(), r.getOperand()) && equivalent(l.getKey(), r.getKey())
+        l is RexPathSymbol && r is RexPathSymbol -> l.getSymbol() == r.getSymbol() && equivalent(l.getOperand(), r.getOperand())
+        l is RexPathIndex && r is RexPathIndex -> equivalent(l.getOperand(), r.getOperand()) && equivalent(l.getIndex(), r.getIndex())
+        l is RexCast && r is RexCast -> l.getTarget() == r.getTarget() && equivalent(l.getOperand(), r.getOperand())
+        l is RexCall && r is RexCall -> {
+            val lArgs = l.getArgs()
+            val rArgs = r.getArgs()
+            l.getFunction().getSignature().isDeterministic &&
+                equivalent(l.getFunction().getSignature(), r.getFunction().getSignature()) &&
+                lArgs.size == rArgs.size &&
+                lArgs.indices.all { equivalent(lArgs[it], rArgs[it]) }
+        }
+        else -> false
+    }
+
+    /**
+     * Returns the [rex] with each variable of the current scope replaced by the expression of its [bindings]; a path
+     * into a struct constructor is replaced by the value of the field. Returns null if the [rex] is not of the
+     * expressions considered by [equivalent], or references a variable of an outer scope.
+     */
+    private fun substitute(rex: Rex, bindings: List<Rex>): Rex? = when (rex) {
+        is RexVar -> if (rex.getScope() == 0) bindings.getOrNull(rex.getOffset()) else null
+        is RexLit -> rex
+        is RexPathKey -> {
+            val operand = substitute(rex.getOperand(), bindings) ?: return null
+            val key = substitute(rex.getKey(), bindings) ?: return null
+            string(key)?.let { field(operand, it, false) } ?: RexPathKey.create(operand, key)
+        }
+        is RexPathSymbol -> {
+            val operand = substitute(rex.getOperand(), bindings) ?: return null
+            field(operand, rex.getSymbol(), true) ?: RexPathSymbol.create(operand, rex.getSymbol())
+        }
+        is RexPathIndex -> {
+            val operand = substitute(rex.getOperand(), bindings) ?: return null
+            val index = substitute(rex.getIndex(), bindings) ?: return null
+            RexPathIndex.create(operand, index)
+        }
+        is RexCast -> RexCast.create(substitute(rex.getOperand(), bindings) ?: return null, rex.getTarget())
+        is RexCall -> RexCall.create(rex.getFunction(), rex.getArgs().map { substitute(it, bindings) ?: return null })
+        else -> null
+    }
+
+    /**
+     * Returns the value of the only field of the struct constructor with the [name], if any.
+     */
+    private fun field(rex: Rex, name: String, insensitive: Boolean): Rex? {
+        if (rex !is RexStruct) {
+            return null
+        }
+        val fields = rex.getFields().filter {
+            val key = string(it.getKey()) ?: return null
+            key.equals(name, ignoreCase = insensitive)
+        }
+        return fields.singleOrNull()?.getValue()
+    }
+
+    private fun string(rex: Rex): String? {
+        val datum = (rex as? RexLit)?.getDatum() ?: return null
+        if (datum.isNull || datum.isMissing) {
+            return null
+        }
+        return when (datum.type.code()) {
+            PType.STRING, PType.VARCHAR, PType.CHAR -> datum.string
+            else -> null
+        }
+    }
+
+    private fun equivalent(l: RoutineSignature, r: RoutineSignature): Boolean {
+        return l.getName() == r.getName() &&
+            l.getReturns() == r.getReturns() &&
+            l.getParameters().map { it.getType() } == r.getParameters().map { it.getType() }
+    }
+}
@@ -0,0 +1,190 @@
+package org.partiql.eval.internal.compiler
+
+import org.partiql.eval.internal.helpers.ValueUtility.getBigIntCoerced
+import org.partiql.plan.Operator
+import org.partiql.plan.OperatorVisitor
+import org.partiql.plan.rel.Rel
+import org.partiql.plan.rel.RelFilter
+import org.partiql.plan.rel.RelLimit
+import org.partiql.plan.rel.RelProject
+import org.partiql.plan.rel.RelScan
+import org.partiql.plan.rex.Rex
+import org.partiql.plan.rex.RexCall
+import org.partiql.plan.rex.RexLit
+import org.partiql.plan.rex.RexPathKey
+import org.partiql.plan.rex.RexPathSymbol
+import org.partiql.plan.rex.RexTable
+import org.partiql.plan.rex.RexVar
+import org.partiql.spi.catalog.ScanPredicate
+import org.partiql.spi.catalog.ScanRequest
+import org.partiql.spi.types.PType
+import java.math.BigInteger
+import java.util.IdentityHashMap
+
+/**
+ * Derives the [ScanRequest] of each scan of a table from the operators directly above it; that is, a chain of the form
+ * `[PROJECT] [LIMIT] FILTER* SCAN(table)`, which is how the planner lays out `SELECT ... FROM table WHERE ... LIMIT n`.
+ *
+ *  - The fields are those through which the filters and projections reference the scan's row; if the row is referenced
+ *    as a whole (or there is no projection, as the rows are then returned as-is) then all fields are requested.
+ *  - The predicates are the conjuncts of the filters which compare a field of the row with a literal.
+ *  - The limit is only requested if there are no filters.
+ *
+ * The operators are still compiled as planned, so the table may apply the request partially.
+ */
+internal class ScanPushdown private constructor() : OperatorVisitor<Unit, Unit> {
+
+    private val requests = IdentityHashMap<RelScan, ScanRequest>()
+
+    companion object {
+
+        private const val AND = "\uFDEFand"
+
+        private val OPERATORS = mapOf(
+            "\uFDEFeq" to Pair(ScanPredicate.Operator.EQ(), ScanPredicate.Operator.EQ()),
+            "\uFDEFlt" to Pair(ScanPredicate.Operator.LT(), ScanPredicate.Operator.GT()),
+            "\uFDEFlte" to Pair(ScanPredicate.Operator.LTE(), ScanPredicate.Operator.GTE()),
+            "\uFDEFgt" to Pair(ScanPredicate.Operator.GT(), ScanPredicate.Operator.LT()),
+            "\uFDEFgte" to Pair(ScanPredicate.Operator.GTE(), ScanPredicate.Operator.LTE()),
+        )
+
+        private val LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE)
+
+        /**
+         * Returns the requests of all table scans (by identity) within the [rex].
+         *
+         * @param rex
+         * @return
+         */
+        @JvmStatic
+        fun of(rex: Rex): Map<RelScan, ScanRequest> {
+            val visitor = ScanPushdown()
+            visitor.visit(rex, Unit)
+            return visitor.requests
+        }
+    }
+
+    override fun defaultReturn(operator: Operator, ctx: Unit) = Unit
+
+    override fun visitProject(rel: RelProject, ctx: Unit) {
+        request(rel)
+        defaultVisit(rel, ctx)
+    }
+
+    override fun visitLimit(rel: RelLimit, ctx: Unit) {
+        request(rel)
+        defaultVisit(rel, ctx)
+    }
+
+    override fun visitFilter(rel: RelFilter, ctx: Unit) {
+        request(rel)
+        defaultVisit(rel, ctx)
+    }
+
+    /**
+     * Derives the request of the chain whose topmost operator is the [rel], unless it is part of a longer chain.
+     */
+    private fun request(rel: Rel) {
+        var input: Rel = rel
+        val project = (input as? RelProject)?.also { input = it.getInput() }
+        val limit = (input as? RelLimit)?.also { input = it.getInput() }
+        val filters = mutableListOf<RelFilter>()
+        while (true) {
+            val filter = input as? RelFilter ?: break
+            filters.add(filter)
+            input = filter.getInput()
+        }
+        val scan = input as? RelScan ?: return
+        if (scan.getRex() !is RexTable || requests.containsKey(scan)) {
+            return
+        }
+        val conditions = filters.map { it.getPredicate() }
+        val fields = project?.let { fields(conditions + it.getProjections()) }
+        val predicates = conditions.flatMap { conjuncts(it) }.mapNotNull { predicate(it) }
+        val n = if (filters.isEmpty()) limit?.let { limit(it.getLimit()) } else null
+        if (fields == null && predicates.isEmpty() && n == null) {
+            return
+        }
+        requests[scan] = ScanRequest(fields, predicates, n)
+    }
+
+    /**
+     * Returns the union of the fields of the scan's row which are referenced by the [rexes], or null if any references
+     * the row as a whole.
+     */
+    private fun fields(rexes: List<Rex>): List<String>? {
+        val fields = linkedSetOf<String>()
+        for (rex in rexes) {
+            fields.addAll(VariableReferences.fields(rex, 0, 0) ?: return null)
+        }
+        return fields.toList()
+    }
+
+    /**
+     * Returns the predicate of a comparison between a field of the scan's row and a literal, e.g. `t.a > 1`.
+     */
+    private fun predicate(rex: Rex): ScanPredicate? {
+        if (rex !is RexCall) {
+            return null
+        }
+        val args = rex.getArgs()
+        val operators = OPERATORS[rex.getFunction().getSignature().getName()]
+        if (operators == null || args.size != 2) {
+            return null
+        }
+        val (l, r) = args
+        return predicate(l, r, operators.first) ?: predicate(r, l, operators.second)
+    }
+
+    private fun predicate(path: Rex, value: Rex, operator: ScanPredicate.Operator): ScanPredicate? {
+        if (value !is RexLit || value.getDatum().isNull || value.getDatum().isMissing) {
+            return null
+        }
+        return when {
+            path is RexPathSymbol && path.getOperand().isRow() -> {
+                ScanPredicate(path.getSymbol(), false, operator, value.getDatum())
+            }
+            path is RexPathKey && path.getOperand().isRow() -> {
+                val key = path.getKey() as? RexLit ?: return null
+                val datum = key.getDatum()
+                when (datum.type.code()) {
+                    PType.STRING, PType.VARCHAR, PType.CHAR -> if (datum.isNull || datum.isMissing) null else {
+                        ScanPredicate(datum.string, true, operator, value.getDatum())
+                    }
+                    else -> null
+                }
+            }
+            else -> null
+        }
+    }
+
+    /**
+     * Returns the [rex] as a (non-negative) number of rows iff it's an integer literal.
+     */
+    private fun limit(rex: Rex): Long? {
+        if (rex !is RexLit) {
+            return null
+        }
+        val datum = rex.getDatum()
+        if (datum.isNull || datum.isMissing) {
+            return null
+        }
+        val n = when (datum.type.code()) {
+            PType.TINYINT, PType.SMALLINT, PType.INTEGER, PType.BIGINT -> datum.getBigIntCoerced()
+            else -> return null
+        }
+        return n.max(BigInteger.ZERO).min(LONG_MAX).toLong()
+    }
+
+    /**
+     * Flattens a tree of AND calls into its conjuncts.
+     */
+    private fun conjuncts(rex: Rex): List<Rex> {
+        if (rex is RexCall && rex.getFunction().getSignature().getName() == AND && rex.getArgs().size == 2) {
+            return conjuncts(rex.getArgs()[0]) + conjuncts(rex.getArgs()[1])
+        }
+        return listOf(rex)
+    }
+
+    private fun Rex.isRow(): Boolean = this is RexVar && this.getScope() == 0 && this.getOffset() == 0
+}
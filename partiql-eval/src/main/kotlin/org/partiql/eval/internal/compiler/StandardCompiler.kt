@@ -1,5 +1,6 @@
 package org.partiql.eval.internal.compiler
 
+import org.partiql.eval.Cursor
 import org.partiql.eval.Environment
 import org.partiql.eval.Expr
 import org.partiql.eval.ExprRelation
@@ -11,7 +12,18 @@ import org.partiql.eval.compiler.PartiQLCompiler
 import org.partiql.eval.compiler.Strategy
 import org.partiql.eval.internal.helpers.PErrors
 import org.partiql.eval.internal.operator.Aggregate
+import org.partiql.eval.internal.operator.batch.RelOpBatch
+import org.partiql.eval.internal.operator.batch.RelOpBatchSource
+import org.partiql.eval.internal.operator.batch.RelOpFilterBatch
+import org.partiql.eval.internal.operator.batch.RelOpProjectBatch
+import org.partiql.eval.internal.operator.exchange.Morsels
+import org.partiql.eval.internal.operator.exchange.RelOpGather
+import org.partiql.eval.internal.operator.exchange.RelOpReceive
+import org.partiql.eval.internal.operator.exchange.RelOpScanMorsels
+import org.partiql.eval.internal.operator.exchange.Shuffle
 import org.partiql.eval.internal.operator.rel.RelOpAggregate
+import org.partiql.eval.internal.operator.rel.RelOpAggregateColumnar
+import org.partiql.eval.internal.operator.rel.RelOpAggregateStreaming
 import org.partiql.eval.internal.operator.rel.RelOpDistinct
 import org.partiql.eval.internal.operator.rel.RelOpExceptAll
 import org.partiql.eval.internal.operator.rel.RelOpExceptDistinct
@@ -21,6 +33,10 @@ import org.partiql.eval.internal.operator.rel.RelOpIntersectAll
 import org.partiql.eval.internal.operator.rel.RelOpIntersectDistinct
 import org.partiql.eval.internal.operator.rel.RelOpIterate
 import org.partiql.eval.internal.operator.rel.RelOpIteratePermissive
+import org.partiql.eval.internal.operator.rel.RelOpJoinHashInner
+import org.partiql.eval.internal.operator.rel.RelOpJoinHashOuterFull
+import org.partiql.eval.internal.operator.rel.RelOpJoinHashOuterLeft
+import org.partiql.eval.internal.operator.rel.RelOpJoinHashOuterRight
 import org.partiql.eval.internal.operator.rel.RelOpJoinInner
 import org.partiql.eval.internal.operator.rel.RelOpJoinOuterFull
 import org.partiql.eval.internal.operator.rel.RelOpJoinOuterLeft
@@ -31,24 +47,32 @@ import org.partiql.eval.internal.operator.rel.RelOpProject
 import org.partiql.eval.internal.operator.rel.RelOpScan
 import org.partiql.eval.internal.operator.rel.RelOpScanPermissive
 import org.partiql.eval.internal.operator.rel.RelOpSort
+import org.partiql.eval.internal.operator.rel.RelOpTopN
 import org.partiql.eval.internal.operator.rel.RelOpUnionAll
 import org.partiql.eval.internal.operator.rel.RelOpUnionDistinct
 import org.partiql.eval.internal.operator.rel.RelOpUnpivot
 import org.partiql.eval.internal.operator.rex.ExprArray
 import org.partiql.eval.internal.operator.rex.ExprBag
+import org.partiql.eval.internal.operator.rex.ExprBinary
 import org.partiql.eval.internal.operator.rex.ExprCall
 import org.partiql.eval.internal.operator.rex.ExprCallDynamic
 import org.partiql.eval.internal.operator.rex.ExprCaseBranch
 import org.partiql.eval.internal.operator.rex.ExprCaseSearched
 import org.partiql.eval.internal.operator.rex.ExprCast
+import org.partiql.eval.internal.operator.rex.ExprCastPermissive
 import org.partiql.eval.internal.operator.rex.ExprCoalesce
 import org.partiql.eval.internal.operator.rex.ExprError
 import org.partiql.eval.internal.operator.rex.ExprLit
+import org.partiql.eval.internal.operator.rex.ExprMemoized
 import org.partiql.eval.internal.operator.rex.ExprMissing
 import org.partiql.eval.internal.operator.rex.ExprNullIf
+import org.partiql.eval.internal.operator.rex.ExprParameter
 import org.partiql.eval.internal.operator.rex.ExprPathIndex
+import org.partiql.eval.internal.operator.rex.ExprPathIndexPermissive
 import org.partiql.eval.internal.operator.rex.ExprPathKey
+import org.partiql.eval.internal.operator.rex.ExprPathKeyPermissive
 import org.partiql.eval.internal.operator.rex.ExprPathSymbol
+import org.partiql.eval.internal.operator.rex.ExprPathSymbolPermissive
 import org.partiql.eval.internal.operator.rex.ExprPermissive
 import org.partiql.eval.internal.operator.rex.ExprPivot
 import org.partiql.eval.internal.operator.rex.ExprPivotPermissive
@@ -56,11 +80,18 @@ import org.partiql.eval.internal.operator.rex.ExprSelect
 import org.partiql.eval.internal.operator.rex.ExprSpread
 import org.partiql.eval.internal.operator.rex.ExprStructField
 import org.partiql.eval.internal.operator.rex.ExprStructPermissive
+import org.partiql.eval.internal.operator.rex.ExprStructPermissive.Companion.getTextOrNull
+import org.partiql.eval.internal.operator.rex.ExprStructShaped
 import org.partiql.eval.internal.operator.rex.ExprStructStrict
 import org.partiql.eval.internal.operator.rex.ExprSubquery
+import org.partiql.eval.internal.operator.rex.ExprSubqueryComp
+import org.partiql.eval.internal.operator.rex.ExprSubqueryIn
 import org.partiql.eval.internal.operator.rex.ExprSubqueryRow
+import org.partiql.eval.internal.operator.rex.ExprSubqueryTest
 import org.partiql.eval.internal.operator.rex.ExprTable
+import org.partiql.eval.internal.operator.rex.ExprTableScan
 import org.partiql.eval.internal.operator.rex.ExprVar
+import org.partiql.eval.internal.operator.rex.Memo
 import org.partiql.plan.Action
 import org.partiql.plan.Collation
 import org.partiql.plan.JoinType
@@ -95,6 +126,7 @@ import org.partiql.plan.rex.RexDispatch
 import org.partiql.plan.rex.RexError
 import org.partiql.plan.rex.RexLit
 import org.partiql.plan.rex.RexNullIf
+import org.partiql.plan.rex.RexParameter
 import org.partiql.plan.rex.RexPathIndex
 import org.partiql.plan.rex.RexPathKey
 import org.partiql.plan.rex.RexPathSymbol
@@ -109,24 +141,43 @@ import org.partiql.plan.rex.RexSubqueryTest
 import org.partiql.plan.rex.RexTable
 import org.partiql.plan.rex.RexVar
 import org.partiql.spi.Context
+import org.partiql.spi.catalog.ScanRequest
 import org.partiql.spi.errors.PError
 import org.partiql.spi.errors.PErrorKind
 import org.partiql.spi.errors.PRuntimeException
 import org.partiql.spi.types.PType
 import org.partiql.spi.value.Datum
+import org.partiql.spi.value.StructShape
+import java.util.concurrent.ForkJoinPool
 
 /**
  * This class is responsible for producing an executable statement from logical operators.
  */
-internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
+internal class StandardCompiler(
+    strategies: List<Strategy>,
+    vectorized: Boolean,
+    parallelism: Int,
+    inlined: Boolean,
+) : PartiQLCompiler {
 
     private val strategies: List<Strategy> = strategies
 
+    // filters and projections exchange batches of rows rather than single rows
+    private val vectorized: Boolean = vectorized
+
+    // the number of workers of a parallel pipeline; 1 is sequential execution
+    private val parallelism: Int = parallelism
+
+    // calls of built-in operators on statically typed operands are evaluated without invoking the function
+    private val inlined: Boolean = inlined
+
+    internal constructor(strategies: List<Strategy>) : this(strategies, false, 1, false)
+
     internal constructor() : this(emptyList())
 
     override fun prepare(plan: Plan, mode: Mode, ctx: Context): Statement {
         try {
-            val visitor = Visitor(mode)
+            val visitor = Visitor(mode, ctx)
             val operation = plan.action
             val statement: Statement = when {
                 operation is Action.Query -> visitor.compile(operation)
@@ -145,25 +196,96 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
     /**
      * Transforms plan relation operators into the internal physical operators.
      */
-    private inner class Visitor(mode: Mode) : OperatorVisitor<Expr, Unit> {
+    private inner class Visitor(mode: Mode, ctx: Context) : OperatorVisitor<Expr, Unit> {
 
         private val mode = mode
         private val MODE = mode.code()
 
+        // the scan (and its morsels) of the parallel pipeline which is being compiled, if any
+        private var parallel: Pair<RelScan, Morsels>? = null
+
+        // the number of bytes a blocking operator may buffer before spilling to disk
+        private val memoryBudget = ctx.memoryBudget
+
+        // the requests of the table scans of the statement which is being compiled
+        private var requests: Map<RelScan, ScanRequest> = emptyMap()
+
+        // the number of parameters of the statement which is being compiled
+        private var parameters = 0
+
+        // the uncorrelated subqueries of the statement which is being compiled; each is evaluated once per execution
+        private val subqueries = mutableListOf<Memo>()
+
         /**
          * Compile a query operation to a query statement.
          */
         fun compile(action: Action.Query) = object : Statement {
 
             // compile the query root
-            private val root = compile(action.getRex(), Unit).catch()
+            private val root = action.getRex().let {
+                requests = ScanPushdown.of(it)
+                compile(it, Unit).catch()
+            }
+
+            // the number of the statement's parameters
+            private val arity = parameters
+
+            // the uncorrelated subqueries of the statement
+            private val memoized = subqueries.toList()
+
+            override fun execute(): Datum = execute(*emptyArray())
+
+            override fun execute(vararg parameters: Datum): Datum {
+                check(parameters.size)
+                reset()
+                return try {
+                    root.eval(Environment(arrayOf(*parameters)))
+                } catch (e: PRuntimeException) {
+                    throw e
+                } catch (t: Throwable) {
+                    throw PErrors.internalErrorException(t)
+                }
+            }
+
+            override fun open(): Cursor = open(*emptyArray())
+
+            // the rows of a query are pulled from its root relation on demand
+            override fun open(vararg parameters: Datum): Cursor {
+                check(parameters.size)
+                reset()
+                val select = when (root) {
+                    is ExprPermissive -> root.expr
+                    else -> root
+                }
+                if (select !is ExprSelect) {
+                    return Cursor.of(execute(*parameters))
+                }
+                val cursor = select.open(Environment(arrayOf(*parameters)))
+                return object : Cursor {
+                    override fun hasNext(): Boolean = guard { cursor.hasNext() }
+                    override fun next(): Datum = guard { cursor.next() }
+                    override fun close() = guard { cursor.close() }
+                }
+            }
+
+            private fun check(count: Int) {
+                if (count != arity) {
+                    throw IllegalArgumentException("Expected $arity parameters, found: $count")
+                }
+            }
 
-            // execute with no parameters
-            override fun execute(): Datum {
+            // the subqueries are evaluated (again) by each execution, as their tables may have changed
+            private fun reset() {
+                memoized.forEach { it.reset() }
+            }
+
+            private inline fun <T> guard(action: () -> T): T {
                 return try {
-                    root.eval(Environment())
+                    action()
                 } catch (e: PRuntimeException) {
                     throw e
+                } catch (e: NoSuchElementException) {
+                    throw e
                 } catch (t: Throwable) {
                     throw PErrors.internalErrorException(t)
                 }
@@ -192,8 +314,124 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
             return operator.accept(this, Unit)
         }
 
+        /**
+         * Returns true iff a custom strategy matches the operator, in which case it must be compiled as-is.
+         */
+        private fun hasStrategy(operator: Operator): Boolean = strategies.any { it.pattern.matches(operator) }
+
         // TODO REMOVE ME
-        private fun compile(rel: Rel, ctx: Unit): ExprRelation = compileWithStrategies(rel) as ExprRelation
+        private fun compile(rel: Rel, ctx: Unit): ExprRelation {
+            if (isParallel(rel)) {
+                return compileParallel(rel)
+            }
+            return compileWithStrategies(rel) as ExprRelation
+        }
+
+        /**
+         * Returns true iff the [rel] is a pipeline which should be run by parallel workers; that is, a chain of filters
+         * and projections over a scan which is neither ordered, nor correlated, nor within another parallel pipeline.
+         */
+        private fun isParallel(rel: Rel): Boolean {
+            if (!isParallel() || (rel !is RelFilter && rel !is RelProject)) {
+                return false
+            }
+            return scanOf(rel) != null && !VariableReferences.isReferenced(rel, 0)
+        }
+
+        /**
+         * Returns true iff a grouped aggregation should be partitioned across parallel workers.
+         */
+        private fun isPartitioned(rel: RelAggregate): Boolean {
+            if (!isParallel() || rel.getGroups().isEmpty()) {
+                return false
+            }
+            return scanOf(rel.getInput()) != null && !VariableReferences.isReferenced(rel, 0)
+        }
+
+        private fun isParallel(): Boolean = parallelism > 1 && parallel == null && strategies.isEmpty()
+
+        /**
+         * Returns the scan of a pipeline of filters and projections, or null if the [rel] is not such a pipeline.
+         */
+        private fun scanOf(rel: Rel): RelScan? {
+            var input = rel
+            while (true) {
+                if (input.type.isOrdered) {
+                    return null
+                }
+                input = when (input) {
+                    is RelFilter -> input.getInput()
+                    is RelProject -> input.getInput()
+                    is RelScan -> return input
+                    else -> return null
+                }
+            }
+        }
+
+        /**
+         * Compiles a copy of the pipeline for each worker; the workers share the morsels of the pipeline's scan.
+         */
+        private fun compileParallel(rel: Rel): ExprRelation {
+            val morsels = morsels(scanOf(rel)!!)
+            val partitions = parallel(morsels) {
+                List(parallelism) { compileWithStrategies(rel) as ExprRelation }
+            }
+            return RelOpGather(POOL, morsels.second, partitions)
+        }
+
+        /**
+         * Compiles a hash-partitioned (parallel) aggregation; the pipeline workers route each row by its group keys to
+         * the aggregation worker of the group, so every group is aggregated by exactly one worker.
+         */
+        private fun compileParallel(rel: RelAggregate, ctx: Unit): ExprRelation {
+            val morsels = morsels(scanOf(rel.getInput())!!)
+            val producers = parallel(morsels) {
+                List(parallelism) {
+                    val input = compileWithStrategies(rel.getInput()) as ExprRelation
+                    val keys = rel.getGroups().map { compile(it, ctx).catch() }
+                    Shuffle.Producer(input, keys)
+                }
+            }
+            val shuffle = Shuffle(POOL, producers, parallelism)
+            val partitions = parallel(morsels) {
+                List(parallelism) { partition ->
+                    val input = RelOpReceive(shuffle, partition)
+                    val aggs = compileAggregates(rel, ctx)
+                    val groups = rel.getGroups().map { compile(it, ctx).catch() }
+                    RelOpAggregate(input, aggs, groups)
+                }
+            }
+            return RelOpGather(POOL, morsels.second, partitions, shuffle)
+        }
+
+        private fun morsels(scan: RelScan): Pair<RelScan, Morsels> {
+            val expr = compileInput(scan)
+            return scan to Morsels(expr, MODE == Mode.STRICT)
+        }
+
+        /**
+         * Compiles the input of the [scan]; a table is scanned with the request of the operators above it, if any.
+         */
+        private fun compileInput(scan: RelScan): ExprValue {
+            val rex = scan.rex
+            val request = requests[scan]
+            if (rex is RexTable && request != null) {
+                return ExprTableScan(rex.getTable(), request)
+            }
+            return compile(rex, Unit)
+        }
+
+        /**
+         * Compiles the workers of a parallel pipeline, whose [scan] reads the morsels.
+         */
+        private fun <T> parallel(scan: Pair<RelScan, Morsels>, block: () -> T): T {
+            parallel = scan
+            try {
+                return block()
+            } finally {
+                parallel = null
+            }
+        }
 
         // TODO REMOVE ME
         private fun compile(rex: Rex, ctx: Unit): ExprValue = compileWithStrategies(rex) as ExprValue
@@ -205,28 +443,90 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
         // OPERATORS
 
         override fun visitAggregate(rel: RelAggregate, ctx: Unit): ExprRelation {
-            val input = compile(rel.getInput(), ctx)
-            val aggs = rel.getMeasures().map { call ->
-                val agg = call.getAgg()
-                val args = call.getArgs().map { compile(it, ctx).catch() }
-                val distinct = call.isDistinct()
-                Aggregate(agg, args, distinct)
+            if (isPartitioned(rel)) {
+                return compileParallel(rel, ctx)
             }
+            compileColumnar(rel, ctx)?.let { return it }
+            val input = compile(rel.getInput(), ctx)
+            val aggs = compileAggregates(rel, ctx)
             val groups = rel.getGroups().map { compile(it, ctx).catch() }
+            // stream groups if the input is already ordered by the group keys
+            if (Ordering.isGrouped(rel.getInput(), rel.getGroups())) {
+                return RelOpAggregateStreaming(input, aggs, groups)
+            }
             return RelOpAggregate(input, aggs, groups)
         }
 
+        /**
+         * Compiles an ungrouped aggregation of a table whose measures are each a COUNT, SUM, MIN, or MAX of a field of
+         * the table's rows (or COUNT(*)), which reads the columns of a columnar table; or returns null if the
+         * aggregation is not of that form.
+         */
+        private fun compileColumnar(rel: RelAggregate, ctx: Unit): ExprRelation? {
+            val scan = rel.getInput() as? RelScan ?: return null
+            if (scan.rex !is RexTable || rel.getGroups().isNotEmpty() || parallel != null) {
+                return null
+            }
+            val measures = rel.getMeasures().map { measure(it) ?: return null }
+            // the table is scanned once per execution, by either aggregation
+            val table = ExprMemoized(compileInput(scan)).also { subqueries.add(it) }
+            val fallback = RelOpAggregate(compileScan(table), compileAggregates(rel, ctx), emptyList())
+            return RelOpAggregateColumnar(table, measures, fallback)
+        }
+
+        private fun measure(measure: RelAggregate.Measure): RelOpAggregateColumnar.Measure? {
+            val signature = measure.getAgg().signature
+            val name = signature.name
+            if (measure.isDistinct() || name !in COLUMNAR || signature.parameters.size != 1 || measure.getArgs().size != 1) {
+                return null
+            }
+            val parameter = signature.parameters[0].type
+            val returns = signature.returns
+            return when (val arg = measure.getArgs()[0]) {
+                // COUNT(*) is the COUNT of a literal
+                is RexLit -> when (name == "count" && !arg.getDatum().isNull && !arg.getDatum().isMissing) {
+                    true -> RelOpAggregateColumnar.Measure(name, parameter, returns, null, false)
+                    else -> null
+                }
+                is RexPathSymbol -> when (arg.getOperand().isRow()) {
+                    true -> RelOpAggregateColumnar.Measure(name, parameter, returns, arg.getSymbol(), true)
+                    else -> null
+                }
+                is RexPathKey -> {
+                    val key = (arg.getKey() as? RexLit)?.getDatum() ?: return null
+                    val string = when (key.type.code()) {
+                        PType.STRING, PType.VARCHAR, PType.CHAR -> !key.isNull && !key.isMissing
+                        else -> false
+                    }
+                    when (arg.getOperand().isRow() && string) {
+                        true -> RelOpAggregateColumnar.Measure(name, parameter, returns, key.string, false)
+                        else -> null
+                    }
+                }
+                else -> null
+            }
+        }
+
+        private fun Rex.isRow(): Boolean = this is RexVar && this.getScope() == 0 && this.getOffset() == 0
+
+        private fun compileAggregates(rel: RelAggregate, ctx: Unit): List<Aggregate> = rel.getMeasures().map { call ->
+            val agg = call.getAgg()
+            val args = call.getArgs().map { compile(it, ctx).catch() }
+            val distinct = call.isDistinct()
+            Aggregate(agg, args, distinct)
+        }
+
         override fun visitDistinct(rel: RelDistinct, ctx: Unit): ExprRelation {
             val input = compile(rel.getInput(), ctx)
-            return RelOpDistinct(input)
+            return RelOpDistinct(input, memoryBudget)
         }
 
         override fun visitExcept(rel: RelExcept, ctx: Unit): ExprRelation {
             val lhs = compile(rel.getLeft(), ctx)
             val rhs = compile(rel.getRight(), ctx)
             return when (rel.isAll()) {
-                true -> RelOpExceptAll(lhs, rhs)
-                else -> RelOpExceptDistinct(lhs, rhs)
+                true -> RelOpExceptAll(lhs, rhs, memoryBudget)
+                else -> RelOpExceptDistinct(lhs, rhs, memoryBudget)
             }
         }
 
@@ -239,6 +539,9 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
         override fun visitFilter(rel: RelFilter, ctx: Unit): ExprRelation {
             val input = compile(rel.getInput(), ctx)
             val predicate = compile(rel.getPredicate(), ctx).catch()
+            if (vectorized) {
+                return RelOpFilterBatch(input.batched(), Vectorizer.vectorize(predicate))
+            }
             return RelOpFilter(input, predicate)
         }
 
@@ -246,8 +549,8 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
             val lhs = compile(rel.getLeft(), ctx)
             val rhs = compile(rel.getRight(), ctx)
             return when (rel.isAll()) {
-                true -> RelOpIntersectAll(lhs, rhs)
-                else -> RelOpIntersectDistinct(lhs, rhs)
+                true -> RelOpIntersectAll(lhs, rhs, memoryBudget)
+                else -> RelOpIntersectDistinct(lhs, rhs, memoryBudget)
             }
         }
 
@@ -265,10 +568,24 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
             val rrel = rel.right
             val lhs = compile(lrel, ctx)
             val rhs = compile(rrel, ctx)
-            val condition = compile(rel.getCondition(), ctx)
             // use schema for null padding
             val lhsType = lrel.type
             val rhsType = rrel.type
+            // use a hash join for (non-lateral) equi-joins
+            val equi = EquiJoin.of(rel)
+            if (equi != null) {
+                val lhsKeys = equi.lhsKeys.map { compile(it, ctx) }.toTypedArray()
+                val rhsKeys = equi.rhsKeys.map { compile(it, ctx) }.toTypedArray()
+                val residual = equi.residual.map { compile(it, ctx) }.toTypedArray()
+                return when (rel.joinType.code()) {
+                    JoinType.INNER -> RelOpJoinHashInner(lhs, rhs, lhsKeys, rhsKeys, residual, lhsType, rhsType)
+                    JoinType.LEFT -> RelOpJoinHashOuterLeft(lhs, rhs, lhsKeys, rhsKeys, residual, lhsType, rhsType)
+                    JoinType.RIGHT -> RelOpJoinHashOuterRight(lhs, rhs, lhsKeys, rhsKeys, residual, lhsType, rhsType)
+                    JoinType.FULL -> RelOpJoinHashOuterFull(lhs, rhs, lhsKeys, rhsKeys, residual, lhsType, rhsType)
+                    else -> error("Unsupported join type: ${rel.joinType}")
+                }
+            }
+            val condition = compile(rel.getCondition(), ctx)
             return when (rel.joinType.code()) {
                 JoinType.INNER -> RelOpJoinInner(lhs, rhs, condition)
                 JoinType.LEFT -> RelOpJoinOuterLeft(lhs, rhs, condition, rhsType)
@@ -279,9 +596,22 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
         }
 
         override fun visitLimit(rel: RelLimit, ctx: Unit): ExprRelation {
-            val input = compile(rel.getInput(), ctx)
-            val limit = compile(rel.getLimit(), ctx)
-            return RelOpLimit(input, limit)
+            // use a top-n (bounded heap) for LIMIT (and OFFSET) directly above a sort
+            var input = rel.getInput()
+            val offset = if (input is RelOffset && !hasStrategy(input)) input else null
+            if (offset != null) {
+                input = offset.getInput()
+            }
+            if (input is RelSort && !hasStrategy(input)) {
+                return RelOpTopN(
+                    input = compile(input.getInput(), ctx),
+                    collations = compile(input.getCollations(), ctx),
+                    limit = compile(rel.getLimit(), ctx),
+                    offset = offset?.let { compile(it.getOffset(), ctx) },
+                    memoryBudget = memoryBudget,
+                )
+            }
+            return RelOpLimit(compile(rel.getInput(), ctx), compile(rel.getLimit(), ctx))
         }
 
         override fun visitOffset(rel: RelOffset, ctx: Unit): ExprRelation {
@@ -293,27 +623,37 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
         override fun visitProject(rel: RelProject, ctx: Unit): ExprRelation {
             val input = compile(rel.getInput(), ctx)
             val projections = rel.getProjections().map { compile(it, ctx).catch() }
+            if (vectorized) {
+                return RelOpProjectBatch(input.batched(), projections.map { Vectorizer.vectorize(it) })
+            }
             return RelOpProject(input, projections)
         }
 
         override fun visitScan(rel: RelScan, ctx: Unit): ExprRelation {
-            val input = compile(rel.rex, ctx)
-            return when (MODE) {
-                Mode.PERMISSIVE -> RelOpScanPermissive(input)
-                Mode.STRICT -> RelOpScan(input)
-                else -> throw IllegalStateException("Unsupported execution mode: $MODE")
+            val parallel = parallel
+            if (parallel != null && parallel.first === rel) {
+                return RelOpScanMorsels(parallel.second)
             }
+            return compileScan(compileInput(rel))
+        }
+
+        private fun compileScan(input: ExprValue): ExprRelation = when (MODE) {
+            Mode.PERMISSIVE -> RelOpScanPermissive(input)
+            Mode.STRICT -> RelOpScan(input)
+            else -> throw IllegalStateException("Unsupported execution mode: $MODE")
         }
 
         override fun visitSort(rel: RelSort, ctx: Unit): ExprRelation {
             val input = compile(rel.getInput(), ctx)
-            val collations = rel.getCollations().map {
-                val expr = compile(it.column, ctx)
-                val desc = it.order.code() == Collation.Order.DESC
-                val last = it.nulls.code() == Collation.Nulls.LAST
-                RelOpSort.Collation(expr, desc, last)
-            }
-            return RelOpSort(input, collations)
+            val collations = compile(rel.getCollations(), ctx)
+            return RelOpSort(input, collations, memoryBudget)
+        }
+
+        private fun compile(collations: List<Collation>, ctx: Unit): List<RelOpSort.Collation> = collations.map {
+            val expr = compile(it.column, ctx)
+            val desc = it.order.code() == Collation.Order.DESC
+            val last = it.nulls.code() == Collation.Nulls.LAST
+            RelOpSort.Collation(expr, desc, last)
         }
 
         override fun visitUnion(rel: RelUnion, ctx: Unit): ExprRelation {
@@ -321,7 +661,7 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
             val rhs = compile(rel.getRight(), ctx)
             return when (rel.isAll()) {
                 true -> RelOpUnionAll(lhs, rhs)
-                else -> RelOpUnionDistinct(lhs, rhs)
+                else -> RelOpUnionDistinct(lhs, rhs, memoryBudget)
             }
         }
 
@@ -384,11 +724,23 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
 
         override fun visitCall(rex: RexCall, ctx: Unit): ExprValue {
             val func = rex.getFunction()
-            val args = rex.getArgs()
+            val args = rex.getArgs().map { compile(it, Unit) }
+            if (func.signature.isDeterministic && args.all { it is ExprLit }) {
+                fold(ExprCall(func, args.toTypedArray()))?.let { return it }
+            }
             val catch = func.signature.parameters.any { it.type.code() == PType.DYNAMIC }
+            if (inlined && args.size == 2) {
+                val types = rex.getArgs().map { it.getType().getPType() }
+                val lhs = if (catch) args[0].catch() else args[0]
+                val rhs = if (catch) args[1].catch() else args[1]
+                ExprBinary.of(func, lhs, rhs, types[0], types[1])?.let { return it }
+            }
+            if (inlined && args.size == 1) {
+                ExprBinary.not(func, args[0])?.let { return it }
+            }
             return when (catch) {
-                true -> ExprCall(func, Array(args.size) { i -> compile(args[i], Unit).catch() })
-                else -> ExprCall(func, Array(args.size) { i -> compile(args[i], Unit) })
+                true -> ExprCall(func, Array(args.size) { i -> args[i].catch() })
+                else -> ExprCall(func, args.toTypedArray())
             }
         }
 
@@ -408,6 +760,9 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
         override fun visitCast(rex: RexCast, ctx: Unit): ExprValue {
             val operand = compile(rex.getOperand(), ctx)
             val target = rex.getTarget()
+            if (operand is ExprLit) {
+                fold(ExprCast(operand, target))?.let { return it }
+            }
             return ExprCast(operand, target)
         }
 
@@ -420,6 +775,11 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
             return ExprLit(rex.getDatum())
         }
 
+        override fun visitParameter(rex: RexParameter, ctx: Unit): ExprValue {
+            parameters = maxOf(parameters, rex.getIndex())
+            return ExprParameter(rex.getIndex())
+        }
+
         override fun visitNullIf(rex: RexNullIf, ctx: Unit): ExprValue {
             val value = compile(rex.getV1(), ctx)
             val nullifier = compile(rex.getV2(), ctx)
@@ -468,6 +828,12 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
                 val v = compile(it.value, ctx).catch()
                 ExprStructField(k, v)
             }
+            // literal keys are the same for every struct, so the structs share their shape
+            val keys = fields.map { (it.key as? ExprLit)?._value?.getTextOrNull() }
+            if (keys.all { it != null }) {
+                val shape = StructShape.of(keys.map { it!! })
+                return ExprStructShaped(shape, fields.map { it.value }.toTypedArray())
+            }
             return when (MODE) {
                 Mode.PERMISSIVE -> ExprStructPermissive(fields)
                 Mode.STRICT -> ExprStructStrict(fields)
@@ -478,22 +844,59 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
         override fun visitSubquery(rex: RexSubquery, ctx: Unit): ExprValue {
             val rel = compile(rex.getInput(), ctx)
             val constructor = compile(rex.getConstructor(), ctx)
-            return when (rex.isScalar()) {
+            val subquery = when (rex.isScalar()) {
                 true -> ExprSubquery(rel, constructor)
                 else -> ExprSubqueryRow(rel, constructor)
             }
+            // an uncorrelated subquery has the same value for every row of the environment
+            if (!VariableReferences.isClosed(rex)) {
+                return subquery
+            }
+            return ExprMemoized(subquery).also { subqueries.add(it) }
         }
 
         override fun visitSubqueryComp(rex: RexSubqueryComp, ctx: Unit): ExprValue {
-            TODO("<exists predicate> and <unique predicate>")
+            val args = rex.getArgs().map { compile(it, ctx) }.toTypedArray()
+            val input = compile(rex.getInput(), ctx)
+            val correlated = !VariableReferences.isClosed(rex.getInput())
+            val comparison = rex.getComparison().code()
+            val quantifier = rex.getQuantifier().code()
+            val predicate: ExprValue = when {
+                // `= ANY` is IN, and `<> ALL` is NOT IN, which are (anti) semi-joins
+                comparison == RexSubqueryComp.Comparison.EQ && quantifier != RexSubqueryComp.Quantifier.ALL -> {
+                    ExprSubqueryIn(args, input, correlated, negated = false)
+                }
+                comparison == RexSubqueryComp.Comparison.NE && quantifier == RexSubqueryComp.Quantifier.ALL -> {
+                    ExprSubqueryIn(args, input, correlated, negated = true)
+                }
+                else -> ExprSubqueryComp(args, input, comparison, quantifier, correlated)
+            }
+            if (!correlated) {
+                subqueries.add(predicate as Memo)
+            }
+            return predicate
         }
 
         override fun visitSubqueryIn(rex: RexSubqueryIn, ctx: Unit): ExprValue {
-            TODO("<in predicate>")
+            val args = rex.getArgs().map { compile(it, ctx) }.toTypedArray()
+            val input = compile(rex.getInput(), ctx)
+            val correlated = !VariableReferences.isClosed(rex.getInput())
+            val predicate = ExprSubqueryIn(args, input, correlated, negated = false)
+            if (!correlated) {
+                subqueries.add(predicate)
+            }
+            return predicate
         }
 
         override fun visitSubqueryTest(rex: RexSubqueryTest, ctx: Unit): ExprValue {
-            TODO("<exists predicate> and <unique predicate>")
+            val input = compile(rex.getInput(), ctx)
+            val unique = rex.getTest().code() == RexSubqueryTest.Test.UNIQUE
+            val predicate = ExprSubqueryTest(input, unique)
+            // an uncorrelated predicate has the same value for every row of the environment
+            if (!VariableReferences.isClosed(rex.getInput())) {
+                return predicate
+            }
+            return ExprMemoized(predicate).also { subqueries.add(it) }
         }
 
         override fun visitSpread(rex: RexSpread, ctx: Unit): ExprValue {
@@ -511,13 +914,63 @@ internal class StandardCompiler(strategies: List<Strategy>) : PartiQLCompiler {
             return ExprVar(scope, offset)
         }
 
+        /**
+         * Returns this relation as a batch operator, collecting the rows of a row-at-a-time operator into batches.
+         */
+        private fun ExprRelation.batched(): RelOpBatch = when (this) {
+            is RelOpBatch -> this
+            else -> RelOpBatchSource(this)
+        }
+
+        /**
+         * Returns the result of the [expr], whose operands are literals, as a literal; or null if the evaluation fails,
+         * in which case the error is raised (or handled) as the expression is evaluated for each row.
+         */
+        private fun fold(expr: ExprValue): ExprValue? = try {
+            ExprLit(expr.eval(Environment()))
+        } catch (e: Exception) {
+            null
+        }
+
         /**
          * Some places "catch" an error and return the MISSING value.
          */
         private fun ExprValue.catch(): ExprValue = when (MODE) {
-            Mode.PERMISSIVE -> ExprPermissive(this)
+            Mode.PERMISSIVE -> ExprPermissive(permissive(this))
             Mode.STRICT -> this
             else -> throw IllegalStateException("Unsupported execution mode: $MODE")
         }
+
+        /**
+         * Returns the [expr] with its paths, casts, and dynamic calls replaced by their permissive variants, which return
+         * MISSING rather than raising (and catching) an error for the common type errors of dirty data.
+         *
+         * The replacement is made at the boundary of a [catch] and along the roots of paths and the operands of casts;
+         * an error there makes the result of the whole expression MISSING, just as if it were caught by the boundary.
+         */
+        private fun permissive(expr: ExprValue): ExprValue = when (expr) {
+            is ExprPathKey -> ExprPathKeyPermissive(permissive(expr.root), expr.key)
+            is ExprPathSymbol -> ExprPathSymbolPermissive(permissive(expr.root), expr.symbol)
+            is ExprPathIndex -> ExprPathIndexPermissive(permissive(expr.root), expr.key)
+            is ExprCast -> ExprCastPermissive(permissive(expr._operand), expr._target)
+            is ExprCallDynamic -> expr.permissive()
+            else -> expr
+        }
+    }
+
+    private companion object {
+
+        /**
+         * The workers of the parallel pipelines of all compilers' statements. A pipeline may have more workers than
+         * the pool's parallelism; they queue for the pool's threads, and a worker which is blocked on an exchange is
+         * compensated by the pool (see [ForkJoinPool.managedBlock]). The pool's threads are daemons which terminate
+         * when idle, so the pool is never shut down.
+         */
+        private val POOL: ForkJoinPool by lazy { ForkJoinPool(Runtime.getRuntime().availableProcessors()) }
+
+        /**
+         * The aggregations which may be computed on the columns of a columnar table; see [RelOpAggregateColumnar].
+         */
+        private val COLUMNAR = setOf("count", "sum", "min", "max")
     }
 }
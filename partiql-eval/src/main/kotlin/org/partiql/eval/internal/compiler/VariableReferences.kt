@@ -0,0 +1,372 @@
+package org.partiql.eval.internal.compiler
+
+import org.partiql.plan.JoinType
+import org.partiql.plan.Operator
+import org.partiql.plan.OperatorVisitor
+import org.partiql.plan.rel.Rel
+import org.partiql.plan.rel.RelAggregate
+import org.partiql.plan.rel.RelDistinct
+import org.partiql.plan.rel.RelExcept
+import org.partiql.plan.rel.RelExclude
+import org.partiql.plan.rel.RelFilter
+import org.partiql.plan.rel.RelIntersect
+import org.partiql.plan.rel.RelIterate
+import org.partiql.plan.rel.RelJoin
+import org.partiql.plan.rel.RelLimit
+import org.partiql.plan.rel.RelOffset
+import org.partiql.plan.rel.RelProject
+import org.partiql.plan.rel.RelScan
+import org.partiql.plan.rel.RelSort
+import org.partiql.plan.rel.RelUnion
+import org.partiql.plan.rel.RelUnpivot
+import org.partiql.plan.rex.Rex
+import org.partiql.plan.rex.RexArray
+import org.partiql.plan.rex.RexBag
+import org.partiql.plan.rex.RexCall
+import org.partiql.plan.rex.RexCase
+import org.partiql.plan.rex.RexCast
+import org.partiql.plan.rex.RexCoalesce
+import org.partiql.plan.rex.RexDispatch
+import org.partiql.plan.rex.RexError
+import org.partiql.plan.rex.RexLit
+import org.partiql.plan.rex.RexNullIf
+import org.partiql.plan.rex.RexParameter
+import org.partiql.plan.rex.RexPathIndex
+import org.partiql.plan.rex.RexPathKey
+import org.partiql.plan.rex.RexPathSymbol
+import org.partiql.plan.rex.RexPivot
+import org.partiql.plan.rex.RexSelect
+import org.partiql.plan.rex.RexSpread
+import org.partiql.plan.rex.RexStruct
+import org.partiql.plan.rex.RexSubquery
+import org.partiql.plan.rex.RexSubqueryComp
+import org.partiql.plan.rex.RexSubqueryIn
+import org.partiql.plan.rex.RexSubqueryTest
+import org.partiql.plan.rex.RexTable
+import org.partiql.plan.rex.RexVar
+import org.partiql.spi.types.PType
+
+/**
+ * Computes the variables of some (enclosing) scope which are referenced by a plan subtree.
+ *
+ * The physical operators push a row onto the [org.partiql.eval.Environment] before evaluating their expressions, so the
+ * depth of the scope in question is tracked relative to each operator as the tree is walked. The context of each visit
+ * is that relative depth, and the depth increments exactly where the corresponding physical operator calls `push`.
+ *
+ * Operators which are not understood are conservatively treated as referencing every variable.
+ */
+internal class VariableReferences private constructor() : OperatorVisitor<Unit, Int> {
+
+    private val offsets = mutableSetOf<Int>()
+    private var unknown = false
+
+    // the offset of the variable whose fields are tracked (see [fields]), if any
+    private var target = -1
+    private val fields = mutableSetOf<String>()
+    private var whole = false
+
+    // true if the variables of every enclosing scope are tracked, rather than those of a single scope (see [isClosed])
+    private var enclosing = false
+
+    companion object {
+
+        /**
+         * Returns the offsets of the variables of the scope at [depth] which are referenced by the [rex], where [depth]
+         * is relative to the environment the expression is evaluated with.
+         *
+         * @param rex
+         * @param depth
+         * @return the referenced offsets, or null if they cannot be determined.
+         */
+        @JvmStatic
+        fun of(rex: Rex, depth: Int): Set<Int>? {
+            val visitor = VariableReferences()
+            visitor.visit(rex, depth)
+            return if (visitor.unknown) null else visitor.offsets
+        }
+
+        /**
+         * Returns the names of the fields through which the [rex] references the variable at [offset] of the scope at
+         * [depth], i.e. `v.a` or `v['a']`; the names of symbol paths are case-insensitive.
+         *
+         * @param rex
+         * @param depth
+         * @param offset
+         * @return the field names, or null if the variable is (possibly) referenced other than by its fields.
+         */
+        @JvmStatic
+        fun fields(rex: Rex, depth: Int, offset: Int): Set<String>? {
+            val visitor = VariableReferences()
+            visitor.target = offset
+            visitor.visit(rex, depth)
+            return if (visitor.unknown || visitor.whole) null else visitor.fields
+        }
+
+        /**
+         * Returns true if the [rel] (possibly) references a variable of the scope at [depth], where [depth] is relative
+         * to the environment the relation is opened with.
+         *
+         * @param rel
+         * @param depth
+         * @return
+         */
+        @JvmStatic
+        fun isReferenced(rel: Rel, depth: Int): Boolean {
+            val visitor = VariableReferences()
+            visitor.visit(rel, depth)
+            return visitor.unknown || visitor.offsets.isNotEmpty()
+        }
+
+        /**
+         * Returns true if the [rex] references no variable of the environment it is evaluated with; e.g. a subquery
+         * which is not correlated, whose value depends only on its tables (and the statement's parameters).
+         *
+         * @param rex
+         * @return
+         */
+        @JvmStatic
+        fun isClosed(rex: Rex): Boolean {
+            val visitor = VariableReferences()
+            visitor.enclosing = true
+            visitor.visit(rex, 0)
+            return !visitor.unknown && visitor.offsets.isEmpty()
+        }
+
+        /**
+         * Returns true if the [rel] references no variable of the environment it is opened with; e.g. the input of an
+         * IN predicate whose subquery is not correlated.
+         *
+         * @param rel
+         * @return
+         */
+        @JvmStatic
+        fun isClosed(rel: Rel): Boolean {
+            val visitor = VariableReferences()
+            visitor.enclosing = true
+            visitor.visit(rel, 0)
+            return !visitor.unknown && visitor.offsets.isEmpty()
+        }
+    }
+
+    override fun defaultReturn(operator: Operator, ctx: Int) {
+        unknown = true
+    }
+
+    // REL
+
+    override fun visitAggregate(rel: RelAggregate, ctx: Int) {
+        visit(rel.getInput(), ctx)
+        rel.getGroups().forEach { visit(it, ctx + 1) }
+        rel.getMeasures().forEach { measure -> measure.getArgs().forEach { visit(it, ctx + 1) } }
+    }
+
+    override fun visitDistinct(rel: RelDistinct, ctx: Int) {
+        visit(rel.getInput(), ctx)
+    }
+
+    override fun visitExcept(rel: RelExcept, ctx: Int) {
+        visit(rel.getLeft(), ctx)
+        visit(rel.getRight(), ctx)
+    }
+
+    override fun visitExclude(rel: RelExclude, ctx: Int) {
+        visit(rel.getInput(), ctx)
+    }
+
+    override fun visitFilter(rel: RelFilter, ctx: Int) {
+        visit(rel.getInput(), ctx)
+        visit(rel.getPredicate(), ctx + 1)
+    }
+
+    override fun visitIntersect(rel: RelIntersect, ctx: Int) {
+        visit(rel.getLeft(), ctx)
+        visit(rel.getRight(), ctx)
+    }
+
+    override fun visitIterate(rel: RelIterate, ctx: Int) {
+        visit(rel.getRex(), ctx + 1)
+    }
+
+    override fun visitJoin(rel: RelJoin, ctx: Int) {
+        visit(rel.getLeft(), ctx)
+        // the right-hand-side of INNER and LEFT joins is opened with the left row pushed (lateral)
+        when (rel.getJoinType().code()) {
+            JoinType.INNER, JoinType.LEFT -> visit(rel.getRight(), ctx + 1)
+            else -> visit(rel.getRight(), ctx)
+        }
+        visit(rel.getCondition(), ctx + 1)
+    }
+
+    override fun visitLimit(rel: RelLimit, ctx: Int) {
+        visit(rel.getInput(), ctx)
+        visit(rel.getLimit(), ctx + 1)
+    }
+
+    override fun visitOffset(rel: RelOffset, ctx: Int) {
+        visit(rel.getInput(), ctx)
+        visit(rel.getOffset(), ctx + 1)
+    }
+
+    override fun visitProject(rel: RelProject, ctx: Int) {
+        visit(rel.getInput(), ctx)
+        rel.getProjections().forEach { visit(it, ctx + 1) }
+    }
+
+    override fun visitScan(rel: RelScan, ctx: Int) {
+        visit(rel.getRex(), ctx + 1)
+    }
+
+    override fun visitSort(rel: RelSort, ctx: Int) {
+        visit(rel.getInput(), ctx)
+        rel.getCollations().forEach { visit(it.column, ctx + 1) }
+    }
+
+    override fun visitUnion(rel: RelUnion, ctx: Int) {
+        visit(rel.getLeft(), ctx)
+        visit(rel.getRight(), ctx)
+    }
+
+    override fun visitUnpivot(rel: RelUnpivot, ctx: Int) {
+        visit(rel.getRex(), ctx + 1)
+    }
+
+    // REX
+
+    override fun visitArray(rex: RexArray, ctx: Int) {
+        rex.getValues().forEach { visit(it, ctx) }
+    }
+
+    override fun visitBag(rex: RexBag, ctx: Int) {
+        rex.getValues().forEach { visit(it, ctx) }
+    }
+
+    override fun visitCall(rex: RexCall, ctx: Int) {
+        rex.getArgs().forEach { visit(it, ctx) }
+    }
+
+    override fun visitCase(rex: RexCase, ctx: Int) {
+        rex.getMatch()?.let { visit(it, ctx) }
+        rex.getBranches().forEach {
+            visit(it.getCondition(), ctx)
+            visit(it.getResult(), ctx)
+        }
+        rex.getDefault()?.let { visit(it, ctx) }
+    }
+
+    override fun visitCast(rex: RexCast, ctx: Int) {
+        visit(rex.getOperand(), ctx)
+    }
+
+    override fun visitCoalesce(rex: RexCoalesce, ctx: Int) {
+        rex.getArgs().forEach { visit(it, ctx) }
+    }
+
+    override fun visitDispatch(rex: RexDispatch, ctx: Int) {
+        rex.getArgs().forEach { visit(it, ctx) }
+    }
+
+    override fun visitError(rex: RexError, ctx: Int) {
+        // no variables
+    }
+
+    override fun visitLit(rex: RexLit, ctx: Int) {
+        // no variables
+    }
+
+    override fun visitNullIf(rex: RexNullIf, ctx: Int) {
+        visit(rex.getV1(), ctx)
+        visit(rex.getV2(), ctx)
+    }
+
+    override fun visitParameter(rex: RexParameter, ctx: Int) {
+        // no variables
+    }
+
+    override fun visitPathIndex(rex: RexPathIndex, ctx: Int) {
+        visit(rex.getOperand(), ctx)
+        visit(rex.getIndex(), ctx)
+    }
+
+    override fun visitPathKey(rex: RexPathKey, ctx: Int) {
+        val key = rex.getKey()
+        if (key is RexLit && isTarget(rex.getOperand(), ctx)) {
+            val datum = key.getDatum()
+            when (datum.type.code()) {
+                PType.STRING, PType.VARCHAR, PType.CHAR -> if (!datum.isNull && !datum.isMissing) {
+                    offsets.add(target)
+                    fields.add(datum.string)
+                    return
+                }
+            }
+        }
+        visit(rex.getOperand(), ctx)
+        visit(key, ctx)
+    }
+
+    override fun visitPathSymbol(rex: RexPathSymbol, ctx: Int) {
+        if (isTarget(rex.getOperand(), ctx)) {
+            offsets.add(target)
+            fields.add(rex.getSymbol())
+            return
+        }
+        visit(rex.getOperand(), ctx)
+    }
+
+    private fun isTarget(rex: Rex, ctx: Int): Boolean {
+        return target >= 0 && rex is RexVar && rex.getScope() == ctx && rex.getOffset() == target
+    }
+
+    override fun visitPivot(rex: RexPivot, ctx: Int) {
+        visit(rex.getInput(), ctx)
+        visit(rex.getKey(), ctx + 1)
+        visit(rex.getValue(), ctx + 1)
+    }
+
+    override fun visitSelect(rex: RexSelect, ctx: Int) {
+        visit(rex.getInput(), ctx)
+        visit(rex.getConstructor(), ctx + 1)
+    }
+
+    override fun visitStruct(rex: RexStruct, ctx: Int) {
+        rex.getFields().forEach {
+            visit(it.getKey(), ctx)
+            visit(it.getValue(), ctx)
+        }
+    }
+
+    override fun visitSubquery(rex: RexSubquery, ctx: Int) {
+        visit(rex.getInput(), ctx)
+        visit(rex.getConstructor(), ctx + 1)
+    }
+
+    override fun visitSubqueryComp(rex: RexSubqueryComp, ctx: Int) {
+        rex.getArgs().forEach { visit(it, ctx) }
+        visit(rex.getInput(), ctx)
+    }
+
+    override fun visitSubqueryIn(rex: RexSubqueryIn, ctx: Int) {
+        rex.getArgs().forEach { visit(it, ctx) }
+        visit(rex.getInput(), ctx)
+    }
+
+    override fun visitSubqueryTest(rex: RexSubqueryTest, ctx: Int) {
+        visit(rex.getInput(), ctx)
+    }
+
+    override fun visitSpread(rex: RexSpread, ctx: Int) {
+        rex.getArgs().forEach { visit(it, ctx) }
+    }
+
+    override fun visitTable(rex: RexTable, ctx: Int) {
+        // no variables
+    }
+
+    override fun visitVar(rex: RexVar, ctx: Int) {
+        if (rex.getScope() == ctx || (enclosing && rex.getScope() > ctx)) {
+            offsets.add(rex.getOffset())
+            if (rex.getOffset() == target) {
+                whole = true
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.partiql.eval.internal.compiler
+
+import org.partiql.eval.ExprValue
+import org.partiql.eval.internal.operator.batch.ExprBatch
+import org.partiql.eval.internal.operator.batch.ExprBatchCall
+import org.partiql.eval.internal.operator.batch.ExprBatchFallback
+import org.partiql.eval.internal.operator.batch.ExprBatchLit
+import org.partiql.eval.internal.operator.batch.ExprBatchPathKey
+import org.partiql.eval.internal.operator.batch.ExprBatchPathKeyPermissive
+import org.partiql.eval.internal.operator.batch.ExprBatchRow
+import org.partiql.eval.internal.operator.batch.ExprBatchVar
+import org.partiql.eval.internal.operator.rex.ExprBinary
+import org.partiql.eval.internal.operator.rex.ExprCall
+import org.partiql.eval.internal.operator.rex.ExprLit
+import org.partiql.eval.internal.operator.rex.ExprPathKey
+import org.partiql.eval.internal.operator.rex.ExprPathKeyPermissive
+import org.partiql.eval.internal.operator.rex.ExprPermissive
+import org.partiql.eval.internal.operator.rex.ExprVar
+
+/**
+ * Translates compiled (row-at-a-time) scalar expressions to batch expressions.
+ *
+ * Variables, literals, (statically resolved) function calls, and key paths have batch implementations; every other
+ * expression is evaluated row-at-a-time within the batch.
+ */
+internal object Vectorizer {
+
+    /**
+     * @param expr  An expression over a row of a batch.
+     * @return the batch expression of the [expr].
+     */
+    @JvmStatic
+    fun vectorize(expr: ExprValue): ExprBatch {
+        val batch = translate(expr)
+        if (batch is ExprBatchRow) {
+            return batch
+        }
+        return ExprBatchFallback(batch, expr)
+    }
+
+    private fun translate(expr: ExprValue): ExprBatch = when (expr) {
+        is ExprVar -> ExprBatchVar(expr.depth, expr.offset)
+        is ExprLit -> ExprBatchLit(expr._value)
+        is ExprCall -> ExprBatchCall(expr.function, Array(expr.args.size) { translate(expr.args[it]) })
+        is ExprBinary -> {
+            val call = ExprBatchCall(expr.function, arrayOf(translate(expr.lhs), translate(expr.rhs)))
+            expr.negation?.let { ExprBatchCall(it, arrayOf(call)) } ?: call
+        }
+        is ExprPathKey -> ExprBatchPathKey(translate(expr.root), translate(expr.key))
+        is ExprPathKeyPermissive -> ExprBatchPathKeyPermissive(translate(expr.root), translate(expr.key))
+        // errors are handled by the row-at-a-time fallback of the root; see ExprBatchFallback.
+        is ExprPermissive -> translate(expr.expr)
+        else -> ExprBatchRow(expr)
+    }
+}
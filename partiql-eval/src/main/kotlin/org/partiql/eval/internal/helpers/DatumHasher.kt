@@ -0,0 +1,121 @@
+package org.partiql.eval.internal.helpers
+
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+import java.math.BigDecimal
+
+/**
+ * Computes hash codes for [Datum] values which are consistent with the equivalence of [Datum.comparator]; that is, any
+ * two values which compare as equal produce the same hash code. This allows hash-based operators to be used in place of
+ * ordered collections (keyed by [DatumArrayComparator]) without changing the semantics of equality.
+ *
+ * Notably,
+ *  - NULL and MISSING are equivalent.
+ *  - Numbers are hashed by their numeric value irrespective of type (i.e. 1 = 1.0 = 1e0).
+ *  - Struct fields are hashed irrespective of field order, and bag elements irrespective of element order.
+ */
+internal object DatumHasher {
+
+    private const val UNKNOWN_HASH = 0
+    private const val NAN_HASH = 0x7ff80000
+    private const val POSITIVE_INFINITY_HASH = 0x7ff00000
+    private const val NEGATIVE_INFINITY_HASH = -0x100000
+
+    private const val SECONDS_PER_DAY = 86_400L
+
+    /**
+     * @return the hash code of the [values], in order.
+     */
+    @JvmStatic
+    fun hash(values: Array<Datum>): Int {
+        var h = 1
+        for (value in values) {
+            h = 31 * h + hash(value)
+        }
+        return h
+    }
+
+    /**
+     * @return the hash code of the [datum].
+     */
+    @JvmStatic
+    fun hash(datum: Datum): Int {
+        if (datum.isNull || datum.isMissing) {
+            return UNKNOWN_HASH
+        }
+        return when (datum.type.code()) {
+            PType.VARIANT -> hash(datum.lower())
+            PType.BOOL -> datum.boolean.hashCode()
+            PType.TINYINT -> hashLong(datum.byte.toLong())
+            PType.SMALLINT -> hashLong(datum.short.toLong())
+            PType.INTEGER -> hashLong(datum.int.toLong())
+            PType.BIGINT -> hashLong(datum.long)
+            PType.REAL -> hashDouble(datum.float.toDouble())
+            PType.DOUBLE -> hashDouble(datum.double)
+            PType.DECIMAL, PType.NUMERIC -> hashDecimal(datum.bigDecimal)
+            PType.CHAR, PType.VARCHAR, PType.STRING -> datum.string.hashCode()
+            PType.BLOB, PType.CLOB -> datum.bytes.contentHashCode()
+            PType.DATE -> datum.localDate.hashCode()
+            // TIME and TIMEZ are comparable, and equal values always share the same local time.
+            PType.TIME, PType.TIMEZ -> datum.localTime.hashCode()
+            // TIMESTAMP and TIMESTAMPZ are comparable, and equal values always share the same local date-time.
+            PType.TIMESTAMP, PType.TIMESTAMPZ -> datum.localDateTime.hashCode()
+            PType.INTERVAL_YM -> hashLong(datum.years * 12L + datum.months)
+            PType.INTERVAL_DT -> {
+                val seconds = datum.days * SECONDS_PER_DAY + datum.hours * 3600L + datum.minutes * 60L + datum.seconds
+                31 * hashLong(seconds) + datum.nanos
+            }
+            PType.ARRAY -> {
+                var h = 1
+                for (element in datum) {
+                    h = 31 * h + hash(element)
+                }
+                h
+            }
+            PType.BAG -> {
+                var h = 0
+                for (element in datum) {
+                    h += hash(element)
+                }
+                h
+            }
+            PType.STRUCT, PType.ROW -> {
+                var h = 0
+                for (field in datum.fields) {
+                    h += 31 * field.name.hashCode() + hash(field.value)
+                }
+                h
+            }
+            else -> datum.type.code()
+        }
+    }
+
+    private fun hashLong(value: Long): Int = java.lang.Long.hashCode(value)
+
+    /**
+     * Integral doubles hash as their long value; all others hash as their decimal value, see [DatumComparator].
+     */
+    private fun hashDouble(value: Double): Int {
+        if (value.isNaN()) {
+            return NAN_HASH
+        }
+        if (value.isInfinite()) {
+            return if (value > 0) POSITIVE_INFINITY_HASH else NEGATIVE_INFINITY_HASH
+        }
+        if (value == Math.rint(value) && value >= Long.MIN_VALUE.toDouble() && value < Long.MAX_VALUE.toDouble()) {
+            return hashLong(value.toLong())
+        }
+        return hashDecimal(BigDecimal.valueOf(value))
+    }
+
+    /**
+     * Integral decimals hash as their long value; all others hash with trailing zeros removed (i.e. 1.50 = 1.5).
+     */
+    private fun hashDecimal(value: BigDecimal): Int {
+        val stripped = value.stripTrailingZeros()
+        if (stripped.scale() <= 0 && stripped.precision() - stripped.scale() < 19) {
+            return hashLong(stripped.toLong())
+        }
+        return stripped.hashCode()
+    }
+}
@@ -0,0 +1,99 @@
+package org.partiql.eval.internal.helpers
+
+import org.partiql.eval.Row
+
+/**
+ * A hash table of rows and their multiplicities, shared by the hash-based DISTINCT and set operators. Rows are equal
+ * as by [DatumArrayComparator] (see [DatumArrayKey]).
+ *
+ * The (approximate) size of the table is only tracked when it has a [memoryBudget]; see [RowSerializer.estimateSize].
+ *
+ * @property memoryBudget   The number of bytes after which the table [isFull].
+ */
+internal class RowHashTable(private val memoryBudget: Long = Long.MAX_VALUE) {
+
+    private val counts = HashMap<DatumArrayKey, Count>()
+
+    private val accounting = memoryBudget != Long.MAX_VALUE
+
+    // the approximate number of bytes of the rows (and entries) of the table
+    private var size = 0L
+
+    /**
+     * True if the rows of the table exceed its memory budget.
+     */
+    val isFull: Boolean
+        get() = size > memoryBudget
+
+    /**
+     * Adds (one occurrence of) the [key]; returns true if the table did not contain the key.
+     */
+    fun add(key: DatumArrayKey): Boolean {
+        val count = counts[key]
+        if (count != null) {
+            count.value++
+            return false
+        }
+        counts[key] = Count()
+        if (accounting) {
+            size += ENTRY_OVERHEAD + RowSerializer.estimateSize(Row(key.values))
+        }
+        return true
+    }
+
+    /**
+     * Returns true if the table contains the [key].
+     */
+    fun contains(key: DatumArrayKey): Boolean = counts.containsKey(key)
+
+    /**
+     * Removes (every occurrence of) the [key]; returns true if the table contained the key.
+     */
+    fun remove(key: DatumArrayKey): Boolean {
+        if (counts.remove(key) == null) {
+            return false
+        }
+        if (accounting) {
+            size -= ENTRY_OVERHEAD + RowSerializer.estimateSize(Row(key.values))
+        }
+        return true
+    }
+
+    /**
+     * Removes one occurrence of the [key]; returns true if the table contained the key.
+     */
+    fun decrement(key: DatumArrayKey): Boolean {
+        val count = counts[key] ?: return false
+        if (--count.value == 0) {
+            remove(key)
+        }
+        return true
+    }
+
+    /**
+     * Invokes the [action] with each row of the table and its multiplicity.
+     */
+    fun forEach(action: (DatumArrayKey, Int) -> Unit) {
+        for ((key, count) in counts) {
+            action(key, count.value)
+        }
+    }
+
+    fun clear() {
+        counts.clear()
+        size = 0L
+    }
+
+    private class Count {
+        @JvmField
+        var value = 1
+    }
+
+    private companion object {
+
+        /**
+         * Approximate heap overhead of an entry (the hash map node, key, and count).
+         */
+        private const val ENTRY_OVERHEAD = 80L
+    }
+}
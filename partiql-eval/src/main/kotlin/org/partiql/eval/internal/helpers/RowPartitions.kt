@@ -0,0 +1,105 @@
+package org.partiql.eval.internal.helpers
+
+import org.partiql.eval.Row
+import org.partiql.spi.value.Datum
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Hash partitions of rows which are spilled to temporary files, for operators whose hash table exceeds its memory
+ * budget. Equal rows are always written to the same partition, so each partition can be processed independently.
+ *
+ * Partitions are re-partitioned (recursively) with a different [level], which salts the hash, so that the rows of
+ * a partition are spread over the partitions of the next level.
+ *
+ * @property level  The depth of the partitioning.
+ */
+internal class RowPartitions(private val level: Int) {
+
+    private val paths = arrayOfNulls<Path>(FANOUT)
+    private val writers = arrayOfNulls<DataOutputStream>(FANOUT)
+    private val counts = IntArray(FANOUT)
+    private var reader: DataInputStream? = null
+
+    /**
+     * Writes the [key] (i.e. its row) to its partition.
+     */
+    fun write(key: DatumArrayKey) {
+        val partition = partition(key.hashCode())
+        val out = writers[partition] ?: open(partition)
+        RowSerializer.write(out, Row(key.values))
+        counts[partition]++
+    }
+
+    /**
+     * Returns the rows of the [partition]; this must be called once all rows have been written.
+     */
+    fun read(partition: Int): Iterator<Array<Datum>> = iterator {
+        writers[partition]?.close()
+        writers[partition] = null
+        val path = paths[partition] ?: return@iterator
+        val stream = DataInputStream(BufferedInputStream(Files.newInputStream(path)))
+        reader = stream
+        try {
+            for (i in 0 until counts[partition]) {
+                yield(RowSerializer.read(stream).values)
+            }
+        } finally {
+            stream.close()
+            reader = null
+        }
+        Files.deleteIfExists(path)
+        paths[partition] = null
+    }
+
+    /**
+     * Deletes the files of every partition.
+     */
+    fun delete() {
+        reader?.close()
+        reader = null
+        for (i in 0 until FANOUT) {
+            writers[i]?.close()
+            writers[i] = null
+            paths[i]?.let { Files.deleteIfExists(it) }
+            paths[i] = null
+        }
+    }
+
+    private fun open(partition: Int): DataOutputStream {
+        val path = Files.createTempFile("partiql-hash-", ".part")
+        paths[partition] = path
+        val out = DataOutputStream(BufferedOutputStream(Files.newOutputStream(path)))
+        writers[partition] = out
+        return out
+    }
+
+    private fun partition(hash: Int): Int {
+        // mix the salted hash, so the partitions of each level are independent of those of the previous level
+        var h = hash xor (level * SALT)
+        h = (h xor (h ushr 16)) * MIX
+        h = h xor (h ushr 15)
+        return Math.floorMod(h, FANOUT)
+    }
+
+    companion object {
+
+        /**
+         * The number of partitions of each level.
+         */
+        const val FANOUT = 16
+
+        /**
+         * The maximum depth of partitioning; the partitions of the last level are processed in memory regardless of
+         * their size, e.g. when a single row is repeated more often than the budget allows.
+         */
+        const val MAX_LEVEL = 4
+
+        private const val SALT = -0x61c88647
+        private const val MIX = -0x7a143595
+    }
+}
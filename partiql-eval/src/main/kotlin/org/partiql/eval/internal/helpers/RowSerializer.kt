@@ -0,0 +1,349 @@
+package org.partiql.eval.internal.helpers
+
+import org.partiql.eval.Row
+import org.partiql.spi.types.IntervalCode
+import org.partiql.spi.types.PType
+import org.partiql.spi.types.PTypeField
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.Field
+import java.io.DataInput
+import java.io.DataOutput
+import java.math.BigDecimal
+import java.math.BigInteger
+import java.nio.charset.StandardCharsets
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.OffsetDateTime
+import java.time.OffsetTime
+import java.time.ZoneOffset
+
+/**
+ * A compact binary row format for operators which spill (temporarily) to disk. This is not a stable format; rows are
+ * only ever read back by the process which wrote them.
+ *
+ * Each value is written as a tag (value, NULL, or MISSING), followed by its type, followed by its value (if any). The
+ * type is written as its code followed by its parameters, so values are read back with the same type.
+ */
+internal object RowSerializer {
+
+    private const val TAG_VALUE: Byte = 0
+    private const val TAG_NULL: Byte = 1
+    private const val TAG_MISSING: Byte = 2
+
+    /**
+     * Approximate heap overhead of a [Datum] (object header, type reference, and padding).
+     */
+    private const val DATUM_OVERHEAD = 24L
+
+    /**
+     * Writes the [row] to the [out].
+     */
+    @JvmStatic
+    fun write(out: DataOutput, row: Row) {
+        val values = row.values
+        out.writeInt(values.size)
+        for (value in values) {
+            writeDatum(out, value)
+        }
+    }
+
+    /**
+     * Reads a row (written by [write]) from the [input].
+     */
+    @JvmStatic
+    fun read(input: DataInput): Row {
+        val size = input.readInt()
+        val values = Array(size) { readDatum(input) }
+        return Row(values)
+    }
+
+    /**
+     * Returns the approximate number of bytes the [row] occupies in memory; this is used for memory budgets.
+     */
+    @JvmStatic
+    fun estimateSize(row: Row): Long {
+        var size = DATUM_OVERHEAD
+        for (value in row.values) {
+            size += estimateSize(value)
+        }
+        return size
+    }
+
+    private fun estimateSize(datum: Datum): Long {
+        if (datum.isNull || datum.isMissing) {
+            return DATUM_OVERHEAD
+        }
+        return DATUM_OVERHEAD + when (datum.type.code()) {
+            PType.DECIMAL, PType.NUMERIC -> 32L
+            PType.CHAR, PType.VARCHAR, PType.STRING -> 40L + 2L * datum.string.length
+            PType.BLOB, PType.CLOB -> 16L + datum.bytes.size
+            PType.DATE, PType.TIME, PType.TIMEZ, PType.TIMESTAMP, PType.TIMESTAMPZ -> 32L
+            PType.ARRAY, PType.BAG -> {
+                var size = 16L
+                for (element in datum) {
+                    size += 8L + estimateSize(element)
+                }
+                size
+            }
+            PType.STRUCT, PType.ROW -> {
+                var size = 16L
+                for (field in datum.fields) {
+                    size += 48L + 2L * field.name.length + estimateSize(field.value)
+                }
+                size
+            }
+            PType.VARIANT -> estimateSize(datum.lower())
+            else -> 8L
+        }
+    }
+
+    private fun writeDatum(out: DataOutput, datum: Datum) {
+        val type = datum.type
+        when {
+            datum.isMissing -> out.writeByte(TAG_MISSING.toInt())
+            datum.isNull -> out.writeByte(TAG_NULL.toInt())
+            else -> out.writeByte(TAG_VALUE.toInt())
+        }
+        writeType(out, type)
+        if (datum.isNull || datum.isMissing) {
+            return
+        }
+        when (type.code()) {
+            PType.BOOL -> out.writeBoolean(datum.boolean)
+            PType.TINYINT -> out.writeByte(datum.byte.toInt())
+            PType.SMALLINT -> out.writeShort(datum.short.toInt())
+            PType.INTEGER -> out.writeInt(datum.int)
+            PType.BIGINT -> out.writeLong(datum.long)
+            PType.REAL -> out.writeFloat(datum.float)
+            PType.DOUBLE -> out.writeDouble(datum.double)
+            PType.DECIMAL, PType.NUMERIC -> writeDecimal(out, datum.bigDecimal)
+            PType.CHAR, PType.VARCHAR, PType.STRING -> writeBytes(out, datum.string.toByteArray(StandardCharsets.UTF_8))
+            PType.BLOB, PType.CLOB -> writeBytes(out, datum.bytes)
+            PType.DATE -> out.writeLong(datum.localDate.toEpochDay())
+            PType.TIME -> out.writeLong(datum.localTime.toNanoOfDay())
+            PType.TIMEZ -> {
+                val value = datum.offsetTime
+                out.writeLong(value.toLocalTime().toNanoOfDay())
+                out.writeInt(value.offset.totalSeconds)
+            }
+            PType.TIMESTAMP -> writeLocalDateTime(out, datum.localDateTime)
+            PType.TIMESTAMPZ -> {
+                val value = datum.offsetDateTime
+                writeLocalDateTime(out, value.toLocalDateTime())
+                out.writeInt(value.offset.totalSeconds)
+            }
+            PType.INTERVAL_YM -> {
+                out.writeInt(datum.years)
+                out.writeInt(datum.months)
+            }
+            PType.INTERVAL_DT -> {
+                out.writeInt(datum.days)
+                out.writeInt(datum.hours)
+                out.writeInt(datum.minutes)
+                out.writeInt(datum.seconds)
+                out.writeInt(datum.nanos)
+            }
+            PType.ARRAY, PType.BAG -> {
+                val elements = datum.toList()
+                out.writeInt(elements.size)
+                for (element in elements) {
+                    writeDatum(out, element)
+                }
+            }
+            PType.STRUCT, PType.ROW -> {
+                val fields = datum.fields.asSequence().toList()
+                out.writeInt(fields.size)
+                for (field in fields) {
+                    out.writeUTF(field.name)
+                    writeDatum(out, field.value)
+                }
+            }
+            PType.VARIANT -> writeBytes(out, datum.pack(StandardCharsets.UTF_8))
+            else -> error("Unsupported type for serialization: $type")
+        }
+    }
+
+    private fun readDatum(input: DataInput): Datum {
+        val tag = input.readByte()
+        val type = readType(input)
+        when (tag) {
+            TAG_MISSING -> return Datum.missing(type)
+            TAG_NULL -> return Datum.nullValue(type)
+        }
+        return when (type.code()) {
+            PType.BOOL -> Datum.bool(input.readBoolean())
+            PType.TINYINT -> Datum.tinyint(input.readByte())
+            PType.SMALLINT -> Datum.smallint(input.readShort())
+            PType.INTEGER -> Datum.integer(input.readInt())
+            PType.BIGINT -> Datum.bigint(input.readLong())
+            PType.REAL -> Datum.real(input.readFloat())
+            PType.DOUBLE -> Datum.doublePrecision(input.readDouble())
+            PType.DECIMAL -> Datum.decimal(readDecimal(input), type.precision, type.scale)
+            PType.NUMERIC -> Datum.numeric(readDecimal(input), type.precision, type.scale)
+            PType.CHAR -> Datum.character(readString(input), type.length)
+            PType.VARCHAR -> Datum.varchar(readString(input), type.length)
+            PType.STRING -> Datum.string(readString(input))
+            PType.BLOB -> Datum.blob(readBytes(input), type.length)
+            PType.CLOB -> Datum.clob(readBytes(input), type.length)
+            PType.DATE -> Datum.date(LocalDate.ofEpochDay(input.readLong()))
+            PType.TIME -> Datum.time(LocalTime.ofNanoOfDay(input.readLong()), type.precision)
+            PType.TIMEZ -> {
+                val time = LocalTime.ofNanoOfDay(input.readLong())
+                val offset = ZoneOffset.ofTotalSeconds(input.readInt())
+                Datum.timez(OffsetTime.of(time, offset), type.precision)
+            }
+            PType.TIMESTAMP -> Datum.timestamp(readLocalDateTime(input), type.precision)
+            PType.TIMESTAMPZ -> {
+                val timestamp = readLocalDateTime(input)
+                val offset = ZoneOffset.ofTotalSeconds(input.readInt())
+                Datum.timestampz(OffsetDateTime.of(timestamp, offset), type.precision)
+            }
+            PType.INTERVAL_YM -> readIntervalYearMonth(input, type)
+            PType.INTERVAL_DT -> readIntervalDayTime(input, type)
+            PType.ARRAY -> Datum.array(List(input.readInt()) { readDatum(input) })
+            PType.BAG -> Datum.bag(List(input.readInt()) { readDatum(input) })
+            PType.STRUCT -> Datum.struct(List(input.readInt()) { Field.of(input.readUTF(), readDatum(input)) })
+            PType.ROW -> Datum.row(type.fields.toList(), List(input.readInt()) { Field.of(input.readUTF(), readDatum(input)) })
+            PType.VARIANT -> Datum.ion(readString(input))
+            else -> error("Unsupported type for deserialization: $type")
+        }
+    }
+
+    private fun writeType(out: DataOutput, type: PType) {
+        val code = type.code()
+        out.writeByte(code)
+        when (code) {
+            PType.DECIMAL, PType.NUMERIC -> {
+                out.writeInt(type.precision)
+                out.writeInt(type.scale)
+            }
+            PType.CHAR, PType.VARCHAR, PType.BLOB, PType.CLOB -> out.writeInt(type.length)
+            PType.TIME, PType.TIMEZ, PType.TIMESTAMP, PType.TIMESTAMPZ -> out.writeInt(type.precision)
+            PType.ARRAY, PType.BAG -> writeType(out, type.typeParameter)
+            PType.ROW -> {
+                val fields = type.fields
+                out.writeInt(fields.size)
+                for (field in fields) {
+                    out.writeUTF(field.name)
+                    writeType(out, field.type)
+                }
+            }
+            PType.INTERVAL_YM, PType.INTERVAL_DT -> {
+                out.writeInt(type.intervalCode)
+                out.writeInt(type.precision)
+                out.writeInt(type.fractionalPrecision)
+            }
+        }
+    }
+
+    private fun readType(input: DataInput): PType {
+        return when (val code = input.readByte().toInt()) {
+            PType.DECIMAL -> PType.decimal(input.readInt(), input.readInt())
+            PType.NUMERIC -> PType.numeric(input.readInt(), input.readInt())
+            PType.CHAR -> PType.character(input.readInt())
+            PType.VARCHAR -> PType.varchar(input.readInt())
+            PType.BLOB -> PType.blob(input.readInt())
+            PType.CLOB -> PType.clob(input.readInt())
+            PType.TIME -> PType.time(input.readInt())
+            PType.TIMEZ -> PType.timez(input.readInt())
+            PType.TIMESTAMP -> PType.timestamp(input.readInt())
+            PType.TIMESTAMPZ -> PType.timestampz(input.readInt())
+            PType.ARRAY -> PType.array(readType(input))
+            PType.BAG -> PType.bag(readType(input))
+            PType.ROW -> PType.row(List(input.readInt()) { PTypeField.of(input.readUTF(), readType(input)) })
+            PType.VARIANT -> PType.variant("ion")
+            PType.INTERVAL_YM, PType.INTERVAL_DT -> {
+                val intervalCode = input.readInt()
+                val precision = input.readInt()
+                val fractionalPrecision = input.readInt()
+                intervalType(intervalCode, precision, fractionalPrecision)
+            }
+            else -> PType.of(code)
+        }
+    }
+
+    private fun intervalType(code: Int, precision: Int, fractionalPrecision: Int): PType = when (code) {
+        IntervalCode.YEAR -> PType.intervalYear(precision)
+        IntervalCode.MONTH -> PType.intervalMonth(precision)
+        IntervalCode.YEAR_MONTH -> PType.intervalYearMonth(precision)
+        IntervalCode.DAY -> PType.intervalDay(precision)
+        IntervalCode.HOUR -> PType.intervalHour(precision)
+        IntervalCode.MINUTE -> PType.intervalMinute(precision)
+        IntervalCode.SECOND -> PType.intervalSecond(precision, fractionalPrecision)
+        IntervalCode.DAY_HOUR -> PType.intervalDayHour(precision)
+        IntervalCode.DAY_MINUTE -> PType.intervalDayMinute(precision)
+        IntervalCode.DAY_SECOND -> PType.intervalDaySecond(precision, fractionalPrecision)
+        IntervalCode.HOUR_MINUTE -> PType.intervalHourMinute(precision)
+        IntervalCode.HOUR_SECOND -> PType.intervalHourSecond(precision, fractionalPrecision)
+        IntervalCode.MINUTE_SECOND -> PType.intervalMinuteSecond(precision, fractionalPrecision)
+        else -> error("Unsupported interval code: $code")
+    }
+
+    private fun readIntervalYearMonth(input: DataInput, type: PType): Datum {
+        val years = input.readInt()
+        val months = input.readInt()
+        val p = type.precision
+        return when (type.intervalCode) {
+            IntervalCode.YEAR -> Datum.intervalYear(years, p)
+            IntervalCode.MONTH -> Datum.intervalMonth(months, p)
+            else -> Datum.intervalYearMonth(years, months, p)
+        }
+    }
+
+    private fun readIntervalDayTime(input: DataInput, type: PType): Datum {
+        val days = input.readInt()
+        val hours = input.readInt()
+        val minutes = input.readInt()
+        val seconds = input.readInt()
+        val nanos = input.readInt()
+        val p = type.precision
+        val fp = type.fractionalPrecision
+        return when (type.intervalCode) {
+            IntervalCode.DAY -> Datum.intervalDay(days, p)
+            IntervalCode.HOUR -> Datum.intervalHour(hours, p)
+            IntervalCode.MINUTE -> Datum.intervalMinute(minutes, p)
+            IntervalCode.SECOND -> Datum.intervalSecond(seconds, nanos, p, fp)
+            IntervalCode.DAY_HOUR -> Datum.intervalDayHour(days, hours, p)
+            IntervalCode.DAY_MINUTE -> Datum.intervalDayMinute(days, hours, minutes, p)
+            IntervalCode.DAY_SECOND -> Datum.intervalDaySecond(days, hours, minutes, seconds, nanos, p, fp)
+            IntervalCode.HOUR_MINUTE -> Datum.intervalHourMinute(hours, minutes, p)
+            IntervalCode.HOUR_SECOND -> Datum.intervalHourSecond(hours, minutes, seconds, nanos, p, fp)
+            else -> Datum.intervalMinuteSecond(minutes, seconds, nanos, p, fp)
+        }
+    }
+
+    private fun writeDecimal(out: DataOutput, value: BigDecimal) {
+        writeBytes(out, value.unscaledValue().toByteArray())
+        out.writeInt(value.scale())
+    }
+
+    private fun readDecimal(input: DataInput): BigDecimal {
+        val unscaled = BigInteger(readBytes(input))
+        return BigDecimal(unscaled, input.readInt())
+    }
+
+    private fun writeLocalDateTime(out: DataOutput, value: LocalDateTime) {
+        out.writeLong(value.toLocalDate().toEpochDay())
+        out.writeLong(value.toLocalTime().toNanoOfDay())
+    }
+
+    private fun readLocalDateTime(input: DataInput): LocalDateTime {
+        val date = LocalDate.ofEpochDay(input.readLong())
+        val time = LocalTime.ofNanoOfDay(input.readLong())
+        return LocalDateTime.of(date, time)
+    }
+
+    private fun writeBytes(out: DataOutput, bytes: ByteArray) {
+        out.writeInt(bytes.size)
+        out.write(bytes)
+    }
+
+    private fun readBytes(input: DataInput): ByteArray {
+        val bytes = ByteArray(input.readInt())
+        input.readFully(bytes)
+        return bytes
+    }
+
+    private fun readString(input: DataInput): String = String(readBytes(input), StandardCharsets.UTF_8)
+}
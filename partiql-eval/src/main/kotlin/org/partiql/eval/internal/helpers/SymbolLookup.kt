@@ -0,0 +1,34 @@
+package org.partiql.eval.internal.helpers
+
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.StructShape
+
+/**
+ * A case-insensitive lookup of a field [symbol] for a path expression. The position of the field is resolved once per
+ * [StructShape] and cached with the last shape, as the structs which reach a path almost always share one shape; a
+ * struct of the same shape is then accessed by position, without hashing (or lowercasing) the symbol.
+ */
+internal class SymbolLookup(private val symbol: String) {
+
+    /**
+     * The last shape and the position of the symbol in it; replaced rather than modified, so it may be shared by
+     * parallel evaluations.
+     */
+    @Volatile
+    private var resolved: Resolved? = null
+
+    /**
+     * @return the value of the field, or null if the struct has no such field.
+     */
+    fun get(struct: Datum): Datum? {
+        val shape = struct.shape ?: return struct.getInsensitive(symbol)
+        var r = resolved
+        if (r == null || r.shape !== shape) {
+            r = Resolved(shape, shape.indexOfInsensitive(symbol))
+            resolved = r
+        }
+        return if (r.position < 0) null else struct.get(r.position)
+    }
+
+    private class Resolved(@JvmField val shape: StructShape, @JvmField val position: Int)
+}
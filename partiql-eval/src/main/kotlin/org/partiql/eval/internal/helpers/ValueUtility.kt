@@ -61,6 +61,39 @@ internal object ValueUtility {
         return this.check(PType.struct())
     }
 
+    /**
+     * Same as [check], but returns null rather than throwing when the input value is a non-null value of the wrong
+     * type; permissive operators return MISSING in that case without raising (and catching) an error.
+     */
+    fun Datum.checkOrNull(type: PType): Datum? {
+        if (this.type == type) {
+            return this
+        }
+        if (this.type.code() == PType.VARIANT) {
+            return this.lower().checkOrNull(type)
+        }
+        if (!this.isNull) {
+            return null
+        }
+        return Datum.nullValue(type)
+    }
+
+    /**
+     * Same as [checkStruct], but returns null rather than throwing when the input value is not a struct.
+     */
+    fun Datum.checkStructOrNull(): Datum? {
+        if (this.type.code() == PType.VARIANT) {
+            return this.lower().checkStructOrNull()
+        }
+        if (this.type.code() == PType.STRUCT) {
+            return this
+        }
+        if (this.type.code() == PType.ROW) {
+            return CastTable.cast(this, PType.struct())
+        }
+        return this.checkOrNull(PType.struct())
+    }
+
     /**
      * Returns the underlying string value of a PartiQL text value
      *
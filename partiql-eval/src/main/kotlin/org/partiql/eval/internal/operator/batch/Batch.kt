@@ -0,0 +1,63 @@
+package org.partiql.eval.internal.operator.batch
+
+import org.partiql.eval.Row
+import org.partiql.spi.value.Datum
+
+/**
+ * A batch of up to [capacity] rows stored as columns, with a selection vector of the rows which are still live.
+ *
+ * Physical row `i` is `columns[c][i]` for `i < size`; the live rows are `selection[0 until selected]`, in order.
+ * Operators such as a filter only narrow the selection vector, so the columns are never copied to drop rows.
+ *
+ * @property columns
+ * @property capacity
+ */
+internal class Batch(
+    @JvmField val columns: Array<Array<Datum?>>,
+    @JvmField val capacity: Int,
+) {
+
+    /**
+     * The number of physical rows.
+     */
+    @JvmField
+    var size: Int = 0
+
+    /**
+     * The physical indexes of the live rows.
+     */
+    @JvmField
+    val selection: IntArray = IntArray(capacity)
+
+    /**
+     * The number of live rows.
+     */
+    @JvmField
+    var selected: Int = 0
+
+    constructor(degree: Int, capacity: Int) : this(Array(degree) { arrayOfNulls<Datum>(capacity) }, capacity)
+
+    /**
+     * Sets the number of physical rows and selects all of them.
+     */
+    fun reset(size: Int) {
+        this.size = size
+        this.selected = size
+        for (i in 0 until size) {
+            selection[i] = i
+        }
+    }
+
+    /**
+     * @return the physical row `i` as a [Row].
+     */
+    fun row(i: Int): Row = Row(Array(columns.size) { columns[it][i]!! })
+
+    companion object {
+
+        /**
+         * The default number of rows in a batch.
+         */
+        const val CAPACITY = 1024
+    }
+}
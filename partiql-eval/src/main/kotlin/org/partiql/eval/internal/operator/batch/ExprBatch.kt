@@ -0,0 +1,23 @@
+package org.partiql.eval.internal.operator.batch
+
+import org.partiql.eval.Environment
+import org.partiql.spi.value.Datum
+
+/**
+ * A scalar expression evaluated over a whole [Batch] rather than a single row.
+ */
+internal interface ExprBatch {
+
+    /**
+     * Evaluates the expression for each live row of the [batch]; the value of physical row `i` is at index `i` of the
+     * result, and the values of rows which are not live are undefined.
+     *
+     * The result may be a column of the batch or a buffer of the expression, so it must not be modified, and it is
+     * only valid until the next call.
+     *
+     * @param env   The environment of the batch's operator (i.e. not including the batch's rows).
+     * @param batch
+     * @return
+     */
+    fun eval(env: Environment, batch: Batch): Array<Datum?>
+}
@@ -0,0 +1,47 @@
+package org.partiql.eval.internal.operator.batch
+
+import org.partiql.eval.Environment
+import org.partiql.spi.function.Fn
+import org.partiql.spi.value.Datum
+
+/**
+ * Scalar function call; the arguments are evaluated as whole columns, then the function is invoked for each live row.
+ *
+ * @property function   Function instance to invoke.
+ * @property args       Input argument expressions.
+ */
+internal class ExprBatchCall(
+    private val function: Fn,
+    private val args: Array<ExprBatch>,
+) : ExprBatch {
+
+    private val isNullCall: Boolean = function.signature.isNullCall
+    private val isMissingCall: Boolean = function.signature.isMissingCall
+    private val returns = function.signature.returns
+
+    private var out = arrayOfNulls<Datum>(Batch.CAPACITY)
+
+    override fun eval(env: Environment, batch: Batch): Array<Datum?> {
+        val columns = Array(args.size) { args[it].eval(env, batch) }
+        if (out.size < batch.size) {
+            out = arrayOfNulls(batch.capacity)
+        }
+        val selection = batch.selection
+        rows@ for (k in 0 until batch.selected) {
+            val i = selection[k]
+            val arguments = Array(columns.size) { columns[it][i]!! }
+            for (arg in arguments) {
+                if (isNullCall && arg.isNull) {
+                    out[i] = Datum.nullValue(returns)
+                    continue@rows
+                }
+                if (isMissingCall && arg.isMissing) {
+                    out[i] = Datum.missing(returns)
+                    continue@rows
+                }
+            }
+            out[i] = function.invoke(arguments)
+        }
+        return out
+    }
+}
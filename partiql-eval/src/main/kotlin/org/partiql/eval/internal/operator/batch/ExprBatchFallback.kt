@@ -0,0 +1,32 @@
+package org.partiql.eval.internal.operator.batch
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprValue
+import org.partiql.spi.value.Datum
+
+/**
+ * The root of a batch expression tree.
+ *
+ * Batch evaluation evaluates every argument of every live row, whereas row-at-a-time evaluation may stop early (e.g. a
+ * NULL argument of a null-call function) or handle an error in a sub-expression (e.g. permissive mode). So if batch
+ * evaluation fails, the batch is re-evaluated row-at-a-time with the original [expr], which has the exact semantics;
+ * the error (if any) of that evaluation is the error of the expression.
+ *
+ * @property batch  Batch translation of the [expr].
+ * @property expr   The original expression.
+ */
+internal class ExprBatchFallback(
+    private val batch: ExprBatch,
+    expr: ExprValue,
+) : ExprBatch {
+
+    private val rows = ExprBatchRow(expr)
+
+    override fun eval(env: Environment, batch: Batch): Array<Datum?> {
+        return try {
+            this.batch.eval(env, batch)
+        } catch (e: Exception) {
+            rows.eval(env, batch)
+        }
+    }
+}
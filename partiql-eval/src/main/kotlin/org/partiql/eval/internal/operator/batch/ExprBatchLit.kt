@@ -0,0 +1,19 @@
+package org.partiql.eval.internal.operator.batch
+
+import org.partiql.eval.Environment
+import org.partiql.spi.value.Datum
+
+/**
+ * Literal expression; the result is a constant column.
+ */
+internal class ExprBatchLit(private val value: Datum) : ExprBatch {
+
+    private var out: Array<Datum?> = Array(Batch.CAPACITY) { value }
+
+    override fun eval(env: Environment, batch: Batch): Array<Datum?> {
+        if (out.size < batch.size) {
+            out = Array(batch.capacity) { value }
+        }
+        return out
+    }
+}
@@ -0,0 +1,38 @@
+package org.partiql.eval.internal.operator.batch
+
+import org.partiql.eval.Environment
+import org.partiql.eval.internal.helpers.PErrors
+import org.partiql.eval.internal.helpers.ValueUtility.check
+import org.partiql.eval.internal.helpers.ValueUtility.checkStruct
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+
+/**
+ * Struct field access by key for each live row; see ExprPathKey.
+ */
+internal class ExprBatchPathKey(
+    private val root: ExprBatch,
+    private val key: ExprBatch,
+) : ExprBatch {
+
+    private var out = arrayOfNulls<Datum>(Batch.CAPACITY)
+
+    override fun eval(env: Environment, batch: Batch): Array<Datum?> {
+        val roots = root.eval(env, batch)
+        val keys = key.eval(env, batch)
+        if (out.size < batch.size) {
+            out = arrayOfNulls(batch.capacity)
+        }
+        val selection = batch.selection
+        for (k in 0 until batch.selected) {
+            val i = selection[k]
+            val rootEvaluated = roots[i]!!.checkStruct()
+            val keyEvaluated = keys[i]!!.check(PType.string())
+            out[i] = when (rootEvaluated.isNull || keyEvaluated.isNull) {
+                true -> Datum.nullValue()
+                false -> rootEvaluated.get(keyEvaluated.string) ?: throw PErrors.pathKeyFailureException()
+            }
+        }
+        return out
+    }
+}
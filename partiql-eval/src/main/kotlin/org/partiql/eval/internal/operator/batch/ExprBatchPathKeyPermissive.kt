@@ -0,0 +1,38 @@
+package org.partiql.eval.internal.operator.batch
+
+import org.partiql.eval.Environment
+import org.partiql.eval.internal.helpers.ValueUtility.checkOrNull
+import org.partiql.eval.internal.helpers.ValueUtility.checkStructOrNull
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+
+/**
+ * Struct field access by key for each live row; see ExprPathKeyPermissive.
+ */
+internal class ExprBatchPathKeyPermissive(
+    private val root: ExprBatch,
+    private val key: ExprBatch,
+) : ExprBatch {
+
+    private var out = arrayOfNulls<Datum>(Batch.CAPACITY)
+
+    override fun eval(env: Environment, batch: Batch): Array<Datum?> {
+        val roots = root.eval(env, batch)
+        val keys = key.eval(env, batch)
+        if (out.size < batch.size) {
+            out = arrayOfNulls(batch.capacity)
+        }
+        val selection = batch.selection
+        for (k in 0 until batch.selected) {
+            val i = selection[k]
+            val rootEvaluated = roots[i]!!.checkStructOrNull()
+            val keyEvaluated = keys[i]!!.checkOrNull(PType.string())
+            out[i] = when {
+                rootEvaluated == null || keyEvaluated == null -> Datum.missing()
+                rootEvaluated.isNull || keyEvaluated.isNull -> Datum.nullValue()
+                else -> rootEvaluated.get(keyEvaluated.string) ?: Datum.missing()
+            }
+        }
+        return out
+    }
+}
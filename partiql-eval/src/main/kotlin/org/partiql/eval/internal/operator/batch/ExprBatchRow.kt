@@ -0,0 +1,27 @@
+package org.partiql.eval.internal.operator.batch
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprValue
+import org.partiql.spi.value.Datum
+
+/**
+ * Row-at-a-time evaluation of an expression which has no batch implementation.
+ *
+ * @property expr
+ */
+internal class ExprBatchRow(private val expr: ExprValue) : ExprBatch {
+
+    private var out = arrayOfNulls<Datum>(Batch.CAPACITY)
+
+    override fun eval(env: Environment, batch: Batch): Array<Datum?> {
+        if (out.size < batch.size) {
+            out = arrayOfNulls(batch.capacity)
+        }
+        val selection = batch.selection
+        for (k in 0 until batch.selected) {
+            val i = selection[k]
+            out[i] = expr.eval(env.push(batch.row(i)))
+        }
+        return out
+    }
+}
@@ -0,0 +1,31 @@
+package org.partiql.eval.internal.operator.batch
+
+import org.partiql.eval.Environment
+import org.partiql.spi.value.Datum
+
+/**
+ * Variable reference; a reference to the batch's rows (depth 0) is the column itself, otherwise the variable of the
+ * enclosing environment is broadcast to every live row.
+ */
+internal class ExprBatchVar(
+    private val depth: Int,
+    private val offset: Int,
+) : ExprBatch {
+
+    private var out = arrayOfNulls<Datum>(Batch.CAPACITY)
+
+    override fun eval(env: Environment, batch: Batch): Array<Datum?> {
+        if (depth == 0) {
+            return batch.columns[offset]
+        }
+        val value = env.get(depth - 1, offset)
+        if (out.size < batch.size) {
+            out = arrayOfNulls(batch.capacity)
+        }
+        val selection = batch.selection
+        for (k in 0 until batch.selected) {
+            out[selection[k]] = value
+        }
+        return out
+    }
+}
@@ -0,0 +1,58 @@
+package org.partiql.eval.internal.operator.batch
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.Row
+
+/**
+ * A relation operator which produces its rows in [Batch]es.
+ *
+ * Batch operators pull whole batches from one another with [nextBatch]; any other (row-at-a-time) operator consumes a
+ * batch operator through the [ExprRelation] iterator, which returns the live rows of each batch.
+ *
+ * A batch returned by [nextBatch] is only valid until the next call; operators may reuse their output batch.
+ */
+internal abstract class RelOpBatch : ExprRelation {
+
+    private var batch: Batch? = null
+    private var index = 0
+
+    abstract fun openBatch(env: Environment)
+
+    /**
+     * @return the next batch with at least one live row, or null if there are no more rows.
+     */
+    abstract fun nextBatch(): Batch?
+
+    abstract fun closeBatch()
+
+    final override fun open(env: Environment) {
+        batch = null
+        index = 0
+        openBatch(env)
+    }
+
+    final override fun hasNext(): Boolean {
+        while (true) {
+            val b = batch
+            if (b != null && index < b.selected) {
+                return true
+            }
+            batch = nextBatch() ?: return false
+            index = 0
+        }
+    }
+
+    final override fun next(): Row {
+        if (!hasNext()) {
+            throw NoSuchElementException()
+        }
+        val b = batch!!
+        return b.row(b.selection[index++])
+    }
+
+    final override fun close() {
+        batch = null
+        closeBatch()
+    }
+}
@@ -0,0 +1,45 @@
+package org.partiql.eval.internal.operator.batch
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+
+/**
+ * Collects the rows of a row-at-a-time [input] into batches; this is the boundary between row-at-a-time and batch
+ * operators (e.g. above a scan).
+ *
+ * @property input
+ */
+internal class RelOpBatchSource(private val input: ExprRelation) : RelOpBatch() {
+
+    // allocated on the first row, as the degree is that of the input rows
+    private var batch: Batch? = null
+
+    override fun openBatch(env: Environment) {
+        input.open(env)
+    }
+
+    override fun nextBatch(): Batch? {
+        if (!input.hasNext()) {
+            return null
+        }
+        var values = input.next().values
+        val batch = this.batch ?: Batch(values.size, Batch.CAPACITY).also { this.batch = it }
+        var n = 0
+        while (true) {
+            for (c in values.indices) {
+                batch.columns[c][n] = values[c]
+            }
+            n++
+            if (n == batch.capacity || !input.hasNext()) {
+                break
+            }
+            values = input.next().values
+        }
+        batch.reset(n)
+        return batch
+    }
+
+    override fun closeBatch() {
+        input.close()
+    }
+}
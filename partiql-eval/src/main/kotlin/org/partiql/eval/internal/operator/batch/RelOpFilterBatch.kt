@@ -0,0 +1,46 @@
+package org.partiql.eval.internal.operator.batch
+
+import org.partiql.eval.Environment
+import org.partiql.eval.internal.helpers.ValueUtility.isTrue
+
+/**
+ * Filters each batch of the [input] by narrowing its selection vector to the rows for which the [predicate] is true.
+ *
+ * @property input
+ * @property predicate
+ */
+internal class RelOpFilterBatch(
+    private val input: RelOpBatch,
+    private val predicate: ExprBatch,
+) : RelOpBatch() {
+
+    private lateinit var env: Environment
+
+    override fun openBatch(env: Environment) {
+        this.env = env
+        input.openBatch(env)
+    }
+
+    override fun nextBatch(): Batch? {
+        while (true) {
+            val batch = input.nextBatch() ?: return null
+            val conditions = predicate.eval(env, batch)
+            val selection = batch.selection
+            var n = 0
+            for (k in 0 until batch.selected) {
+                val i = selection[k]
+                if (conditions[i]!!.isTrue()) {
+                    selection[n++] = i
+                }
+            }
+            batch.selected = n
+            if (n > 0) {
+                return batch
+            }
+        }
+    }
+
+    override fun closeBatch() {
+        input.closeBatch()
+    }
+}
@@ -0,0 +1,43 @@
+package org.partiql.eval.internal.operator.batch
+
+import org.partiql.eval.Environment
+
+/**
+ * Evaluates the [projections] over the live rows of each batch of the [input]; the output batch is compact, so all of
+ * its rows are live.
+ *
+ * @property input
+ * @property projections
+ */
+internal class RelOpProjectBatch(
+    private val input: RelOpBatch,
+    private val projections: List<ExprBatch>,
+) : RelOpBatch() {
+
+    private lateinit var env: Environment
+    private val batch = Batch(projections.size, Batch.CAPACITY)
+
+    override fun openBatch(env: Environment) {
+        this.env = env
+        input.openBatch(env)
+    }
+
+    override fun nextBatch(): Batch? {
+        val batch = input.nextBatch() ?: return null
+        val selection = batch.selection
+        val n = batch.selected
+        for (p in projections.indices) {
+            val values = projections[p].eval(env, batch)
+            val column = this.batch.columns[p]
+            for (k in 0 until n) {
+                column[k] = values[selection[k]]
+            }
+        }
+        this.batch.reset(n)
+        return this.batch
+    }
+
+    override fun closeBatch() {
+        input.closeBatch()
+    }
+}
@@ -0,0 +1,144 @@
+package org.partiql.eval.internal.operator.exchange
+
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * A bounded queue of items from some number of [producers] (worker tasks) to a single consumer.
+ *
+ * Blocking is done via [ForkJoinPool.managedBlock], so a pool may compensate for workers which are blocked on a full
+ * (or empty) channel. A consumer may [cancel] the channel at any time, after which producers stop promptly.
+ *
+ * @param capacity  The maximum number of buffered items.
+ * @property producers  The number of producers; each must call [close] exactly once.
+ */
+internal class Channel<T : Any>(capacity: Int, private val producers: Int) {
+
+    private val queue = ArrayBlockingQueue<Any>(capacity)
+    private val closed = AtomicInteger(0)
+    private val error = AtomicReference<Throwable?>(null)
+
+    @Volatile
+    private var cancelled = false
+
+    /**
+     * True if the consumer has cancelled the channel, in which case producers should stop.
+     */
+    val isCancelled: Boolean
+        get() = cancelled
+
+    /**
+     * Adds an item, blocking while the channel is full.
+     *
+     * @return false if the channel was cancelled, in which case the item was dropped.
+     */
+    fun put(item: T): Boolean {
+        val blocker = Put(item)
+        ForkJoinPool.managedBlock(blocker)
+        return blocker.done
+    }
+
+    /**
+     * Returns the next item, blocking while the channel is empty.
+     *
+     * @return the next item, or null once every producer is closed (or the channel is cancelled).
+     * @throws Throwable the first error of any producer.
+     */
+    fun take(): T? {
+        while (true) {
+            error.get()?.let { throw it }
+            if (closed.get() == producers) {
+                return null
+            }
+            val blocker = Take()
+            ForkJoinPool.managedBlock(blocker)
+            // a blocker without an item was released by a cancellation, which may be the failure of a producer
+            val item = blocker.item ?: run {
+                error.get()?.let { throw it }
+                return null
+            }
+            if (item === END) {
+                closed.incrementAndGet()
+                continue
+            }
+            @Suppress("UNCHECKED_CAST")
+            return item as T
+        }
+    }
+
+    /**
+     * Called by a producer once it is done (normally or not).
+     */
+    fun close() {
+        val blocker = Put(END)
+        ForkJoinPool.managedBlock(blocker)
+    }
+
+    /**
+     * Called by a producer which failed; the consumer rethrows the first error, and the other producers stop.
+     */
+    fun fail(t: Throwable) {
+        error.compareAndSet(null, t)
+        cancelled = true
+    }
+
+    /**
+     * Called by the consumer to stop the producers and drop any buffered items.
+     */
+    fun cancel() {
+        cancelled = true
+        queue.clear()
+    }
+
+    private inner class Put(private val item: Any) : ForkJoinPool.ManagedBlocker {
+
+        @JvmField
+        var done = false
+
+        override fun block(): Boolean {
+            while (!done && !cancelled) {
+                done = queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)
+            }
+            return true
+        }
+
+        override fun isReleasable(): Boolean {
+            if (!done && !cancelled) {
+                done = queue.offer(item)
+            }
+            return done || cancelled
+        }
+    }
+
+    private inner class Take : ForkJoinPool.ManagedBlocker {
+
+        @JvmField
+        var item: Any? = null
+
+        override fun block(): Boolean {
+            while (item == null && !cancelled) {
+                item = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)
+            }
+            return true
+        }
+
+        override fun isReleasable(): Boolean {
+            if (item == null && !cancelled) {
+                item = queue.poll()
+            }
+            return item != null || cancelled
+        }
+    }
+
+    private companion object {
+
+        // marks the end of a producer
+        val END = Any()
+
+        // how often a blocked thread checks for cancellation
+        const val POLL_MILLIS = 10L
+    }
+}
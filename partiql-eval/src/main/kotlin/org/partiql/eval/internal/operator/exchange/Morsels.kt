@@ -0,0 +1,63 @@
+package org.partiql.eval.internal.operator.exchange
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprValue
+import org.partiql.eval.Row
+import org.partiql.eval.internal.helpers.DatumUtils.lowerSafe
+import org.partiql.eval.internal.helpers.PErrors
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+import java.util.Collections
+
+/**
+ * The input of a parallel scan, which hands out chunks ("morsels") of the scanned collection to the workers on demand.
+ * Workers which are faster (e.g. due to a more selective filter) simply take more morsels, so no partition is skewed.
+ *
+ * @property expr   The scanned expression.
+ * @property strict True if a non-collection is an error (see RelOpScan); otherwise it is scanned as a single value.
+ */
+internal class Morsels(
+    private val expr: ExprValue,
+    private val strict: Boolean,
+) {
+
+    private var values: Iterator<Datum> = Collections.emptyIterator()
+
+    /**
+     * Evaluates the scanned expression; this is called before the workers are started.
+     */
+    fun open(env: Environment) {
+        val r = expr.eval(env.push(Row())).lowerSafe()
+        values = when (r.type.code()) {
+            PType.ARRAY, PType.BAG -> r.iterator()
+            else -> when (strict) {
+                true -> throw PErrors.collectionExpectedException(r.type)
+                false -> Collections.singletonList(r).iterator()
+            }
+        }
+    }
+
+    /**
+     * @return the next morsel, or null if the collection is exhausted.
+     */
+    @Synchronized
+    fun next(): List<Datum>? {
+        if (!values.hasNext()) {
+            return null
+        }
+        val morsel = ArrayList<Datum>(SIZE)
+        while (morsel.size < SIZE && values.hasNext()) {
+            morsel.add(values.next())
+        }
+        return morsel
+    }
+
+    @Synchronized
+    fun close() {
+        values = Collections.emptyIterator()
+    }
+
+    private companion object {
+        const val SIZE = 1024
+    }
+}
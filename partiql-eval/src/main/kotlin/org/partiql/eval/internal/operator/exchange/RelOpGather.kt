@@ -0,0 +1,93 @@
+package org.partiql.eval.internal.operator.exchange
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.Row
+import java.util.Collections
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.ForkJoinTask
+
+/**
+ * Runs each of the [partitions] (a copy of some pipeline) on a worker of the [pool] and returns the union of their
+ * rows, in no particular order.
+ *
+ * The partitions share the [morsels] of their scan, which are opened before the workers are started; if the pipeline
+ * is partitioned by key, then the [shuffle] between the scan and the partitions is started as well.
+ *
+ * @property pool
+ * @property morsels
+ * @property partitions
+ * @property shuffle
+ */
+internal class RelOpGather(
+    private val pool: ForkJoinPool,
+    private val morsels: Morsels,
+    private val partitions: List<ExprRelation>,
+    private val shuffle: Shuffle? = null,
+) : ExprRelation {
+
+    private var channel: Channel<List<Row>> = Channel(1, 0)
+    private var tasks: List<ForkJoinTask<*>> = emptyList()
+    private var chunk: Iterator<Row> = Collections.emptyIterator()
+
+    override fun open(env: Environment) {
+        morsels.open(env)
+        shuffle?.start(env)
+        chunk = Collections.emptyIterator()
+        channel = Channel(CAPACITY, partitions.size)
+        val channel = channel
+        tasks = partitions.map { partition -> pool.submit(Runnable { produce(partition, env, channel) }) }
+    }
+
+    override fun hasNext(): Boolean {
+        while (!chunk.hasNext()) {
+            chunk = channel.take()?.iterator() ?: return false
+        }
+        return true
+    }
+
+    override fun next(): Row {
+        if (!hasNext()) {
+            throw NoSuchElementException()
+        }
+        return chunk.next()
+    }
+
+    override fun close() {
+        channel.cancel()
+        shuffle?.close()
+        tasks.forEach { it.quietlyJoin() }
+        tasks = emptyList()
+        chunk = Collections.emptyIterator()
+        morsels.close()
+    }
+
+    private fun produce(partition: ExprRelation, env: Environment, channel: Channel<List<Row>>) {
+        try {
+            partition.open(env)
+            var buffer = ArrayList<Row>(CHUNK)
+            while (!channel.isCancelled && partition.hasNext()) {
+                buffer.add(partition.next())
+                if (buffer.size == CHUNK) {
+                    if (!channel.put(buffer)) {
+                        return
+                    }
+                    buffer = ArrayList(CHUNK)
+                }
+            }
+            if (buffer.isNotEmpty()) {
+                channel.put(buffer)
+            }
+        } catch (t: Throwable) {
+            channel.fail(t)
+        } finally {
+            partition.close()
+            channel.close()
+        }
+    }
+
+    private companion object {
+        const val CHUNK = 256
+        const val CAPACITY = 16
+    }
+}
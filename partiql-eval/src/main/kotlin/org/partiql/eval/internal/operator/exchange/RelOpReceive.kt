@@ -0,0 +1,42 @@
+package org.partiql.eval.internal.operator.exchange
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.Row
+import java.util.Collections
+
+/**
+ * Returns the rows of one partition of a [Shuffle].
+ *
+ * @property shuffle
+ * @property partition
+ */
+internal class RelOpReceive(
+    private val shuffle: Shuffle,
+    private val partition: Int,
+) : ExprRelation {
+
+    private var chunk: Iterator<Row> = Collections.emptyIterator()
+
+    override fun open(env: Environment) {
+        chunk = Collections.emptyIterator()
+    }
+
+    override fun hasNext(): Boolean {
+        while (!chunk.hasNext()) {
+            chunk = shuffle.channel(partition).take()?.iterator() ?: return false
+        }
+        return true
+    }
+
+    override fun next(): Row {
+        if (!hasNext()) {
+            throw NoSuchElementException()
+        }
+        return chunk.next()
+    }
+
+    override fun close() {
+        chunk = Collections.emptyIterator()
+    }
+}
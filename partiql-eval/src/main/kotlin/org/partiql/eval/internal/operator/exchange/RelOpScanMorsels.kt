@@ -0,0 +1,39 @@
+package org.partiql.eval.internal.operator.exchange
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.Row
+import org.partiql.spi.value.Datum
+import java.util.Collections
+
+/**
+ * The scan of one worker of a parallel scan; it returns the values of the morsels it takes from the shared [morsels].
+ *
+ * @property morsels
+ */
+internal class RelOpScanMorsels(private val morsels: Morsels) : ExprRelation {
+
+    private var morsel: Iterator<Datum> = Collections.emptyIterator()
+
+    override fun open(env: Environment) {
+        morsel = Collections.emptyIterator()
+    }
+
+    override fun hasNext(): Boolean {
+        while (!morsel.hasNext()) {
+            morsel = morsels.next()?.iterator() ?: return false
+        }
+        return true
+    }
+
+    override fun next(): Row {
+        if (!hasNext()) {
+            throw NoSuchElementException()
+        }
+        return Row(arrayOf(morsel.next()))
+    }
+
+    override fun close() {
+        morsel = Collections.emptyIterator()
+    }
+}
@@ -0,0 +1,94 @@
+package org.partiql.eval.internal.operator.exchange
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.ExprValue
+import org.partiql.eval.Row
+import org.partiql.eval.internal.helpers.DatumHasher
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.ForkJoinTask
+
+/**
+ * Hash-partitions the rows of several (parallel) [producers] by their keys, so that all rows with equal keys are in
+ * the same partition. Each partition is read by a [RelOpReceive].
+ *
+ * @property pool
+ * @property producers
+ * @property partitions The number of partitions.
+ */
+internal class Shuffle(
+    private val pool: ForkJoinPool,
+    private val producers: List<Producer>,
+    private val partitions: Int,
+) {
+
+    /**
+     * @property input  A worker's input.
+     * @property keys   The partitioning keys, over a row of the [input].
+     */
+    class Producer(@JvmField val input: ExprRelation, @JvmField val keys: List<ExprValue>)
+
+    private var channels: List<Channel<List<Row>>> = emptyList()
+    private var tasks: List<ForkJoinTask<*>> = emptyList()
+
+    /**
+     * Starts the producers; the (shared) input of the producers must already be open.
+     */
+    fun start(env: Environment) {
+        channels = List(partitions) { Channel(CAPACITY, producers.size) }
+        tasks = producers.map { producer -> pool.submit(Runnable { route(producer, env) }) }
+    }
+
+    /**
+     * @return the channel of the [partition]; only valid after [start].
+     */
+    fun channel(partition: Int): Channel<List<Row>> = channels[partition]
+
+    /**
+     * Stops the producers (if they are still running) and waits for them.
+     */
+    fun close() {
+        channels.forEach { it.cancel() }
+        tasks.forEach { it.quietlyJoin() }
+        tasks = emptyList()
+    }
+
+    private fun route(producer: Producer, env: Environment) {
+        val input = producer.input
+        val keys = producer.keys
+        var buffers = Array(partitions) { ArrayList<Row>(CHUNK) }
+        try {
+            input.open(env)
+            while (!channels[0].isCancelled && input.hasNext()) {
+                val row = input.next()
+                val rowEnv = env.push(row)
+                val values = Array(keys.size) { keys[it].eval(rowEnv) }
+                val partition = Math.floorMod(DatumHasher.hash(values), partitions)
+                val buffer = buffers[partition]
+                buffer.add(row)
+                if (buffer.size == CHUNK) {
+                    if (!channels[partition].put(buffer)) {
+                        return
+                    }
+                    buffers[partition] = ArrayList(CHUNK)
+                }
+            }
+            for (partition in 0 until partitions) {
+                if (buffers[partition].isNotEmpty() && !channels[partition].put(buffers[partition])) {
+                    return
+                }
+            }
+        } catch (t: Throwable) {
+            channels.forEach { it.fail(t) }
+        } finally {
+            buffers = emptyArray()
+            input.close()
+            channels.forEach { it.close() }
+        }
+    }
+
+    private companion object {
+        const val CHUNK = 256
+        const val CAPACITY = 16
+    }
+}
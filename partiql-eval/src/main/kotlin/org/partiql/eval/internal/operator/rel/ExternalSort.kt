@@ -0,0 +1,133 @@
+package org.partiql.eval.internal.operator.rel
+
+import org.partiql.eval.Row
+import org.partiql.eval.internal.helpers.RowSerializer
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.PriorityQueue
+
+/**
+ * A stable sort of rows by their (evaluated) sort [keys], within a [memoryBudget].
+ *
+ * Rows are buffered in memory until their (approximate) size exceeds the [memoryBudget], at which point the buffer is
+ * sorted and written to a temporary file as a sorted run. If any runs were written, the output is a k-way merge of the
+ * runs and the final in-memory buffer; otherwise, the buffer is sorted in memory. Ties between runs are broken by the
+ * order of the runs, so rows with equal keys are returned in input order.
+ *
+ * @property keys
+ * @property memoryBudget   The number of bytes to buffer before spilling to disk.
+ */
+internal class ExternalSort(private val keys: SortKeys, private val memoryBudget: Long) {
+
+    private val comparator = Comparator<SortKeys.Keyed> { l, r -> keys.compare(l.keys, r.keys) }
+
+    // sorted runs which have been spilled to disk
+    private val runs = mutableListOf<Run>()
+
+    /**
+     * Returns the [rows] in sorted order; this consumes the [rows] before returning.
+     */
+    fun sort(rows: Iterator<SortKeys.Keyed>): Iterator<Row> {
+        val buffer = mutableListOf<SortKeys.Keyed>()
+        var size = 0L
+        for (row in rows) {
+            buffer.add(row)
+            if (memoryBudget != Long.MAX_VALUE) {
+                size += RowSerializer.estimateSize(row.row)
+                if (size > memoryBudget) {
+                    runs.add(spill(buffer))
+                    buffer.clear()
+                    size = 0L
+                }
+            }
+        }
+        buffer.sortWith(comparator)
+        return when (runs.isEmpty()) {
+            true -> buffer.asSequence().map { it.row }.iterator()
+            false -> merge(runs.map { it.rows() } + buffer.iterator())
+        }
+    }
+
+    /**
+     * Deletes the runs which have been spilled to disk.
+     */
+    fun close() {
+        runs.forEach { it.delete() }
+        runs.clear()
+    }
+
+    /**
+     * Sorts the rows and writes them (prefixed by their sort keys) to a temporary file.
+     */
+    private fun spill(rows: MutableList<SortKeys.Keyed>): Run {
+        rows.sortWith(comparator)
+        val path = Files.createTempFile("partiql-sort-", ".run")
+        DataOutputStream(BufferedOutputStream(Files.newOutputStream(path))).use { out ->
+            for (row in rows) {
+                RowSerializer.write(out, Row(row.keys).concat(row.row))
+            }
+        }
+        return Run(path, rows.size, keys.degree)
+    }
+
+    /**
+     * K-way merge of the sorted iterators, which are in input order; ties are broken by the index of the iterator.
+     */
+    private fun merge(sources: List<Iterator<SortKeys.Keyed>>): Iterator<Row> = iterator {
+        val heap = PriorityQueue<Head>(sources.size) { l, r ->
+            val cmp = comparator.compare(l.row, r.row)
+            if (cmp != 0) cmp else l.source.compareTo(r.source)
+        }
+        for (i in sources.indices) {
+            if (sources[i].hasNext()) {
+                heap.add(Head(sources[i].next(), i))
+            }
+        }
+        while (heap.isNotEmpty()) {
+            val head = heap.poll()
+            yield(head.row.row)
+            val source = sources[head.source]
+            if (source.hasNext()) {
+                heap.add(Head(source.next(), head.source))
+            }
+        }
+    }
+
+    /**
+     * The next row of the source iterator at index [source].
+     */
+    private class Head(@JvmField val row: SortKeys.Keyed, @JvmField val source: Int)
+
+    /**
+     * A sorted run of [count] rows on disk; each row is prefixed by its [degree] sort keys.
+     */
+    private class Run(private val path: Path, private val count: Int, private val degree: Int) {
+
+        private var stream: DataInputStream? = null
+
+        fun rows(): Iterator<SortKeys.Keyed> = iterator {
+            val stream = DataInputStream(BufferedInputStream(Files.newInputStream(path)))
+            this@Run.stream = stream
+            try {
+                for (i in 0 until count) {
+                    val values = RowSerializer.read(stream).values
+                    val keys = values.copyOfRange(0, degree)
+                    val row = Row(values.copyOfRange(degree, values.size))
+                    yield(SortKeys.Keyed(keys, row))
+                }
+            } finally {
+                stream.close()
+            }
+        }
+
+        fun delete() {
+            stream?.close()
+            stream = null
+            Files.deleteIfExists(path)
+        }
+    }
+}
@@ -4,13 +4,16 @@ import org.partiql.eval.Environment
 import org.partiql.eval.ExprRelation
 import org.partiql.eval.ExprValue
 import org.partiql.eval.Row
-import org.partiql.eval.internal.helpers.DatumArrayComparator
+import org.partiql.eval.internal.helpers.DatumArrayKey
 import org.partiql.eval.internal.operator.Aggregate
 import org.partiql.spi.function.Accumulator
 import org.partiql.spi.value.Datum
-import java.util.TreeMap
-import java.util.TreeSet
 
+/**
+ * Hash aggregation; the groups are kept in a hash table keyed by [DatumArrayKey], which shares the equivalence of
+ * [org.partiql.eval.internal.helpers.DatumArrayComparator] (e.g. 1 = 1.0) without the cost of ordered comparisons.
+ * Groups are returned in the order they were first seen.
+ */
 internal class RelOpAggregate(
     private val input: ExprRelation,
     private val aggregates: List<Aggregate>,
@@ -19,7 +22,7 @@ internal class RelOpAggregate(
 
     private lateinit var records: Iterator<Row>
 
-    private val aggregationMap = TreeMap<Array<Datum>, List<AccumulatorWrapper>>(DatumArrayComparator)
+    private val aggregationMap = LinkedHashMap<DatumArrayKey, List<AccumulatorWrapper>>()
 
     /**
      * Wraps an [Accumulator] to help with filtering distinct values.
@@ -29,16 +32,16 @@ internal class RelOpAggregate(
     class AccumulatorWrapper(
         val delegate: Accumulator,
         val args: List<ExprValue>,
-        val seen: TreeSet<Array<Datum>>?
+        val seen: HashSet<DatumArrayKey>?
     )
 
     override fun open(env: Environment) {
         input.open(env)
         for (inputRecord in input) {
+            val env = env.push(inputRecord)
 
             // Initialize the AggregationMap
             val evaluatedGroupByKeys = Array(groups.size) { keyIndex ->
-                val env = env.push(inputRecord)
                 val key = groups[keyIndex].eval(env)
                 when (key.isMissing) {
                     true -> Datum.nullValue()
@@ -46,12 +49,12 @@ internal class RelOpAggregate(
                 }
             }
 
-            val accumulators = aggregationMap.getOrPut(evaluatedGroupByKeys) {
+            val accumulators = aggregationMap.getOrPut(DatumArrayKey(evaluatedGroupByKeys)) {
                 aggregates.map {
                     AccumulatorWrapper(
                         delegate = it.agg.accumulator,
                         args = it.args,
-                        seen = if (it.distinct) TreeSet(DatumArrayComparator) else null
+                        seen = if (it.distinct) HashSet() else null
                     )
                 }
             }
@@ -59,7 +62,7 @@ internal class RelOpAggregate(
             // Aggregate Values in Aggregation State
             accumulators.forEachIndexed { index, function ->
                 val arguments = Array(function.args.size) {
-                    val argument = function.args[it].eval(env.push(inputRecord))
+                    val argument = function.args[it].eval(env)
                     // Skip over aggregation if NULL/MISSING
                     if (argument.isNull || argument.isMissing) {
                         return@forEachIndexed
@@ -67,7 +70,7 @@ internal class RelOpAggregate(
                     argument
                 }
                 // Skip over aggregation if DISTINCT and SEEN
-                if (function.seen != null && (function.seen.add(arguments).not())) {
+                if (function.seen != null && (function.seen.add(DatumArrayKey(arguments)).not())) {
                     return@forEachIndexed
                 }
                 accumulators[index].delegate.next(arguments)
@@ -90,7 +93,7 @@ internal class RelOpAggregate(
         records = iterator {
             aggregationMap.forEach { (keysEvaluated, accumulators) ->
                 val accumulatorValues = Array(accumulators.size) { i -> accumulators[i].delegate.value() }
-                val recordValues = accumulatorValues + keysEvaluated
+                val recordValues = accumulatorValues + keysEvaluated.values
                 yield(Row(recordValues))
             }
         }
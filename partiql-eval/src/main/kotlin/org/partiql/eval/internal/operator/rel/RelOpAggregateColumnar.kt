@@ -0,0 +1,170 @@
+package org.partiql.eval.internal.operator.rel
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.ExprValue
+import org.partiql.eval.Row
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.DatumColumns
+import org.partiql.spi.value.DatumVector
+
+/**
+ * An ungrouped aggregation of a table whose measures are each a COUNT, SUM, MIN, or MAX of a field of the table's rows.
+ * If the table is stored by column (see [DatumColumns]), the measures are computed on the primitives of the fields'
+ * columns by row index, so neither the rows nor the fields' values are materialized.
+ *
+ * Each measure is computed exactly as by its accumulator; a measure which can't be (e.g. the table has no such column,
+ * the column is of another type, or a SUM overflows) has the rows aggregated row-at-a-time by the [fallback] instead.
+ *
+ * @property table      The table; memoized, so the [fallback] scans the same value.
+ * @property measures
+ * @property fallback   The (ungrouped) aggregation of the table's rows.
+ */
+internal class RelOpAggregateColumnar(
+    private val table: ExprValue,
+    private val measures: List<Measure>,
+    private val fallback: ExprRelation,
+) : ExprRelation {
+
+    /**
+     * @property name       The name of the aggregation; `count`, `sum`, `min`, or `max`.
+     * @property parameter  The type of the aggregation's parameter.
+     * @property returns    The return type of the aggregation.
+     * @property column     The field of the rows, or null for the COUNT of every row.
+     * @property insensitive    True if the field is matched case-insensitively.
+     */
+    class Measure(
+        @JvmField val name: String,
+        @JvmField val parameter: PType,
+        @JvmField val returns: PType,
+        @JvmField val column: String?,
+        @JvmField val insensitive: Boolean,
+    )
+
+    private var record: Row? = null
+    private var delegate: ExprRelation? = null
+
+    override fun open(env: Environment) {
+        delegate = null
+        val columns = table.eval(env.push(Row())) as? DatumColumns
+        val values = columns?.let { aggregate(it) }
+        if (values == null) {
+            fallback.open(env)
+            delegate = fallback
+            return
+        }
+        record = Row(values)
+    }
+
+    override fun hasNext(): Boolean {
+        delegate?.let { return it.hasNext() }
+        return record != null
+    }
+
+    override fun next(): Row {
+        delegate?.let { return it.next() }
+        val row = record ?: throw NoSuchElementException()
+        record = null
+        return row
+    }
+
+    override fun close() {
+        delegate?.close()
+        delegate = null
+        record = null
+    }
+
+    /**
+     * Returns the value of each measure, or null if any can't be computed on the columns.
+     */
+    private fun aggregate(columns: DatumColumns): Array<Datum>? {
+        val values = arrayOfNulls<Datum>(measures.size)
+        for (i in measures.indices) {
+            val measure = measures[i]
+            val name = measure.column
+            if (name == null) {
+                values[i] = Datum.bigint(columns.size.toLong())
+                continue
+            }
+            val column = (if (measure.insensitive) columns.getColumnInsensitive(name) else columns.getColumn(name)) ?: return null
+            val type = column.type.code()
+            if (measure.parameter.code() != PType.DYNAMIC && measure.parameter.code() != type) {
+                return null
+            }
+            values[i] = when (measure.name) {
+                "count" -> count(column)
+                "sum" -> sum(column, type, measure.returns)
+                "min" -> extreme(column, type, -1)
+                "max" -> extreme(column, type, 1)
+                else -> null
+            } ?: return null
+        }
+        @Suppress("UNCHECKED_CAST")
+        return values as Array<Datum>
+    }
+
+    private fun count(column: DatumVector): Datum {
+        var n = 0L
+        for (i in 0 until column.size()) {
+            if (!column.isNull(i)) n++
+        }
+        return Datum.bigint(n)
+    }
+
+    /**
+     * The SUM of an INT column is a BIGINT, and that of a DOUBLE column is a DOUBLE; the SUM of no values is null.
+     */
+    private fun sum(column: DatumVector, type: Int, returns: PType): Datum? {
+        var init = false
+        when (type) {
+            PType.INTEGER -> {
+                var sum = 0L
+                for (i in 0 until column.size()) {
+                    if (column.isNull(i)) continue
+                    init = true
+                    sum = try {
+                        Math.addExact(sum, column.getInt(i).toLong())
+                    } catch (e: ArithmeticException) {
+                        // the error is raised by the accumulator
+                        return null
+                    }
+                }
+                return if (init) Datum.bigint(sum) else Datum.nullValue(returns)
+            }
+            PType.DOUBLE -> {
+                var sum = 0.0
+                for (i in 0 until column.size()) {
+                    if (column.isNull(i)) continue
+                    init = true
+                    sum += column.getDouble(i)
+                }
+                return if (init) Datum.doublePrecision(sum) else Datum.nullValue(returns)
+            }
+            else -> return null
+        }
+    }
+
+    /**
+     * The MIN ([sign] -1) or MAX ([sign] 1) of an integral column is its first such value; that of no values is null.
+     */
+    private fun extreme(column: DatumVector, type: Int, sign: Int): Datum? {
+        var best = -1
+        when (type) {
+            PType.INTEGER -> {
+                for (i in 0 until column.size()) {
+                    if (column.isNull(i)) continue
+                    if (best < 0 || Integer.compare(column.getInt(i), column.getInt(best)) * sign > 0) best = i
+                }
+            }
+            PType.BIGINT -> {
+                for (i in 0 until column.size()) {
+                    if (column.isNull(i)) continue
+                    if (best < 0 || java.lang.Long.compare(column.getLong(i), column.getLong(best)) * sign > 0) best = i
+                }
+            }
+            else -> return null
+        }
+        return if (best < 0) Datum.nullValue() else column.get(best)
+    }
+}
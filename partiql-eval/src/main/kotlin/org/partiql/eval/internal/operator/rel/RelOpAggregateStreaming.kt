@@ -0,0 +1,100 @@
+package org.partiql.eval.internal.operator.rel
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.ExprValue
+import org.partiql.eval.Row
+import org.partiql.eval.internal.helpers.DatumArrayComparator
+import org.partiql.eval.internal.helpers.DatumArrayKey
+import org.partiql.eval.internal.operator.Aggregate
+import org.partiql.spi.value.Datum
+
+/**
+ * Streaming (sort-based) aggregation for an input which is ordered by the [groups]; that is, all rows of a group are
+ * adjacent. Each group is returned as soon as the group key changes, so only the current group is held in memory.
+ *
+ * The output rows are identical to those of [RelOpAggregate] (aggregate values followed by the group keys).
+ */
+internal class RelOpAggregateStreaming(
+    private val input: ExprRelation,
+    private val aggregates: List<Aggregate>,
+    private val groups: List<ExprValue>,
+) : RelOpPeeking() {
+
+    private lateinit var env: Environment
+
+    // the first row of the next group, if already read
+    private var pending: Row? = null
+    private var pendingKeys: Array<Datum>? = null
+
+    override fun openPeeking(env: Environment) {
+        this.env = env
+        input.open(env)
+        pending = null
+        pendingKeys = null
+    }
+
+    override fun peek(): Row? {
+        val first = pending ?: if (input.hasNext()) input.next() else return null
+        val keys = pendingKeys ?: keys(first)
+        pending = null
+        pendingKeys = null
+
+        val accumulators = aggregates.map {
+            RelOpAggregate.AccumulatorWrapper(
+                delegate = it.agg.accumulator,
+                args = it.args,
+                seen = if (it.distinct) HashSet() else null
+            )
+        }
+        accumulate(accumulators, first)
+        while (input.hasNext()) {
+            val row = input.next()
+            val rowKeys = keys(row)
+            if (DatumArrayComparator.compare(keys, rowKeys) != 0) {
+                pending = row
+                pendingKeys = rowKeys
+                break
+            }
+            accumulate(accumulators, row)
+        }
+        val values = Array(accumulators.size) { i -> accumulators[i].delegate.value() }
+        return Row(values + keys)
+    }
+
+    override fun closePeeking() {
+        pending = null
+        pendingKeys = null
+        input.close()
+    }
+
+    private fun keys(row: Row): Array<Datum> {
+        val env = env.push(row)
+        return Array(groups.size) {
+            val key = groups[it].eval(env)
+            when (key.isMissing) {
+                true -> Datum.nullValue()
+                false -> key
+            }
+        }
+    }
+
+    private fun accumulate(accumulators: List<RelOpAggregate.AccumulatorWrapper>, row: Row) {
+        val env = env.push(row)
+        accumulators.forEach { function ->
+            val arguments = Array(function.args.size) {
+                val argument = function.args[it].eval(env)
+                // Skip over aggregation if NULL/MISSING
+                if (argument.isNull || argument.isMissing) {
+                    return@forEach
+                }
+                argument
+            }
+            // Skip over aggregation if DISTINCT and SEEN
+            if (function.seen != null && (function.seen.add(DatumArrayKey(arguments)).not())) {
+                return@forEach
+            }
+            function.delegate.next(arguments)
+        }
+    }
+}
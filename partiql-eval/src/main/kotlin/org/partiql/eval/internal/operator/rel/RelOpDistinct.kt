@@ -2,31 +2,26 @@ package org.partiql.eval.internal.operator.rel
 
 import org.partiql.eval.Environment
 import org.partiql.eval.ExprRelation
-import org.partiql.eval.Row
-import org.partiql.eval.internal.helpers.DatumArrayComparator
-import java.util.TreeSet
+import org.partiql.spi.value.Datum
 
-internal class RelOpDistinct(private val input: ExprRelation) : RelOpPeeking() {
+/**
+ * Returns the distinct rows of the [input]; see [RelOpHashed.distinct] for their order.
+ *
+ * @property input
+ * @property memoryBudget   The number of bytes of distinct rows to hold before spilling to disk.
+ */
+internal class RelOpDistinct(
+    private val input: ExprRelation,
+    memoryBudget: Long = Long.MAX_VALUE,
+) : RelOpHashed(memoryBudget) {
 
-    private val seen = TreeSet(DatumArrayComparator)
-
-    override fun openPeeking(env: Environment) {
+    override fun openHashed(env: Environment) {
         input.open(env)
     }
 
-    override fun peek(): Row? {
-        for (next in input) {
-            val transformed = Array(next.values.size) { next.values[it] }
-            if (seen.contains(transformed).not()) {
-                seen.add(transformed)
-                return next
-            }
-        }
-        return null
-    }
+    override fun rows(): Iterator<Array<Datum>> = distinct(values(input, coerce = false))
 
-    override fun closePeeking() {
-        seen.clear()
+    override fun closeHashed() {
         input.close()
     }
 }
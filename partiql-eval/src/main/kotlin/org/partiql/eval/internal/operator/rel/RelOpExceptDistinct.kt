@@ -2,58 +2,38 @@ package org.partiql.eval.internal.operator.rel
 
 import org.partiql.eval.Environment
 import org.partiql.eval.ExprRelation
-import org.partiql.eval.Row
-import org.partiql.eval.internal.helpers.DatumArrayComparator
-import org.partiql.eval.internal.helpers.RecordUtility.coerceMissing
-import java.util.TreeSet
+import org.partiql.eval.internal.helpers.DatumArrayKey
+import org.partiql.eval.internal.helpers.RowHashTable
+import org.partiql.spi.value.Datum
 
 /**
  * Non-communicative, this performs better when [lhs] is larger than [rhs].
  *
+ * Builds a hash table of the [rhs] and returns each row of the [lhs] which is not in the table; the returned rows are
+ * made distinct in a table of their own (see [RelOpHashed.distinct]), which spills independently of the [rhs], so
+ * that a large [lhs] is bounded by the memory budget as well.
+ *
  * @property lhs
  * @property rhs
+ * @property memoryBudget   The number of bytes of each table to hold before spilling to disk.
  */
 internal class RelOpExceptDistinct(
     private val lhs: ExprRelation,
     private val rhs: ExprRelation,
-) : RelOpPeeking() {
-
-    private var seen = TreeSet(DatumArrayComparator)
-    private var init: Boolean = false
+    memoryBudget: Long = Long.MAX_VALUE,
+) : RelOpHashedJoin(memoryBudget) {
 
-    override fun openPeeking(env: Environment) {
+    override fun openHashed(env: Environment) {
         lhs.open(env)
         rhs.open(env)
-        init = false
     }
 
-    override fun peek(): Row? {
-        if (!init) {
-            seed()
-        }
-        for (row in lhs) {
-            row.values.coerceMissing()
-            if (!seen.contains(row.values)) {
-                return Row(row.values)
-            }
-        }
-        return null
-    }
+    override fun rows(): Iterator<Array<Datum>> = distinct(join(values(rhs), values(lhs)))
 
-    override fun closePeeking() {
+    override fun onProbe(table: RowHashTable, key: DatumArrayKey): Boolean = !table.contains(key)
+
+    override fun closeHashed() {
         lhs.close()
         rhs.close()
-        seen.clear()
-    }
-
-    /**
-     * Read the entire right-hand-side into our search structure.
-     */
-    private fun seed() {
-        init = true
-        for (row in rhs) {
-            row.values.coerceMissing()
-            seen.add(row.values)
-        }
     }
 }
@@ -0,0 +1,103 @@
+package org.partiql.eval.internal.operator.rel
+
+import org.partiql.eval.Environment
+import org.partiql.eval.Row
+import org.partiql.eval.internal.helpers.DatumArrayKey
+import org.partiql.eval.internal.helpers.RecordUtility.coerceMissing
+import org.partiql.eval.internal.helpers.RowHashTable
+import org.partiql.eval.internal.helpers.RowPartitions
+import org.partiql.spi.value.Datum
+import java.util.Collections
+
+/**
+ * Base of the hash-based DISTINCT and set operators, which share a [RowHashTable] and spill its rows to hash
+ * partitions ([RowPartitions]) once the table exceeds the [memoryBudget].
+ *
+ * The operators of a single input are expressed as [distinct], and those of two inputs as a [RelOpHashedJoin]; each
+ * partition of a spilled operator is processed as its own (smaller) instance of the operator.
+ *
+ * @property memoryBudget   The number of bytes a hash table may hold before spilling to disk.
+ */
+internal abstract class RelOpHashed(protected val memoryBudget: Long) : RelOpPeeking() {
+
+    private var output: Iterator<Array<Datum>> = Collections.emptyIterator()
+
+    // the partitions which have been spilled to disk by this execution
+    private val spills = mutableListOf<RowPartitions>()
+
+    /**
+     * This shall have the same functionality as [openPeeking].
+     */
+    abstract fun openHashed(env: Environment)
+
+    /**
+     * Returns the output rows; this is invoked (once) when the first row is pulled.
+     */
+    abstract fun rows(): Iterator<Array<Datum>>
+
+    /**
+     * This shall have the same functionality as [closePeeking].
+     */
+    abstract fun closeHashed()
+
+    override fun openPeeking(env: Environment) {
+        openHashed(env)
+        output = iterator { yieldAll(rows()) }
+    }
+
+    override fun peek(): Row? = if (output.hasNext()) Row(output.next()) else null
+
+    override fun closePeeking() {
+        output = Collections.emptyIterator()
+        spills.forEach { it.delete() }
+        spills.clear()
+        closeHashed()
+    }
+
+    /**
+     * Returns the distinct rows of the [input]. While the rows fit in the table, they are returned in order of their
+     * first occurrence.
+     *
+     * Once the table is full, a row which is not in the table is written to a partition rather than output; each
+     * partition (none of whose rows have been output) is then made distinct on its own, so the remaining rows are
+     * returned partition by partition rather than in order of their first occurrence.
+     */
+    protected fun distinct(input: Iterator<Array<Datum>>, level: Int = 0): Iterator<Array<Datum>> = iterator {
+        val table = RowHashTable(memoryBudget)
+        var spill: RowPartitions? = null
+        for (values in input) {
+            val key = DatumArrayKey(values)
+            val spilled = spill
+            if (spilled != null) {
+                if (!table.contains(key)) {
+                    spilled.write(key)
+                }
+            } else if (table.add(key)) {
+                yield(values)
+                if (table.isFull && level < RowPartitions.MAX_LEVEL) {
+                    spill = partitions(level)
+                }
+            }
+        }
+        val spilled = spill ?: return@iterator
+        table.clear()
+        for (i in 0 until RowPartitions.FANOUT) {
+            yieldAll(distinct(spilled.read(i), level + 1))
+        }
+    }
+
+    /**
+     * Returns (a copy of) the values of each row of the [input], with MISSING values coerced to NULL if [coerce].
+     */
+    protected fun values(input: Iterator<Row>, coerce: Boolean = true): Iterator<Array<Datum>> = iterator {
+        for (row in input) {
+            val values = row.values.copyOf()
+            if (coerce) {
+                values.coerceMissing()
+            }
+            yield(values)
+        }
+    }
+
+    protected fun partitions(level: Int): RowPartitions = RowPartitions(level).also { spills.add(it) }
+}
@@ -0,0 +1,62 @@
+package org.partiql.eval.internal.operator.rel
+
+import org.partiql.eval.internal.helpers.DatumArrayKey
+import org.partiql.eval.internal.helpers.RowHashTable
+import org.partiql.eval.internal.helpers.RowPartitions
+import org.partiql.spi.value.Datum
+
+/**
+ * Base of the hash-based set operators of two inputs, which build a [RowHashTable] of one input and probe it with
+ * each row of the other; see [join].
+ *
+ * @property memoryBudget   The number of bytes a hash table may hold before spilling to disk.
+ */
+internal abstract class RelOpHashedJoin(memoryBudget: Long) : RelOpHashed(memoryBudget) {
+
+    /**
+     * Adds a row of the build side to the [table].
+     */
+    open fun onBuild(table: RowHashTable, key: DatumArrayKey) {
+        table.add(key)
+    }
+
+    /**
+     * Returns true if the row of the probe side is output, given the rows of the build side in the [table]; this may
+     * only remove rows from the table, as the probe side does not spill.
+     */
+    abstract fun onProbe(table: RowHashTable, key: DatumArrayKey): Boolean
+
+    /**
+     * Returns the rows of the [probe] side which are output by [onProbe], given the rows of the [build] side.
+     *
+     * If the table is full before the build side is exhausted, both sides are written to partitions (the build side
+     * including the rows of the table), and each pair of partitions is joined on its own.
+     */
+    protected fun join(
+        build: Iterator<Array<Datum>>,
+        probe: Iterator<Array<Datum>>,
+        level: Int = 0,
+    ): Iterator<Array<Datum>> = iterator {
+        val table = RowHashTable(memoryBudget)
+        while (build.hasNext()) {
+            onBuild(table, DatumArrayKey(build.next()))
+            if (table.isFull && level < RowPartitions.MAX_LEVEL) {
+                val builds = partitions(level)
+                val probes = partitions(level)
+                table.forEach { key, count -> repeat(count) { builds.write(key) } }
+                table.clear()
+                build.forEach { builds.write(DatumArrayKey(it)) }
+                probe.forEach { probes.write(DatumArrayKey(it)) }
+                for (i in 0 until RowPartitions.FANOUT) {
+                    yieldAll(join(builds.read(i), probes.read(i), level + 1))
+                }
+                return@iterator
+            }
+        }
+        for (values in probe) {
+            if (onProbe(table, DatumArrayKey(values))) {
+                yield(values)
+            }
+        }
+    }
+}
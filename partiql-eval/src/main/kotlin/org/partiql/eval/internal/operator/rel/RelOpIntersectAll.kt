@@ -2,57 +2,35 @@ package org.partiql.eval.internal.operator.rel
 
 import org.partiql.eval.Environment
 import org.partiql.eval.ExprRelation
-import org.partiql.eval.Row
-import org.partiql.eval.internal.helpers.DatumArrayComparator
-import org.partiql.eval.internal.helpers.RecordUtility.coerceMissing
+import org.partiql.eval.internal.helpers.DatumArrayKey
+import org.partiql.eval.internal.helpers.RowHashTable
 import org.partiql.spi.value.Datum
-import java.util.TreeMap
 
+/**
+ * Builds a hash table of the [lhs] (and the multiplicity of each row), and returns each row of the [rhs] while the
+ * table has a remaining occurrence of the row.
+ *
+ * @property lhs
+ * @property rhs
+ * @property memoryBudget   The number of bytes of the table to hold before spilling to disk.
+ */
 internal class RelOpIntersectAll(
     private val lhs: ExprRelation,
     private val rhs: ExprRelation,
-) : RelOpPeeking() {
+    memoryBudget: Long = Long.MAX_VALUE,
+) : RelOpHashedJoin(memoryBudget) {
 
-    private val seen = TreeMap<Array<Datum>, Int>(DatumArrayComparator)
-    private var init: Boolean = false
-
-    override fun openPeeking(env: Environment) {
+    override fun openHashed(env: Environment) {
         lhs.open(env)
         rhs.open(env)
-        init = false
-        seen.clear()
     }
 
-    override fun peek(): Row? {
-        if (!init) {
-            seed()
-        }
-        for (row in rhs) {
-            row.values.coerceMissing()
-            val remaining = seen[row.values] ?: 0
-            if (remaining > 0) {
-                seen[row.values] = remaining - 1
-                return Row(row.values)
-            }
-        }
-        return null
-    }
+    override fun rows(): Iterator<Array<Datum>> = join(values(lhs), values(rhs))
+
+    override fun onProbe(table: RowHashTable, key: DatumArrayKey): Boolean = table.decrement(key)
 
-    override fun closePeeking() {
+    override fun closeHashed() {
         lhs.close()
         rhs.close()
-        seen.clear()
-    }
-
-    /**
-     * Read the entire left-hand-side into our search structure.
-     */
-    private fun seed() {
-        init = true
-        for (row in lhs) {
-            row.values.coerceMissing()
-            val alreadySeen = seen[row.values] ?: 0
-            seen[row.values] = alreadySeen + 1
-        }
     }
 }
@@ -2,53 +2,35 @@ package org.partiql.eval.internal.operator.rel
 
 import org.partiql.eval.Environment
 import org.partiql.eval.ExprRelation
-import org.partiql.eval.Row
-import org.partiql.eval.internal.helpers.DatumArrayComparator
-import org.partiql.eval.internal.helpers.RecordUtility.coerceMissing
-import java.util.TreeSet
+import org.partiql.eval.internal.helpers.DatumArrayKey
+import org.partiql.eval.internal.helpers.RowHashTable
+import org.partiql.spi.value.Datum
 
+/**
+ * Builds a hash table of the [lhs] and returns each (distinct) row of the [rhs] which is in the table.
+ *
+ * @property lhs
+ * @property rhs
+ * @property memoryBudget   The number of bytes of the table to hold before spilling to disk.
+ */
 internal class RelOpIntersectDistinct(
     private val lhs: ExprRelation,
     private val rhs: ExprRelation,
-) : RelOpPeeking() {
+    memoryBudget: Long = Long.MAX_VALUE,
+) : RelOpHashedJoin(memoryBudget) {
 
-    private val seen = TreeSet(DatumArrayComparator)
-    private var init: Boolean = false
-
-    override fun openPeeking(env: Environment) {
+    override fun openHashed(env: Environment) {
         lhs.open(env)
         rhs.open(env)
-        init = false
-        seen.clear()
     }
 
-    override fun peek(): Row? {
-        if (!init) {
-            seed()
-        }
-        for (row in rhs) {
-            row.values.coerceMissing()
-            if (seen.remove(row.values)) {
-                return Row(row.values)
-            }
-        }
-        return null
-    }
+    override fun rows(): Iterator<Array<Datum>> = join(values(lhs), values(rhs))
+
+    // a row is removed once it's returned, so it's returned once
+    override fun onProbe(table: RowHashTable, key: DatumArrayKey): Boolean = table.remove(key)
 
-    override fun closePeeking() {
+    override fun closeHashed() {
         lhs.close()
         rhs.close()
-        seen.clear()
-    }
-
-    /**
-     * Read the entire left-hand-side into our search structure.
-     */
-    private fun seed() {
-        init = true
-        for (row in lhs) {
-            row.values.coerceMissing()
-            seen.add(row.values)
-        }
     }
 }
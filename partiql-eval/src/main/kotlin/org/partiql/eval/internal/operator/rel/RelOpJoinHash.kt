@@ -0,0 +1,203 @@
+package org.partiql.eval.internal.operator.rel
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.ExprValue
+import org.partiql.eval.Row
+import org.partiql.eval.internal.helpers.DatumArrayKey
+import org.partiql.eval.internal.helpers.IteratorChain
+import org.partiql.eval.internal.helpers.ValueUtility.isTrue
+import org.partiql.plan.rel.RelType
+import org.partiql.spi.value.Datum
+
+/**
+ * Hash Join returns all joined records from the [lhs] and [rhs] whose keys are equal and for which the [residual]
+ * predicates evaluate to true. This is the (non-lateral) equi-join alternative to the nested-loop joins.
+ *
+ * The key of a left record is the evaluation of [lhsKeys] over the left record, and the key of a right record is the
+ * evaluation of [rhsKeys] over the right record (padded on the left, as the key expressions were compiled against the
+ * concatenated record). Per SQL semantics, `NULL = x` and `MISSING = x` are never true, so a record with any NULL or
+ * MISSING key never joins; it is only returned (padded) if its side is preserved by an outer join.
+ *
+ * Implementers specify which sides are preserved, and the environment the [rhs] is opened with.
+ */
+internal abstract class RelOpJoinHash(
+    private val lhs: ExprRelation,
+    private val rhs: ExprRelation,
+    private val lhsKeys: Array<ExprValue>,
+    private val rhsKeys: Array<ExprValue>,
+    private val residual: Array<ExprValue>,
+    lhsType: RelType,
+    rhsType: RelType,
+) : RelOpPeeking() {
+
+    // TODO BETTER MECHANISM FOR NULL PADDING
+    private val lhsPadded: Row = Row(lhsType.getFields().map { Datum.nullValue(it.type) }.toTypedArray())
+    private val rhsPadded: Row = Row(rhsType.getFields().map { Datum.nullValue(it.type) }.toTypedArray())
+
+    private lateinit var env: Environment
+    private lateinit var iterator: Iterator<Row>
+
+    /**
+     * True iff unmatched records of the [lhs] are returned, padded with NULL on the right.
+     */
+    abstract val lhsPreserved: Boolean
+
+    /**
+     * True iff unmatched records of the [rhs] are returned, padded with NULL on the left.
+     */
+    abstract val rhsPreserved: Boolean
+
+    /**
+     * Returns the environment to open the [rhs] with.
+     */
+    abstract fun rhsEnv(env: Environment): Environment
+
+    override fun openPeeking(env: Environment) {
+        this.env = env
+        lhs.open(env)
+        rhs.open(rhsEnv(env))
+        iterator = implementation()
+    }
+
+    override fun peek(): Row? {
+        return when (iterator.hasNext()) {
+            true -> iterator.next()
+            false -> null
+        }
+    }
+
+    override fun closePeeking() {
+        lhs.close()
+        rhs.close()
+        iterator = emptyList<Row>().iterator()
+    }
+
+    /**
+     * HASH JOIN
+     *
+     * The sizes of the inputs are unknown, so both inputs are read in lock-step until one is exhausted; that (smaller)
+     * input becomes the build side, and the other is the probe side. At most twice the size of the smaller input is
+     * held in memory.
+     *
+     * Algorithm:
+     * ```
+     * for buildRecord in build:
+     *   table[key(buildRecord)] += buildRecord
+     * for probeRecord in probe:
+     *   for buildRecord in table[key(probeRecord)]:
+     *     if (residual matches):
+     *       probeMatched = buildMatched = true
+     *       yield(lhsRecord + rhsRecord)
+     *   if (!probeMatched && probe is preserved):
+     *     yield(probeRecord + NULL_RECORD)
+     * for buildRecord in build:
+     *   if (!buildMatched && build is preserved):
+     *     yield(buildRecord + NULL_RECORD)
+     * ```
+     */
+    private fun implementation() = iterator {
+        val lhsRecords = mutableListOf<Row>()
+        val rhsRecords = mutableListOf<Row>()
+        var buildLhs = false
+        while (true) {
+            if (!lhs.hasNext()) {
+                buildLhs = true
+                break
+            }
+            lhsRecords.add(lhs.next())
+            if (!rhs.hasNext()) {
+                break
+            }
+            rhsRecords.add(rhs.next())
+        }
+
+        // Build
+        val build = mutableListOf<Entry>()
+        val table = HashMap<DatumArrayKey, MutableList<Entry>>()
+        for (record in if (buildLhs) lhsRecords else rhsRecords) {
+            val entry = Entry(record)
+            build.add(entry)
+            val key = if (buildLhs) lhsKey(record) else rhsKey(record)
+            if (key != null) {
+                table.getOrPut(key) { mutableListOf() }.add(entry)
+            }
+        }
+        if (buildLhs) lhsRecords.clear() else rhsRecords.clear()
+
+        // Probe
+        val probePreserved = if (buildLhs) rhsPreserved else lhsPreserved
+        val probe = when (buildLhs) {
+            true -> IteratorChain(arrayOf(rhsRecords.iterator(), rhs))
+            false -> IteratorChain(arrayOf(lhsRecords.iterator(), lhs))
+        }
+        for (record in probe) {
+            var matched = false
+            val key = if (buildLhs) rhsKey(record) else lhsKey(record)
+            val entries = if (key != null) table[key] else null
+            if (entries != null) {
+                for (entry in entries) {
+                    val joined = if (buildLhs) entry.row.concat(record) else record.concat(entry.row)
+                    if (residualIsTrue(joined)) {
+                        matched = true
+                        entry.matched = true
+                        yield(joined)
+                    }
+                }
+            }
+            if (!matched && probePreserved) {
+                yield(if (buildLhs) lhsPadded.concat(record) else record.concat(rhsPadded))
+            }
+        }
+
+        // Unmatched build records
+        val buildPreserved = if (buildLhs) lhsPreserved else rhsPreserved
+        if (buildPreserved) {
+            for (entry in build) {
+                if (!entry.matched) {
+                    yield(if (buildLhs) entry.row.concat(rhsPadded) else lhsPadded.concat(entry.row))
+                }
+            }
+        }
+    }
+
+    private fun lhsKey(record: Row): DatumArrayKey? = key(lhsKeys, record)
+
+    private fun rhsKey(record: Row): DatumArrayKey? = key(rhsKeys, lhsPadded.concat(record))
+
+    /**
+     * @return the key of the record, or null if any key is NULL or MISSING.
+     */
+    private fun key(exprs: Array<ExprValue>, record: Row): DatumArrayKey? {
+        val env = env.push(record)
+        val values = Array(exprs.size) { i ->
+            val value = exprs[i].eval(env)
+            if (value.isNull || value.isMissing) {
+                return null
+            }
+            value
+        }
+        return DatumArrayKey(values)
+    }
+
+    private fun residualIsTrue(record: Row): Boolean {
+        if (residual.isEmpty()) {
+            return true
+        }
+        val env = env.push(record)
+        for (predicate in residual) {
+            if (!predicate.eval(env).isTrue()) {
+                return false
+            }
+        }
+        return true
+    }
+
+    /**
+     * A build record, and whether it has been matched.
+     */
+    private class Entry(@JvmField val row: Row) {
+        @JvmField
+        var matched: Boolean = false
+    }
+}
@@ -0,0 +1,27 @@
+package org.partiql.eval.internal.operator.rel
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.ExprValue
+import org.partiql.plan.rel.RelType
+
+/**
+ * Full Outer Join (as a hash join) returns all joined records from the [lhs] and [rhs] whose keys are equal. All
+ * unmatched records from either side are also returned along with a NULL record for the other side.
+ */
+internal class RelOpJoinHashOuterFull(
+    lhs: ExprRelation,
+    rhs: ExprRelation,
+    lhsKeys: Array<ExprValue>,
+    rhsKeys: Array<ExprValue>,
+    residual: Array<ExprValue>,
+    lhsType: RelType,
+    rhsType: RelType,
+) : RelOpJoinHash(lhs, rhs, lhsKeys, rhsKeys, residual, lhsType, rhsType) {
+
+    override val lhsPreserved: Boolean = true
+
+    override val rhsPreserved: Boolean = true
+
+    override fun rhsEnv(env: Environment): Environment = env
+}
@@ -0,0 +1,31 @@
+package org.partiql.eval.internal.operator.rel
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.ExprValue
+import org.partiql.eval.Row
+import org.partiql.plan.rel.RelType
+
+/**
+ * Left Outer Join (as a hash join) returns all joined records from the [lhs] and [rhs] whose keys are equal. All
+ * unmatched records from the [lhs] are also returned along with a NULL record from the [rhs].
+ *
+ * The [rhs] was compiled in the scope of the left row (lateral); since it does not reference that row, it is opened
+ * with an empty row in its place.
+ */
+internal class RelOpJoinHashOuterLeft(
+    lhs: ExprRelation,
+    rhs: ExprRelation,
+    lhsKeys: Array<ExprValue>,
+    rhsKeys: Array<ExprValue>,
+    residual: Array<ExprValue>,
+    lhsType: RelType,
+    rhsType: RelType,
+) : RelOpJoinHash(lhs, rhs, lhsKeys, rhsKeys, residual, lhsType, rhsType) {
+
+    override val lhsPreserved: Boolean = true
+
+    override val rhsPreserved: Boolean = false
+
+    override fun rhsEnv(env: Environment): Environment = env.push(Row())
+}
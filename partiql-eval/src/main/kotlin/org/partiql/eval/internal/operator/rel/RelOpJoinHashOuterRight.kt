@@ -0,0 +1,27 @@
+package org.partiql.eval.internal.operator.rel
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.ExprValue
+import org.partiql.plan.rel.RelType
+
+/**
+ * Right Outer Join (as a hash join) returns all joined records from the [lhs] and [rhs] whose keys are equal. All
+ * unmatched records from the [rhs] are also returned along with a NULL record from the [lhs].
+ */
+internal class RelOpJoinHashOuterRight(
+    lhs: ExprRelation,
+    rhs: ExprRelation,
+    lhsKeys: Array<ExprValue>,
+    rhsKeys: Array<ExprValue>,
+    residual: Array<ExprValue>,
+    lhsType: RelType,
+    rhsType: RelType,
+) : RelOpJoinHash(lhs, rhs, lhsKeys, rhsKeys, residual, lhsType, rhsType) {
+
+    override val lhsPreserved: Boolean = false
+
+    override val rhsPreserved: Boolean = true
+
+    override fun rhsEnv(env: Environment): Environment = env
+}
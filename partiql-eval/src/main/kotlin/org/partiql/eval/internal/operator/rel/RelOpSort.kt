@@ -4,18 +4,29 @@ import org.partiql.eval.Environment
 import org.partiql.eval.ExprRelation
 import org.partiql.eval.ExprValue
 import org.partiql.eval.Row
-import org.partiql.spi.value.Datum
 import java.util.Collections
 
+/**
+ * Sorts the input rows by the [collations]. The sort keys of each row are evaluated once, before sorting.
+ *
+ * The sort is stable, and spills sorted runs to temporary files once the buffered rows exceed the [memoryBudget]; see
+ * [ExternalSort].
+ *
+ * @property input
+ * @property collations
+ * @property memoryBudget   The number of bytes to buffer before spilling to disk.
+ */
 internal class RelOpSort(
     private val input: ExprRelation,
     private val collations: List<Collation>,
+    private val memoryBudget: Long = Long.MAX_VALUE,
 ) : ExprRelation {
     private var records: Iterator<Row> = Collections.emptyIterator()
     private var init: Boolean = false
 
-    private val nullsFirstComparator = Datum.comparator(true)
-    private val nullsLastComparator = Datum.comparator(false)
+    private val keys = SortKeys(collations)
+
+    private val sort = ExternalSort(keys, memoryBudget)
 
     private lateinit var env: Environment
 
@@ -26,38 +37,9 @@ internal class RelOpSort(
         records = Collections.emptyIterator()
     }
 
-    private val comparator = object : Comparator<Row> {
-        override fun compare(l: Row, r: Row): Int {
-            collations.forEach { spec ->
-                // TODO: Write comparator for PQLValue
-                val lVal = spec.expr.eval(env.push(l))
-                val rVal = spec.expr.eval(env.push(r))
-
-                // DESC_NULLS_FIRST(l, r) == ASC_NULLS_LAST(r, l)
-                // DESC_NULLS_LAST(l, r) == ASC_NULLS_FIRST(r, l)
-                val cmpResult = when {
-                    !spec.desc && !spec.last -> nullsFirstComparator.compare(lVal, rVal)
-                    !spec.desc && spec.last -> nullsLastComparator.compare(lVal, rVal)
-                    spec.desc && !spec.last -> nullsLastComparator.compare(rVal, lVal)
-                    spec.desc && spec.last -> nullsFirstComparator.compare(rVal, lVal)
-                    else -> 0 // unreachable
-                }
-                if (cmpResult != 0) {
-                    return cmpResult
-                }
-            }
-            return 0 // Equal
-        }
-    }
-
     override fun hasNext(): Boolean {
         if (!init) {
-            val sortedRows = mutableListOf<Row>()
-            for (row in input) {
-                sortedRows.add(row)
-            }
-            sortedRows.sortWith(comparator)
-            records = sortedRows.iterator()
+            records = sort.sort(input.asSequence().map { SortKeys.Keyed(keys.eval(env, it), it) }.iterator())
             init = true
         }
         return records.hasNext()
@@ -69,6 +51,8 @@ internal class RelOpSort(
 
     override fun close() {
         init = false
+        records = Collections.emptyIterator()
+        sort.close()
         input.close()
     }
 
@@ -0,0 +1,150 @@
+package org.partiql.eval.internal.operator.rel
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.ExprValue
+import org.partiql.eval.Row
+import org.partiql.eval.internal.helpers.RowSerializer
+import org.partiql.eval.internal.helpers.ValueUtility.getBigIntCoerced
+import java.math.BigInteger
+import java.util.Collections
+import java.util.PriorityQueue
+
+/**
+ * Top-N returns the first [limit] rows (after skipping [offset] rows) of the input sorted by the [collations]; this is
+ * equivalent to a LIMIT (and OFFSET) directly above a sort.
+ *
+ * Rather than sorting the entire input, only the best `limit + offset` rows are kept in a bounded heap whose head is
+ * the worst of those rows. Ties are broken by input order, so the result is identical to that of the (stable) sort.
+ *
+ * If the rows of the heap exceed the [memoryBudget] (i.e. for a large LIMIT), the heap's rows (in input order) and the
+ * remaining input are sorted by a spilling [ExternalSort] instead.
+ *
+ * @property input
+ * @property collations
+ * @property limit
+ * @property offset         Optional offset; null if there is no OFFSET.
+ * @property memoryBudget   The number of bytes of the heap's rows to hold before falling back to a spilling sort.
+ */
+internal class RelOpTopN(
+    private val input: ExprRelation,
+    private val collations: List<RelOpSort.Collation>,
+    private val limit: ExprValue,
+    private val offset: ExprValue?,
+    private val memoryBudget: Long = Long.MAX_VALUE,
+) : ExprRelation {
+
+    private var records: Iterator<Row> = Collections.emptyIterator()
+    private var init: Boolean = false
+
+    private val keys = SortKeys(collations)
+
+    private val sort = ExternalSort(keys, memoryBudget)
+
+    // ordered by keys, then by input order
+    private val comparator = Comparator<Entry> { l, r ->
+        val cmp = keys.compare(l.keys.keys, r.keys.keys)
+        if (cmp != 0) cmp else l.ordinal.compareTo(r.ordinal)
+    }
+
+    private lateinit var env: Environment
+    private var n: Long = 0
+    private var skip: Long = 0
+
+    override fun open(env: Environment) {
+        this.env = env
+        input.open(env)
+        init = false
+        records = Collections.emptyIterator()
+        val l = limit.eval(env.push(Row())).getBigIntCoerced() // TODO: The planner should handle the coercion
+        val o = offset?.eval(env.push(Row()))?.getBigIntCoerced() ?: BigInteger.ZERO
+        skip = o.toLongClamped()
+        n = l.add(o).toLongClamped()
+    }
+
+    override fun hasNext(): Boolean {
+        if (!init) {
+            records = implementation()
+            init = true
+        }
+        return records.hasNext()
+    }
+
+    override fun next(): Row {
+        return records.next()
+    }
+
+    override fun close() {
+        init = false
+        records = Collections.emptyIterator()
+        sort.close()
+        input.close()
+    }
+
+    private fun implementation(): Iterator<Row> {
+        if (n <= 0) {
+            return Collections.emptyIterator()
+        }
+        // max-heap of the best n rows; the head is the worst row kept.
+        val heap = PriorityQueue(minOf(n, DEFAULT_CAPACITY).toInt(), comparator.reversed())
+        val accounting = memoryBudget != Long.MAX_VALUE
+        var size = 0L
+        var ordinal = 0L
+        for (row in input) {
+            val entry = Entry(SortKeys.Keyed(keys.eval(env, row), row), ordinal++)
+            if (heap.size < n) {
+                heap.add(entry)
+                if (accounting) {
+                    size += RowSerializer.estimateSize(row)
+                }
+            } else if (comparator.compare(entry, heap.peek()) < 0) {
+                val evicted = heap.poll()
+                heap.add(entry)
+                if (accounting) {
+                    size += RowSerializer.estimateSize(row) - RowSerializer.estimateSize(evicted.keys.row)
+                }
+            }
+            if (size > memoryBudget) {
+                return spill(heap)
+            }
+        }
+        val sorted = heap.toMutableList()
+        sorted.sortWith(comparator)
+        if (skip >= sorted.size) {
+            return Collections.emptyIterator()
+        }
+        return sorted.subList(skip.toInt(), sorted.size).asSequence().map { it.keys.row }.iterator()
+    }
+
+    /**
+     * Sorts the rows of the [heap] and the remaining input with the (stable, spilling) sort; a row which was evicted
+     * from the heap is worse than `n` earlier rows, so it cannot be among the first `n` rows of the sort.
+     */
+    private fun spill(heap: PriorityQueue<Entry>): Iterator<Row> {
+        val kept = heap.sortedBy { it.ordinal }.asSequence().map { it.keys }
+        heap.clear()
+        val rest = input.asSequence().map { SortKeys.Keyed(keys.eval(env, it), it) }
+        val sorted = sort.sort((kept + rest).iterator())
+        return iterator {
+            var i = 0L
+            while (i < n && sorted.hasNext()) {
+                val row = sorted.next()
+                if (i++ >= skip) {
+                    yield(row)
+                }
+            }
+        }
+    }
+
+    private fun BigInteger.toLongClamped(): Long = when {
+        this.signum() < 0 -> 0L
+        this.bitLength() >= 63 -> Long.MAX_VALUE
+        else -> this.toLong()
+    }
+
+    private class Entry(@JvmField val keys: SortKeys.Keyed, @JvmField val ordinal: Long)
+
+    private companion object {
+        const val DEFAULT_CAPACITY = 1024L
+    }
+}
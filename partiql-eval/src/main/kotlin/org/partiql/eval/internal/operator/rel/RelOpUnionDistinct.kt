@@ -2,42 +2,31 @@ package org.partiql.eval.internal.operator.rel
 
 import org.partiql.eval.Environment
 import org.partiql.eval.ExprRelation
-import org.partiql.eval.Row
-import org.partiql.eval.internal.helpers.DatumArrayComparator
 import org.partiql.eval.internal.helpers.IteratorChain
-import org.partiql.eval.internal.helpers.RecordUtility.coerceMissing
-import java.util.TreeSet
+import org.partiql.spi.value.Datum
 
+/**
+ * Returns the distinct rows of both inputs; see [RelOpHashed.distinct].
+ *
+ * @property lhs
+ * @property rhs
+ * @property memoryBudget   The number of bytes of distinct rows to hold before spilling to disk.
+ */
 internal class RelOpUnionDistinct(
     private val lhs: ExprRelation,
     private val rhs: ExprRelation,
-) : RelOpPeeking() {
+    memoryBudget: Long = Long.MAX_VALUE,
+) : RelOpHashed(memoryBudget) {
 
-    private val seen = TreeSet(DatumArrayComparator)
-
-    private lateinit var input: Iterator<Row>
-
-    override fun openPeeking(env: Environment) {
+    override fun openHashed(env: Environment) {
         lhs.open(env)
         rhs.open(env)
-        seen.clear()
-        input = IteratorChain(arrayOf(lhs, rhs))
     }
 
-    override fun peek(): Row? {
-        for (record in input) {
-            record.values.coerceMissing()
-            if (!seen.contains(record.values)) {
-                seen.add(record.values)
-                return Row(record.values)
-            }
-        }
-        return null
-    }
+    override fun rows(): Iterator<Array<Datum>> = distinct(values(IteratorChain(arrayOf(lhs, rhs))))
 
-    override fun closePeeking() {
+    override fun closeHashed() {
         lhs.close()
         rhs.close()
-        seen.clear()
     }
 }
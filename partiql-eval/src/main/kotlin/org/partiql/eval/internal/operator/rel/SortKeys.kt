@@ -0,0 +1,57 @@
+package org.partiql.eval.internal.operator.rel
+
+import org.partiql.eval.Environment
+import org.partiql.eval.Row
+import org.partiql.spi.value.Datum
+
+/**
+ * Evaluates and compares the sort keys of rows for the given [collations].
+ *
+ * The sort keys of each row are evaluated exactly once (see [eval]); sorting then only compares the evaluated keys.
+ */
+internal class SortKeys(private val collations: List<RelOpSort.Collation>) : Comparator<Array<Datum>> {
+
+    private val nullsFirstComparator = Datum.comparator(true)
+    private val nullsLastComparator = Datum.comparator(false)
+
+    /**
+     * The number of sort keys of each row.
+     */
+    val degree: Int
+        get() = collations.size
+
+    /**
+     * @return the sort keys of the [row].
+     */
+    fun eval(env: Environment, row: Row): Array<Datum> {
+        val env = env.push(row)
+        return Array(collations.size) { collations[it].expr.eval(env) }
+    }
+
+    override fun compare(l: Array<Datum>, r: Array<Datum>): Int {
+        for (i in collations.indices) {
+            val spec = collations[i]
+            val lVal = l[i]
+            val rVal = r[i]
+
+            // DESC_NULLS_FIRST(l, r) == ASC_NULLS_LAST(r, l)
+            // DESC_NULLS_LAST(l, r) == ASC_NULLS_FIRST(r, l)
+            val cmpResult = when {
+                !spec.desc && !spec.last -> nullsFirstComparator.compare(lVal, rVal)
+                !spec.desc && spec.last -> nullsLastComparator.compare(lVal, rVal)
+                spec.desc && !spec.last -> nullsLastComparator.compare(rVal, lVal)
+                spec.desc && spec.last -> nullsFirstComparator.compare(rVal, lVal)
+                else -> 0 // unreachable
+            }
+            if (cmpResult != 0) {
+                return cmpResult
+            }
+        }
+        return 0 // Equal
+    }
+
+    /**
+     * A row and its (evaluated) sort keys.
+     */
+    class Keyed(@JvmField val keys: Array<Datum>, @JvmField val row: Row)
+}
@@ -84,6 +84,14 @@ internal object CastTable {
         }
     }
 
+    /**
+     * Returns true iff a (non-null, non-missing) value of the [source] type can be cast to the [target]; that is,
+     * iff [cast] does not raise an undefined cast error.
+     */
+    public fun isDefined(source: PType, target: PType): Boolean {
+        return target.code() == DYNAMIC || _table[source.code()][target.code()] != null
+    }
+
     private val TYPES = PType.codes()
     private val SIZE = TYPES.size
     private val TYPE_NAME_MAX_LENGTH = TYPES.maxOf { it.toString().length }
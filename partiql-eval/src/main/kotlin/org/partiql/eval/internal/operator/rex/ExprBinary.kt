@@ -0,0 +1,427 @@
+package org.partiql.eval.internal.operator.rex
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprValue
+import org.partiql.eval.internal.helpers.PErrors
+import org.partiql.spi.function.Fn
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+
+/**
+ * A statically resolved call of a built-in binary operator whose operands are statically typed, with the operation
+ * inlined; the call neither allocates an array of arguments nor invokes the function's body.
+ *
+ * As with [ExprCall], the [rhs] is not evaluated if the [lhs] is null (or missing) and the function returns null (or
+ * missing) on such an argument.
+ *
+ * An operand which is itself an inlined arithmetic operation of the same type is fused with its parent; e.g. the
+ * chain `x * 2 - x + 1 > y` is evaluated on primitives, without a [Datum] for each intermediate result.
+ *
+ * @property function   The inlined function; used to translate the call to a batch call.
+ * @property lhs        The left-hand operand.
+ * @property rhs        The right-hand operand.
+ * @property negation   The NOT of the function's result (e.g. for `<>`), if any; used to translate the call to a batch
+ * call.
+ */
+internal abstract class ExprBinary private constructor(
+    @JvmField val function: Fn,
+    @JvmField val lhs: ExprValue,
+    @JvmField val rhs: ExprValue,
+    @JvmField val negation: Fn? = null,
+) : ExprValue {
+
+    private val returns = function.signature.returns
+    private val isNullCall = function.signature.isNullCall
+    private val isMissingCall = function.signature.isMissingCall
+
+    companion object {
+
+        private val TRUE = Datum.bool(true)
+        private val FALSE = Datum.bool(false)
+        private val UNKNOWN = Datum.nullValue(PType.bool())
+
+        /**
+         * Returns the inlined call of the [function] on operands of the given (static) types; or null if the function
+         * is not an operator (of those types) which can be inlined.
+         */
+        @JvmStatic
+        fun of(function: Fn, lhs: ExprValue, rhs: ExprValue, lhsType: PType, rhsType: PType): ExprBinary? {
+            val parameters = function.signature.parameters
+            if (parameters.size != 2) {
+                return null
+            }
+            val type = lhsType.code()
+            if (rhsType.code() != type) {
+                return null
+            }
+            val name = function.signature.name.removePrefix(HIDDEN)
+            // the parameters of `eq` are dynamic, and it is null on a missing operand; the arithmetic and comparison
+            // operators are of the operands' type, and are null (or missing) on a null (or missing) operand. The logical
+            // operators are of the operands' type, but are defined on unknown operands (see Logical).
+            val signature = function.signature
+            val typed = parameters.all { it.type.code() == type }
+            val accepted = when (type) {
+                PType.BOOL -> typed
+                else -> typed && signature.isNullCall && signature.isMissingCall
+            }
+            if (!accepted && !(name == "eq" && parameters.all { it.type.code() == PType.DYNAMIC })) {
+                return null
+            }
+            return when (type) {
+                PType.INTEGER, PType.BIGINT, PType.DOUBLE -> numeric(name, type, function, lhs, rhs)
+                PType.BOOL -> bool(name, function, lhs, rhs)
+                else -> null
+            }
+        }
+
+        /**
+         * Returns the inlined call of the `not` [function] on an inlined `eq`, which is `<>`; or null if the call is not
+         * of `not` on an inlined `eq`.
+         */
+        @JvmStatic
+        fun not(function: Fn, operand: ExprValue): ExprBinary? {
+            if (function.signature.name.removePrefix(HIDDEN) != "not" || function.signature.parameters.size != 1) {
+                return null
+            }
+            if (operand !is Comparison || operand.op != EQ || operand.negation != null) {
+                return null
+            }
+            return Comparison(operand.function, operand.lhs, operand.rhs, operand.type, NE, function)
+        }
+
+        private const val HIDDEN = "\uFDEF"
+
+        private const val PLUS = 0
+        private const val MINUS = 1
+        private const val TIMES = 2
+        private const val LT = 3
+        private const val LTE = 4
+        private const val GT = 5
+        private const val GTE = 6
+        private const val EQ = 7
+        private const val NE = 8
+
+        private fun numeric(name: String, type: Int, function: Fn, lhs: ExprValue, rhs: ExprValue): ExprBinary? = when (name) {
+            "plus" -> Arithmetic(function, lhs, rhs, type, PLUS)
+            "minus" -> Arithmetic(function, lhs, rhs, type, MINUS)
+            "times" -> Arithmetic(function, lhs, rhs, type, TIMES)
+            "lt" -> Comparison(function, lhs, rhs, type, LT)
+            "lte" -> Comparison(function, lhs, rhs, type, LTE)
+            "gt" -> Comparison(function, lhs, rhs, type, GT)
+            "gte" -> Comparison(function, lhs, rhs, type, GTE)
+            "eq" -> Comparison(function, lhs, rhs, type, EQ)
+            else -> null
+        }
+
+        private fun bool(name: String, function: Fn, lhs: ExprValue, rhs: ExprValue): ExprBinary? = when (name) {
+            "and" -> And(function, lhs, rhs)
+            "or" -> Or(function, lhs, rhs)
+            else -> null
+        }
+
+        private fun bool(value: Boolean): Datum = if (value) TRUE else FALSE
+
+        private fun symbol(op: Int): String = when (op) {
+            PLUS -> "+"
+            MINUS -> "-"
+            else -> "*"
+        }
+
+        private fun int(op: Int, l: Int, r: Int): Int = try {
+            when (op) {
+                PLUS -> Math.addExact(l, r)
+                MINUS -> Math.subtractExact(l, r)
+                else -> Math.multiplyExact(l, r)
+            }
+        } catch (e: ArithmeticException) {
+            throw PErrors.numericOutOfRangeException("$l ${symbol(op)} $r", PType.integer())
+        }
+
+        private fun long(op: Int, l: Long, r: Long): Long = try {
+            when (op) {
+                PLUS -> Math.addExact(l, r)
+                MINUS -> Math.subtractExact(l, r)
+                else -> Math.multiplyExact(l, r)
+            }
+        } catch (e: ArithmeticException) {
+            throw PErrors.numericOutOfRangeException("$l ${symbol(op)} $r", PType.bigint())
+        }
+
+        private fun double(op: Int, l: Double, r: Double): Double = when (op) {
+            PLUS -> l + r
+            MINUS -> l - r
+            else -> l * r
+        }
+
+        /**
+         * The comparison of integers, as by the functions.
+         */
+        private fun compare(op: Int, l: Long, r: Long): Datum = when (op) {
+            LT -> bool(l < r)
+            LTE -> bool(l <= r)
+            GT -> bool(l > r)
+            GTE -> bool(l >= r)
+            EQ -> bool(l == r)
+            else -> bool(l != r)
+        }
+
+        /**
+         * The comparison of doubles, as by the functions; `eq` compares as the [Datum.comparator], so NaN is equal to
+         * NaN.
+         */
+        private fun compare(op: Int, l: Double, r: Double): Datum = when (op) {
+            LT -> bool(l < r)
+            LTE -> bool(l <= r)
+            GT -> bool(l > r)
+            GTE -> bool(l >= r)
+            EQ -> bool(java.lang.Double.compare(l, r) == 0)
+            else -> bool(java.lang.Double.compare(l, r) != 0)
+        }
+    }
+
+    /**
+     * An operator on INTEGER, BIGINT, or DOUBLE operands; the operands are evaluated to primitives (see [Term]). The
+     * first null (or missing) operand is recorded in [unknown], which stops the evaluation of the chain.
+     *
+     * As with the operators, an expression is never evaluated concurrently; the workers of a parallel pipeline compile
+     * their own expressions.
+     *
+     * @property type   The type of the operands.
+     */
+    private abstract class Numeric(
+        function: Fn,
+        lhs: ExprValue,
+        rhs: ExprValue,
+        @JvmField val type: Int,
+        negation: Fn?,
+    ) : ExprBinary(function, lhs, rhs, negation) {
+
+        @JvmField
+        var unknown: Datum? = null
+
+        @JvmField
+        val left: Term = term(lhs)
+
+        @JvmField
+        val right: Term = term(rhs)
+
+        override fun eval(env: Environment): Datum {
+            unknown = null
+            val result = compute(env)
+            val operand = unknown ?: return result!!
+            unknown = null
+            return when {
+                operand.isNull || !isMissingCall -> Datum.nullValue(returns)
+                else -> Datum.missing(returns)
+            }
+        }
+
+        /**
+         * Returns the result of the operation; or null if an operand is null (or missing).
+         */
+        abstract fun compute(env: Environment): Datum?
+
+        private fun term(operand: ExprValue): Term = when {
+            operand is Arithmetic && operand.type == type && operand.isNullCall && operand.isMissingCall -> operand.term
+            else -> Leaf(operand)
+        }
+    }
+
+    private class Arithmetic(function: Fn, lhs: ExprValue, rhs: ExprValue, type: Int, op: Int) :
+        Numeric(function, lhs, rhs, type, null) {
+
+        /**
+         * This operation as the operand of a fused parent.
+         */
+        @JvmField
+        val term: Term = ArithmeticTerm(type, op, left, right)
+
+        override fun compute(env: Environment): Datum? = when (type) {
+            PType.INTEGER -> {
+                val result = term.int(env, this)
+                if (unknown != null) null else Datum.integer(result)
+            }
+            PType.BIGINT -> {
+                val result = term.long(env, this)
+                if (unknown != null) null else Datum.bigint(result)
+            }
+            else -> {
+                val result = term.double(env, this)
+                if (unknown != null) null else Datum.doublePrecision(result)
+            }
+        }
+    }
+
+    private class Comparison(function: Fn, lhs: ExprValue, rhs: ExprValue, type: Int, @JvmField val op: Int, negation: Fn? = null) :
+        Numeric(function, lhs, rhs, type, negation) {
+
+        override fun compute(env: Environment): Datum? = when (type) {
+            PType.INTEGER -> {
+                val l = left.int(env, this)
+                if (unknown != null) skip(env) else {
+                    val r = right.int(env, this)
+                    if (unknown != null) null else compare(op, l.toLong(), r.toLong())
+                }
+            }
+            PType.BIGINT -> {
+                val l = left.long(env, this)
+                if (unknown != null) skip(env) else {
+                    val r = right.long(env, this)
+                    if (unknown != null) null else compare(op, l, r)
+                }
+            }
+            else -> {
+                val l = left.double(env, this)
+                if (unknown != null) skip(env) else {
+                    val r = right.double(env, this)
+                    if (unknown != null) null else compare(op, l, r)
+                }
+            }
+        }
+
+        /**
+         * Evaluates the rhs after a missing lhs if the function is called on a missing argument (i.e. `eq`), as the
+         * rhs may raise an error; the result is unknown regardless.
+         */
+        private fun skip(env: Environment): Datum? {
+            val operand = unknown!!
+            if (operand.isMissing && !isMissingCall) {
+                unknown = null
+                right.skip(env, this)
+                unknown = operand
+            }
+            return null
+        }
+    }
+
+    /**
+     * An operand of a [Numeric] operator, which is evaluated to a primitive of the operator's type.
+     */
+    private abstract class Term {
+
+        abstract fun int(env: Environment, root: Numeric): Int
+
+        abstract fun long(env: Environment, root: Numeric): Long
+
+        abstract fun double(env: Environment, root: Numeric): Double
+
+        /**
+         * Evaluates the operand for its errors alone.
+         */
+        abstract fun skip(env: Environment, root: Numeric)
+    }
+
+    private class Leaf(private val expr: ExprValue) : Term() {
+
+        override fun int(env: Environment, root: Numeric): Int = value(env, root)?.int ?: 0
+
+        override fun long(env: Environment, root: Numeric): Long = value(env, root)?.long ?: 0L
+
+        override fun double(env: Environment, root: Numeric): Double = value(env, root)?.double ?: 0.0
+
+        override fun skip(env: Environment, root: Numeric) {
+            expr.eval(env)
+        }
+
+        private fun value(env: Environment, root: Numeric): Datum? {
+            val value = expr.eval(env)
+            if (value.isNull || value.isMissing) {
+                root.unknown = value
+                return null
+            }
+            return value
+        }
+    }
+
+    private class ArithmeticTerm(private val type: Int, private val op: Int, private val lhs: Term, private val rhs: Term) : Term() {
+
+        override fun int(env: Environment, root: Numeric): Int {
+            val l = lhs.int(env, root)
+            if (root.unknown != null) return 0
+            val r = rhs.int(env, root)
+            if (root.unknown != null) return 0
+            return int(op, l, r)
+        }
+
+        override fun long(env: Environment, root: Numeric): Long {
+            val l = lhs.long(env, root)
+            if (root.unknown != null) return 0L
+            val r = rhs.long(env, root)
+            if (root.unknown != null) return 0L
+            return long(op, l, r)
+        }
+
+        override fun double(env: Environment, root: Numeric): Double {
+            val l = lhs.double(env, root)
+            if (root.unknown != null) return 0.0
+            val r = rhs.double(env, root)
+            if (root.unknown != null) return 0.0
+            return double(op, l, r)
+        }
+
+        override fun skip(env: Environment, root: Numeric) {
+            when (type) {
+                PType.INTEGER -> int(env, root)
+                PType.BIGINT -> long(env, root)
+                else -> double(env, root)
+            }
+        }
+    }
+
+    /**
+     * An operator on BOOL operands, which are evaluated (and checked for null and missing) as by the function.
+     */
+    private abstract class Logical(function: Fn, lhs: ExprValue, rhs: ExprValue) : ExprBinary(function, lhs, rhs) {
+
+        override fun eval(env: Environment): Datum {
+            val l = lhs.eval(env)
+            if (isNullCall && l.isNull) return Datum.nullValue(returns)
+            if (isMissingCall && l.isMissing) return Datum.missing(returns)
+            val r = rhs.eval(env)
+            if (isNullCall && r.isNull) return Datum.nullValue(returns)
+            if (isMissingCall && r.isMissing) return Datum.missing(returns)
+            return apply(l, r)
+        }
+
+        /**
+         * Returns the result of the operation on the evaluated operands.
+         */
+        abstract fun apply(lhs: Datum, rhs: Datum): Datum
+    }
+
+    /**
+     * SQL:1999 Section 6.30 Table 13; both operands are evaluated, as by the function.
+     */
+    private class And(function: Fn, lhs: ExprValue, rhs: ExprValue) : Logical(function, lhs, rhs) {
+
+        override fun apply(lhs: Datum, rhs: Datum): Datum {
+            val lhsIsUnknown = lhs.isNull || lhs.isMissing
+            val rhsIsUnknown = rhs.isNull || rhs.isMissing
+            return when {
+                lhsIsUnknown && rhsIsUnknown -> UNKNOWN
+                !lhsIsUnknown && lhs.boolean && rhsIsUnknown -> UNKNOWN
+                !rhsIsUnknown && rhs.boolean && lhsIsUnknown -> UNKNOWN
+                !lhs.boolean || !rhs.boolean -> FALSE
+                else -> TRUE
+            }
+        }
+    }
+
+    /**
+     * SQL:1999 Section 6.30 Table 13; both operands are evaluated, as by the function.
+     */
+    private class Or(function: Fn, lhs: ExprValue, rhs: ExprValue) : Logical(function, lhs, rhs) {
+
+        override fun apply(lhs: Datum, rhs: Datum): Datum {
+            val lhsIsUnknown = lhs.isNull || lhs.isMissing
+            val rhsIsUnknown = rhs.isNull || rhs.isMissing
+            return when {
+                lhsIsUnknown && rhsIsUnknown -> UNKNOWN
+                !lhsIsUnknown && !rhsIsUnknown -> bool(lhs.boolean || rhs.boolean)
+                lhsIsUnknown && rhs.boolean -> TRUE
+                rhsIsUnknown && lhs.boolean -> TRUE
+                else -> UNKNOWN
+            }
+        }
+    }
+}
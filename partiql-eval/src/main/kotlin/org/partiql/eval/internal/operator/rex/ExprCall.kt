@@ -12,8 +12,8 @@ import org.partiql.spi.value.Datum
  * @property args       Input argument expressions.
  */
 internal class ExprCall(
-    private var function: Fn,
-    private var args: Array<ExprValue>,
+    internal var function: Fn,
+    internal var args: Array<ExprValue>,
 ) : ExprValue {
 
     private var isNullCall: Boolean = function.signature.isNullCall
@@ -33,7 +33,8 @@ import org.partiql.spi.value.Datum
 internal class ExprCallDynamic(
     private val name: String,
     private val functions: Array<FnOverload>,
-    private val args: Array<ExprValue>
+    private val args: Array<ExprValue>,
+    private val permissive: Boolean = false,
 ) : ExprValue {
 
     /**
@@ -46,6 +47,11 @@ internal class ExprCallDynamic(
      */
     private val candidates: MutableMap<ParameterTypes, Candidate> = mutableMapOf()
 
+    /**
+     * The argument types for which the [match] function found no candidate.
+     */
+    private val mismatches: MutableSet<ParameterTypes> = mutableSetOf()
+
     /**
      * Used as the keys of the hash map: [ExprCallDynamic.candidates].
      */
@@ -68,12 +74,32 @@ internal class ExprCallDynamic(
         val paramTypes = ParameterTypes(actualTypes)
         var candidate = candidates[paramTypes]
         if (candidate == null) {
-            candidate = match(actualTypes) ?: throw PErrors.functionTypeMismatchException(name, actualTypes, functions.toList())
+            candidate = if (paramTypes in mismatches) null else match(actualTypes)
+            if (candidate == null) {
+                mismatches.add(paramTypes)
+                return mismatch(actualTypes)
+            }
             candidates[paramTypes] = candidate
         }
         return candidate.eval(actualArgs)
     }
 
+    /**
+     * Returns this call, which returns MISSING (rather than raising an error) if no candidate matches its arguments.
+     */
+    fun permissive(): ExprCallDynamic = when (permissive) {
+        true -> this
+        else -> ExprCallDynamic(name, functions, args, true)
+    }
+
+    /**
+     * In permissive mode, a call without a matching candidate returns MISSING rather than raising an error.
+     */
+    private fun mismatch(actualTypes: Array<PType>): Datum = when (permissive) {
+        true -> Datum.missing()
+        else -> throw PErrors.functionTypeMismatchException(name, actualTypes, functions.toList())
+    }
+
     /**
      * Logic is as follows: for each candidate (ordered by precedence), loop through its parameters while keeping track
      * of the number of exact matches. If the number of exact matches is greater than the current best match, update the
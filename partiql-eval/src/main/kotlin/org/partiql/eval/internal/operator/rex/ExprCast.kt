@@ -18,8 +18,8 @@ internal class ExprCast(operand: ExprValue, target: PType) :
     ExprValue {
 
     // DO NOT USE FINAL
-    private var _operand = operand
-    private var _target = target
+    internal var _operand = operand
+    internal var _target = target
 
     override fun eval(env: Environment): Datum {
         return CastTable.cast(_operand.eval(env), _target)
@@ -0,0 +1,24 @@
+package org.partiql.eval.internal.operator.rex
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprValue
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+
+/**
+ * Permissive [ExprCast]; the cast returns MISSING (rather than raising an error) if the operand's type cannot be cast
+ * to the target type.
+ */
+internal class ExprCastPermissive(
+    private val operand: ExprValue,
+    private val target: PType,
+) : ExprValue {
+
+    override fun eval(env: Environment): Datum {
+        val value = operand.eval(env)
+        if (!value.isNull && !value.isMissing && !CastTable.isDefined(value.type, target)) {
+            return Datum.missing()
+        }
+        return CastTable.cast(value, target)
+    }
+}
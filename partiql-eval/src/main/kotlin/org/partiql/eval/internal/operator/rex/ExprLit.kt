@@ -10,7 +10,7 @@ import org.partiql.spi.value.Datum
 internal class ExprLit(value: Datum) : ExprValue {
 
     // DO NOT USE FINAL
-    private var _value = value
+    internal var _value = value
 
     override fun eval(env: Environment): Datum = _value
 }
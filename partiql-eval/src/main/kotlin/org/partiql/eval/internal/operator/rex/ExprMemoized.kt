@@ -0,0 +1,35 @@
+package org.partiql.eval.internal.operator.rex
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprValue
+import org.partiql.spi.value.Datum
+
+/**
+ * Evaluates an uncorrelated expression (e.g. a subquery) once per execution of its statement; the value of such an
+ * expression depends only on the tables and parameters of the statement, rather than on the rows of the environment.
+ *
+ * The value is computed by the first evaluation after a [reset], which the statement calls before each execution. An
+ * error is not memoized, so it's raised by each evaluation as it would be without memoization.
+ *
+ * @property expr   The uncorrelated expression.
+ */
+internal class ExprMemoized(private val expr: ExprValue) : ExprValue, Memo {
+
+    // the workers of a parallel pipeline may evaluate the expression concurrently
+    @Volatile
+    private var value: Datum? = null
+
+    override fun eval(env: Environment): Datum {
+        value?.let { return it }
+        synchronized(this) {
+            value?.let { return it }
+            val result = expr.eval(env)
+            value = result
+            return result
+        }
+    }
+
+    override fun reset() {
+        value = null
+    }
+}
@@ -0,0 +1,15 @@
+package org.partiql.eval.internal.operator.rex
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprValue
+import org.partiql.spi.value.Datum
+
+/**
+ * Returns the value bound to a parameter of the statement.
+ *
+ * @property index  1-indexed parameter position.
+ */
+internal class ExprParameter(private val index: Int) : ExprValue {
+
+    override fun eval(env: Environment): Datum = env.getParameter(index)
+}
@@ -0,0 +1,36 @@
+package org.partiql.eval.internal.operator.rex
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprValue
+import org.partiql.eval.internal.helpers.ValueUtility.getInt32Coerced
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+
+/**
+ * Permissive [ExprPathIndex]; the path returns MISSING (rather than raising an error) if the root is not a collection
+ * or the index is out of its bounds.
+ */
+internal class ExprPathIndexPermissive(
+    @JvmField val root: ExprValue,
+    @JvmField val key: ExprValue,
+) : ExprValue {
+
+    override fun eval(env: Environment): Datum {
+        val input = root.eval(env)
+        val iterator = when (input.type.code()) {
+            PType.BAG,
+            PType.ARRAY -> input.iterator()
+            else -> return Datum.missing()
+        }
+        val index = key.eval(env).getInt32Coerced()
+        var i = 0
+        while (iterator.hasNext()) {
+            val v = iterator.next()
+            if (i == index) {
+                return v
+            }
+            i++
+        }
+        return Datum.missing()
+    }
+}
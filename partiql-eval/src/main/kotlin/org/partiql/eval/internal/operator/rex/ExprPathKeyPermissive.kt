@@ -0,0 +1,28 @@
+package org.partiql.eval.internal.operator.rex
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprValue
+import org.partiql.eval.internal.helpers.ValueUtility.checkOrNull
+import org.partiql.eval.internal.helpers.ValueUtility.checkStructOrNull
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+
+/**
+ * Permissive [ExprPathKey]; the path returns MISSING (rather than raising an error) if the root is not a struct, the
+ * key is not a string, or the struct has no such key.
+ */
+internal class ExprPathKeyPermissive(
+    @JvmField val root: ExprValue,
+    @JvmField val key: ExprValue
+) : ExprValue {
+
+    override fun eval(env: Environment): Datum {
+        val rootEvaluated = root.eval(env).checkStructOrNull() ?: return Datum.missing()
+        val keyEvaluated = key.eval(env).checkOrNull(PType.string()) ?: return Datum.missing()
+        if (rootEvaluated.isNull || keyEvaluated.isNull) {
+            return Datum.nullValue()
+        }
+        val keyString = keyEvaluated.string
+        return rootEvaluated.get(keyString) ?: Datum.missing()
+    }
+}
@@ -3,6 +3,7 @@ package org.partiql.eval.internal.operator.rex
 import org.partiql.eval.Environment
 import org.partiql.eval.ExprValue
 import org.partiql.eval.internal.helpers.PErrors
+import org.partiql.eval.internal.helpers.SymbolLookup
 import org.partiql.eval.internal.helpers.ValueUtility.checkStruct
 import org.partiql.spi.value.Datum
 
@@ -11,11 +12,13 @@ internal class ExprPathSymbol(
     @JvmField val symbol: String,
 ) : ExprValue {
 
+    private val lookup = SymbolLookup(symbol)
+
     override fun eval(env: Environment): Datum {
         val struct = root.eval(env).checkStruct()
         if (struct.isNull) {
             return Datum.nullValue()
         }
-        return struct.getInsensitive(symbol) ?: throw PErrors.pathSymbolFailureException()
+        return lookup.get(struct) ?: throw PErrors.pathSymbolFailureException()
     }
 }
@@ -0,0 +1,27 @@
+package org.partiql.eval.internal.operator.rex
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprValue
+import org.partiql.eval.internal.helpers.SymbolLookup
+import org.partiql.eval.internal.helpers.ValueUtility.checkStructOrNull
+import org.partiql.spi.value.Datum
+
+/**
+ * Permissive [ExprPathSymbol]; the path returns MISSING (rather than raising an error) if the root is not a struct or
+ * the struct has no such symbol.
+ */
+internal class ExprPathSymbolPermissive(
+    @JvmField val root: ExprValue,
+    @JvmField val symbol: String,
+) : ExprValue {
+
+    private val lookup = SymbolLookup(symbol)
+
+    override fun eval(env: Environment): Datum {
+        val struct = root.eval(env).checkStructOrNull() ?: return Datum.missing()
+        if (struct.isNull) {
+            return Datum.nullValue()
+        }
+        return lookup.get(struct) ?: Datum.missing()
+    }
+}
@@ -7,7 +7,7 @@ import org.partiql.spi.errors.PRuntimeException
 import org.partiql.spi.value.Datum
 import org.partiql.spi.value.InvalidOperationException
 
-internal class ExprPermissive(private var expr: ExprValue) :
+internal class ExprPermissive(internal var expr: ExprValue) :
     ExprValue {
 
     override fun eval(env: Environment): Datum {
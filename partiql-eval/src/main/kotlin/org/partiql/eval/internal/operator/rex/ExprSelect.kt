@@ -1,5 +1,6 @@
 package org.partiql.eval.internal.operator.rex
 
+import org.partiql.eval.Cursor
 import org.partiql.eval.Environment
 import org.partiql.eval.ExprRelation
 import org.partiql.eval.ExprValue
@@ -17,6 +18,56 @@ internal class ExprSelect(
     private val ordered: Boolean,
 ) : ExprValue {
 
+    /**
+     * Returns a cursor which pulls each row from the input relation as the cursor is advanced.
+     */
+    fun open(env: Environment): Cursor = Rows(input, constructor, env)
+
+    /**
+     * A cursor over the values of the select; closing it closes the input relation.
+     */
+    private class Rows(
+        private val input: ExprRelation,
+        private val constructor: ExprValue,
+        private val env: Environment,
+    ) : Cursor {
+
+        private var opened = false
+        private var closed = false
+
+        override fun hasNext(): Boolean {
+            if (closed) {
+                return false
+            }
+            if (!opened) {
+                opened = true
+                input.open(env)
+            }
+            val hasNext = input.hasNext()
+            if (!hasNext) {
+                close()
+            }
+            return hasNext
+        }
+
+        override fun next(): Datum {
+            if (!hasNext()) {
+                throw NoSuchElementException()
+            }
+            return constructor.eval(env.push(input.next()))
+        }
+
+        override fun close() {
+            if (closed) {
+                return
+            }
+            closed = true
+            if (opened) {
+                input.close()
+            }
+        }
+    }
+
     class Elements(
         private val input: ExprRelation,
         private val constructor: ExprValue,
@@ -0,0 +1,36 @@
+package org.partiql.eval.internal.operator.rex
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprValue
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.Field
+import org.partiql.spi.value.StructShape
+
+/**
+ * A struct constructor whose keys are literal strings; its structs share the [shape] of the keys and store only their
+ * values. A struct with a MISSING value omits the field, so it is constructed without the shape.
+ */
+internal class ExprStructShaped(
+    private val shape: StructShape,
+    private val values: Array<ExprValue>,
+) : ExprValue {
+
+    override fun eval(env: Environment): Datum {
+        var missing = false
+        val evaluated = Array(values.size) {
+            val value = values[it].eval(env)
+            missing = missing || value.isMissing
+            value
+        }
+        if (!missing) {
+            return Datum.struct(shape, evaluated)
+        }
+        val fields = ArrayList<Field>(evaluated.size)
+        for (i in evaluated.indices) {
+            if (!evaluated[i].isMissing) {
+                fields.add(Field.of(shape.getName(i), evaluated[i]))
+            }
+        }
+        return Datum.struct(fields)
+    }
+}
@@ -0,0 +1,123 @@
+package org.partiql.eval.internal.operator.rex
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.ExprValue
+import org.partiql.plan.rex.RexSubqueryComp.Comparison
+import org.partiql.plan.rex.RexSubqueryComp.Quantifier
+import org.partiql.spi.value.Datum
+
+/**
+ * Implementation of the `<quantified comparison predicate>`, SQL:1999 Section 8.8, for the comparisons which are not
+ * a semi-join (see [ExprSubqueryIn] for `= ANY` and `<> ALL`):
+ *
+ *  - ANY (or SOME) is TRUE if the comparison is TRUE for some row, FALSE if it's FALSE for every row (or there are no
+ *    rows), and otherwise UNKNOWN;
+ *  - ALL is TRUE if the comparison is TRUE for every row (or there are no rows), FALSE if it's FALSE for some row, and
+ *    otherwise UNKNOWN.
+ *
+ * The rows of an uncorrelated subquery are read once per execution of the statement.
+ *
+ * @property args       The row-value (or single value) which is compared to the rows of the subquery.
+ * @property input      The rows of the subquery.
+ * @property comparison The code of the [Comparison].
+ * @property quantifier The code of the [Quantifier].
+ * @property correlated True if the subquery references the rows of the environment.
+ */
+internal class ExprSubqueryComp(
+    private val args: Array<ExprValue>,
+    private val input: ExprRelation,
+    private val comparison: Int,
+    private val quantifier: Int,
+    private val correlated: Boolean,
+) : ExprValue, Memo {
+
+    // the workers of a parallel pipeline may evaluate the predicate concurrently
+    @Volatile
+    private var rows: List<Array<Datum>>? = null
+
+    private val all = quantifier == Quantifier.ALL
+
+    override fun eval(env: Environment): Datum {
+        val values = Array(args.size) { args[it].eval(env) }
+        var unknown = false
+        for (row in rows(env)) {
+            val result = compare(values, row)
+            when {
+                result === SemiJoin.UNKNOWN -> unknown = true
+                // the first FALSE of ALL, or TRUE of ANY, decides the predicate
+                (result === SemiJoin.TRUE) != all -> return result
+            }
+        }
+        return when {
+            unknown -> SemiJoin.UNKNOWN
+            all -> SemiJoin.TRUE
+            else -> SemiJoin.FALSE
+        }
+    }
+
+    private fun rows(env: Environment): List<Array<Datum>> {
+        if (correlated) {
+            return read(env)
+        }
+        rows?.let { return it }
+        synchronized(this) {
+            rows?.let { return it }
+            val result = read(env)
+            rows = result
+            return result
+        }
+    }
+
+    private fun read(env: Environment): List<Array<Datum>> {
+        val result = mutableListOf<Array<Datum>>()
+        input.open(env)
+        try {
+            for (row in input) {
+                result.add(Array(args.size) { row.values[it] })
+            }
+        } finally {
+            input.close()
+        }
+        return result
+    }
+
+    /**
+     * Returns the three-valued comparison of the rows; rows of more than one value are compared (lexicographically)
+     * up to the first pair of values which are not equal.
+     */
+    private fun compare(values: Array<Datum>, row: Array<Datum>): Datum {
+        if (comparison == Comparison.EQ) {
+            return SemiJoin.compare(values, row)
+        }
+        if (comparison == Comparison.NE) {
+            return SemiJoin.not(SemiJoin.compare(values, row))
+        }
+        for (i in values.indices) {
+            val l = values[i]
+            val r = row[i]
+            if (l.isNull || l.isMissing || r.isNull || r.isMissing) {
+                return SemiJoin.UNKNOWN
+            }
+            val c = comparator.compare(l, r)
+            if (c != 0 || i == values.size - 1) {
+                val result = when (comparison) {
+                    Comparison.LT -> c < 0
+                    Comparison.LE -> c <= 0
+                    Comparison.GT -> c > 0
+                    else -> c >= 0
+                }
+                return if (result) SemiJoin.TRUE else SemiJoin.FALSE
+            }
+        }
+        return SemiJoin.UNKNOWN
+    }
+
+    override fun reset() {
+        rows = null
+    }
+
+    private companion object {
+        private val comparator = Datum.comparator()
+    }
+}
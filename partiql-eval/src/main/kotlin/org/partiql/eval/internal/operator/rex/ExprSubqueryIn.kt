@@ -0,0 +1,53 @@
+package org.partiql.eval.internal.operator.rex
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.ExprValue
+import org.partiql.spi.value.Datum
+
+/**
+ * Implementation of the `<in predicate>` on a subquery (i.e. `= ANY`) as a hash semi-join, or of its negation (i.e.
+ * NOT IN, or `<> ALL`) as an anti-join; see [SemiJoin] for the three-valued semantics.
+ *
+ * The rows of an uncorrelated subquery are hashed once per execution of the statement and probed by each evaluation;
+ * the rows of a correlated subquery are read by each evaluation until an equal row is found.
+ *
+ * @property args       The row-value (or single value) which is compared to the rows of the subquery.
+ * @property input      The rows of the subquery.
+ * @property correlated True if the subquery references the rows of the environment.
+ * @property negated    True for NOT IN.
+ */
+internal class ExprSubqueryIn(
+    private val args: Array<ExprValue>,
+    private val input: ExprRelation,
+    private val correlated: Boolean,
+    private val negated: Boolean,
+) : ExprValue, Memo {
+
+    // the workers of a parallel pipeline may evaluate the predicate concurrently
+    @Volatile
+    private var semiJoin: SemiJoin? = null
+
+    override fun eval(env: Environment): Datum {
+        val values = Array(args.size) { args[it].eval(env) }
+        val result = when (correlated) {
+            true -> SemiJoin.probe(input, env, values)
+            else -> build(env).probe(values)
+        }
+        return if (negated) SemiJoin.not(result) else result
+    }
+
+    private fun build(env: Environment): SemiJoin {
+        semiJoin?.let { return it }
+        synchronized(this) {
+            semiJoin?.let { return it }
+            val result = SemiJoin.build(input, env, args.size)
+            semiJoin = result
+            return result
+        }
+    }
+
+    override fun reset() {
+        semiJoin = null
+    }
+}
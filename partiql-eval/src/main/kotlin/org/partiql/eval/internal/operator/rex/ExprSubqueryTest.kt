@@ -0,0 +1,48 @@
+package org.partiql.eval.internal.operator.rex
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.ExprValue
+import org.partiql.eval.internal.helpers.DatumArrayKey
+import org.partiql.spi.value.Datum
+
+/**
+ * Implementation of the `<exists predicate>` and `<unique predicate>`, SQL:1999 Sections 8.9 and 8.10.
+ *
+ *  - EXISTS is TRUE if the subquery has a row, and reads (only) its first row;
+ *  - UNIQUE is TRUE if no two rows of the subquery are equal, ignoring the rows with a NULL (or MISSING) value.
+ *
+ * Neither is ever UNKNOWN, so NOT EXISTS is the anti-join of EXISTS.
+ *
+ * @property input  The rows of the subquery.
+ * @property unique True for UNIQUE, false for EXISTS.
+ */
+internal class ExprSubqueryTest(
+    private val input: ExprRelation,
+    private val unique: Boolean,
+) : ExprValue {
+
+    override fun eval(env: Environment): Datum {
+        input.open(env)
+        try {
+            val result = if (unique) unique() else input.hasNext()
+            return if (result) SemiJoin.TRUE else SemiJoin.FALSE
+        } finally {
+            input.close()
+        }
+    }
+
+    private fun unique(): Boolean {
+        val keys = HashSet<DatumArrayKey>()
+        for (row in input) {
+            val values = row.values.copyOf()
+            if (values.any { it.isNull || it.isMissing }) {
+                continue
+            }
+            if (!keys.add(DatumArrayKey(values))) {
+                return false
+            }
+        }
+        return true
+    }
+}
@@ -0,0 +1,25 @@
+package org.partiql.eval.internal.operator.rex
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprValue
+import org.partiql.spi.catalog.ScanRequest
+import org.partiql.spi.catalog.Table
+import org.partiql.spi.value.Datum
+
+/**
+ * Wrap the scan of a [Table] as an expression operator; the [request] describes the parts of the rows which the query
+ * uses.
+ *
+ * @constructor
+ *
+ * @param table
+ * @param request
+ */
+internal class ExprTableScan(table: Table, request: ScanRequest) : ExprValue {
+
+    // DO NOT USE FINAL
+    private var _table = table
+    private var _request = request
+
+    override fun eval(env: Environment): Datum = _table.scan(_request)
+}
@@ -8,8 +8,8 @@ import org.partiql.spi.value.Datum
  * Implementation for variable lookup; walks up environments if necessary, otherwise lookup using tuple offset.
  */
 internal class ExprVar(
-    private var depth: Int,
-    private var offset: Int,
+    internal var depth: Int,
+    internal var offset: Int,
 ) : ExprValue {
 
     override fun eval(env: Environment): Datum = env.get(depth, offset)
@@ -0,0 +1,13 @@
+package org.partiql.eval.internal.operator.rex
+
+/**
+ * The state of an operator which is computed once per execution of its statement, such as the value (or the rows) of
+ * an uncorrelated subquery; the statement resets it before each execution.
+ */
+internal interface Memo {
+
+    /**
+     * Forgets the state of the previous execution.
+     */
+    fun reset()
+}
@@ -0,0 +1,145 @@
+package org.partiql.eval.internal.operator.rex
+
+import org.partiql.eval.Environment
+import org.partiql.eval.ExprRelation
+import org.partiql.eval.internal.helpers.DatumArrayKey
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+
+/**
+ * The build side of a hash semi-join: the rows of a subquery which are probed by the rows of an IN predicate (or of its
+ * negation, the NOT IN anti-join). A probe has the three-valued semantics of `<row> = ANY (<subquery>)`, SQL:1999
+ * Section 8.8:
+ *
+ *  - TRUE if the row equals a row of the subquery;
+ *  - FALSE if the subquery is empty, or if the row is (definitely) not equal to any row of the subquery;
+ *  - otherwise UNKNOWN; e.g. `1 IN (2, NULL)` is UNKNOWN, so `1 NOT IN (2, NULL)` is UNKNOWN rather than TRUE.
+ *
+ * The rows without NULL (or MISSING) values are hashed, so a probe is a single lookup unless the probed row or the
+ * subquery has NULLs. Values are equal as by [org.partiql.eval.internal.helpers.DatumArrayComparator] (e.g. 1 = 1.0).
+ *
+ * @property keys   The rows without NULL values.
+ * @property nulls  The rows with a NULL value; these are equal to no row, but are compared to find UNKNOWN.
+ */
+internal class SemiJoin private constructor(
+    private val keys: Set<DatumArrayKey>,
+    private val nulls: List<Array<Datum>>,
+) {
+
+    /**
+     * Returns TRUE, FALSE, or UNKNOWN (the NULL boolean) as the [values] are IN the rows of the subquery.
+     */
+    fun probe(values: Array<Datum>): Datum {
+        if (keys.isEmpty() && nulls.isEmpty()) {
+            return FALSE
+        }
+        val unknown = hasNull(values)
+        if (!unknown && keys.contains(DatumArrayKey(values))) {
+            return TRUE
+        }
+        // a row with a NULL value is equal to no row, though it is UNKNOWN whether it's equal to a row which is not
+        // (definitely) different; e.g. (1, NULL) and (1, 2), but not (2, NULL) and (1, 2).
+        for (row in nulls) {
+            if (compare(values, row) === UNKNOWN) {
+                return UNKNOWN
+            }
+        }
+        if (unknown) {
+            for (key in keys) {
+                if (compare(values, key.values) === UNKNOWN) {
+                    return UNKNOWN
+                }
+            }
+        }
+        return FALSE
+    }
+
+    companion object {
+
+        val TRUE: Datum = Datum.bool(true)
+
+        val FALSE: Datum = Datum.bool(false)
+
+        val UNKNOWN: Datum = Datum.nullValue(PType.bool())
+
+        private val comparator = Datum.comparator()
+
+        /**
+         * Reads the rows of the [input] (the first [degree] values of each) into a [SemiJoin].
+         */
+        @JvmStatic
+        fun build(input: ExprRelation, env: Environment, degree: Int): SemiJoin {
+            val keys = HashSet<DatumArrayKey>()
+            val nulls = mutableListOf<Array<Datum>>()
+            input.open(env)
+            try {
+                for (row in input) {
+                    val values = Array(degree) { row.values[it] }
+                    if (hasNull(values)) {
+                        nulls.add(values)
+                    } else {
+                        keys.add(DatumArrayKey(values))
+                    }
+                }
+            } finally {
+                input.close()
+            }
+            return SemiJoin(keys, nulls)
+        }
+
+        /**
+         * Returns TRUE, FALSE, or UNKNOWN as the [values] are IN the rows of the [input], which is read (only) until
+         * an equal row is found; this is used for correlated subqueries, whose rows differ from probe to probe.
+         */
+        @JvmStatic
+        fun probe(input: ExprRelation, env: Environment, values: Array<Datum>): Datum {
+            var result = FALSE
+            input.open(env)
+            try {
+                for (row in input) {
+                    val comparison = compare(values, row.values)
+                    if (comparison === TRUE) {
+                        return TRUE
+                    }
+                    if (comparison === UNKNOWN) {
+                        result = UNKNOWN
+                    }
+                }
+            } finally {
+                input.close()
+            }
+            return result
+        }
+
+        /**
+         * Returns the three-valued result of `(l1, ..., ln) = (r1, ..., rn)` for the [values] and (the first n values
+         * of) the [row]; this is FALSE if any pair of values (neither NULL) is not equal.
+         */
+        @JvmStatic
+        fun compare(values: Array<Datum>, row: Array<Datum>): Datum {
+            var unknown = false
+            for (i in values.indices) {
+                val l = values[i]
+                val r = row[i]
+                if (l.isNull || l.isMissing || r.isNull || r.isMissing) {
+                    unknown = true
+                } else if (comparator.compare(l, r) != 0) {
+                    return FALSE
+                }
+            }
+            return if (unknown) UNKNOWN else TRUE
+        }
+
+        /**
+         * Returns the three-valued negation of TRUE, FALSE, or UNKNOWN.
+         */
+        @JvmStatic
+        fun not(value: Datum): Datum = when {
+            value === TRUE -> FALSE
+            value === FALSE -> TRUE
+            else -> UNKNOWN
+        }
+
+        private fun hasNull(values: Array<Datum>): Boolean = values.any { it.isNull || it.isMissing }
+    }
+}
@@ -0,0 +1,134 @@
+package org.partiql.eval.internal
+
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+import org.partiql.eval.Mode
+import org.partiql.eval.compiler.PartiQLCompiler
+import org.partiql.parser.PartiQLParser
+import org.partiql.planner.PartiQLPlanner
+import org.partiql.spi.catalog.Catalog
+import org.partiql.spi.catalog.Name
+import org.partiql.spi.catalog.Session
+import org.partiql.spi.catalog.Table
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.DatumVector
+import org.partiql.spi.value.Field
+import java.util.BitSet
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * The ungrouped aggregations of a columnar table must be equal to those of the same rows stored as structs, without
+ * materializing a [Datum] per value.
+ */
+class ColumnarAggregationTest {
+
+    private val parser = PartiQLParser.standard()
+    private val planner = PartiQLPlanner.standard()
+    private val compiler = PartiQLCompiler.standard()
+
+    private val size = 1000
+
+    // every 10th value is null
+    private val nulls = BitSet().apply { for (i in 0 until size step 10) set(i) }
+    private val ints = IntArray(size) { (it * 7919) % 1000 - 500 }
+    private val longs = LongArray(size) { it * 1_000_000_007L }
+    private val doubles = DoubleArray(size) { it * 0.25 }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = [
+            "SELECT COUNT(*) AS n FROM tbl AS t",
+            "SELECT COUNT(*) AS n, COUNT(t.a) AS c, SUM(t.a) AS s, SUM(t.d) AS d FROM tbl AS t",
+            "SELECT SUM(t.A) AS s FROM tbl AS t",
+            "SELECT SUM(t['a']) AS s, COUNT(t['b']) AS c FROM tbl AS t",
+        ]
+    )
+    fun primitives(query: String) {
+        val columns = columns()
+        for (mode in listOf(Mode.PERMISSIVE(), Mode.STRICT())) {
+            val expected = execute(query, rows(), mode)
+            val actual = execute(query, Datum.columnar(listOf("a", "b", "d"), columns), mode)
+            assertTrue(Datum.comparator().compare(expected, actual) == 0, "Expected: $expected\nActual: $actual")
+        }
+        assertEquals(0, columns.sumOf { it.materialized }, "Expected no values to be materialized")
+    }
+
+    @Test
+    fun extremes() {
+        // only the MIN and the MAX are materialized
+        val query = "SELECT MIN(t.a) AS lo, MAX(t.a) AS hi, MIN(t.b) AS lob, MAX(t.b) AS hib FROM tbl AS t"
+        val columns = columns()
+        val expected = execute(query, rows(), Mode.STRICT())
+        val actual = execute(query, Datum.columnar(listOf("a", "b", "d"), columns), Mode.STRICT())
+        assertTrue(Datum.comparator().compare(expected, actual) == 0, "Expected: $expected\nActual: $actual")
+        assertEquals(4, columns.sumOf { it.materialized })
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = [
+            // the SUM of a BIGINT column is a DECIMAL, which is computed row-at-a-time
+            "SELECT SUM(t.b) AS s, COUNT(*) AS n FROM tbl AS t",
+            "SELECT AVG(t.a) AS v FROM tbl AS t",
+            "SELECT COUNT(DISTINCT t.a) AS c FROM tbl AS t",
+            "SELECT SUM(t.x) AS s FROM tbl AS t",
+        ]
+    )
+    fun fallback(query: String) {
+        val expected = execute(query, rows(), Mode.PERMISSIVE())
+        val actual = execute(query, Datum.columnar(listOf("a", "b", "d"), columns()), Mode.PERMISSIVE())
+        assertTrue(Datum.comparator().compare(expected, actual) == 0, "Expected: $expected\nActual: $actual")
+    }
+
+    private fun columns(): List<Counting> = listOf(
+        Counting(DatumVector.integer(ints, nulls)),
+        Counting(DatumVector.bigint(longs, null)),
+        Counting(DatumVector.doublePrecision(doubles, nulls)),
+    )
+
+    private fun rows(): Datum = Datum.bag(
+        (0 until size).map { i ->
+            Datum.struct(
+                Field.of("a", if (nulls[i]) Datum.nullValue(PType.integer()) else Datum.integer(ints[i])),
+                Field.of("b", Datum.bigint(longs[i])),
+                Field.of("d", if (nulls[i]) Datum.nullValue(PType.doublePrecision()) else Datum.doublePrecision(doubles[i])),
+            )
+        }
+    )
+
+    private fun execute(query: String, table: Datum, mode: Mode): Datum {
+        val catalog = Catalog.builder().name("memory").define(Table.standard(Name.of("tbl"), table)).build()
+        val session = Session.builder().catalog("memory").catalogs(catalog).build()
+        val statement = parser.parse(query).statements[0]
+        val plan = planner.plan(statement, session).plan
+        return DatumMaterialize.materialize(compiler.prepare(plan, mode).execute())
+    }
+
+    /**
+     * Counts the values which are materialized.
+     */
+    private class Counting(private val vector: DatumVector) : DatumVector {
+
+        var materialized = 0
+
+        override fun size(): Int = vector.size()
+
+        override fun getType(): PType = vector.type
+
+        override fun isNull(index: Int): Boolean = vector.isNull(index)
+
+        override fun get(index: Int): Datum {
+            materialized++
+            return vector.get(index)
+        }
+
+        override fun getInt(index: Int): Int = vector.getInt(index)
+
+        override fun getLong(index: Int): Long = vector.getLong(index)
+
+        override fun getDouble(index: Int): Double = vector.getDouble(index)
+    }
+}
@@ -0,0 +1,96 @@
+package org.partiql.eval.internal
+
+import org.junit.jupiter.api.Test
+import org.partiql.eval.Mode
+import org.partiql.eval.compiler.PartiQLCompiler
+import org.partiql.parser.PartiQLParser
+import org.partiql.planner.PartiQLPlanner
+import org.partiql.spi.catalog.Catalog
+import org.partiql.spi.catalog.Session
+import org.partiql.spi.function.FnOverload
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Calls of deterministic functions (and casts) on literals are evaluated once, as the query is compiled.
+ */
+class ConstantFoldingTest {
+
+    private val parser = PartiQLParser.standard()
+    private val planner = PartiQLPlanner.standard()
+    private val compiler = PartiQLCompiler.standard()
+
+    private var calls = 0
+
+    private val deterministic = FnOverload.Builder("twice")
+        .addParameter(PType.integer())
+        .returns(PType.integer())
+        .isDeterministic(true)
+        .body { args ->
+            calls++
+            Datum.integer(args[0].int * 2)
+        }
+        .build()
+
+    private val nondeterministic = FnOverload.Builder("tick")
+        .returns(PType.integer())
+        .body {
+            calls++
+            Datum.integer(calls)
+        }
+        .build()
+
+    private val catalog = object : Catalog {
+        override fun getName(): String = "memory"
+        override fun getFunctions(session: Session, name: String): Collection<FnOverload> = when (name) {
+            "twice" -> listOf(deterministic)
+            "tick" -> listOf(nondeterministic)
+            else -> emptyList()
+        }
+    }
+
+    private val session = Session.builder().catalog("memory").catalogs(catalog).build()
+
+    @Test
+    fun arithmetic() {
+        val actual = execute("SELECT VALUE x + (1 + 2) FROM << 1, 2 >> AS x", Mode.STRICT())
+        val expected = Datum.bag(listOf(Datum.integer(4), Datum.integer(5)))
+        assertTrue(Datum.comparator().compare(expected, actual) == 0, "Expected: $expected\nActual: $actual")
+    }
+
+    @Test
+    fun castAndStringFunctions() {
+        val query = "SELECT VALUE LOWER('ABC') || x FROM << 'd', 'e' >> AS x WHERE x > CAST(UPPER('d') AS STRING)"
+        val actual = execute(query, Mode.STRICT())
+        val expected = Datum.bag(listOf(Datum.string("abce")))
+        assertTrue(Datum.comparator().compare(expected, actual) == 0, "Expected: $expected\nActual: $actual")
+    }
+
+    @Test
+    fun deterministicFunctionIsInvokedOnce() {
+        val result = execute("SELECT VALUE twice(21) FROM << 1, 2, 3 >> AS x", Mode.STRICT())
+        assertEquals(3, result.iterator().asSequence().count { it.int == 42 })
+        assertEquals(1, calls)
+    }
+
+    @Test
+    fun nondeterministicFunctionIsInvokedPerRow() {
+        execute("SELECT VALUE tick() FROM << 1, 2, 3 >> AS x", Mode.STRICT())
+        assertEquals(3, calls)
+    }
+
+    @Test
+    fun failingCallIsNotFolded() {
+        // the error is raised (or, in permissive mode, handled) when the expression is evaluated
+        val result = execute("SELECT VALUE CAST('a' AS INT) FROM << 1 >> AS x", Mode.PERMISSIVE())
+        assertTrue(result.iterator().next().isMissing)
+    }
+
+    private fun execute(query: String, mode: Mode): Datum {
+        val statement = parser.parse(query).statements[0]
+        val plan = planner.plan(statement, session).plan
+        return DatumMaterialize.materialize(compiler.prepare(plan, mode).execute())
+    }
+}
@@ -0,0 +1,82 @@
+package org.partiql.eval.internal
+
+import org.junit.jupiter.api.Test
+import org.partiql.eval.Mode
+import org.partiql.eval.compiler.PartiQLCompiler
+import org.partiql.parser.PartiQLParser
+import org.partiql.planner.PartiQLPlanner
+import org.partiql.spi.catalog.Session
+import org.partiql.spi.errors.PRuntimeException
+import org.partiql.spi.value.Datum
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class CursorTest {
+
+    private val parser = PartiQLParser.standard()
+    private val planner = PartiQLPlanner.standard()
+    private val compiler = PartiQLCompiler.standard()
+    private val session = Session.empty()
+
+    @Test
+    fun rows() {
+        val cursor = prepare("SELECT VALUE x * 10 FROM << 1, 2, 3 >> AS x").open()
+        val values = mutableListOf<Int>()
+        cursor.use {
+            while (it.hasNext()) {
+                values.add(it.next().int)
+            }
+        }
+        assertEquals(listOf(10, 20, 30), values.sorted())
+    }
+
+    @Test
+    fun scalar() {
+        prepare("1 + 1").open().use {
+            assertTrue(it.hasNext())
+            assertEquals(0, Datum.comparator().compare(Datum.integer(2), it.next()))
+            assertFalse(it.hasNext())
+        }
+    }
+
+    @Test
+    fun lazy() {
+        // the error is only raised once the row with x = 0 is pulled
+        val cursor = prepare("SELECT VALUE 1 / x FROM [1, 0] AS x", Mode.STRICT()).open()
+        cursor.use {
+            assertTrue(it.hasNext())
+            assertEquals(1, it.next().int)
+            assertFailsWith<PRuntimeException> { it.next() }
+        }
+    }
+
+    @Test
+    fun closeEarly() {
+        val cursor = prepare("SELECT VALUE x FROM << 1, 2, 3 >> AS x").open()
+        assertTrue(cursor.hasNext())
+        cursor.next()
+        cursor.close()
+        assertFalse(cursor.hasNext())
+        // closing again has no effect
+        cursor.close()
+    }
+
+    @Test
+    fun closeParallel() {
+        val values = (0 until 100000).joinToString()
+        val parallel = PartiQLCompiler.builder().parallelism(4).build()
+        val statement = parallel.prepare(plan("SELECT VALUE x FROM << $values >> AS x WHERE x >= 0"), Mode.PERMISSIVE())
+        val cursor = statement.open()
+        assertTrue(cursor.hasNext())
+        cursor.next()
+        // cancels (and waits for) the workers
+        cursor.close()
+        assertFalse(cursor.hasNext())
+    }
+
+    private fun prepare(query: String, mode: Mode = Mode.PERMISSIVE()) = compiler.prepare(plan(query), mode)
+
+    private fun plan(query: String) = planner.plan(parser.parse(query).statements[0], session).plan
+}
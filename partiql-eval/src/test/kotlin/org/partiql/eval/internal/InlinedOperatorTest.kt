@@ -0,0 +1,135 @@
+package org.partiql.eval.internal
+
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+import org.partiql.eval.Mode
+import org.partiql.eval.Statement
+import org.partiql.eval.compiler.PartiQLCompiler
+import org.partiql.eval.internal.operator.rex.ExprBinary
+import org.partiql.parser.PartiQLParser
+import org.partiql.planner.PartiQLPlanner
+import org.partiql.spi.catalog.Session
+import org.partiql.spi.errors.PError
+import org.partiql.spi.errors.PRuntimeException
+import org.partiql.spi.value.Datum
+import java.lang.reflect.Modifier
+import java.util.Collections
+import java.util.IdentityHashMap
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * The results of the inlined operators must be equal to those of the function calls.
+ */
+class InlinedOperatorTest {
+
+    private val parser = PartiQLParser.standard()
+    private val planner = PartiQLPlanner.standard()
+    private val standard = PartiQLCompiler.standard()
+    private val inlined = PartiQLCompiler.builder().inlined(true).build()
+    private val vectorized = PartiQLCompiler.builder().inlined(true).vectorized(true).build()
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = [
+            "SELECT VALUE x + 1 FROM << 1, 2, 3 >> AS x",
+            "SELECT VALUE x * 2 - x FROM << 1, 2, NULL >> AS x",
+            "SELECT VALUE x FROM << 1, 2, 3, 4 >> AS x WHERE x > 1 AND x <= 3",
+            "SELECT VALUE x FROM << 1, 2, 3, 4 >> AS x WHERE x < 2 OR x >= 4",
+            "SELECT VALUE x FROM << 1, NULL, 3 >> AS x WHERE x > 1 OR x < 2",
+            "SELECT VALUE CAST(x AS BIGINT) * 3 FROM << 1, 2, 3 >> AS x WHERE CAST(x AS BIGINT) < 3",
+            "SELECT VALUE CAST(x AS DOUBLE PRECISION) * 1.5e0 FROM << 1, 2 >> AS x",
+            "SELECT VALUE x FROM << 1, 2, 3 >> AS x WHERE x = 2",
+            "SELECT VALUE x = 2 FROM << 1, 2, NULL >> AS x",
+            "SELECT VALUE x <> 2 FROM << 1, 2, NULL >> AS x",
+            "SELECT VALUE x FROM << 1, 2, 3 >> AS x WHERE x <> 2 AND x != 3",
+            "SELECT VALUE CAST(x AS BIGINT) FROM << 1, 2, 3 >> AS x WHERE CAST(x AS BIGINT) = 3",
+            "SELECT VALUE CAST(x AS DOUBLE PRECISION) < 2e0 FROM << 1, 2, NULL >> AS x",
+            "SELECT VALUE x FROM << 1, 2, 3 >> AS x WHERE CAST(x AS DOUBLE PRECISION) >= 2e0 AND CAST(x AS DOUBLE PRECISION) <= 2.5e0",
+            "SELECT VALUE CAST(x AS DOUBLE PRECISION) / 0e0 = CAST(x AS DOUBLE PRECISION) / 0e0 FROM << 0, 1 >> AS x",
+            "SELECT VALUE x * 2 - x + 1 FROM << 1, 2, NULL >> AS x",
+            "SELECT VALUE x FROM << 1, 2, 3 >> AS x WHERE x * 2 - 1 > x + 1",
+            "SELECT VALUE CAST(x AS BIGINT) * 3 - 1 = 5 FROM << 1, 2, NULL >> AS x",
+            "SELECT VALUE CAST(x AS DOUBLE PRECISION) * 0.5e0 + 1e0 FROM << 1, NULL, 3 >> AS x",
+        ]
+    )
+    fun inlined(input: String) {
+        val expected = execute(standard, input)
+        for (compiler in listOf(inlined, vectorized)) {
+            val actual = execute(compiler, input)
+            assertTrue(Datum.comparator().compare(expected, actual) == 0, "Expected: $expected\nActual: $actual")
+        }
+    }
+
+    @Test
+    fun overflow() {
+        val e = assertThrows<PRuntimeException> {
+            execute(inlined, "SELECT VALUE x + 2147483647 FROM << 1 >> AS x", Mode.STRICT())
+        }
+        assertEquals(PError.NUMERIC_VALUE_OUT_OF_RANGE, e.error.code())
+    }
+
+    @Test
+    fun overflowFused() {
+        // the overflow of the inner operation of a chain is raised as by the function calls
+        val e = assertThrows<PRuntimeException> {
+            execute(inlined, "SELECT VALUE x * 2147483647 - x = 0 FROM << 2 >> AS x", Mode.STRICT())
+        }
+        assertEquals(PError.NUMERIC_VALUE_OUT_OF_RANGE, e.error.code())
+    }
+
+    @Test
+    fun logical() {
+        // the builtin AND and OR are not null calls, yet are inlined on BOOL operands
+        for ((predicate, operator) in listOf("x > 1 AND x <= 3" to "And", "x < 2 OR x >= 4" to "Or")) {
+            val input = "SELECT VALUE x FROM << 1, 2, 3, 4 >> AS x WHERE $predicate"
+            val operators = operators(prepare(inlined, input)).filterIsInstance<ExprBinary>()
+            assertTrue(operators.any { it.javaClass.simpleName == operator }, "Expected $operator in: $operators")
+        }
+    }
+
+    private fun execute(compiler: PartiQLCompiler, input: String, mode: Mode = Mode.PERMISSIVE()): Datum {
+        return DatumMaterialize.materialize(prepare(compiler, input, mode).execute())
+    }
+
+    private fun prepare(compiler: PartiQLCompiler, input: String, mode: Mode = Mode.PERMISSIVE()): Statement {
+        val statement = parser.parse(input).statements[0]
+        val plan = planner.plan(statement, Session.empty()).plan
+        return compiler.prepare(plan, mode)
+    }
+
+    /**
+     * Returns the (internal) objects which are reachable from the fields of the compiled [statement].
+     */
+    private fun operators(statement: Statement): List<Any> {
+        val seen = Collections.newSetFromMap(IdentityHashMap<Any, Boolean>())
+        val stack = ArrayDeque<Any>()
+        stack.add(statement)
+        while (stack.isNotEmpty()) {
+            val node = stack.removeLast()
+            if (!seen.add(node)) {
+                continue
+            }
+            val children = when (node) {
+                is Array<*> -> node.asSequence()
+                is Collection<*> -> node.asSequence()
+                else -> generateSequence<Class<*>>(node.javaClass) { it.superclass }
+                    .flatMap { it.declaredFields.asSequence() }
+                    .filter { !Modifier.isStatic(it.modifiers) && !it.type.isPrimitive }
+                    .onEach { it.isAccessible = true }
+                    .map { it.get(node) }
+            }
+            for (child in children) {
+                if (child == null) {
+                    continue
+                }
+                if (child is Array<*> || child is Collection<*> || child.javaClass.name.startsWith("org.partiql.eval")) {
+                    stack.add(child)
+                }
+            }
+        }
+        return seen.toList()
+    }
+}
@@ -0,0 +1,164 @@
+package org.partiql.eval.internal
+
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+import org.partiql.eval.Mode
+import org.partiql.eval.compiler.PartiQLCompiler
+import org.partiql.eval.internal.operator.exchange.Channel
+import org.partiql.parser.PartiQLParser
+import org.partiql.plan.Plan
+import org.partiql.planner.PartiQLPlanner
+import org.partiql.spi.catalog.Catalog
+import org.partiql.spi.catalog.Name
+import org.partiql.spi.catalog.Session
+import org.partiql.spi.catalog.Table
+import org.partiql.spi.errors.PRuntimeException
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.Field
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+
+/**
+ * The results of parallel execution must be equal (as bags) to those of sequential execution.
+ */
+class ParallelExecutionTest {
+
+    private val parser = PartiQLParser.standard()
+    private val planner = PartiQLPlanner.standard()
+    private val compiler = PartiQLCompiler.standard()
+    private val parallel = PartiQLCompiler.builder().parallelism(4).build()
+    private val session = Session.empty()
+
+    // enough values for several morsels per worker
+    private val values = (0 until 10000).joinToString { "{ 'a': $it, 'b': ${it % 7} }" }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = [
+            "SELECT t.a FROM << VALUES >> AS t WHERE t.a % 3 = 0",
+            "SELECT VALUE t.a * 2 FROM << VALUES >> AS t",
+            "SELECT t.b AS b, COUNT(*) AS c, SUM(t.a) AS s FROM << VALUES >> AS t WHERE t.a > 10 GROUP BY t.b",
+            "SELECT t.b AS b, COUNT(DISTINCT t.a % 5) AS c FROM << VALUES >> AS t GROUP BY t.b",
+            "SELECT t.a FROM << VALUES >> AS t WHERE t.a < 2 AND t.b IN (SELECT VALUE x FROM << 0, 1 >> AS x)",
+            "SELECT COUNT(*) AS c FROM << VALUES >> AS t WHERE t.b = 1",
+        ]
+    )
+    fun equivalence(query: String) {
+        val plan = plan(query.replace("VALUES", values))
+        for (mode in listOf(Mode.PERMISSIVE(), Mode.STRICT())) {
+            val expected = execute(compiler, plan, mode)
+            val actual = execute(parallel, plan, mode)
+            assertTrue(Datum.comparator().compare(expected, actual) == 0, "Expected: $expected\nActual: $actual")
+        }
+    }
+
+    @Test
+    fun errors() {
+        val plan = plan("SELECT t.a / (t.a - 5000) AS c FROM << $values >> AS t WHERE t.a >= 0")
+        assertFailsWith<PRuntimeException> {
+            execute(parallel, plan, Mode.STRICT())
+        }
+    }
+
+    @Test
+    fun workers() {
+        // each row is read by a worker, which waits (for at most a few seconds) until a second worker has read a row
+        val caller = Thread.currentThread()
+        val threads = ConcurrentHashMap.newKeySet<Thread>()
+        val latch = CountDownLatch(1)
+        val blocker = object : ForkJoinPool.ManagedBlocker {
+            override fun block(): Boolean {
+                latch.await(5, TimeUnit.SECONDS)
+                return true
+            }
+            override fun isReleasable(): Boolean = latch.count == 0L
+        }
+        val rows = (0 until 10000).map { i ->
+            object : Datum {
+                override fun getType(): PType = PType.struct()
+                override fun getFields(): Iterator<Field> = listOf(Field.of("a", Datum.integer(i))).iterator()
+                override fun get(name: String): Datum? = getInsensitive(name)
+                override fun getInsensitive(name: String): Datum? {
+                    val thread = Thread.currentThread()
+                    if (thread !== caller && threads.add(thread) && threads.size > 1) {
+                        latch.countDown()
+                    }
+                    ForkJoinPool.managedBlock(blocker)
+                    return if (name.equals("a", ignoreCase = true)) Datum.integer(i) else null
+                }
+            }
+        }
+        val catalog = Catalog.builder().name("memory").define(Table.standard(Name.of("tbl"), Datum.bag(rows))).build()
+        val session = Session.builder().catalog("memory").catalogs(catalog).build()
+        val statement = parser.parse("SELECT VALUE t.a FROM tbl AS t WHERE t.a >= 0").statements[0]
+        val plan = planner.plan(statement, session).plan
+        val result = execute(parallel, plan, Mode.PERMISSIVE())
+        assertEquals(rows.size, result.count())
+        assertTrue(threads.size > 1, "Expected more than one worker, found: $threads")
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = [
+            // the caller is blocked on the gather
+            "SELECT VALUE t.a FROM tbl AS t WHERE t.a >= 0",
+            // the caller is blocked on the gather, and each aggregation worker on its partition of the shuffle
+            "SELECT t.a AS a, COUNT(*) AS c FROM tbl AS t GROUP BY t.a",
+        ]
+    )
+    fun failures(query: String) {
+        // each row fails, but only once all consumers are blocked on an (empty) channel
+        val consumers = if (query.contains("GROUP BY")) 5 else 1
+        val blocker = object : ForkJoinPool.ManagedBlocker {
+            private val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5)
+            override fun block(): Boolean {
+                while (!isReleasable()) {
+                    Thread.sleep(1)
+                }
+                return true
+            }
+            override fun isReleasable(): Boolean = blocked() >= consumers || System.nanoTime() > deadline
+        }
+        val rows = (0 until 10000).map { i ->
+            object : Datum {
+                override fun getType(): PType = PType.struct()
+                override fun getFields(): Iterator<Field> = emptyList<Field>().iterator()
+                override fun get(name: String): Datum? = getInsensitive(name)
+                override fun getInsensitive(name: String): Datum? {
+                    ForkJoinPool.managedBlock(blocker)
+                    throw IllegalStateException("failure of row $i")
+                }
+            }
+        }
+        val catalog = Catalog.builder().name("memory").define(Table.standard(Name.of("tbl"), Datum.bag(rows))).build()
+        val session = Session.builder().catalog("memory").catalogs(catalog).build()
+        val statement = parser.parse(query).statements[0]
+        val plan = planner.plan(statement, session).plan
+        assertFailsWith<PRuntimeException> {
+            execute(parallel, plan, Mode.STRICT())
+        }
+    }
+
+    // the number of threads which are blocked taking from a channel
+    private fun blocked(): Int = Thread.getAllStackTraces().count { (thread, frames) ->
+        val state = thread.state
+        (state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING) &&
+            frames.any { it.className == Channel::class.java.name && it.methodName == "take" }
+    }
+
+    private fun execute(compiler: PartiQLCompiler, plan: Plan, mode: Mode): Datum {
+        return DatumMaterialize.materialize(compiler.prepare(plan, mode).execute())
+    }
+
+    private fun plan(input: String): Plan {
+        val statement = parser.parse(input).statements[0]
+        return planner.plan(statement, session).plan
+    }
+}
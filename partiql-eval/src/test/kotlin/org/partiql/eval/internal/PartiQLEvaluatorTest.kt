@@ -8,6 +8,7 @@ import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.MethodSource
 import org.partiql.eval.Mode
 import org.partiql.eval.compiler.PartiQLCompiler
+import org.partiql.spi.Context
 import org.partiql.spi.types.PType
 import org.partiql.spi.types.PTypeField
 import org.partiql.spi.value.Datum
@@ -24,6 +25,8 @@ import org.partiql.value.nullValue
 import org.partiql.value.stringValue
 import org.partiql.value.structValue
 import java.math.BigDecimal
+import java.time.LocalDate
+import java.time.LocalDateTime
 
 /**
  * This holds sanity tests during the development of the [PartiQLCompiler.standard] implementation.
@@ -344,6 +347,62 @@ class PartiQLEvaluatorTest {
                     int32Value(22),
                 )
             ),
+            // INNER JOIN -- Equi-join with composite key and residual predicate
+            SuccessTestCase(
+                input = """
+                    SELECT VALUE [l.a, r.b]
+                    FROM << { 'a': 1, 'k': 1, 'j': 0 }, { 'a': 2, 'k': 2, 'j': 0 }, { 'a': 3, 'k': 2, 'j': 1 } >> AS l
+                    INNER JOIN << { 'b': 10, 'k': 1, 'j': 0 }, { 'b': 20, 'k': 2, 'j': 0 }, { 'b': 30, 'k': 2, 'j': 0 } >> AS r
+                    ON l.k = r.k AND r.j = l.j AND r.b > 20
+                """.trimIndent(),
+                expected = bagValue(
+                    listValue(int32Value(2), int32Value(30)),
+                )
+            ),
+            // INNER JOIN -- Equi-join across numeric types
+            SuccessTestCase(
+                input = """
+                    SELECT VALUE [lhs, rhs]
+                    FROM << 1, 2 >> lhs
+                    INNER JOIN << 1.0, 3.0 >> rhs
+                    ON lhs = rhs
+                """.trimIndent(),
+                expected = bagValue(
+                    listValue(int32Value(1), decimalValue(BigDecimal.valueOf(10, 1))),
+                )
+            ),
+            // LEFT OUTER JOIN -- NULL and MISSING keys never match
+            SuccessTestCase(
+                input = """
+                    SELECT VALUE [lhs.k, rhs.k]
+                    FROM << { 'k': 0 }, { 'k': NULL }, { } >> lhs
+                    LEFT OUTER JOIN << { 'k': 0 }, { 'k': NULL }, { } >> rhs
+                    ON lhs.k = rhs.k
+                """.trimIndent(),
+                expected = bagValue(
+                    listValue(int32Value(0), int32Value(0)),
+                    listValue(nullValue(), nullValue()),
+                    listValue(nullValue(), nullValue()),
+                ),
+                mode = Mode.PERMISSIVE()
+            ),
+            // FULL OUTER JOIN -- Equi-join
+            SuccessTestCase(
+                input = """
+                    SELECT VALUE [lhs, rhs]
+                    FROM << 0, 1, 1, NULL >> lhs
+                    FULL OUTER JOIN << 1, 2, NULL >> rhs
+                    ON lhs = rhs
+                """.trimIndent(),
+                expected = bagValue(
+                    listValue(int32Value(0), int32Value(null)),
+                    listValue(int32Value(1), int32Value(1)),
+                    listValue(int32Value(1), int32Value(1)),
+                    listValue(nullValue(), int32Value(null)),
+                    listValue(int32Value(null), int32Value(2)),
+                    listValue(int32Value(null), nullValue()),
+                )
+            ),
         )
 
         @JvmStatic
@@ -686,6 +745,25 @@ class PartiQLEvaluatorTest {
                     ),
                 )
             ),
+            SuccessTestCase(
+                input = """
+                    SELECT k, COUNT(*) AS c, COUNT(DISTINCT t.v) AS d
+                    FROM << { 'k': 1, 'v': 1 }, { 'k': 1.0, 'v': 1.00 }, { 'k': 2, 'v': 1 }, { 'k': 1e0, 'v': 2 } >> AS t
+                    GROUP BY t.k AS k
+                """.trimIndent(),
+                expected = bagValue(
+                    structValue(
+                        "k" to int32Value(1),
+                        "c" to int64Value(3),
+                        "d" to int64Value(2),
+                    ),
+                    structValue(
+                        "k" to int32Value(2),
+                        "c" to int64Value(1),
+                        "d" to int64Value(1),
+                    ),
+                )
+            ),
         )
 
         @JvmStatic
@@ -1248,6 +1326,122 @@ class PartiQLEvaluatorTest {
                     structValue("a" to int32Value(1), "b" to int32Value(2))
                 )
             ),
+            SuccessTestCase( // spill every row to disk and merge the sorted runs
+                input = """
+                    SELECT * FROM <<
+                        {'a': NULL, 'b': 'x'}, {'a': 1.5, 'b': [1, 2]}, {'a': 3, 'b': {'c': DATE '2024-01-01'}},
+                        {'a': 2, 'b': <<true>>}, {'a': -1, 'b': 5e0}, {'a': 0, 'b': TIMESTAMP '2024-01-01 00:00:00'}
+                    >> AS t ORDER BY t.a DESC NULLS LAST;
+                """.trimIndent(),
+                expected = Datum.array(
+                    listOf(
+                        Datum.struct(Field.of("a", Datum.integer(3)), Field.of("b", Datum.struct(Field.of("c", Datum.date(LocalDate.of(2024, 1, 1)))))),
+                        Datum.struct(Field.of("a", Datum.integer(2)), Field.of("b", Datum.bagVararg(Datum.bool(true)))),
+                        Datum.struct(Field.of("a", Datum.decimal(BigDecimal("1.5"))), Field.of("b", Datum.array(listOf(Datum.integer(1), Datum.integer(2))))),
+                        Datum.struct(Field.of("a", Datum.integer(0)), Field.of("b", Datum.timestamp(LocalDateTime.of(2024, 1, 1, 0, 0), 6))),
+                        Datum.struct(Field.of("a", Datum.integer(-1)), Field.of("b", Datum.doublePrecision(5.0))),
+                        Datum.struct(Field.of("a", Datum.nullValue()), Field.of("b", Datum.string("x"))),
+                    )
+                ),
+                context = object : Context {
+                    override fun getMemoryBudget(): Long = 1L
+                },
+            ),
+            SuccessTestCase( // spill every distinct row to disk
+                input = "SELECT DISTINCT VALUE t FROM <<1, 2, 1, 3, NULL, 3, NULL>> AS t;",
+                expected = bagValue(int32Value(1), int32Value(2), int32Value(3), nullValue()),
+                context = object : Context {
+                    override fun getMemoryBudget(): Long = 1L
+                },
+            ),
+            SuccessTestCase(
+                input = "(SELECT VALUE t FROM <<1, 2, 2, 3>> AS t) UNION (SELECT VALUE t FROM <<3, 4, 4>> AS t);",
+                expected = bagValue(int32Value(1), int32Value(2), int32Value(3), int32Value(4)),
+                context = object : Context {
+                    override fun getMemoryBudget(): Long = 1L
+                },
+            ),
+            SuccessTestCase(
+                input = "(SELECT VALUE t FROM <<1, 1, 1, 2, 3>> AS t) INTERSECT ALL (SELECT VALUE t FROM <<1, 1, 3, 3, 4>> AS t);",
+                expected = bagValue(int32Value(1), int32Value(1), int32Value(3)),
+                context = object : Context {
+                    override fun getMemoryBudget(): Long = 1L
+                },
+            ),
+            SuccessTestCase(
+                input = "(SELECT VALUE t FROM <<1, 1, 1, 2, 3>> AS t) INTERSECT (SELECT VALUE t FROM <<1, 1, 3, 3, 4>> AS t);",
+                expected = bagValue(int32Value(1), int32Value(3)),
+                context = object : Context {
+                    override fun getMemoryBudget(): Long = 1L
+                },
+            ),
+            SuccessTestCase(
+                input = "(SELECT VALUE t FROM <<1, 1, 1, 2, 3>> AS t) EXCEPT ALL (SELECT VALUE t FROM <<1, 3, 3>> AS t);",
+                expected = bagValue(int32Value(1), int32Value(1), int32Value(2)),
+                context = object : Context {
+                    override fun getMemoryBudget(): Long = 1L
+                },
+            ),
+            SuccessTestCase(
+                input = "(SELECT VALUE t FROM <<1, 1, 2, 2, 3>> AS t) EXCEPT (SELECT VALUE t FROM <<3>> AS t);",
+                expected = bagValue(int32Value(1), int32Value(2)),
+                context = object : Context {
+                    override fun getMemoryBudget(): Long = 1L
+                },
+            ),
+            SuccessTestCase( // except distinct returns each row once
+                input = "(SELECT VALUE t FROM <<1, 1, 2, 2, 3>> AS t) EXCEPT (SELECT VALUE t FROM <<3>> AS t);",
+                expected = bagValue(int32Value(1), int32Value(2)),
+            ),
+            SuccessTestCase( // the rhs fits in memory, whereas the distinct rows of the lhs are spilled
+                input = "(SELECT VALUE t FROM <<1, 1, 2, 2, 3, 4, 4>> AS t) EXCEPT (SELECT VALUE t FROM <<>> AS t);",
+                expected = bagValue(int32Value(1), int32Value(2), int32Value(3), int32Value(4)),
+                context = object : Context {
+                    override fun getMemoryBudget(): Long = 1L
+                },
+            ),
+            SuccessTestCase( // top-n
+                input = "SELECT VALUE t FROM <<5, 1, NULL, 4, 2, 3>> AS t ORDER BY t DESC NULLS LAST LIMIT 3;",
+                expected = listValue(int32Value(5), int32Value(4), int32Value(3))
+            ),
+            SuccessTestCase( // top-n with offset, ties are returned in input order
+                input = """
+                    SELECT VALUE t.b
+                    FROM <<{'a': 2, 'b': 'w'}, {'a': 1, 'b': 'x'}, {'a': 1, 'b': 'y'}, {'a': 3, 'b': 'z'}, {'a': 1, 'b': 'v'}>> AS t
+                    ORDER BY t.a LIMIT 3 OFFSET 1;
+                """.trimIndent(),
+                expected = listValue(stringValue("y"), stringValue("v"), stringValue("w"))
+            ),
+            SuccessTestCase( // top-n which exceeds the memory budget falls back to the spilling sort; ties in input order
+                input = """
+                    SELECT VALUE t.b
+                    FROM <<{'a': 2, 'b': 'w'}, {'a': 1, 'b': 'x'}, {'a': 1, 'b': 'y'}, {'a': 3, 'b': 'z'}, {'a': 1, 'b': 'v'}>> AS t
+                    ORDER BY t.a LIMIT 3 OFFSET 1;
+                """.trimIndent(),
+                expected = listValue(stringValue("y"), stringValue("v"), stringValue("w")),
+                context = object : Context {
+                    override fun getMemoryBudget(): Long = 1L
+                },
+            ),
+            SuccessTestCase( // the merge of spilled runs is stable
+                input = """
+                    SELECT VALUE t.b
+                    FROM <<{'a': 2, 'b': 'w'}, {'a': 1, 'b': 'x'}, {'a': 1, 'b': 'y'}, {'a': 3, 'b': 'z'}, {'a': 1, 'b': 'v'}>> AS t
+                    ORDER BY t.a;
+                """.trimIndent(),
+                expected = listValue(stringValue("x"), stringValue("y"), stringValue("v"), stringValue("w"), stringValue("z")),
+                context = object : Context {
+                    override fun getMemoryBudget(): Long = 1L
+                },
+            ),
+            SuccessTestCase( // top-n where the limit and offset exceed the input
+                input = "SELECT VALUE t FROM <<3, 1, 2>> AS t ORDER BY t LIMIT 10 OFFSET 1;",
+                expected = listValue(int32Value(2), int32Value(3))
+            ),
+            SuccessTestCase( // top-n with a zero limit
+                input = "SELECT VALUE t FROM <<3, 1, 2>> AS t ORDER BY t LIMIT 0;",
+                expected = listValue<PartiQLValue>()
+            ),
             // PartiQL Specification Section 7.1 -- Inputs with wrong types Example 28 (1)
             // According to the Specification, in permissive mode, functions/operators return missing when one of
             //  the parameters is missing.
@@ -0,0 +1,86 @@
+package org.partiql.eval.internal
+
+import org.junit.jupiter.api.parallel.Execution
+import org.junit.jupiter.api.parallel.ExecutionMode
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.MethodSource
+import org.partiql.eval.Mode
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.Field
+
+/**
+ * Paths, casts, and calls over dirty data give MISSING in permissive mode, and an error in strict mode.
+ */
+class PermissiveErrorTest {
+
+    @ParameterizedTest
+    @MethodSource("permissiveTestCases")
+    @Execution(ExecutionMode.CONCURRENT)
+    fun permissive(tc: SuccessTestCase) = tc.run()
+
+    @ParameterizedTest
+    @MethodSource("strictTestCases")
+    @Execution(ExecutionMode.CONCURRENT)
+    fun strict(tc: FailureTestCase) = tc.run()
+
+    @ParameterizedTest
+    @MethodSource("strictIonTestCases")
+    @Execution(ExecutionMode.CONCURRENT)
+    fun strictIon(tc: FailureTestCase) = tc.run()
+
+    companion object {
+
+        private val paths = listOf(
+            "SELECT x.a AS v FROM << { 'a': 1 }, 2, { 'b': 3 } >> AS x",
+            "SELECT x.a.b AS v FROM << { 'a': { 'b': 1 } }, { 'a': 2 }, { 'c': 3 } >> AS x",
+            "SELECT x[1] AS v FROM << [ 0, 1 ], [ 0 ], 'abc' >> AS x",
+            "SELECT x['a'] AS v FROM << { 'a': 1 }, [ 1 ], { 'b': 3 } >> AS x",
+        )
+
+        private val calls = listOf(
+            "SELECT x + 1 AS v FROM << 0, 'a', true >> AS x",
+            "SELECT CAST(x AS INT) + 0 AS v FROM << 1, DATE '2020-01-01', [ 1 ] >> AS x",
+        )
+
+        @JvmStatic
+        fun permissiveTestCases() = (paths + calls).map {
+            SuccessTestCase(
+                input = it,
+                expected = Datum.bag(
+                    listOf(
+                        Datum.struct(Field.of("v", Datum.integer(1))),
+                        Datum.struct(),
+                        Datum.struct(),
+                    )
+                ),
+                mode = Mode.PERMISSIVE(),
+            )
+        }
+
+        @JvmStatic
+        fun strictTestCases() = (paths + calls).map {
+            FailureTestCase(
+                input = it,
+                mode = Mode.STRICT(),
+            )
+        }
+
+        // the structs of an Ion-backed table are variants, which are lowered by the paths
+        @JvmStatic
+        fun strictIonTestCases() = listOf(
+            "SELECT x.a AS v FROM t AS x",
+            "SELECT x['a'] AS v FROM t AS x",
+        ).map {
+            FailureTestCase(
+                input = it,
+                mode = Mode.STRICT(),
+                globals = listOf(
+                    Global(
+                        name = "t",
+                        value = Datum.bag(listOf(Datum.ion("{ a: 1 }"), Datum.ion("{ b: 3 }"))),
+                    )
+                ),
+            )
+        }
+    }
+}
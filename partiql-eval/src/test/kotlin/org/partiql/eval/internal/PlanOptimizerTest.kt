@@ -0,0 +1,97 @@
+package org.partiql.eval.internal
+
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+import org.partiql.eval.Mode
+import org.partiql.eval.compiler.PartiQLCompiler
+import org.partiql.parser.PartiQLParser
+import org.partiql.plan.Action
+import org.partiql.plan.JoinType
+import org.partiql.plan.Operator
+import org.partiql.plan.Plan
+import org.partiql.plan.rel.RelAggregate
+import org.partiql.plan.rel.RelFilter
+import org.partiql.plan.rel.RelJoin
+import org.partiql.plan.rel.RelProject
+import org.partiql.plan.rex.RexSelect
+import org.partiql.planner.PartiQLPlanner
+import org.partiql.spi.catalog.Session
+import org.partiql.spi.value.Datum
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * The results of the plans rewritten by the optimizer must be equal to those of the original plans.
+ */
+class PlanOptimizerTest {
+
+    private val parser = PartiQLParser.standard()
+    private val planner = PartiQLPlanner.standard()
+    private val optimizer = PartiQLPlanner.builder().optimize().build()
+    private val compiler = PartiQLCompiler.standard()
+    private val session = Session.empty()
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = [
+            "SELECT x.a, y.b FROM << { 'a': 1 }, { 'a': 2 }, { 'a': 3 } >> AS x, << { 'b': 1 }, { 'b': 3 } >> AS y WHERE x.a = y.b AND x.a > 1",
+            "SELECT x.a, y.b FROM << { 'a': 1 }, { 'a': 2 } >> AS x LEFT JOIN << { 'b': 1 }, { 'b': 2 } >> AS y ON x.a = y.b AND y.b > 1",
+            "SELECT x.a, y.b FROM << { 'a': 1 }, { 'a': 2 } >> AS x LEFT JOIN << { 'b': 1 }, { 'b': 2 } >> AS y ON x.a = y.b WHERE y.b IS NULL",
+            "SELECT v.a FROM (SELECT t.a, t.b FROM << { 'a': 1, 'b': 2 }, { 'a': 3, 'b': 4 } >> AS t) AS v WHERE v.b > 2",
+            "SELECT y FROM << 1, 2, 3, 4 >> AS x LET x + 1 AS y, x * 2 AS z WHERE y > 2",
+            "SELECT x FROM << 1, 2, 3 >> AS x LET x * 2 AS z WHERE z > 2 ORDER BY x",
+            "SELECT x FROM << 1, 2, 3 >> AS x WHERE x > (SELECT VALUE MIN(y) FROM << 1, 2 >> AS y WHERE y > x - 2)",
+            "(SELECT VALUE x FROM << 1, 2, 3 >> AS x) UNION ALL (SELECT VALUE x FROM << 4, 5 >> AS x) LIMIT 4",
+            "SELECT x.a FROM << { 'a': 1 }, { 'a': 2 }, { 'a': 3 } >> AS x LEFT JOIN << 1 >> AS y ON x.a = y LIMIT 2",
+            "SELECT DISTINCT k FROM << 1, 2, 1 >> AS x GROUP BY x AS k",
+            "SELECT DISTINCT x FROM << 1, 2, 1 >> AS x",
+            "SELECT VALUE x FROM << 1, 2, 3 >> AS x WHERE x IN (SELECT VALUE y FROM << 3, 1 >> AS y ORDER BY y)",
+            "SELECT VALUE x FROM << 1, 2, 3 >> AS x WHERE x IN (SELECT VALUE y FROM << 3, 1, 2 >> AS y ORDER BY y LIMIT 1)",
+            "SELECT x FROM << 3, 1, 2 >> AS x ORDER BY x LIMIT 2",
+            "SELECT x.a FROM << { 'a': 2, 'k': 1 }, { 'a': 2, 'k': 2 }, { 'a': 3, 'k': 3 }, { 'a': 1, 'k': NULL } >> AS x WHERE x.a >= (SELECT MAX(y.b) FROM << { 'b': 1, 'k': 1 }, { 'b': 5, 'k': 2 }, { 'b': 2, 'k': 1 }, { 'b': 0, 'k': NULL } >> AS y WHERE y.k = x.k)",
+            "SELECT x.k, (SELECT SUM(y.b) FROM << { 'b': 1, 'k': 1 }, { 'b': 5, 'k': 2 }, { 'b': 2, 'k': 1 }, { 'b': 0, 'k': NULL } >> AS y WHERE x.k = y.k AND y.b > 1) AS s FROM << { 'a': 2, 'k': 1 }, { 'a': 2, 'k': 2 }, { 'a': 3, 'k': 3 }, { 'a': 1, 'k': NULL } >> AS x",
+            "SELECT x.k, (SELECT COUNT(*) FROM << { 'b': 1, 'k': 1 }, { 'b': 5, 'k': 2 }, { 'b': 2, 'k': 1 }, { 'b': 0, 'k': NULL } >> AS y WHERE y.k = x.k) AS c FROM << { 'a': 2, 'k': 1 }, { 'a': 2, 'k': 2 }, { 'a': 3, 'k': 3 }, { 'a': 1, 'k': NULL } >> AS x",
+        ]
+    )
+    fun optimized(input: String) {
+        val expected = execute(plan(planner, input))
+        val actual = execute(plan(optimizer, input))
+        assertTrue(Datum.comparator().compare(expected, actual) == 0, "Expected: $expected\nActual: $actual")
+    }
+
+    @Test
+    fun filterIsPushedIntoJoin() {
+        val input = "SELECT x.a, y.b FROM << { 'a': 1 } >> AS x, << { 'b': 1 } >> AS y WHERE x.a = y.b AND x.a > 0"
+        val rex = (plan(optimizer, input).action as Action.Query).rex as RexSelect
+        val project = rex.input as RelProject
+        val join = project.input as RelJoin
+        assertTrue(join.left is RelFilter, "Expected the filter of the left input to be pushed into the join")
+    }
+
+    @Test
+    fun correlatedSubqueryIsJoined() {
+        val input = "SELECT x.a FROM << { 'a': 2, 'k': 1 }, { 'a': 2, 'k': 2 }, { 'a': 3, 'k': 3 }, { 'a': 1, 'k': NULL } >> AS x WHERE x.a >= (SELECT MIN(y.b) FROM << { 'b': 1, 'k': 1 }, { 'b': 5, 'k': 2 }, { 'b': 2, 'k': 1 }, { 'b': 0, 'k': NULL } >> AS y WHERE y.k = x.k)"
+        val rex = (plan(optimizer, input).action as Action.Query).rex as RexSelect
+        val join = find(rex.input) { it is RelJoin } as RelJoin?
+        assertTrue(join?.joinType?.code() == JoinType.LEFT, "Expected the subquery to be LEFT joined")
+        val aggregate = join!!.right as RelAggregate
+        assertEquals(1, aggregate.groups.size)
+    }
+
+    private fun find(operator: Operator, predicate: (Operator) -> Boolean): Operator? {
+        if (predicate(operator)) {
+            return operator
+        }
+        return operator.getOperands().flatten().firstNotNullOfOrNull { find(it, predicate) }
+    }
+
+    private fun plan(planner: PartiQLPlanner, input: String): Plan {
+        val statement = parser.parse(input).statements[0]
+        return planner.plan(statement, session).plan
+    }
+
+    private fun execute(plan: Plan): Datum {
+        return DatumMaterialize.materialize(compiler.prepare(plan, Mode.PERMISSIVE()).execute())
+    }
+}
@@ -0,0 +1,103 @@
+package org.partiql.eval.internal
+
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.partiql.eval.Mode
+import org.partiql.eval.Statement
+import org.partiql.eval.StatementCache
+import org.partiql.eval.compiler.PartiQLCompiler
+import org.partiql.parser.PartiQLParser
+import org.partiql.planner.PartiQLPlanner
+import org.partiql.spi.catalog.Session
+import org.partiql.spi.value.Datum
+import java.util.function.Function
+import kotlin.test.assertEquals
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+/**
+ * A statement with parameters is prepared once and executed with the values of its parameters.
+ */
+class PreparedStatementTest {
+
+    private val parser = PartiQLParser.standard()
+    private val planner = PartiQLPlanner.standard()
+    private val compiler = PartiQLCompiler.standard()
+    private val session = Session.empty()
+
+    @Test
+    fun parameters() {
+        val statement = prepare("SELECT VALUE x + ? FROM << 1, 2, 3 >> AS x WHERE x > ?")
+        assertResult(
+            Datum.bag(listOf(Datum.integer(12), Datum.integer(13))),
+            statement.execute(Datum.integer(10), Datum.integer(1))
+        )
+        assertResult(
+            Datum.bag(listOf(Datum.integer(4))),
+            statement.execute(Datum.integer(1), Datum.integer(2))
+        )
+    }
+
+    @Test
+    fun open() {
+        val statement = prepare("SELECT VALUE x + ? FROM << 1, 2, 3 >> AS x WHERE x > ?")
+        val values = mutableListOf<Int>()
+        statement.open(Datum.integer(10), Datum.integer(1)).use {
+            while (it.hasNext()) {
+                values.add(it.next().int)
+            }
+        }
+        assertEquals(listOf(12, 13), values.sorted())
+        assertThrows<IllegalArgumentException> { statement.open() }
+    }
+
+    @Test
+    fun parameterOfAnyType() {
+        val statement = prepare("SELECT VALUE ? FROM << 1 >> AS x")
+        for (value in listOf(Datum.string("a"), Datum.bool(true), Datum.nullValue())) {
+            assertResult(Datum.bag(listOf(value)), statement.execute(value))
+        }
+    }
+
+    @Test
+    fun wrongNumberOfParameters() {
+        val statement = prepare("SELECT VALUE x FROM << 1, 2 >> AS x WHERE x = ?")
+        assertThrows<IllegalArgumentException> { statement.execute() }
+        assertThrows<IllegalArgumentException> { statement.execute(Datum.integer(1), Datum.integer(2)) }
+        assertThrows<IllegalArgumentException> { prepare("1 + 1").execute(Datum.integer(1)) }
+    }
+
+    @Test
+    fun cache() {
+        val cache = StatementCache(2)
+        var prepared = 0
+        val prepare = Function<String, Statement> {
+            prepared++
+            prepare(it)
+        }
+        val query = "SELECT VALUE x FROM << 1, 2, 3 >> AS x WHERE x >= ?"
+        val statement = cache.get(query, session, prepare)
+        assertSame(statement, cache.get(query, session, prepare))
+        assertEquals(1, prepared)
+        // the least recently used statement is evicted
+        cache.get("1", session, prepare)
+        cache.get("2", session, prepare)
+        assertEquals(2, cache.size())
+        cache.get(query, session, prepare)
+        assertEquals(4, prepared)
+        val result = cache.get(query, session, prepare).execute(Datum.integer(3))
+        assertResult(Datum.bag(listOf(Datum.integer(3))), result)
+    }
+
+    private fun prepare(query: String): Statement {
+        val statement = parser.parse(query).statements[0]
+        val plan = planner.plan(statement, session).plan
+        return compiler.prepare(plan, Mode.STRICT())
+    }
+
+    private fun assertResult(expected: Datum, actual: Datum) {
+        val materialized = DatumMaterialize.materialize(actual)
+        val message = "Expected: $expected\nActual: $materialized"
+        assertTrue(Datum.comparator().compare(expected, materialized) == 0, message)
+    }
+}
@@ -0,0 +1,105 @@
+package org.partiql.eval.internal
+
+import org.junit.jupiter.api.Test
+import org.partiql.eval.Mode
+import org.partiql.eval.compiler.PartiQLCompiler
+import org.partiql.parser.PartiQLParser
+import org.partiql.planner.PartiQLPlanner
+import org.partiql.spi.catalog.Catalog
+import org.partiql.spi.catalog.Name
+import org.partiql.spi.catalog.ScanPredicate
+import org.partiql.spi.catalog.ScanRequest
+import org.partiql.spi.catalog.Session
+import org.partiql.spi.catalog.Table
+import org.partiql.spi.types.PType
+import org.partiql.spi.types.PTypeField
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.Field
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+/**
+ * The scan of a table receives the fields, predicates, and limit of the operators above it; the table ignores the
+ * request, so the results must be those of the query over all rows.
+ */
+class ScanPushdownTest {
+
+    private val parser = PartiQLParser.standard()
+    private val planner = PartiQLPlanner.standard()
+    private val compiler = PartiQLCompiler.standard()
+
+    private val rows = (1..5).map {
+        Datum.struct(
+            Field.of("a", Datum.integer(it)),
+            Field.of("b", Datum.integer(it * 10)),
+            Field.of("c", Datum.integer(0)),
+        )
+    }
+
+    private val table = object : Table {
+
+        var request: ScanRequest? = null
+
+        override fun getName(): Name = Name.of("tbl")
+
+        override fun getSchema(): PType = PType.bag(
+            PType.row(
+                PTypeField.of("a", PType.integer()),
+                PTypeField.of("b", PType.integer()),
+                PTypeField.of("c", PType.integer()),
+            )
+        )
+
+        override fun getDatum(): Datum = Datum.bag(rows)
+
+        override fun scan(request: ScanRequest): Datum {
+            this.request = request
+            return getDatum()
+        }
+    }
+
+    @Test
+    fun fieldsAndPredicates() {
+        val actual = execute("SELECT t.a FROM tbl AS t WHERE t.b > 20 AND 4 >= t.a")
+        val expected = Datum.bag(listOf(3, 4).map { Datum.struct(Field.of("a", Datum.integer(it))) })
+        assertTrue(Datum.comparator().compare(expected, actual) == 0, "Expected: $expected\nActual: $actual")
+
+        val request = table.request!!
+        assertEquals(setOf("a", "b"), request.fields!!.map { it.lowercase() }.toSet())
+        val predicates = request.predicates.associate { it.field.lowercase() to it.operator.code() }
+        assertEquals(mapOf("b" to ScanPredicate.Operator.GT, "a" to ScanPredicate.Operator.LTE), predicates)
+        assertNull(request.limit)
+    }
+
+    @Test
+    fun limit() {
+        val actual = execute("SELECT t.a FROM tbl AS t LIMIT 2")
+        assertEquals(2, actual.count())
+
+        val request = table.request!!
+        assertEquals(listOf("a"), request.fields!!.map { it.lowercase() })
+        assertTrue(request.predicates.isEmpty())
+        assertEquals(2L, request.limit)
+    }
+
+    @Test
+    fun wholeRow() {
+        val actual = execute("SELECT VALUE t FROM tbl AS t WHERE t.a = 1")
+        assertEquals(1, actual.count())
+
+        val request = table.request!!
+        assertNull(request.fields)
+        assertEquals(listOf("a"), request.predicates.map { it.field.lowercase() })
+    }
+
+    private fun execute(query: String): Datum {
+        val catalog = Catalog.builder().name("memory").define(table).build()
+        val session = Session.builder().catalog("memory").catalogs(catalog).build()
+        val statement = parser.parse(query).statements[0]
+        val plan = planner.plan(statement, session).plan
+        return DatumMaterialize.materialize(compiler.prepare(plan, Mode.STRICT()).execute())
+    }
+
+    private fun Datum.count(): Int = this.iterator().asSequence().count()
+}
@@ -0,0 +1,68 @@
+package org.partiql.eval.internal
+
+import org.junit.jupiter.api.Test
+import org.partiql.eval.Mode
+import org.partiql.eval.compiler.PartiQLCompiler
+import org.partiql.parser.PartiQLParser
+import org.partiql.planner.PartiQLPlanner
+import org.partiql.spi.catalog.Session
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.Field
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+
+/**
+ * Structs with literal keys share a shape, and the paths of shaped structs are read by position.
+ */
+class ShapedStructTest {
+
+    private val parser = PartiQLParser.standard()
+    private val planner = PartiQLPlanner.standard()
+    private val compiler = PartiQLCompiler.standard()
+
+    @Test
+    fun shared() {
+        val rows = rows("SELECT t.a AS x, t.b AS y FROM << { 'a': 1, 'b': 2 }, { 'a': 3, 'b': 4 } >> AS t")
+        assertEquals(2, rows.size)
+        val shape = assertNotNull(rows[0].shape)
+        assertSame(shape, rows[1].shape)
+        assertEquals(listOf("x", "y"), rows[1].fields.asSequence().map { it.name }.toList())
+    }
+
+    @Test
+    fun paths() {
+        for (mode in listOf(Mode.PERMISSIVE(), Mode.STRICT())) {
+            val actual = execute(
+                "SELECT VALUE s.Y FROM (SELECT t.a AS x, t.b AS y FROM << { 'a': 1, 'b': 2 }, { 'a': 3, 'b': 4 } >> AS t) AS s",
+                mode,
+            )
+            val expected = Datum.bag(listOf(Datum.integer(2), Datum.integer(4)))
+            assertEquals(0, Datum.comparator().compare(expected, actual), "Expected: $expected\nActual: $actual")
+        }
+    }
+
+    @Test
+    fun missing() {
+        // a MISSING value omits its field, so the struct has no shape
+        val rows = rows("SELECT t.a AS x, t.c AS z FROM << { 'a': 1 } >> AS t")
+        val expected = Datum.struct(Field.of("x", Datum.integer(1)))
+        assertEquals(0, Datum.comparator().compare(expected, rows[0]))
+        assertNull(rows[0].shape)
+        assertNull(rows[0].get("z"))
+    }
+
+    /**
+     * The rows of the result, as they are constructed; [DatumMaterialize] would copy them without their shapes.
+     */
+    private fun rows(input: String): List<Datum> = prepare(input, Mode.PERMISSIVE()).toList()
+
+    private fun execute(input: String, mode: Mode): Datum = DatumMaterialize.materialize(prepare(input, mode))
+
+    private fun prepare(input: String, mode: Mode): Datum {
+        val statement = parser.parse(input).statements[0]
+        val plan = planner.plan(statement, Session.empty()).plan
+        return compiler.prepare(plan, mode).execute()
+    }
+}
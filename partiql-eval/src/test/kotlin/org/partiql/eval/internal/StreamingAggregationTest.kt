@@ -0,0 +1,125 @@
+package org.partiql.eval.internal
+
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+import org.partiql.eval.Mode
+import org.partiql.eval.compiler.PartiQLCompiler
+import org.partiql.eval.internal.compiler.Ordering
+import org.partiql.parser.PartiQLParser
+import org.partiql.plan.Action
+import org.partiql.plan.Collation
+import org.partiql.plan.Operator
+import org.partiql.plan.OperatorRewriter
+import org.partiql.plan.Operators
+import org.partiql.plan.Plan
+import org.partiql.plan.rel.RelAggregate
+import org.partiql.plan.rex.Rex
+import org.partiql.plan.rex.RexCall
+import org.partiql.plan.rex.RexVar
+import org.partiql.planner.PartiQLPlanner
+import org.partiql.spi.catalog.Session
+import org.partiql.spi.errors.PRuntimeException
+import org.partiql.spi.function.Fn
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+/**
+ * The plans of these queries are rewritten to sort the input of each aggregation by its group keys, which compiles to
+ * the streaming aggregation; the results must be equal to those of the (hash) aggregation of the original plan.
+ */
+class StreamingAggregationTest {
+
+    private val parser = PartiQLParser.standard()
+    private val planner = PartiQLPlanner.standard()
+    private val compiler = PartiQLCompiler.standard()
+    private val session = Session.empty()
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = [
+            "SELECT k, COUNT(*) AS c FROM << 3, 1, 2, 1, 3, 3 >> AS k GROUP BY k",
+            "SELECT k, SUM(t.v) AS s FROM << { 'k': 1, 'v': 1 }, { 'k': 1.0, 'v': 2 }, { 'k': 2, 'v': 3 } >> AS t GROUP BY t.k AS k",
+            "SELECT k, COUNT(t.v) AS c FROM << { 'k': NULL, 'v': 1 }, { 'v': 2 }, { 'k': 2, 'v': 3 } >> AS t GROUP BY t.k AS k",
+            "SELECT a, b, COUNT(DISTINCT t.v) AS c FROM << { 'a': 1, 'b': 1, 'v': 1 }, { 'a': 1, 'b': 2, 'v': 1 }, { 'a': 1, 'b': 1, 'v': 1 }, { 'a': 1, 'b': 1, 'v': 2 } >> AS t GROUP BY t.a AS a, t.b AS b",
+            "SELECT k, g FROM << 1, 2, 1 >> AS t GROUP BY t AS k GROUP AS g",
+        ]
+    )
+    fun streaming(input: String) {
+        val plan = plan(input)
+        val expected = DatumMaterialize.materialize(compiler.prepare(plan, Mode.PERMISSIVE()).execute())
+        val actual = DatumMaterialize.materialize(compiler.prepare(sorted(plan), Mode.PERMISSIVE()).execute())
+        assertTrue(Datum.comparator().compare(expected, actual) == 0, "Expected: $expected\nActual: $actual")
+    }
+
+    /**
+     * The planner's plans of these queries aggregate a subquery which is ordered by the group keys.
+     */
+    @ParameterizedTest
+    @ValueSource(
+        strings = [
+            "SELECT VALUE x FROM [{ 'k': 1, 'd': 1 }, { 'k': 1, 'd': 1 }, { 'k': 2, 'd': 0 }] AS x ORDER BY x.k",
+            "SELECT x.k AS k, x.d AS d FROM [{ 'k': 1, 'd': 1 }, { 'k': 1, 'd': 1 }, { 'k': 2, 'd': 0 }] AS x ORDER BY x.k",
+        ]
+    )
+    fun ordered(subquery: String) {
+        val plan = plan("SELECT t.k AS k, SUM(1 / t.d) AS s FROM ($subquery) AS t GROUP BY t.k")
+        val aggregate = aggregates((plan.action as Action.Query).rex).single()
+        assertTrue(Ordering.isGrouped(aggregate.getInput(), aggregate.getGroups()))
+        // the first group is returned before the row of the second group (which divides by zero) is aggregated
+        compiler.prepare(plan, Mode.STRICT()).open().use {
+            assertTrue(it.hasNext())
+            assertEquals(1, it.next().get("k")!!.int)
+            assertFailsWith<PRuntimeException> { it.hasNext() && it.next() != null }
+        }
+    }
+
+    @Test
+    fun nondeterministic() {
+        val arg = RexVar.create(0, 0, PType.dynamic())
+        val random = Fn.Builder("random").addParameter(PType.dynamic()).body { Datum.doublePrecision(Math.random()) }.build()
+        val abs = Fn.Builder("abs").addParameter(PType.dynamic()).isDeterministic(true).body { it[0] }.build()
+        assertFalse(Ordering.equivalent(RexCall.create(random, listOf(arg)), RexCall.create(random, listOf(arg))))
+        assertTrue(Ordering.equivalent(RexCall.create(abs, listOf(arg)), RexCall.create(abs, listOf(arg))))
+    }
+
+    private fun aggregates(operator: Operator): List<RelAggregate> {
+        val aggregates = operator.getOperands().flatMap { operand -> operand.flatMap { aggregates(it) } }
+        return if (operator is RelAggregate) aggregates + operator else aggregates
+    }
+
+    private fun plan(input: String): Plan {
+        val statement = parser.parse(input).statements[0]
+        return planner.plan(statement, session).plan
+    }
+
+    private fun sorted(plan: Plan): Plan {
+        val rex = (plan.action as Action.Query).rex
+        val rewritten = SortGroups.visit(rex, Unit) as Rex
+        return object : Plan {
+            override fun getAction(): Action = Action.Query { rewritten }
+        }
+    }
+
+    /**
+     * Sorts the input of each aggregation by its group keys.
+     */
+    private object SortGroups : OperatorRewriter<Unit>() {
+
+        override fun visitAggregate(rel: RelAggregate, ctx: Unit): Operator {
+            val collations = rel.getGroups().map { group ->
+                object : Collation {
+                    override fun getColumn(): Rex = group
+                    override fun getOrder(): Collation.Order = Collation.Order.ASC()
+                    override fun getNulls(): Collation.Nulls = Collation.Nulls.FIRST()
+                }
+            }
+            val input = Operators.STANDARD.sort(rel.getInput(), collations)
+            return Operators.STANDARD.aggregate(input, rel.getMeasures(), rel.getGroups())
+        }
+    }
+}
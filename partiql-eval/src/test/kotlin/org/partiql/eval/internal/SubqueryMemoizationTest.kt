@@ -0,0 +1,100 @@
+package org.partiql.eval.internal
+
+import org.junit.jupiter.api.Test
+import org.partiql.eval.Mode
+import org.partiql.eval.Statement
+import org.partiql.eval.compiler.PartiQLCompiler
+import org.partiql.parser.PartiQLParser
+import org.partiql.planner.PartiQLPlanner
+import org.partiql.spi.catalog.Catalog
+import org.partiql.spi.catalog.Name
+import org.partiql.spi.catalog.ScanRequest
+import org.partiql.spi.catalog.Session
+import org.partiql.spi.catalog.Table
+import org.partiql.spi.types.PType
+import org.partiql.spi.types.PTypeField
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.Field
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * A subquery which does not reference the rows of its environment is evaluated once per execution of its statement,
+ * rather than once per row.
+ */
+class SubqueryMemoizationTest {
+
+    private val parser = PartiQLParser.standard()
+    private val planner = PartiQLPlanner.standard()
+    private val compiler = PartiQLCompiler.standard()
+
+    private val rows = (1..5).map {
+        Datum.struct(
+            Field.of("a", Datum.integer(it)),
+            Field.of("b", Datum.integer(it * 10)),
+        )
+    }
+
+    private val table = object : Table {
+
+        var scans = 0
+
+        override fun getName(): Name = Name.of("tbl")
+
+        override fun getSchema(): PType = PType.bag(
+            PType.row(
+                PTypeField.of("a", PType.integer()),
+                PTypeField.of("b", PType.integer()),
+            )
+        )
+
+        override fun getDatum(): Datum {
+            scans++
+            return Datum.bag(rows)
+        }
+
+        override fun scan(request: ScanRequest): Datum = getDatum()
+    }
+
+    private val catalog = Catalog.builder().name("memory").define(table).build()
+    private val session = Session.builder().catalog("memory").catalogs(catalog).build()
+
+    @Test
+    fun uncorrelated() {
+        val statement = prepare("SELECT VALUE t.a FROM tbl AS t WHERE t.b > (SELECT MAX(u.b) FROM tbl AS u) - 25")
+        repeat(2) {
+            table.scans = 0
+            assertResult(Datum.bag(listOf(3, 4, 5).map { Datum.integer(it) }), statement.execute())
+            // the outer scan and a single scan of the subquery
+            assertEquals(2, table.scans)
+        }
+    }
+
+    @Test
+    fun parameters() {
+        val statement = prepare("SELECT VALUE t.a FROM tbl AS t WHERE t.a > (SELECT MAX(u.a) FROM tbl AS u WHERE u.a < ?)")
+        assertResult(Datum.bag(listOf(3, 4, 5).map { Datum.integer(it) }), statement.execute(Datum.integer(3)))
+        assertResult(Datum.bag(listOf(Datum.integer(5))), statement.execute(Datum.integer(5)))
+    }
+
+    @Test
+    fun correlated() {
+        val statement = prepare("SELECT VALUE t.a FROM tbl AS t WHERE t.b = (SELECT MAX(u.b) FROM tbl AS u WHERE u.a = t.a)")
+        table.scans = 0
+        assertResult(Datum.bag(rows.indices.map { Datum.integer(it + 1) }), statement.execute())
+        // the subquery is evaluated for each row
+        assertEquals(1 + rows.size, table.scans)
+    }
+
+    private fun prepare(query: String): Statement {
+        val statement = parser.parse(query).statements[0]
+        val plan = planner.plan(statement, session).plan
+        return compiler.prepare(plan, Mode.STRICT())
+    }
+
+    private fun assertResult(expected: Datum, actual: Datum) {
+        val materialized = DatumMaterialize.materialize(actual)
+        val message = "Expected: $expected\nActual: $materialized"
+        assertTrue(Datum.comparator().compare(expected, materialized) == 0, message)
+    }
+}
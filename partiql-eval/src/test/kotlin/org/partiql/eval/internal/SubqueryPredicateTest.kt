@@ -0,0 +1,152 @@
+package org.partiql.eval.internal
+
+import org.junit.jupiter.api.Test
+import org.partiql.eval.Mode
+import org.partiql.eval.Statement
+import org.partiql.eval.compiler.PartiQLCompiler
+import org.partiql.parser.PartiQLParser
+import org.partiql.planner.PartiQLPlanner
+import org.partiql.spi.catalog.Catalog
+import org.partiql.spi.catalog.Name
+import org.partiql.spi.catalog.ScanRequest
+import org.partiql.spi.catalog.Session
+import org.partiql.spi.catalog.Table
+import org.partiql.spi.types.PType
+import org.partiql.spi.types.PTypeField
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.Field
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * The IN and EXISTS predicates of a subquery are evaluated as (anti) semi-joins, with the three-valued semantics of
+ * SQL; the rows of an uncorrelated subquery are read once per execution of the statement.
+ */
+class SubqueryPredicateTest {
+
+    private val parser = PartiQLParser.standard()
+    private val planner = PartiQLPlanner.standard()
+    private val compiler = PartiQLCompiler.standard()
+
+    private val rows = (1..5).map {
+        Datum.struct(
+            Field.of("a", Datum.integer(it)),
+            Field.of("b", Datum.integer(it * 10)),
+        )
+    }
+
+    private val table = object : Table {
+
+        var scans = 0
+
+        override fun getName(): Name = Name.of("tbl")
+
+        override fun getSchema(): PType = PType.bag(
+            PType.row(
+                PTypeField.of("a", PType.integer()),
+                PTypeField.of("b", PType.integer()),
+            )
+        )
+
+        override fun getDatum(): Datum {
+            scans++
+            return Datum.bag(rows)
+        }
+
+        override fun scan(request: ScanRequest): Datum = getDatum()
+    }
+
+    private val catalog = Catalog.builder().name("memory").define(table).build()
+    private val session = Session.builder().catalog("memory").catalogs(catalog).build()
+
+    // the values 2 through 5, and NULL
+    private val nullable = "SELECT VALUE CASE WHEN u.a = 1 THEN NULL ELSE u.a END FROM tbl AS u"
+
+    @Test
+    fun inSubquery() {
+        val statement = prepare("SELECT VALUE t.a FROM tbl AS t WHERE t.a IN (SELECT VALUE u.a FROM tbl AS u WHERE u.a > 3)")
+        repeat(2) {
+            table.scans = 0
+            assertResult(integers(4, 5), statement.execute())
+            // the outer scan and a single scan of the subquery
+            assertEquals(2, table.scans)
+        }
+    }
+
+    @Test
+    fun inWithNull() {
+        val statement = prepare("SELECT VALUE t.a IN ($nullable) FROM tbl AS t")
+        val unknown = Datum.nullValue(PType.bool())
+        val expected = Datum.bag(listOf(unknown) + (2..5).map { Datum.bool(true) })
+        assertResult(expected, statement.execute())
+    }
+
+    @Test
+    fun notIn() {
+        val statement = prepare("SELECT VALUE t.a FROM tbl AS t WHERE t.a NOT IN (SELECT VALUE u.a FROM tbl AS u WHERE u.a > 3)")
+        assertResult(integers(1, 2, 3), statement.execute())
+    }
+
+    @Test
+    fun notInWithNull() {
+        // `1 NOT IN (NULL, 2, ...)` is UNKNOWN rather than TRUE
+        val statement = prepare("SELECT VALUE t.a FROM tbl AS t WHERE t.a NOT IN ($nullable)")
+        assertResult(Datum.bag(emptyList()), statement.execute())
+    }
+
+    @Test
+    fun notInEmpty() {
+        val statement = prepare("SELECT VALUE t.a FROM tbl AS t WHERE t.a NOT IN (SELECT VALUE u.a FROM tbl AS u WHERE u.a > 5)")
+        assertResult(integers(1, 2, 3, 4, 5), statement.execute())
+    }
+
+    @Test
+    fun inParameters() {
+        val statement = prepare("SELECT VALUE t.a FROM tbl AS t WHERE t.a IN (SELECT VALUE u.a FROM tbl AS u WHERE u.a > ?)")
+        assertResult(integers(4, 5), statement.execute(Datum.integer(3)))
+        assertResult(integers(2, 3, 4, 5), statement.execute(Datum.integer(1)))
+    }
+
+    @Test
+    fun inCorrelated() {
+        val statement = prepare("SELECT VALUE t.a FROM tbl AS t WHERE t.a IN (SELECT VALUE u.a + 1 FROM tbl AS u WHERE u.a < t.a)")
+        table.scans = 0
+        assertResult(integers(2, 3, 4, 5), statement.execute())
+        // the subquery is read for each row
+        assertEquals(1 + rows.size, table.scans)
+    }
+
+    @Test
+    fun exists() {
+        val statement = prepare("SELECT VALUE t.a FROM tbl AS t WHERE EXISTS (SELECT VALUE u.a FROM tbl AS u WHERE u.a > 4)")
+        table.scans = 0
+        assertResult(integers(1, 2, 3, 4, 5), statement.execute())
+        assertEquals(2, table.scans)
+    }
+
+    @Test
+    fun existsCorrelated() {
+        val statement = prepare("SELECT VALUE t.a FROM tbl AS t WHERE EXISTS (SELECT VALUE u.a FROM tbl AS u WHERE u.a = t.a + 1)")
+        assertResult(integers(1, 2, 3, 4), statement.execute())
+    }
+
+    @Test
+    fun notExistsCorrelated() {
+        val statement = prepare("SELECT VALUE t.a FROM tbl AS t WHERE NOT EXISTS (SELECT VALUE u.a FROM tbl AS u WHERE u.a = t.a + 1)")
+        assertResult(integers(5), statement.execute())
+    }
+
+    private fun prepare(query: String): Statement {
+        val statement = parser.parse(query).statements[0]
+        val plan = planner.plan(statement, session).plan
+        return compiler.prepare(plan, Mode.STRICT())
+    }
+
+    private fun integers(vararg values: Int): Datum = Datum.bag(values.map { Datum.integer(it) })
+
+    private fun assertResult(expected: Datum, actual: Datum) {
+        val materialized = DatumMaterialize.materialize(actual)
+        val message = "Expected: $expected\nActual: $materialized"
+        assertTrue(Datum.comparator().compare(expected, materialized) == 0, message)
+    }
+}
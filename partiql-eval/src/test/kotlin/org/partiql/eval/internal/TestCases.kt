@@ -6,6 +6,7 @@ import org.partiql.eval.compiler.PartiQLCompiler
 import org.partiql.parser.PartiQLParser
 import org.partiql.plan.Plan
 import org.partiql.planner.PartiQLPlanner
+import org.partiql.spi.Context
 import org.partiql.spi.catalog.Catalog
 import org.partiql.spi.catalog.Name
 import org.partiql.spi.catalog.Session
@@ -40,7 +41,8 @@ public class SuccessTestCase(
     val expected: Datum,
     val mode: Mode = Mode.PERMISSIVE(),
     val globals: List<Global> = emptyList(),
-    val jvmEquality: Boolean = false
+    val jvmEquality: Boolean = false,
+    val context: Context = Context.standard(),
 ) : PTestCase {
 
     constructor(
@@ -48,15 +50,17 @@ public class SuccessTestCase(
         expected: Datum,
         mode: Mode = Mode.PERMISSIVE(),
         globals: List<Global> = emptyList(),
-        jvmEquality: Boolean = false
-    ) : this("no_name", input, expected, mode, globals, jvmEquality)
+        jvmEquality: Boolean = false,
+        context: Context = Context.standard(),
+    ) : this("no_name", input, expected, mode, globals, jvmEquality, context)
 
     constructor(
         input: String,
         expected: PartiQLValue,
         mode: Mode = Mode.PERMISSIVE(),
         globals: List<Global> = emptyList(),
-    ) : this(input, ValueUtils.newDatum(expected), mode, globals)
+        context: Context = Context.standard(),
+    ) : this(input, ValueUtils.newDatum(expected), mode, globals, false, context)
 
     private val compiler = PartiQLCompiler.standard()
     private val parser = PartiQLParser.standard()
@@ -84,7 +88,7 @@ public class SuccessTestCase(
             .catalogs(catalog)
             .build()
         val plan = planner.plan(statement, session).plan
-        val result = DatumMaterialize.materialize(compiler.prepare(plan, mode).execute())
+        val result = DatumMaterialize.materialize(compiler.prepare(plan, mode, context).execute())
         val comparison = when (jvmEquality) {
             true -> expected == result
             false -> Datum.comparator().compare(expected, result) == 0
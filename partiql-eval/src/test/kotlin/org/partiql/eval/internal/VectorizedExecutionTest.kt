@@ -0,0 +1,79 @@
+package org.partiql.eval.internal
+
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+import org.partiql.eval.Mode
+import org.partiql.eval.compiler.PartiQLCompiler
+import org.partiql.parser.PartiQLParser
+import org.partiql.plan.Plan
+import org.partiql.planner.PartiQLPlanner
+import org.partiql.spi.catalog.Session
+import org.partiql.spi.errors.PRuntimeException
+import org.partiql.spi.value.Datum
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+
+/**
+ * The results of batch execution must be equal to those of row-at-a-time execution.
+ */
+class VectorizedExecutionTest {
+
+    private val parser = PartiQLParser.standard()
+    private val planner = PartiQLPlanner.standard()
+    private val compiler = PartiQLCompiler.standard()
+    private val vectorized = PartiQLCompiler.builder().vectorized(true).build()
+    private val session = Session.empty()
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = [
+            "SELECT t.a + 1 AS b FROM << { 'a': 1 }, { 'a': 2 }, { 'a': 3 } >> AS t WHERE t.a > 1",
+            "SELECT t.a FROM << { 'a': 1 }, { 'a': NULL }, { 'b': 3 }, { 'a': 'x' } >> AS t WHERE t.a = 1 OR t.a IS NULL",
+            "SELECT VALUE x * 2 FROM << 1, 2, 3, 4 >> AS x WHERE x % 2 = 0",
+            "SELECT t.a.b AS c FROM << { 'a': { 'b': 1 } }, { 'a': 1 }, { 'a': { 'c': 2 } } >> AS t",
+            "SELECT x, (SELECT VALUE y FROM << 1, 2, 3 >> AS y WHERE y > x) AS ys FROM << 1, 2 >> AS x",
+            "SELECT t.a FROM << { 'a': 1 }, { 'a': 2 } >> AS t WHERE t.a IN (SELECT VALUE y FROM << 2 >> AS y)",
+        ]
+    )
+    fun equivalence(input: String) {
+        for (mode in listOf(Mode.PERMISSIVE(), Mode.STRICT())) {
+            val plan = plan(input)
+            val expected = try {
+                execute(compiler, plan, mode)
+            } catch (e: PRuntimeException) {
+                // e.g. a missing key in strict mode
+                assertFailsWith<PRuntimeException> { execute(vectorized, plan, mode) }
+                continue
+            }
+            val actual = execute(vectorized, plan, mode)
+            assertTrue(Datum.comparator().compare(expected, actual) == 0, "Expected: $expected\nActual: $actual")
+        }
+    }
+
+    @Test
+    fun multipleBatches() {
+        val values = (0 until 5000).joinToString { "{ 'a': $it }" }
+        val plan = plan("SELECT t.a * 2 AS b FROM << $values >> AS t WHERE t.a % 3 = 0")
+        val expected = execute(compiler, plan, Mode.STRICT())
+        val actual = execute(vectorized, plan, Mode.STRICT())
+        assertTrue(Datum.comparator().compare(expected, actual) == 0, "Expected: $expected\nActual: $actual")
+    }
+
+    @Test
+    fun strictErrors() {
+        val plan = plan("SELECT t.a / t.b AS c FROM << { 'a': 1, 'b': 1 }, { 'a': 1, 'b': 0 } >> AS t")
+        assertFailsWith<PRuntimeException> {
+            execute(vectorized, plan, Mode.STRICT())
+        }
+    }
+
+    private fun execute(compiler: PartiQLCompiler, plan: Plan, mode: Mode): Datum {
+        return DatumMaterialize.materialize(compiler.prepare(plan, mode).execute())
+    }
+
+    private fun plan(input: String): Plan {
+        val statement = parser.parse(input).statements[0]
+        return planner.plan(statement, session).plan
+    }
+}
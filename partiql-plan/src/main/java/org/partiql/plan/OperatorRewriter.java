@@ -448,6 +448,11 @@ public abstract class OperatorRewriter<C> implements OperatorVisitor<Operator, C
         return rex;
     }
 
+    @Override
+    public Operator visitParameter(@NotNull RexParameter rex, C ctx) {
+        return rex;
+    }
+
     @Override
     public Operator visitPathIndex(@NotNull RexPathIndex rex, C ctx) {
         // rewrite operand
@@ -27,6 +27,7 @@ import org.partiql.plan.rex.RexDispatch;
 import org.partiql.plan.rex.RexError;
 import org.partiql.plan.rex.RexLit;
 import org.partiql.plan.rex.RexNullIf;
+import org.partiql.plan.rex.RexParameter;
 import org.partiql.plan.rex.RexPathIndex;
 import org.partiql.plan.rex.RexPathKey;
 import org.partiql.plan.rex.RexPathSymbol;
@@ -176,6 +177,10 @@ public interface OperatorVisitor<R, C> {
         return defaultVisit(rex, ctx);
     }
 
+    default R visitParameter(@NotNull RexParameter rex, C ctx) {
+        return defaultVisit(rex, ctx);
+    }
+
     default R visitPathIndex(@NotNull RexPathIndex rex, C ctx) {
         return defaultVisit(rex, ctx);
     }
@@ -0,0 +1,62 @@
+package org.partiql.plan.rex;
+
+import org.jetbrains.annotations.NotNull;
+import org.partiql.plan.Operand;
+import org.partiql.plan.OperatorVisitor;
+import org.partiql.spi.types.PType;
+
+import java.util.List;
+
+/**
+ * Parameter reference expression abstract base class; the value of a parameter (e.g. {@code ?}) is bound as the
+ * statement is executed.
+ */
+public abstract class RexParameter extends RexBase {
+
+    /**
+     * Creates a new parameter reference expression.
+     * @param index 1-indexed parameter position.
+     * @return new RexParameter instance
+     */
+    @NotNull
+    public static RexParameter create(int index) {
+        return new Impl(index);
+    }
+
+    /**
+     * Returns the position of the parameter within the statement.
+     * @return 1-indexed parameter position.
+     */
+    public abstract int getIndex();
+
+    @NotNull
+    @Override
+    protected RexType type() {
+        return RexType.of(PType.dynamic());
+    }
+
+    @NotNull
+    @Override
+    protected final List<Operand> operands() {
+        return List.of();
+    }
+
+    @Override
+    public <R, C> R accept(OperatorVisitor<R, C> visitor, C ctx) {
+        return visitor.visitParameter(this, ctx);
+    }
+
+    private static class Impl extends RexParameter {
+
+        private final int index;
+
+        private Impl(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+    }
+}
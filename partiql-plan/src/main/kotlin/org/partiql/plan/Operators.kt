@@ -29,6 +29,7 @@ import org.partiql.plan.rex.RexDispatch
 import org.partiql.plan.rex.RexError
 import org.partiql.plan.rex.RexLit
 import org.partiql.plan.rex.RexNullIf
+import org.partiql.plan.rex.RexParameter
 import org.partiql.plan.rex.RexPathIndex
 import org.partiql.plan.rex.RexPathKey
 import org.partiql.plan.rex.RexPathSymbol
@@ -319,6 +320,13 @@ public interface Operators {
      */
     public fun nullIf(v1: Rex, v2: Rex): RexNullIf = RexNullIf.create(v1, v2)
 
+    /**
+     * Create a [RexParameter] instance.
+     *
+     * @param index 1-indexed parameter position.
+     */
+    public fun parameter(index: Int): RexParameter = RexParameter.create(index)
+
     /**
      * Create a [RexPathIndex] instance.
      *
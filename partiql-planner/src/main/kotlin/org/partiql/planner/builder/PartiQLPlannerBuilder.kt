@@ -4,6 +4,11 @@ import org.partiql.planner.PartiQLPlanner
 import org.partiql.planner.PartiQLPlannerPass
 import org.partiql.planner.internal.PlannerFlag
 import org.partiql.planner.internal.SqlPlanner
+import org.partiql.planner.internal.optimizer.Decorrelation
+import org.partiql.planner.internal.optimizer.FilterPushdown
+import org.partiql.planner.internal.optimizer.LimitPushdown
+import org.partiql.planner.internal.optimizer.ProjectionPruning
+import org.partiql.planner.internal.optimizer.RedundantOperators
 
 /**
  * PartiQLPlannerBuilder is used to programmatically construct a [PartiQLPlanner] implementation.
@@ -20,11 +25,16 @@ public class PartiQLPlannerBuilder {
 
     private val flags: MutableSet<PlannerFlag> = mutableSetOf()
     private val passes: MutableList<PartiQLPlannerPass> = mutableListOf()
+    private var optimize: Boolean = false
 
     /**
      * Build the builder, return an implementation of a [PartiQLPlanner].
      */
     public fun build(): PartiQLPlanner {
+        val passes = when (optimize) {
+            true -> listOf(RedundantOperators, Decorrelation, FilterPushdown, LimitPushdown, ProjectionPruning) + passes
+            else -> passes
+        }
         return SqlPlanner(passes, flags)
     }
 
@@ -50,6 +60,17 @@ public class PartiQLPlannerBuilder {
         return this
     }
 
+    /**
+     * Java style method for enabling the rule-based optimizer; its passes are applied before the added passes.
+     *
+     * The optimizer pushes filters and limits towards the scans, removes unused projections, removes DISTINCT and
+     * ORDER BY operators which have no effect, and rewrites simple correlated scalar subqueries as joins.
+     */
+    public fun optimize(optimize: Boolean = true): PartiQLPlannerBuilder {
+        this.optimize = optimize
+        return this
+    }
+
     /**
      * Java style method for setting the planner to signal mode.
      */
@@ -50,6 +50,7 @@ import org.partiql.planner.internal.ir.builder.RexOpCollectionBuilder
 import org.partiql.planner.internal.ir.builder.RexOpErrBuilder
 import org.partiql.planner.internal.ir.builder.RexOpLitBuilder
 import org.partiql.planner.internal.ir.builder.RexOpNullifBuilder
+import org.partiql.planner.internal.ir.builder.RexOpParameterBuilder
 import org.partiql.planner.internal.ir.builder.RexOpPathIndexBuilder
 import org.partiql.planner.internal.ir.builder.RexOpPathKeyBuilder
 import org.partiql.planner.internal.ir.builder.RexOpPathSymbolBuilder
@@ -213,6 +214,7 @@ internal data class Rex(
     internal sealed class Op : PlanNode() {
         public override fun <R, C> accept(visitor: PlanVisitor<R, C>, ctx: C): R = when (this) {
             is Lit -> visitor.visitRexOpLit(this, ctx)
+            is Parameter -> visitor.visitRexOpParameter(this, ctx)
             is Var -> visitor.visitRexOpVar(this, ctx)
             is Path -> visitor.visitRexOpPath(this, ctx)
             is Cast -> visitor.visitRexOpCast(this, ctx)
@@ -249,6 +251,19 @@ internal data class Rex(
             }
         }
 
+        internal data class Parameter(
+            @JvmField internal val index: Int,
+        ) : Op() {
+            public override val children: List<PlanNode> = emptyList()
+
+            override fun <R, C> accept(visitor: PlanVisitor<R, C>, ctx: C): R = visitor.visitRexOpParameter(this, ctx)
+
+            internal companion object {
+                @JvmStatic
+                internal fun builder(): RexOpParameterBuilder = RexOpParameterBuilder()
+            }
+        }
+
         internal sealed class Var : Op() {
             override fun <R, C> accept(visitor: PlanVisitor<R, C>, ctx: C): R = when (this) {
                 is Local -> visitor.visitRexOpVarLocal(this, ctx)
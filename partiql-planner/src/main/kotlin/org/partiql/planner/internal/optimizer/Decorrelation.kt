@@ -0,0 +1,246 @@
+package org.partiql.planner.internal.optimizer
+
+import org.partiql.plan.JoinType
+import org.partiql.plan.Operator
+import org.partiql.plan.Plan
+import org.partiql.plan.rel.Rel
+import org.partiql.plan.rel.RelAggregate
+import org.partiql.plan.rel.RelFilter
+import org.partiql.plan.rel.RelProject
+import org.partiql.plan.rel.RelType
+import org.partiql.plan.rex.Rex
+import org.partiql.plan.rex.RexCall
+import org.partiql.plan.rex.RexPivot
+import org.partiql.plan.rex.RexSelect
+import org.partiql.plan.rex.RexStruct
+import org.partiql.plan.rex.RexSubquery
+import org.partiql.plan.rex.RexSubqueryComp
+import org.partiql.plan.rex.RexSubqueryIn
+import org.partiql.plan.rex.RexSubqueryTest
+import org.partiql.plan.rex.RexVar
+import org.partiql.planner.PartiQLPlannerPass
+import org.partiql.spi.Context
+import org.partiql.spi.types.PType
+import org.partiql.spi.types.PTypeField
+
+/**
+ * Rewrites the correlated scalar subqueries of a filter predicate (or of a projection) which aggregate the rows that
+ * are equal to an expression of the outer row,
+ *
+ *  (SELECT MAX(y.b) FROM T AS y WHERE y.k = x.k AND <p>)
+ *
+ * as a LEFT join of the outer rows with the aggregation grouped by the inner expression,
+ *
+ *  LEFT JOIN (SELECT MAX(y.b), y.k FROM T AS y WHERE <p> GROUP BY y.k) ON x.k = <key>
+ *
+ * so the subquery's input is scanned once (and joined by hash) rather than once per outer row. The remaining conjuncts
+ * <p> must not reference the outer row; a filter's rows are projected back to the columns of its input.
+ *
+ * Only aggregations which return NULL on no rows (MIN, MAX, SUM, and AVG) are rewritten, as an outer row which equals
+ * no group is padded with NULL; e.g. COUNT returns 0 rather than NULL.
+ */
+internal object Decorrelation : PartiQLPlannerPass {
+
+    private const val AND = "\uFDEFand"
+    private const val EQ = "\uFDEFeq"
+
+    // aggregations whose result on no rows is the NULL of the padded row
+    private val aggregations = setOf("min", "max", "sum", "avg")
+
+    override fun apply(plan: Plan, ctx: Context): Plan = Rewriter().rewrite(plan, Unit)
+
+    private class Rewriter : PlanRewriter<Unit>() {
+
+        override fun visitFilter(rel: RelFilter, ctx: Unit): Operator {
+            val input = visitRel(rel.getInput(), ctx)
+            val predicate = visitRex(rel.getPredicate(), ctx)
+            val degree = input.getType().getDegree()
+            val extractor = Extractor(degree)
+            val rewritten = extractor.visitRex(predicate, ctx)
+            if (extractor.joins.isEmpty()) {
+                if (input !== rel.getInput() || predicate !== rel.getPredicate()) {
+                    return operators.filter(input, predicate)
+                }
+                return rel
+            }
+            val join = join(input, extractor.joins)
+            val filter = typed(operators.filter(join, rewritten), join.getType())
+            val fields = input.getType().getFields()
+            val projections = fields.indices.map { operators.variable(0, it, fields[it].type) }
+            return typed(operators.project(filter, projections), rel.getType())
+        }
+
+        override fun visitProject(rel: RelProject, ctx: Unit): Operator {
+            val input = visitRel(rel.getInput(), ctx)
+            val projections = visitAll(rel.getProjections(), ctx, this::visitProjection)
+            val degree = input.getType().getDegree()
+            val extractor = Extractor(degree)
+            val rewritten = projections.map { extractor.visitRex(it, ctx) }
+            if (extractor.joins.isEmpty()) {
+                if (input !== rel.getInput() || projections !== rel.getProjections()) {
+                    return operators.project(input, projections)
+                }
+                return rel
+            }
+            return typed(operators.project(join(input, extractor.joins), rewritten), rel.getType())
+        }
+
+        /**
+         * Returns the [input] LEFT joined with each of the grouped aggregations (and their join conditions).
+         */
+        private fun join(input: Rel, joins: List<Pair<Rel, Rex>>): Rel {
+            var left = input
+            for ((right, condition) in joins) {
+                val fields = left.getType().getFields() + right.getType().getFields()
+                val properties = if (input.getType().isOrdered) RelType.ORDERED else 0
+                val join = operators.join(left, right, condition, JoinType.LEFT())
+                left = typed(join, RelType.of(fields, properties))
+            }
+            return left
+        }
+    }
+
+    /**
+     * Replaces the correlated scalar subqueries of an expression over a row of the given [degree] with a reference to
+     * the aggregation of a grouped relation, which is to be LEFT joined with the row; the subqueries of relations are
+     * not visited as they are evaluated with other rows.
+     *
+     * @property joins  The grouped aggregations and their join conditions, in the order of the joins.
+     */
+    private class Extractor(private val degree: Int) : PlanRewriter<Unit>() {
+
+        val joins = mutableListOf<Pair<Rel, Rex>>()
+
+        override fun visitSubquery(rex: RexSubquery, ctx: Unit): Operator {
+            // the aggregation (and then the key) are appended to the row by each join
+            val offset = degree + joins.size * 2
+            val join = decorrelate(rex, offset) ?: return rex
+            joins.add(join)
+            return operators.variable(0, offset, rex.getType().getPType())
+        }
+
+        override fun visitSelect(rex: RexSelect, ctx: Unit): Operator = rex
+
+        override fun visitPivot(rex: RexPivot, ctx: Unit): Operator = rex
+
+        override fun visitSubqueryComp(rex: RexSubqueryComp, ctx: Unit): Operator = rex
+
+        override fun visitSubqueryIn(rex: RexSubqueryIn, ctx: Unit): Operator = rex
+
+        override fun visitSubqueryTest(rex: RexSubqueryTest, ctx: Unit): Operator = rex
+
+        /**
+         * Returns the grouped aggregation of the [subquery] and the condition which joins it with the outer row, at
+         * whose [offset] the aggregation is appended; or null if the subquery is not of the supported form.
+         */
+        private fun decorrelate(subquery: RexSubquery, offset: Int): Pair<Rel, Rex>? {
+            if (!subquery.isScalar() || !isVariable(subquery.getConstructor(), 0)) {
+                return null
+            }
+            // SELECT VALUE { '_1': <aggregation> } FROM (<aggregation> of a filter without groups)
+            val project = subquery.getInput() as? RelProject ?: return null
+            val struct = project.getProjections().singleOrNull() as? RexStruct ?: return null
+            val value = struct.getFields().singleOrNull()?.getValue() as? RexVar ?: return null
+            val aggregate = project.getInput() as? RelAggregate ?: return null
+            if (value.getScope() != 0 || aggregate.getGroups().isNotEmpty()) {
+                return null
+            }
+            val measure = aggregate.getMeasures().getOrNull(value.getOffset()) ?: return null
+            if (measure.getAgg().getSignature().getName() !in aggregations) {
+                return null
+            }
+            val filter = aggregate.getInput() as? RelFilter ?: return null
+            // the predicate is evaluated with the outer row at scope 1
+            val conjuncts = conjuncts(filter.getPredicate())
+            var eq: RexCall? = null
+            var key: Pair<Rex, Rex>? = null
+            val rest = mutableListOf<Rex>()
+            for (conjunct in conjuncts) {
+                val operands = if (key == null) correlation(conjunct) else null
+                if (operands != null) {
+                    eq = conjunct as RexCall
+                    key = operands
+                } else {
+                    rest.add(conjunct)
+                }
+            }
+            val (inner, outer) = key ?: return null
+            var input = filter.getInput()
+            for (conjunct in rest) {
+                input = typed(operators.filter(input, conjunct), filter.getInput().getType())
+            }
+            val grouped = operators.aggregate(input, listOf(measure), listOf(inner))
+            // the grouped aggregation must not reference the outer row (or any other)
+            if (!Variables.isClosed(grouped)) {
+                return null
+            }
+            val fields = arrayOf(
+                PTypeField.of(aggregate.getType().getField(value.getOffset()).name, subquery.getType().getPType()),
+                PTypeField.of("\$key", inner.getType().getPType()),
+            )
+            val right = typed(grouped, RelType.of(fields, 0))
+            // the outer row is at scope 0 of the join condition, and the key follows the aggregation
+            val lhs = Variables.map(outer) { v, _ ->
+                operators.variable(v.getScope() - 1, v.getOffset(), v.getType().getPType())
+            }!!
+            val rhs = operators.variable(0, offset + 1, inner.getType().getPType())
+            val args = eq!!.getArgs().map { if (it === inner) rhs else lhs }
+            return right to operators.call(eq.getFunction(), args)
+        }
+
+        /**
+         * Returns the (inner, outer) operands of an equality between an expression of the inner row (scope 0) and a
+         * (scalar) expression of only the outer row (scope 1); or null if the conjunct is not such an equality.
+         */
+        private fun correlation(conjunct: Rex): Pair<Rex, Rex>? {
+            if (conjunct !is RexCall || conjunct.getFunction().getSignature().getName() != EQ) {
+                return null
+            }
+            val args = conjunct.getArgs()
+            if (args.size != 2) {
+                return null
+            }
+            for ((inner, outer) in listOf(args[0] to args[1], args[1] to args[0])) {
+                // CHAR equality ignores trailing spaces, unlike the equivalence of the groups
+                if (isChar(inner) || isChar(outer)) {
+                    return null
+                }
+                if (Variables.isClosed(inner, 1) && isOuter(outer)) {
+                    return inner to outer
+                }
+            }
+            return null
+        }
+
+        /**
+         * Returns true if the [rex] references the outer row (scope 1) and no other row.
+         */
+        private fun isOuter(rex: Rex): Boolean {
+            if (!Variables.isScalar(rex) || !Variables.isClosed(rex, 2)) {
+                return false
+            }
+            val offsets = mutableSetOf<Int>()
+            Variables.map(rex) { v, _ ->
+                offsets.add(v.getScope())
+                v
+            } ?: return false
+            return offsets == setOf(1)
+        }
+
+        private fun isChar(rex: Rex): Boolean = rex.getType().getPType().code() == PType.CHAR
+
+        private fun isVariable(rex: Rex, offset: Int): Boolean {
+            return rex is RexVar && rex.getScope() == 0 && rex.getOffset() == offset
+        }
+
+        /**
+         * Flattens a tree of AND calls into its conjuncts.
+         */
+        private fun conjuncts(rex: Rex): List<Rex> {
+            if (rex is RexCall && rex.getFunction().getSignature().getName() == AND && rex.getArgs().size == 2) {
+                return conjuncts(rex.getArgs()[0]) + conjuncts(rex.getArgs()[1])
+            }
+            return listOf(rex)
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.partiql.planner.internal.optimizer
+
+import org.partiql.plan.JoinType
+import org.partiql.plan.Operator
+import org.partiql.plan.Plan
+import org.partiql.plan.rel.Rel
+import org.partiql.plan.rel.RelFilter
+import org.partiql.plan.rel.RelJoin
+import org.partiql.plan.rel.RelProject
+import org.partiql.plan.rel.RelUnion
+import org.partiql.plan.rex.Rex
+import org.partiql.plan.rex.RexCall
+import org.partiql.plan.rex.RexLit
+import org.partiql.planner.PartiQLPlannerPass
+import org.partiql.spi.Context
+import org.partiql.spi.function.Fn
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+
+/**
+ * Splits filter predicates (and join conditions) into their conjuncts, and pushes each conjunct towards the relations
+ * it references:
+ *
+ *  - through a projection, by substituting the projected expressions for the variables of the projection's row;
+ *  - into the input of a join whose rows that input preserves; a conjunct of a filter above an INNER join which
+ *    references both inputs becomes part of the join condition;
+ *  - into both inputs of a UNION ALL.
+ *
+ * The conjuncts which cannot be pushed remain in a filter above.
+ */
+internal object FilterPushdown : PartiQLPlannerPass {
+
+    private const val AND = "\uFDEFand"
+
+    override fun apply(plan: Plan, ctx: Context): Plan = Rewriter().rewrite(plan, Unit)
+
+    private class Rewriter : PlanRewriter<Unit>() {
+
+        // the AND function of the plan, if any; conjuncts are only re-combined with it
+        private var and: Fn? = null
+
+        override fun visitFilter(rel: RelFilter, ctx: Unit): Operator {
+            val input = visitRel(rel.getInput(), ctx)
+            val predicate = visitRex(rel.getPredicate(), ctx)
+            return push(input, conjuncts(predicate))
+        }
+
+        override fun visitJoin(rel: RelJoin, ctx: Unit): Operator {
+            val left = visitRel(rel.getLeft(), ctx)
+            val right = visitRel(rel.getRight(), ctx)
+            val condition = visitRex(rel.getCondition(), ctx)
+            val code = rel.getJoinType().code()
+            val degree = left.getType().getDegree()
+            val lhs = mutableListOf<Rex>()
+            val rhs = mutableListOf<Rex>()
+            val rest = mutableListOf<Rex>()
+            if (code == JoinType.INNER || code == JoinType.LEFT) {
+                for (conjunct in conjuncts(condition)) {
+                    val refs = Variables.references(conjunct)
+                    val right = if (refs.isRight(degree)) toRight(conjunct, degree, true) else null
+                    when {
+                        code == JoinType.INNER && refs.isLeft(degree) -> lhs.add(conjunct)
+                        right != null -> rhs.add(right)
+                        else -> rest.add(conjunct)
+                    }
+                }
+            }
+            if (lhs.isEmpty() && rhs.isEmpty()) {
+                if (left !== rel.getLeft() || right !== rel.getRight() || condition !== rel.getCondition()) {
+                    return operators.join(left, right, condition, rel.getJoinType())
+                }
+                return rel
+            }
+            val join = operators.join(push(left, lhs), push(right, rhs), combine(rest), rel.getJoinType())
+            return typed(join, rel.getType())
+        }
+
+        /**
+         * Returns a relation which is equivalent to filtering the [input] by the [conjuncts].
+         */
+        private fun push(input: Rel, conjuncts: List<Rex>): Rel {
+            if (conjuncts.isEmpty()) {
+                return input
+            }
+            return when (input) {
+                is RelFilter -> push(input.getInput(), conjuncts(input.getPredicate()) + conjuncts)
+                is RelProject -> push(input, conjuncts)
+                is RelJoin -> push(input, conjuncts)
+                is RelUnion -> push(input, conjuncts)
+                else -> filter(input, conjuncts)
+            }
+        }
+
+        private fun push(project: RelProject, conjuncts: List<Rex>): Rel {
+            val projections = project.getProjections()
+            val below = mutableListOf<Rex>()
+            val above = mutableListOf<Rex>()
+            for (conjunct in conjuncts) {
+                val substituted = substitute(conjunct, projections)
+                if (substituted != null) {
+                    below.add(substituted)
+                } else {
+                    above.add(conjunct)
+                }
+            }
+            if (below.isEmpty()) {
+                return filter(project, above)
+            }
+            val input = push(project.getInput(), below)
+            return filter(typed(operators.project(input, projections), project.getType()), above)
+        }
+
+        private fun push(join: RelJoin, conjuncts: List<Rex>): Rel {
+            val code = join.getJoinType().code()
+            val lateral = code == JoinType.INNER || code == JoinType.LEFT
+            val degree = join.getLeft().getType().getDegree()
+            val lhs = mutableListOf<Rex>()
+            val rhs = mutableListOf<Rex>()
+            val both = mutableListOf<Rex>()
+            val above = mutableListOf<Rex>()
+            for (conjunct in conjuncts) {
+                val refs = Variables.references(conjunct)
+                val right = if (refs.isRight(degree)) toRight(conjunct, degree, lateral) else null
+                when {
+                    refs.isLeft(degree) && (code == JoinType.INNER || code == JoinType.LEFT) -> lhs.add(conjunct)
+                    right != null && (code == JoinType.INNER || code == JoinType.RIGHT) -> rhs.add(right)
+                    refs.isLeft(degree) || refs.isRight(degree) -> above.add(conjunct)
+                    refs != null && refs.isNotEmpty() && code == JoinType.INNER -> both.add(conjunct)
+                    else -> above.add(conjunct)
+                }
+            }
+            if (lhs.isEmpty() && rhs.isEmpty() && both.isEmpty()) {
+                return filter(join, above)
+            }
+            // conjuncts of both inputs are added to the condition of an INNER join, if they can be combined
+            var condition = join.getCondition()
+            if (both.isNotEmpty()) {
+                val conjunction = if (isTrue(condition)) both else listOf(condition) + both
+                if (conjunction.size == 1 || and != null) {
+                    condition = combine(conjunction)
+                } else {
+                    above.addAll(both)
+                }
+            }
+            val left = push(join.getLeft(), lhs)
+            val right = push(join.getRight(), rhs)
+            val rel = typed(operators.join(left, right, condition, join.getJoinType()), join.getType())
+            return filter(rel, above)
+        }
+
+        private fun push(union: RelUnion, conjuncts: List<Rex>): Rel {
+            val degree = union.getType().getDegree()
+            val left = union.getLeft()
+            val right = union.getRight()
+            if (!union.isAll() || left.getType().getDegree() != degree || right.getType().getDegree() != degree) {
+                return filter(union, conjuncts)
+            }
+            val rel = operators.union(push(left, conjuncts), push(right, conjuncts), true)
+            return typed(rel, union.getType())
+        }
+
+        /**
+         * Returns the [input] filtered by the [conjuncts], which are combined if possible.
+         */
+        private fun filter(input: Rel, conjuncts: List<Rex>): Rel {
+            if (conjuncts.isEmpty()) {
+                return input
+            }
+            if (conjuncts.size == 1 || and != null) {
+                return typed(operators.filter(input, combine(conjuncts)), input.getType())
+            }
+            var rel = input
+            for (conjunct in conjuncts) {
+                rel = typed(operators.filter(rel, conjunct), input.getType())
+            }
+            return rel
+        }
+
+        /**
+         * Returns the conjunction of the [conjuncts]; this requires the AND function if there is more than one, and
+         * the conjunction of none is TRUE.
+         */
+        private fun combine(conjuncts: List<Rex>): Rex = when (conjuncts.size) {
+            0 -> operators.lit(Datum.bool(true))
+            1 -> conjuncts[0]
+            else -> conjuncts.reduce { l, r -> operators.call(and!!, listOf(l, r)) }
+        }
+
+        /**
+         * Flattens a tree of AND calls into its conjuncts.
+         */
+        private fun conjuncts(rex: Rex): List<Rex> {
+            if (rex is RexCall && rex.getFunction().getSignature().getName() == AND && rex.getArgs().size == 2) {
+                and = rex.getFunction()
+                return conjuncts(rex.getArgs()[0]) + conjuncts(rex.getArgs()[1])
+            }
+            return listOf(rex)
+        }
+
+        /**
+         * Returns the [rex] over the input of a projection with the given [projections], or null if the [rex] cannot be
+         * rewritten or references a projection which contains a relation (which would be evaluated twice).
+         */
+        private fun substitute(rex: Rex, projections: List<Rex>): Rex? {
+            var substituted = true
+            val result = Variables.map(rex) { v, d ->
+                if (v.getScope() != d) {
+                    return@map v
+                }
+                val projection = projections[v.getOffset()]
+                val shifted = if (Variables.isScalar(projection)) Variables.shift(projection, d) else null
+                if (shifted == null) {
+                    substituted = false
+                }
+                shifted ?: v
+            }
+            return if (substituted) result else null
+        }
+
+        /**
+         * Returns the [rex] over the concatenation of a join's rows as an expression over the right row; the right
+         * input of a [lateral] join is evaluated with the left row pushed.
+         */
+        private fun toRight(rex: Rex, degree: Int, lateral: Boolean): Rex? = Variables.map(rex) { v, d ->
+            val type = v.getType().getPType()
+            when {
+                v.getScope() == d -> operators.variable(d, v.getOffset() - degree, type)
+                v.getScope() > d && lateral -> operators.variable(v.getScope() + 1, v.getOffset(), type)
+                else -> v
+            }
+        }
+
+        private fun isTrue(rex: Rex): Boolean {
+            if (rex !is RexLit) {
+                return false
+            }
+            val datum = rex.getDatum()
+            return datum.type.code() == PType.BOOL && !datum.isNull && !datum.isMissing && datum.boolean
+        }
+
+        private fun Set<Int>?.isLeft(degree: Int) = this != null && this.isNotEmpty() && this.all { it < degree }
+
+        private fun Set<Int>?.isRight(degree: Int) = this != null && this.isNotEmpty() && this.all { it >= degree }
+    }
+}
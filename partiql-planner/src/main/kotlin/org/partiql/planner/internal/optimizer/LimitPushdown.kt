@@ -0,0 +1,86 @@
+package org.partiql.planner.internal.optimizer
+
+import org.partiql.plan.JoinType
+import org.partiql.plan.Operator
+import org.partiql.plan.Plan
+import org.partiql.plan.rel.Rel
+import org.partiql.plan.rel.RelJoin
+import org.partiql.plan.rel.RelLimit
+import org.partiql.plan.rel.RelProject
+import org.partiql.plan.rel.RelUnion
+import org.partiql.plan.rex.Rex
+import org.partiql.plan.rex.RexLit
+import org.partiql.planner.PartiQLPlannerPass
+import org.partiql.spi.Context
+import org.partiql.spi.types.PType
+
+/**
+ * Pushes a LIMIT of a literal count towards the relations which produce the rows:
+ *
+ *  - below a projection, which returns one row per input row;
+ *  - into both inputs of a UNION ALL, and into the left input of a LEFT join (which returns at least one row per left
+ *    row); the original LIMIT is kept above as the relation may still return more rows;
+ *  - into a LIMIT, by keeping the smaller count.
+ */
+internal object LimitPushdown : PartiQLPlannerPass {
+
+    override fun apply(plan: Plan, ctx: Context): Plan = Rewriter().rewrite(plan, Unit)
+
+    private class Rewriter : PlanRewriter<Unit>() {
+
+        override fun visitLimit(rel: RelLimit, ctx: Unit): Operator {
+            val input = visitRel(rel.getInput(), ctx)
+            val limit = rel.getLimit()
+            if (count(limit) == null) {
+                return if (input !== rel.getInput()) operators.limit(input, limit) else rel
+            }
+            return push(input, limit as RexLit)
+        }
+
+        /**
+         * Returns a relation which is equivalent to limiting the [input] to [limit] rows.
+         */
+        private fun push(input: Rel, limit: RexLit): Rel = when {
+            input is RelProject -> {
+                val rel = operators.project(push(input.getInput(), limit), input.getProjections())
+                typed(rel, input.getType())
+            }
+            input is RelLimit && count(input.getLimit()) != null -> when {
+                count(input.getLimit())!! <= count(limit)!! -> input
+                else -> push(input.getInput(), limit)
+            }
+            input is RelUnion && input.isAll() -> {
+                val union = operators.union(push(input.getLeft(), limit), push(input.getRight(), limit), true)
+                limit(typed(union, input.getType()), limit)
+            }
+            input is RelJoin && input.getJoinType().code() == JoinType.LEFT -> {
+                val left = push(input.getLeft(), limit)
+                val join = operators.join(left, input.getRight(), input.getCondition(), input.getJoinType())
+                limit(typed(join, input.getType()), limit)
+            }
+            else -> limit(input, limit)
+        }
+
+        private fun limit(input: Rel, limit: RexLit): Rel = typed(operators.limit(input, limit), input.getType())
+
+        /**
+         * Returns the count of a LIMIT iff it's an integer literal.
+         */
+        private fun count(rex: Rex): Long? {
+            if (rex !is RexLit) {
+                return null
+            }
+            val datum = rex.getDatum()
+            if (datum.isNull || datum.isMissing) {
+                return null
+            }
+            return when (datum.type.code()) {
+                PType.TINYINT -> datum.byte.toLong()
+                PType.SMALLINT -> datum.short.toLong()
+                PType.INTEGER -> datum.int.toLong()
+                PType.BIGINT -> datum.long
+                else -> null
+            }
+        }
+    }
+}
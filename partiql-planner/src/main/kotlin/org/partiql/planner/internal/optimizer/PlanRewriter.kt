@@ -0,0 +1,71 @@
+package org.partiql.planner.internal.optimizer
+
+import org.partiql.plan.Action
+import org.partiql.plan.Operator
+import org.partiql.plan.OperatorRewriter
+import org.partiql.plan.Operators
+import org.partiql.plan.Plan
+import org.partiql.plan.rel.Rel
+import org.partiql.plan.rel.RelType
+import org.partiql.plan.rex.Rex
+import java.util.Collections
+import java.util.IdentityHashMap
+
+/**
+ * Base rewriter of the optimizer rules.
+ *
+ * The public operators do not derive their types, so an operator which is rebuilt (because one of its children was
+ * rewritten) is given the type of the operator it replaces. Operators which are built by a rule with a different
+ * schema must be given their type with [typed].
+ */
+internal abstract class PlanRewriter<C> : OperatorRewriter<C>() {
+
+    @JvmField
+    protected val operators: Operators = Operators.STANDARD
+
+    // the results of previous visits and the operators typed by a rule; these must not be re-typed.
+    private val typed: MutableSet<Operator> = Collections.newSetFromMap(IdentityHashMap())
+
+    /**
+     * Rewrites the query of the [plan]; other plans are returned as-is.
+     */
+    fun rewrite(plan: Plan, ctx: C): Plan {
+        val action = plan.action as? Action.Query ?: return plan
+        val rex = action.getRex()
+        val rewritten = visitRex(rex, ctx)
+        if (rewritten === rex) {
+            return plan
+        }
+        val query = Action.Query { rewritten }
+        return Plan { query }
+    }
+
+    override fun visit(operator: Operator, ctx: C): Operator {
+        val result = operator.accept(this, ctx)
+        if (result !== operator && result.javaClass == operator.javaClass && typed.add(result)) {
+            when (result) {
+                is Rel -> result.setType((operator as Rel).getType())
+                is Rex -> result.setType((operator as Rex).getType())
+            }
+        }
+        typed.add(result)
+        return result
+    }
+
+    /**
+     * Sets the [type] of a [rel] which is built by a rule.
+     */
+    protected fun <T : Rel> typed(rel: T, type: RelType): T {
+        rel.setType(type)
+        typed.add(rel)
+        return rel
+    }
+
+    /**
+     * Returns the [type] with the given [rel]'s fields; e.g. the type of a filter or sort whose input has changed.
+     */
+    protected fun retype(type: RelType, rel: Rel): RelType {
+        val properties = if (type.isOrdered) RelType.ORDERED else 0
+        return RelType.of(rel.getType().getFields(), properties)
+    }
+}
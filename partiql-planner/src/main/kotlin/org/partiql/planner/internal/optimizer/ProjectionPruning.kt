@@ -0,0 +1,193 @@
+package org.partiql.planner.internal.optimizer
+
+import org.partiql.plan.Collation
+import org.partiql.plan.Operator
+import org.partiql.plan.Plan
+import org.partiql.plan.rel.Rel
+import org.partiql.plan.rel.RelFilter
+import org.partiql.plan.rel.RelLimit
+import org.partiql.plan.rel.RelOffset
+import org.partiql.plan.rel.RelProject
+import org.partiql.plan.rel.RelSort
+import org.partiql.plan.rel.RelType
+import org.partiql.plan.rex.Rex
+import org.partiql.plan.rex.RexPivot
+import org.partiql.plan.rex.RexSelect
+import org.partiql.plan.rex.RexSubquery
+import org.partiql.plan.rex.RexSubqueryIn
+import org.partiql.plan.rex.RexSubqueryTest
+import org.partiql.plan.rex.RexVar
+import org.partiql.planner.PartiQLPlannerPass
+import org.partiql.spi.Context
+
+/**
+ * Removes the projections which are not referenced by the operators above them (e.g. unused LET bindings), and removes
+ * the projections which only forward their input row.
+ *
+ * The fields required of a relation are determined from the constructor of the query (or the key and value of a
+ * PIVOT, or the arguments of an IN or EXISTS subquery) and are propagated through projections, filters, sorts, limits, and offsets.
+ */
+internal object ProjectionPruning : PartiQLPlannerPass {
+
+    override fun apply(plan: Plan, ctx: Context): Plan = Rewriter().rewrite(plan, Unit)
+
+    private class Rewriter : PlanRewriter<Unit>() {
+
+        override fun visitSelect(rex: RexSelect, ctx: Unit): Operator {
+            val constructor = visitRex(rex.getConstructor(), ctx)
+            val (input, offsets) = prune(rex.getInput(), Variables.references(constructor))
+            val remapped = remap(constructor, offsets)
+            if (input !== rex.getInput() || remapped !== rex.getConstructor()) {
+                return operators.select(input, remapped)
+            }
+            return rex
+        }
+
+        override fun visitSubquery(rex: RexSubquery, ctx: Unit): Operator {
+            val constructor = visitRex(rex.getConstructor(), ctx)
+            val (input, offsets) = prune(rex.getInput(), Variables.references(constructor))
+            val remapped = remap(constructor, offsets)
+            if (input !== rex.getInput() || remapped !== rex.getConstructor()) {
+                return operators.subquery(input, remapped, rex.isScalar())
+            }
+            return rex
+        }
+
+        override fun visitSubqueryIn(rex: RexSubqueryIn, ctx: Unit): Operator {
+            val args = rex.getArgs().map { visitRex(it, ctx) }
+            // only the (leading) fields which are compared to the arguments are required
+            val (pruned, offsets) = prune(rex.getInput(), args.indices.toSet())
+            val input = if (args.indices.all { offsets[it] == it }) pruned else rex.getInput()
+            if (input === rex.getInput() && args.indices.all { args[it] === rex.getArgs()[it] }) {
+                return rex
+            }
+            return operators.subqueryIn(input, args)
+        }
+
+        override fun visitSubqueryTest(rex: RexSubqueryTest, ctx: Unit): Operator {
+            // EXISTS only requires the rows, not their fields
+            if (rex.getTest().code() != RexSubqueryTest.Test.EXISTS) {
+                return super.visitSubqueryTest(rex, ctx)
+            }
+            val (input, _) = prune(rex.getInput(), emptySet())
+            if (input === rex.getInput()) {
+                return rex
+            }
+            return operators.subqueryTest(input, rex.getTest())
+        }
+
+        override fun visitPivot(rex: RexPivot, ctx: Unit): Operator {
+            val key = visitRex(rex.getKey(), ctx)
+            val value = visitRex(rex.getValue(), ctx)
+            val (input, offsets) = prune(rex.getInput(), union(Variables.references(key), Variables.references(value)))
+            val remappedKey = remap(key, offsets)
+            val remappedValue = remap(value, offsets)
+            if (input !== rex.getInput() || remappedKey !== rex.getKey() || remappedValue !== rex.getValue()) {
+                return operators.pivot(input, remappedKey, remappedValue)
+            }
+            return rex
+        }
+
+        /**
+         * Returns the [rel] without the fields which are not [required], along with the new offset of each of
+         * the [rel]'s fields (or -1 if the field was removed). All fields are required if [required] is null.
+         */
+        private fun prune(rel: Rel, required: Set<Int>?): Pair<Rel, IntArray> {
+            if (required == null) {
+                return visitRel(rel, Unit) to identity(rel.getType().getDegree())
+            }
+            return when (rel) {
+                is RelProject -> prune(rel, required)
+                is RelFilter -> {
+                    val predicate = visitRex(rel.getPredicate(), Unit)
+                    val (input, offsets) = prune(rel.getInput(), union(required, Variables.references(predicate)))
+                    if (input === rel.getInput() && predicate === rel.getPredicate()) {
+                        return rel to offsets
+                    }
+                    val filter = operators.filter(input, remap(predicate, offsets))
+                    typed(filter, retype(rel.getType(), input)) to offsets
+                }
+                is RelSort -> {
+                    val collations = rel.getCollations().map { visitCollation(it, Unit) }
+                    val references = collations.fold(required as Set<Int>?) { acc, it ->
+                        union(acc, Variables.references(it.getColumn()))
+                    }
+                    val (input, offsets) = prune(rel.getInput(), references)
+                    val unchanged = collations.indices.all { collations[it] === rel.getCollations()[it] }
+                    if (input === rel.getInput() && unchanged) {
+                        return rel to offsets
+                    }
+                    operators.sort(input, collations.map { remap(it, offsets) }) to offsets
+                }
+                is RelLimit -> {
+                    val (input, offsets) = prune(rel.getInput(), required)
+                    val limit = if (input !== rel.getInput()) operators.limit(input, rel.getLimit()) else rel
+                    limit to offsets
+                }
+                is RelOffset -> {
+                    val (input, offsets) = prune(rel.getInput(), required)
+                    val offset = if (input !== rel.getInput()) operators.offset(input, rel.getOffset()) else rel
+                    offset to offsets
+                }
+                else -> visitRel(rel, Unit) to identity(rel.getType().getDegree())
+            }
+        }
+
+        private fun prune(rel: RelProject, required: Set<Int>): Pair<Rel, IntArray> {
+            val projections = rel.getProjections()
+            val kept = projections.indices.filter { it in required }
+            val visited = kept.map { visitRex(projections[it], Unit) }
+            val references = visited.fold(emptySet<Int>() as Set<Int>?) { acc, it ->
+                union(acc, Variables.references(it))
+            }
+            val (input, offsets) = prune(rel.getInput(), references)
+            val remapped = visited.map { remap(it, offsets) }
+            val result = IntArray(projections.size) { -1 }
+            kept.forEachIndexed { i, offset -> result[offset] = i }
+            // a projection which forwards its input row is removed
+            val degree = input.getType().getDegree()
+            if (remapped.size == degree && remapped.indices.all { isVariable(remapped[it], it) }) {
+                return input to result
+            }
+            val unchanged = kept.size == projections.size && remapped.indices.all { remapped[it] === projections[it] }
+            if (input === rel.getInput() && unchanged) {
+                return rel to result
+            }
+            val type = rel.getType()
+            val fields = kept.map { type.getField(it) }.toTypedArray()
+            val project = operators.project(input, remapped)
+            return typed(project, RelType.of(fields, if (type.isOrdered) RelType.ORDERED else 0)) to result
+        }
+
+        private fun remap(rex: Rex, offsets: IntArray): Rex = when {
+            isIdentity(offsets) -> rex
+            // the references of the rex were determined, so it can be rewritten.
+            else -> Variables.remap(rex, offsets)!!
+        }
+
+        private fun remap(collation: Collation, offsets: IntArray): Collation {
+            val column = remap(collation.getColumn(), offsets)
+            if (column === collation.getColumn()) {
+                return collation
+            }
+            return object : Collation {
+                override fun getColumn(): Rex = column
+                override fun getOrder(): Collation.Order = collation.getOrder()
+                override fun getNulls(): Collation.Nulls = collation.getNulls()
+            }
+        }
+
+        private fun union(lhs: Set<Int>?, rhs: Set<Int>?): Set<Int>? = when {
+            lhs == null || rhs == null -> null
+            else -> lhs + rhs
+        }
+
+        private fun identity(degree: Int) = IntArray(degree) { it }
+
+        private fun isIdentity(offsets: IntArray) = offsets.indices.all { offsets[it] == it }
+
+        private fun isVariable(rex: Rex, offset: Int): Boolean {
+            return rex is RexVar && rex.getScope() == 0 && rex.getOffset() == offset
+        }
+    }
+}
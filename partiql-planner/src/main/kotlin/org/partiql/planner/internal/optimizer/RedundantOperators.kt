@@ -0,0 +1,147 @@
+package org.partiql.planner.internal.optimizer
+
+import org.partiql.plan.Operator
+import org.partiql.plan.Plan
+import org.partiql.plan.rel.Rel
+import org.partiql.plan.rel.RelAggregate
+import org.partiql.plan.rel.RelDistinct
+import org.partiql.plan.rel.RelExcept
+import org.partiql.plan.rel.RelFilter
+import org.partiql.plan.rel.RelIntersect
+import org.partiql.plan.rel.RelLimit
+import org.partiql.plan.rel.RelOffset
+import org.partiql.plan.rel.RelProject
+import org.partiql.plan.rel.RelScan
+import org.partiql.plan.rel.RelSort
+import org.partiql.plan.rel.RelType
+import org.partiql.plan.rel.RelUnion
+import org.partiql.plan.rex.RexSelect
+import org.partiql.plan.rex.RexSubqueryComp
+import org.partiql.plan.rex.RexSubqueryIn
+import org.partiql.plan.rex.RexSubqueryTest
+import org.partiql.planner.PartiQLPlannerPass
+import org.partiql.spi.Context
+
+/**
+ * Removes the operators whose effect cannot be observed:
+ *
+ *  - a DISTINCT whose input rows are already distinct (e.g. the rows of a grouped aggregation or a UNION);
+ *  - a sort of the rows of a set operation or of an IN, EXISTS, or quantified comparison subquery, as these do not
+ *    observe the order of their input. A sort below a LIMIT or OFFSET is kept.
+ */
+internal object RedundantOperators : PartiQLPlannerPass {
+
+    override fun apply(plan: Plan, ctx: Context): Plan = Rewriter().rewrite(plan, Unit)
+
+    private class Rewriter : PlanRewriter<Unit>() {
+
+        override fun visitDistinct(rel: RelDistinct, ctx: Unit): Operator {
+            val input = visitRel(rel.getInput(), ctx)
+            if (isDistinct(input)) {
+                return input
+            }
+            return if (input !== rel.getInput()) operators.distinct(input) else rel
+        }
+
+        override fun visitUnion(rel: RelUnion, ctx: Unit): Operator {
+            val left = unordered(visitRel(rel.getLeft(), ctx))
+            val right = unordered(visitRel(rel.getRight(), ctx))
+            if (left !== rel.getLeft() || right !== rel.getRight()) {
+                return operators.union(left, right, rel.isAll())
+            }
+            return rel
+        }
+
+        override fun visitIntersect(rel: RelIntersect, ctx: Unit): Operator {
+            val left = unordered(visitRel(rel.getLeft(), ctx))
+            val right = unordered(visitRel(rel.getRight(), ctx))
+            if (left !== rel.getLeft() || right !== rel.getRight()) {
+                return operators.intersect(left, right, rel.isAll())
+            }
+            return rel
+        }
+
+        override fun visitExcept(rel: RelExcept, ctx: Unit): Operator {
+            val left = unordered(visitRel(rel.getLeft(), ctx))
+            val right = unordered(visitRel(rel.getRight(), ctx))
+            if (left !== rel.getLeft() || right !== rel.getRight()) {
+                return operators.except(left, right, rel.isAll())
+            }
+            return rel
+        }
+
+        override fun visitSubqueryIn(rex: RexSubqueryIn, ctx: Unit): Operator {
+            val input = unordered(visitRel(rex.getInput(), ctx))
+            val args = visitAll(rex.getArgs(), ctx, this::visitRex)
+            if (input !== rex.getInput() || args !== rex.getArgs()) {
+                return operators.subqueryIn(input, args)
+            }
+            return rex
+        }
+
+        override fun visitSubqueryComp(rex: RexSubqueryComp, ctx: Unit): Operator {
+            val input = unordered(visitRel(rex.getInput(), ctx))
+            val args = visitAll(rex.getArgs(), ctx, this::visitRex)
+            if (input !== rex.getInput() || args !== rex.getArgs()) {
+                return operators.subqueryComp(input, args, rex.getComparison(), rex.getQuantifier())
+            }
+            return rex
+        }
+
+        override fun visitSubqueryTest(rex: RexSubqueryTest, ctx: Unit): Operator {
+            val input = unordered(visitRel(rex.getInput(), ctx))
+            if (input !== rex.getInput()) {
+                return operators.subqueryTest(input, rex.getTest())
+            }
+            return rex
+        }
+
+        /**
+         * Returns true if the rows of the [rel] are known to be distinct.
+         */
+        private fun isDistinct(rel: Rel): Boolean = when (rel) {
+            is RelDistinct, is RelAggregate -> true
+            is RelUnion -> !rel.isAll()
+            is RelIntersect -> !rel.isAll()
+            is RelExcept -> !rel.isAll()
+            is RelFilter -> isDistinct(rel.getInput())
+            is RelSort -> isDistinct(rel.getInput())
+            is RelLimit -> isDistinct(rel.getInput())
+            is RelOffset -> isDistinct(rel.getInput())
+            else -> false
+        }
+
+        /**
+         * Returns the [rel] without the sort which orders its rows, if any; the sort may be below filters and
+         * projections, and within the query of a scan.
+         */
+        private fun unordered(rel: Rel): Rel = when (rel) {
+            is RelSort -> rel.getInput()
+            is RelFilter -> {
+                val input = unordered(rel.getInput())
+                when {
+                    input === rel.getInput() -> rel
+                    else -> typed(operators.filter(input, rel.getPredicate()), unordered(rel.getType()))
+                }
+            }
+            is RelProject -> {
+                val input = unordered(rel.getInput())
+                when {
+                    input === rel.getInput() -> rel
+                    else -> typed(operators.project(input, rel.getProjections()), unordered(rel.getType()))
+                }
+            }
+            is RelScan -> {
+                val rex = rel.getRex()
+                val input = if (rex is RexSelect) unordered(rex.getInput()) else null
+                when {
+                    rex !is RexSelect || input === rex.getInput() -> rel
+                    else -> typed(operators.scan(operators.select(input!!, rex.getConstructor())), rel.getType())
+                }
+            }
+            else -> rel
+        }
+
+        private fun unordered(type: RelType): RelType = RelType.of(type.getFields(), 0)
+    }
+}
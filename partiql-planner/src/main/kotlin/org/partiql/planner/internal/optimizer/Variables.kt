@@ -0,0 +1,320 @@
+package org.partiql.planner.internal.optimizer
+
+import org.partiql.plan.Collation
+import org.partiql.plan.JoinType
+import org.partiql.plan.Operator
+import org.partiql.plan.Operators
+import org.partiql.plan.rel.Rel
+import org.partiql.plan.rel.RelAggregate
+import org.partiql.plan.rel.RelCorrelate
+import org.partiql.plan.rel.RelExclude
+import org.partiql.plan.rel.RelFilter
+import org.partiql.plan.rel.RelIterate
+import org.partiql.plan.rel.RelJoin
+import org.partiql.plan.rel.RelLimit
+import org.partiql.plan.rel.RelOffset
+import org.partiql.plan.rel.RelProject
+import org.partiql.plan.rel.RelScan
+import org.partiql.plan.rel.RelSort
+import org.partiql.plan.rel.RelUnpivot
+import org.partiql.plan.rex.Rex
+import org.partiql.plan.rex.RexPivot
+import org.partiql.plan.rex.RexSelect
+import org.partiql.plan.rex.RexSubquery
+import org.partiql.plan.rex.RexSubqueryComp
+import org.partiql.plan.rex.RexSubqueryIn
+import org.partiql.plan.rex.RexSubqueryTest
+import org.partiql.plan.rex.RexVar
+
+/**
+ * Variables are (scope, offset) pairs where scope 0 is the row of the operator which evaluates the expression; each
+ * operator pushes its row before evaluating its expressions, and the right-hand-side of INNER and LEFT joins is
+ * evaluated with the left row pushed (lateral). So the scope of a row increments as the tree is walked into the
+ * expressions of nested relations; the helpers of this object track that (relative) depth.
+ */
+internal object Variables {
+
+    /**
+     * Returns the offsets of the row at [depth] which are referenced by the [rex].
+     *
+     * @param rex
+     * @param depth
+     * @return the referenced offsets, or null if they cannot be determined.
+     */
+    @JvmStatic
+    fun references(rex: Rex, depth: Int = 0): Set<Int>? {
+        val offsets = mutableSetOf<Int>()
+        map(rex, depth) { v, d ->
+            if (v.getScope() == d) {
+                offsets.add(v.getOffset())
+            }
+            v
+        } ?: return null
+        return offsets
+    }
+
+    /**
+     * Returns the [rex] with each variable replaced by the result of the [mapper], which is called with the variable
+     * and the depth of its expression relative to the [rex].
+     *
+     * @param rex
+     * @param depth
+     * @param mapper
+     * @return the rewritten expression, or null if the expression contains an operator which cannot be rewritten.
+     */
+    @JvmStatic
+    fun map(rex: Rex, depth: Int = 0, mapper: (RexVar, Int) -> Rex): Rex? {
+        val rewriter = Mapper(mapper)
+        val result = rewriter.visitRex(rex, depth)
+        return if (rewriter.unsupported) null else result
+    }
+
+    /**
+     * Returns the [rex] with its references to the row at depth 0 replaced according to the [offsets] (old to new).
+     */
+    @JvmStatic
+    fun remap(rex: Rex, offsets: IntArray): Rex? = map(rex) { v, d ->
+        if (v.getScope() == d && offsets[v.getOffset()] != v.getOffset()) {
+            Mapper.variable(v, v.getScope(), offsets[v.getOffset()])
+        } else {
+            v
+        }
+    }
+
+    /**
+     * Returns the [rex] as if it were evaluated [n] scopes deeper; that is, the scope of each free variable is
+     * incremented by [n].
+     */
+    @JvmStatic
+    fun shift(rex: Rex, n: Int): Rex? = when (n) {
+        0 -> rex
+        else -> map(rex) { v, d ->
+            if (v.getScope() >= d) Mapper.variable(v, v.getScope() + n, v.getOffset()) else v
+        }
+    }
+
+    /**
+     * Returns true if the [rex] does not reference a row at (or above) [depth]; e.g. a subquery which is closed at
+     * depth 0 is not correlated.
+     */
+    @JvmStatic
+    fun isClosed(rex: Rex, depth: Int = 0): Boolean {
+        var closed = true
+        map(rex, depth) { v, d ->
+            if (v.getScope() >= d) {
+                closed = false
+            }
+            v
+        } ?: return false
+        return closed
+    }
+
+    /**
+     * Returns true if the [rel] does not reference the rows of the environment it's opened with (or any other).
+     */
+    @JvmStatic
+    fun isClosed(rel: Rel): Boolean {
+        var closed = true
+        val rewriter = Mapper { v, d ->
+            if (v.getScope() >= d) {
+                closed = false
+            }
+            v
+        }
+        rewriter.visitRel(rel, 0)
+        return closed && !rewriter.unsupported
+    }
+
+    /**
+     * Returns true if the [rex] does not contain a relation (i.e. a subquery).
+     */
+    @JvmStatic
+    fun isScalar(rex: Rex): Boolean {
+        val rewriter = Mapper { v, _ -> v }
+        rewriter.visitRex(rex, 0)
+        return !rewriter.relations
+    }
+
+    /**
+     * Rewrites the variables of an expression while tracking the depth as described by [Variables].
+     *
+     * Exclusions reference variables outside of expressions, so EXCLUDE (and CORRELATE) are not rewritten.
+     */
+    private class Mapper(private val mapper: (RexVar, Int) -> Rex) : PlanRewriter<Int>() {
+
+        var unsupported = false
+
+        // true if a relation was visited
+        var relations = false
+
+        companion object {
+
+            fun variable(v: RexVar, scope: Int, offset: Int): RexVar {
+                return Operators.STANDARD.variable(scope, offset, v.getType().getPType())
+            }
+        }
+
+        override fun visitVar(rex: RexVar, ctx: Int): Operator = mapper(rex, ctx)
+
+        override fun visitExclude(rel: RelExclude, ctx: Int): Operator {
+            unsupported = true
+            return rel
+        }
+
+        override fun visitCorrelate(rel: RelCorrelate, ctx: Int): Operator {
+            unsupported = true
+            return rel
+        }
+
+        override fun visitAggregate(rel: RelAggregate, ctx: Int): Operator {
+            val input = visitRel(rel.getInput(), ctx)
+            val measures = visitAll(rel.getMeasures(), ctx + 1, this::visitAggregateMeasure)
+            val groups = visitAll(rel.getGroups(), ctx + 1, this::visitAggregateGroup)
+            if (input !== rel.getInput() || measures !== rel.getMeasures() || groups !== rel.getGroups()) {
+                return operators.aggregate(input, measures, groups)
+            }
+            return rel
+        }
+
+        override fun visitFilter(rel: RelFilter, ctx: Int): Operator {
+            val input = visitRel(rel.getInput(), ctx)
+            val predicate = visitRex(rel.getPredicate(), ctx + 1)
+            if (input !== rel.getInput() || predicate !== rel.getPredicate()) {
+                return operators.filter(input, predicate)
+            }
+            return rel
+        }
+
+        override fun visitIterate(rel: RelIterate, ctx: Int): Operator {
+            val rex = visitRex(rel.getRex(), ctx + 1)
+            return if (rex !== rel.getRex()) operators.iterate(rex) else rel
+        }
+
+        override fun visitJoin(rel: RelJoin, ctx: Int): Operator {
+            val left = visitRel(rel.getLeft(), ctx)
+            val right = when (rel.getJoinType().code()) {
+                JoinType.INNER, JoinType.LEFT -> visitRel(rel.getRight(), ctx + 1)
+                else -> visitRel(rel.getRight(), ctx)
+            }
+            val condition = visitRex(rel.getCondition(), ctx + 1)
+            if (left !== rel.getLeft() || right !== rel.getRight() || condition !== rel.getCondition()) {
+                return operators.join(left, right, condition, rel.getJoinType())
+            }
+            return rel
+        }
+
+        override fun visitLimit(rel: RelLimit, ctx: Int): Operator {
+            val input = visitRel(rel.getInput(), ctx)
+            val limit = visitRex(rel.getLimit(), ctx + 1)
+            if (input !== rel.getInput() || limit !== rel.getLimit()) {
+                return operators.limit(input, limit)
+            }
+            return rel
+        }
+
+        override fun visitOffset(rel: RelOffset, ctx: Int): Operator {
+            val input = visitRel(rel.getInput(), ctx)
+            val offset = visitRex(rel.getOffset(), ctx + 1)
+            if (input !== rel.getInput() || offset !== rel.getOffset()) {
+                return operators.offset(input, offset)
+            }
+            return rel
+        }
+
+        override fun visitProject(rel: RelProject, ctx: Int): Operator {
+            val input = visitRel(rel.getInput(), ctx)
+            val projections = visitAll(rel.getProjections(), ctx + 1, this::visitProjection)
+            if (input !== rel.getInput() || projections !== rel.getProjections()) {
+                return operators.project(input, projections)
+            }
+            return rel
+        }
+
+        override fun visitScan(rel: RelScan, ctx: Int): Operator {
+            val rex = visitRex(rel.getRex(), ctx + 1)
+            return if (rex !== rel.getRex()) operators.scan(rex) else rel
+        }
+
+        override fun visitSort(rel: RelSort, ctx: Int): Operator {
+            val input = visitRel(rel.getInput(), ctx)
+            val collations = visitAll(rel.getCollations(), ctx + 1, this::visitCollation)
+            if (input !== rel.getInput() || collations !== rel.getCollations()) {
+                return operators.sort(input, collations)
+            }
+            return rel
+        }
+
+        override fun visitCollation(collation: Collation, ctx: Int): Collation {
+            val column = visitRex(collation.getColumn(), ctx)
+            if (column === collation.getColumn()) {
+                return collation
+            }
+            return object : Collation {
+                override fun getColumn(): Rex = column
+                override fun getOrder(): Collation.Order = collation.getOrder()
+                override fun getNulls(): Collation.Nulls = collation.getNulls()
+            }
+        }
+
+        override fun visitUnpivot(rel: RelUnpivot, ctx: Int): Operator {
+            val rex = visitRex(rel.getRex(), ctx + 1)
+            return if (rex !== rel.getRex()) operators.unpivot(rex) else rel
+        }
+
+        override fun visitPivot(rex: RexPivot, ctx: Int): Operator {
+            relations = true
+            val input = visitRel(rex.getInput(), ctx)
+            val key = visitRex(rex.getKey(), ctx + 1)
+            val value = visitRex(rex.getValue(), ctx + 1)
+            if (input !== rex.getInput() || key !== rex.getKey() || value !== rex.getValue()) {
+                return operators.pivot(input, key, value)
+            }
+            return rex
+        }
+
+        override fun visitSelect(rex: RexSelect, ctx: Int): Operator {
+            relations = true
+            val input = visitRel(rex.getInput(), ctx)
+            val constructor = visitRex(rex.getConstructor(), ctx + 1)
+            if (input !== rex.getInput() || constructor !== rex.getConstructor()) {
+                return operators.select(input, constructor)
+            }
+            return rex
+        }
+
+        override fun visitSubquery(rex: RexSubquery, ctx: Int): Operator {
+            relations = true
+            val input = visitRel(rex.getInput(), ctx)
+            val constructor = visitRex(rex.getConstructor(), ctx + 1)
+            if (input !== rex.getInput() || constructor !== rex.getConstructor()) {
+                return operators.subquery(input, constructor, rex.isScalar())
+            }
+            return rex
+        }
+
+        override fun visitSubqueryComp(rex: RexSubqueryComp, ctx: Int): Operator {
+            relations = true
+            val input = visitRel(rex.getInput(), ctx)
+            val args = visitAll(rex.getArgs(), ctx, this::visitRex)
+            if (input !== rex.getInput() || args !== rex.getArgs()) {
+                return operators.subqueryComp(input, args, rex.getComparison(), rex.getQuantifier())
+            }
+            return rex
+        }
+
+        override fun visitSubqueryTest(rex: RexSubqueryTest, ctx: Int): Operator {
+            relations = true
+            return super.visitSubqueryTest(rex, ctx)
+        }
+
+        override fun visitSubqueryIn(rex: RexSubqueryIn, ctx: Int): Operator {
+            relations = true
+            val input = visitRel(rex.getInput(), ctx)
+            val args = visitAll(rex.getArgs(), ctx, this::visitRex)
+            if (input !== rex.getInput() || args !== rex.getArgs()) {
+                return operators.subqueryIn(input, args)
+            }
+            return rex
+        }
+    }
+}
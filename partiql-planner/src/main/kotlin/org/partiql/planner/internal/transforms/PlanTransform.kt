@@ -11,12 +11,14 @@ import org.partiql.plan.rel.RelType
 import org.partiql.plan.rex.Rex
 import org.partiql.plan.rex.RexCase
 import org.partiql.plan.rex.RexStruct
+import org.partiql.plan.rex.RexSubqueryTest
 import org.partiql.plan.rex.RexType
 import org.partiql.plan.rex.RexVar
 import org.partiql.planner.internal.PlannerFlag
 import org.partiql.planner.internal.ir.Rel
 import org.partiql.planner.internal.ir.SetQuantifier
 import org.partiql.planner.internal.ir.visitor.PlanBaseVisitor
+import org.partiql.planner.internal.util.FunctionUtils
 import org.partiql.spi.errors.PErrorListener
 import org.partiql.spi.types.PType
 import org.partiql.spi.types.PTypeField
@@ -167,11 +169,42 @@ internal class PlanTransform(private val flags: Set<PlannerFlag>) {
         }
 
         override fun visitRexOpCallStatic(node: IRex.Op.Call.Static, ctx: PType): Any {
+            subqueryPredicate(node, ctx)?.let { return it }
             val fn = node.fn
             val args = node.args.map { visitRex(it, ctx) }
             return operators.call(fn, args)
         }
 
+        /**
+         * Returns the IN or EXISTS predicate of a SELECT VALUE subquery as a (semi) join on its rows, rather than as a
+         * call on its collection; this is null if the [node] is not such a predicate.
+         *
+         * @param node
+         * @param ctx
+         * @return
+         */
+        private fun subqueryPredicate(node: IRex.Op.Call.Static, ctx: PType): Rex? {
+            val name = node.fn.signature.name
+            val args = node.args
+            return when {
+                name == FunctionUtils.OP_IN_COLLECTION && args.size == 2 -> {
+                    val select = args[1].op as? IRex.Op.Select ?: return null
+                    // the rows of the subquery are its values, i.e. the projection of its constructor
+                    val input = visitRel(select.rel, ctx)
+                    val constructor = visitRex(select.constructor, select.constructor.type)
+                    val rel = operators.project(input, listOf(constructor))
+                    val properties = if (input.type.isOrdered) RelType.ORDERED else 0
+                    rel.type = RelType.of(arrayOf(PTypeField.of("_1", select.constructor.type)), properties)
+                    operators.subqueryIn(rel, listOf(visitRex(args[0], args[0].type)))
+                }
+                name == "exists" && args.size == 1 -> {
+                    val select = args[0].op as? IRex.Op.Select ?: return null
+                    operators.subqueryTest(visitRel(select.rel, ctx), RexSubqueryTest.Test.EXISTS())
+                }
+                else -> null
+            }
+        }
+
         override fun visitRexOpCallUnresolved(node: IRex.Op.Call.Unresolved, ctx: PType): Any {
             error("The Internal Node Rex.Op.Call.Unresolved should be converted to an Err Node during type resolution if resolution failed")
         }
@@ -222,6 +255,10 @@ internal class PlanTransform(private val flags: Set<PlannerFlag>) {
             return operators.lit(node.value)
         }
 
+        override fun visitRexOpParameter(node: IRex.Op.Parameter, ctx: PType): Any {
+            return operators.parameter(node.index)
+        }
+
         // RELATION OPERATORS
 
         override fun visitRel(node: IRel, ctx: PType): org.partiql.plan.rel.Rel {
@@ -47,6 +47,7 @@ import org.partiql.ast.expr.ExprNullPredicate
 import org.partiql.ast.expr.ExprOperator
 import org.partiql.ast.expr.ExprOr
 import org.partiql.ast.expr.ExprOverlay
+import org.partiql.ast.expr.ExprParameter
 import org.partiql.ast.expr.ExprPath
 import org.partiql.ast.expr.ExprPosition
 import org.partiql.ast.expr.ExprQuerySet
@@ -79,6 +80,7 @@ import org.partiql.planner.internal.ir.rexOpCoalesce
 import org.partiql.planner.internal.ir.rexOpCollection
 import org.partiql.planner.internal.ir.rexOpLit
 import org.partiql.planner.internal.ir.rexOpNullif
+import org.partiql.planner.internal.ir.rexOpParameter
 import org.partiql.planner.internal.ir.rexOpPathIndex
 import org.partiql.planner.internal.ir.rexOpPathKey
 import org.partiql.planner.internal.ir.rexOpPathSymbol
@@ -149,6 +151,13 @@ internal object RexConverter {
             return rex(cType, op)
         }
 
+        /**
+         * The type of a parameter is not known until its value is bound, so it is dynamic.
+         */
+        override fun visitExprParameter(node: ExprParameter, context: Env): Rex {
+            return rex(ANY, rexOpParameter(node.index))
+        }
+
         private fun Literal.toDatum(): Datum {
             val lit = this
             return when (lit.code()) {
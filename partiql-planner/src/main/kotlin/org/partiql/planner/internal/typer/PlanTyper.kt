@@ -605,6 +605,11 @@ internal class PlanTyper(private val env: Env, config: Context) {
             return rex(ctx!!, node)
         }
 
+        override fun visitRexOpParameter(node: Rex.Op.Parameter, ctx: CompilerType?): Rex {
+            // type comes from RexConverter
+            return rex(ctx!!, node)
+        }
+
         override fun visitRexOpVarLocal(node: Rex.Op.Var.Local, ctx: CompilerType?): Rex {
             val scope = typeEnv.locals.getScope(node.depth)
             assert(node.ref < scope.schema.size) {
@@ -19,6 +19,16 @@ public interface Context {
         return PErrorListener.abortOnError();
     }
 
+    /**
+     * The maximum number of bytes which a blocking operator (e.g. ORDER BY, DISTINCT, or a set operator) may buffer in
+     * memory before spilling to temporary files on disk. The default is {@link Long#MAX_VALUE}; that is, operators
+     * never spill.
+     * @return the memory budget (in bytes) of a single operator.
+     */
+    default long getMemoryBudget() {
+        return Long.MAX_VALUE;
+    }
+
     /**
      * The default utilizes {@link PErrorListener#abortOnError()} for the {@link Context#getErrorListener()}.
      * @return the default implementation of {@link Context}.
@@ -0,0 +1,176 @@
+package org.partiql.spi.catalog;
+
+import org.jetbrains.annotations.NotNull;
+import org.partiql.spi.Enum;
+import org.partiql.spi.UnsupportedCodeException;
+import org.partiql.spi.value.Datum;
+
+/**
+ * A comparison of a (top-level) field of a row with a value, e.g. {@code t.a < 10}, as part of a {@link ScanRequest}.
+ * <p></p>
+ * A row satisfies the predicate only if it has the field and the comparison of the field's value with the value is
+ * true; as with SQL comparisons, a comparison with a null or missing value is never true. The value is never null or
+ * missing.
+ */
+public final class ScanPredicate {
+
+    @NotNull
+    private final String field;
+
+    private final boolean caseSensitive;
+
+    @NotNull
+    private final Operator operator;
+
+    @NotNull
+    private final Datum value;
+
+    /**
+     * @param field the field name.
+     * @param caseSensitive true if the field is looked up case-sensitively.
+     * @param operator the comparison operator.
+     * @param value the value to compare the field with; not null or missing.
+     */
+    public ScanPredicate(@NotNull String field, boolean caseSensitive, @NotNull Operator operator, @NotNull Datum value) {
+        this.field = field;
+        this.caseSensitive = caseSensitive;
+        this.operator = operator;
+        this.value = value;
+    }
+
+    /**
+     * @return the field name.
+     */
+    @NotNull
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * @return true if the field is looked up case-sensitively, otherwise the first field whose name equals this
+     * name ignoring case is compared.
+     */
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    /**
+     * @return the comparison operator, whose left operand is the field's value.
+     */
+    @NotNull
+    public Operator getOperator() {
+        return operator;
+    }
+
+    /**
+     * @return the right operand of the comparison.
+     */
+    @NotNull
+    public Datum getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "ScanPredicate{" +
+                "field=" + field +
+                ", caseSensitive=" + caseSensitive +
+                ", operator=" + operator.name() +
+                ", value=" + value +
+                '}';
+    }
+
+    /**
+     * A comparison operator.
+     */
+    public static final class Operator extends Enum {
+
+        private Operator(int code) {
+            super(code);
+        }
+
+        /**
+         * Equal (=).
+         */
+        public static final int EQ = 1;
+
+        /**
+         * Less than (&lt;).
+         */
+        public static final int LT = 2;
+
+        /**
+         * Less than or equal (&lt;=).
+         */
+        public static final int LTE = 3;
+
+        /**
+         * Greater than (&gt;).
+         */
+        public static final int GT = 4;
+
+        /**
+         * Greater than or equal (&gt;=).
+         */
+        public static final int GTE = 5;
+
+        /**
+         * @return an {@link Operator} with code {@link Operator#EQ}.
+         */
+        @NotNull
+        public static Operator EQ() {
+            return new Operator(EQ);
+        }
+
+        /**
+         * @return an {@link Operator} with code {@link Operator#LT}.
+         */
+        @NotNull
+        public static Operator LT() {
+            return new Operator(LT);
+        }
+
+        /**
+         * @return an {@link Operator} with code {@link Operator#LTE}.
+         */
+        @NotNull
+        public static Operator LTE() {
+            return new Operator(LTE);
+        }
+
+        /**
+         * @return an {@link Operator} with code {@link Operator#GT}.
+         */
+        @NotNull
+        public static Operator GT() {
+            return new Operator(GT);
+        }
+
+        /**
+         * @return an {@link Operator} with code {@link Operator#GTE}.
+         */
+        @NotNull
+        public static Operator GTE() {
+            return new Operator(GTE);
+        }
+
+        @NotNull
+        @Override
+        public String name() throws UnsupportedCodeException {
+            switch (code()) {
+                case EQ:
+                    return "EQ";
+                case LT:
+                    return "LT";
+                case LTE:
+                    return "LTE";
+                case GT:
+                    return "GT";
+                case GTE:
+                    return "GTE";
+                default:
+                    throw new UnsupportedCodeException(code());
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.partiql.spi.catalog;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A request to scan the rows of a {@link Table}, which describes the parts of the rows that a query uses; a table may
+ * use it to skip fields and rows at the source (see {@link Table#scan(ScanRequest)}).
+ * <p></p>
+ * Every part of the request is a hint: the query is still evaluated over the returned rows, so a table may apply any
+ * part of the request, or none at all. A table must not, however, drop a field or row which the request requires.
+ */
+public final class ScanRequest {
+
+    @Nullable
+    private final List<String> fields;
+
+    @NotNull
+    private final List<ScanPredicate> predicates;
+
+    @Nullable
+    private final Long limit;
+
+    /**
+     * @param fields the names of the fields of a row which are used, or null if all fields may be used.
+     * @param predicates the predicates which every row of the result must satisfy.
+     * @param limit the maximum number of rows which are used, or null if every row may be used.
+     */
+    public ScanRequest(@Nullable List<String> fields, @NotNull List<ScanPredicate> predicates, @Nullable Long limit) {
+        this.fields = fields == null ? null : Collections.unmodifiableList(fields);
+        this.predicates = Collections.unmodifiableList(predicates);
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the names of the (top-level) fields of a row which are used by the query; a table may omit all other
+     * fields of each row. Names are compared case-insensitively, so a table must keep every field whose name equals
+     * one of these names ignoring case.
+     *
+     * @return the field names, or null if all fields may be used.
+     */
+    @Nullable
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Returns predicates which every row of the result must satisfy; a table may omit any row which does not satisfy
+     * all of them.
+     *
+     * @return the (conjunctive) predicates.
+     */
+    @NotNull
+    public List<ScanPredicate> getPredicates() {
+        return predicates;
+    }
+
+    /**
+     * Returns the maximum number of rows which are used by the query; a table may return only this many rows (any of
+     * them). This is only requested if the query has no other predicates on the rows.
+     *
+     * @return the limit, or null if every row may be used.
+     */
+    @Nullable
+    public Long getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return "ScanRequest{" +
+                "fields=" + fields +
+                ", predicates=" + predicates +
+                ", limit=" + limit +
+                '}';
+    }
+}
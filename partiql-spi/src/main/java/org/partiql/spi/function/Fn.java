@@ -57,6 +57,7 @@ public abstract class Fn {
         private Function<Datum[], Datum> invocation;
         private boolean isNullCall = true;
         private boolean isMissingCall = true;
+        private boolean isDeterministic = false;
 
         /**
          * Creates a new {@link Builder} for a {@link Fn} with the given name.
@@ -148,6 +149,17 @@ public abstract class Fn {
             return this;
         }
 
+        /**
+         * Sets the DETERMINISTIC status; this is false by default.
+         * @param value the DETERMINISTIC status.
+         * @return the {@link Builder} instance.
+         */
+        @NotNull
+        public Builder isDeterministic(boolean value) {
+            this.isDeterministic = value;
+            return this;
+        }
+
         /**
          * Sets the return type of the {@link Fn}.
          * @param returns the return type of the {@link Fn}.
@@ -182,7 +194,8 @@ public abstract class Fn {
                     parameters,
                     invocation,
                     isNullCall,
-                    isMissingCall
+                    isMissingCall,
+                    isDeterministic
             );
         }
     }
@@ -201,9 +214,10 @@ public abstract class Fn {
                 @NotNull List<Parameter> parameters,
                 @NotNull Function<Datum[], Datum> invocation,
                 boolean isNullCall,
-                boolean isMissingCall
+                boolean isMissingCall,
+                boolean isDeterministic
         ) {
-            this.signature = new RoutineSignature(name, parameters, returns, isNullCall, isMissingCall);
+            this.signature = new RoutineSignature(name, parameters, returns, isNullCall, isMissingCall, isDeterministic);
             this.implementation = invocation;
         }
 
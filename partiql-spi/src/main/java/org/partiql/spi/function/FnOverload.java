@@ -50,6 +50,7 @@ public abstract class FnOverload {
         private Function<Datum[], Datum> invocation;
         private boolean isNullCall = true;
         private boolean isMissingCall = true;
+        private boolean isDeterministic = false;
 
         /**
          * Creates a new {@link Builder} for a {@link FnOverload} with the given name.
@@ -143,6 +144,19 @@ public abstract class FnOverload {
             return this;
         }
 
+        /**
+         * Specifies whether the function is deterministic; that is, whether it always returns the same result for the
+         * same arguments. This is false by default.
+         * @param value if true, invocations of the function on literal arguments may be evaluated once, when the query
+         *              is compiled; if false, the function shall be invoked each time the call is evaluated.
+         * @return the {@link Builder} instance.
+         */
+        @NotNull
+        public Builder isDeterministic(boolean value) {
+            this.isDeterministic = value;
+            return this;
+        }
+
         /**
          * Sets the return type of the {@link Fn}.
          * @param returns the return type of the {@link Fn}.
@@ -179,6 +193,7 @@ public abstract class FnOverload {
                     .body(invocation)
                     .isNullCall(isNullCall)
                     .isMissingCall(isMissingCall)
+                    .isDeterministic(isDeterministic)
                     .build();
             return new FnOverloadImpl(pSignature, instance);
         }
@@ -19,9 +19,10 @@ public final class RoutineSignature {
     private final PType returns;
     private final boolean isNullCall;
     private final boolean isMissingCall;
+    private final boolean isDeterministic;
 
     /**
-     * Creates a routine signature, whose IS NULL/MISSING call status is set to true.
+     * Creates a routine signature, whose IS NULL/MISSING call status is set to true and which is not deterministic.
      * @param name the name of the routine.
      * @param params the parameters of the routine.
      * @param returns the return type of the routine.
@@ -32,10 +33,11 @@ public final class RoutineSignature {
         this.returns = returns;
         this.isNullCall = true;
         this.isMissingCall = true;
+        this.isDeterministic = false;
     }
 
     /**
-     * Creates a routine signature.
+     * Creates a routine signature, which is not deterministic.
      * @param name the name of the routine.
      * @param params the parameters of the routine.
      * @param returns the return type of the routine.
@@ -43,11 +45,25 @@ public final class RoutineSignature {
      * @param isMissingCall the status of the MISSING CALL for the routine.
      */
     public RoutineSignature(@NotNull String name, @NotNull List<Parameter> params, @NotNull PType returns, boolean isNullCall, boolean isMissingCall) {
+        this(name, params, returns, isNullCall, isMissingCall, false);
+    }
+
+    /**
+     * Creates a routine signature.
+     * @param name the name of the routine.
+     * @param params the parameters of the routine.
+     * @param returns the return type of the routine.
+     * @param isNullCall the status of the IS NULL CALL for the routine.
+     * @param isMissingCall the status of the MISSING CALL for the routine.
+     * @param isDeterministic the DETERMINISTIC status of the routine.
+     */
+    public RoutineSignature(@NotNull String name, @NotNull List<Parameter> params, @NotNull PType returns, boolean isNullCall, boolean isMissingCall, boolean isDeterministic) {
         this.name = name;
         this.params = params;
         this.returns = returns;
         this.isNullCall = isNullCall;
         this.isMissingCall = isMissingCall;
+        this.isDeterministic = isDeterministic;
     }
 
     /**
@@ -100,4 +116,13 @@ public final class RoutineSignature {
     public boolean isNullCall() {
         return isNullCall;
     }
+
+    /**
+     * Returns the DETERMINISTIC status of the routine; a deterministic routine always returns the same result for the
+     * same arguments, so its invocations on literal arguments may be evaluated once, when the query is compiled.
+     * @return the DETERMINISTIC status of the routine.
+     */
+    public boolean isDeterministic() {
+        return isDeterministic;
+    }
 }
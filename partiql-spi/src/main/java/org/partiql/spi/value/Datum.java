@@ -408,6 +408,25 @@ public interface Datum extends Iterable<Datum> {
         throw new InvalidOperationException(getType(), "getInsensitive");
     }
 
+    /**
+     * @return the shape of a {@link PType#STRUCT} whose fields are stored by position; null if the value is not such
+     * a struct.
+     * @see #struct(StructShape, Datum[])
+     */
+    @Nullable
+    default StructShape getShape() {
+        return null;
+    }
+
+    /**
+     * @param position the position of the field in the struct's {@link #getShape()}.
+     * @return the value of the field at the position of a {@link PType#STRUCT} which has a shape.
+     * @throws InvalidOperationException if the value is not a struct with a shape.
+     */
+    default Datum get(int position) {
+        throw new InvalidOperationException(getType(), "get");
+    }
+
     /**
      * Pack a VARIANT into a byte array with the given charset.
      *
@@ -805,6 +824,21 @@ public interface Datum extends Iterable<Datum> {
         return new DatumCollection(values, PType.array());
     }
 
+    /**
+     * Creates a {@link PType#BAG} of rows which is stored as column vectors; row {@code i} is a {@link PType#STRUCT}
+     * with a field for each column whose value is the column's value at {@code i}. Values are only materialized when a
+     * row's field is accessed.
+     *
+     * @param names the column names.
+     * @param columns the column vectors, which must all have the same size.
+     * @return a value of type {@link PType#BAG}
+     * @throws IllegalArgumentException if the number of names and columns differ, or the columns differ in size.
+     */
+    @NotNull
+    static Datum columnar(@NotNull List<String> names, @NotNull List<DatumVector> columns) {
+        return new DatumColumnar(names, columns);
+    }
+
     // STRUCTURAL
 
     /**
@@ -833,6 +867,20 @@ public interface Datum extends Iterable<Datum> {
         return new DatumStruct(values);
     }
 
+    /**
+     * Creates a struct which stores only its values; the field names (and their indexes) are those of the shape, which
+     * is shared by the structs that are created with it.
+     *
+     * @param shape the field names.
+     * @param values the field values, in the order of the shape's names; the array is not copied.
+     * @return a value of type {@link PType#STRUCT}
+     * @throws IllegalArgumentException if the number of values differs from the number of names of the shape.
+     */
+    @NotNull
+    static Datum struct(@NotNull StructShape shape, @NotNull Datum[] values) {
+        return new DatumStructShaped(shape, values);
+    }
+
     /**
      * Returns an empty {@link PType#ROW}
      * @return a value of type {@link PType#ROW}
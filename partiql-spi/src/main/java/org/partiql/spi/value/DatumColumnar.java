@@ -0,0 +1,186 @@
+package org.partiql.spi.value;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.partiql.spi.types.PType;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * This shall always be package-private (internal).
+ * <p></p>
+ * A {@link PType#BAG} of rows stored as column vectors. Each row is a view of an index into the vectors, so a value is
+ * only materialized when the row's field is accessed; see {@link DatumColumns} for reading the vectors directly.
+ * <p></p>
+ * A row is a {@link PType#STRUCT} (rather than a {@link PType#ROW}), so it is compared like any other struct
+ * of the same fields; that is, regardless of the order of its fields.
+ */
+class DatumColumnar implements Datum, DatumColumns {
+
+    @NotNull
+    private final String[] _names;
+
+    @NotNull
+    private final DatumVector[] _columns;
+
+    @NotNull
+    private final Map<String, Integer> _offsets;
+
+    @NotNull
+    private final Map<String, Integer> _offsetsNormalized;
+
+    private final int _size;
+
+    @NotNull
+    private final PType _rowType;
+
+    @NotNull
+    private final PType _type;
+
+    DatumColumnar(@NotNull List<String> names, @NotNull List<DatumVector> columns) {
+        if (names.size() != columns.size()) {
+            throw new IllegalArgumentException("Expected " + names.size() + " columns, found " + columns.size());
+        }
+        _names = names.toArray(new String[0]);
+        _columns = columns.toArray(new DatumVector[0]);
+        _offsets = new HashMap<>();
+        _offsetsNormalized = new HashMap<>();
+        int size = _columns.length == 0 ? 0 : _columns[0].size();
+        for (int i = 0; i < _columns.length; i++) {
+            if (_columns[i].size() != size) {
+                throw new IllegalArgumentException("Column " + _names[i] + " has " + _columns[i].size() + " values, expected " + size);
+            }
+            // the first column of a name shadows the others, as with a struct.
+            _offsets.putIfAbsent(_names[i], i);
+            _offsetsNormalized.putIfAbsent(_names[i].toLowerCase(), i);
+        }
+        _size = size;
+        _rowType = PType.struct();
+        _type = PType.bag(_rowType);
+    }
+
+    @NotNull
+    @Override
+    public Iterator<Datum> iterator() {
+        return new Iterator<Datum>() {
+
+            private int _index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return _index < _size;
+            }
+
+            @Override
+            public Datum next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return new Row(_index++);
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    public PType getType() {
+        return _type;
+    }
+
+    @Override
+    public int getSize() {
+        return _size;
+    }
+
+    @Nullable
+    @Override
+    public DatumVector getColumn(@NotNull String name) {
+        Integer column = _offsets.get(name);
+        return column == null ? null : _columns[column];
+    }
+
+    @Nullable
+    @Override
+    public DatumVector getColumnInsensitive(@NotNull String name) {
+        Integer column = _offsetsNormalized.get(name.toLowerCase());
+        return column == null ? null : _columns[column];
+    }
+
+    @Override
+    public String toString() {
+        return "DatumColumnar{" +
+                "_type=" + _type +
+                ", _size=" + _size +
+                '}';
+    }
+
+    /**
+     * A row of the columns.
+     */
+    private class Row implements Datum {
+
+        private final int _index;
+
+        private Row(int index) {
+            _index = index;
+        }
+
+        @NotNull
+        @Override
+        public Iterator<Field> getFields() {
+            return new Iterator<Field>() {
+
+                private int _column = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return _column < _columns.length;
+                }
+
+                @Override
+                public Field next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int column = _column++;
+                    return Field.of(_names[column], _columns[column].get(_index));
+                }
+            };
+        }
+
+        @Override
+        public Datum get(@NotNull String name) {
+            Integer column = _offsets.get(name);
+            if (column == null) {
+                return null;
+            }
+            return _columns[column].get(_index);
+        }
+
+        @Override
+        public Datum getInsensitive(@NotNull String name) {
+            Integer column = _offsetsNormalized.get(name.toLowerCase());
+            if (column == null) {
+                return null;
+            }
+            return _columns[column].get(_index);
+        }
+
+        @NotNull
+        @Override
+        public PType getType() {
+            return _rowType;
+        }
+
+        @Override
+        public String toString() {
+            return "DatumColumnar.Row{" +
+                    "_index=" + _index +
+                    '}';
+        }
+    }
+}
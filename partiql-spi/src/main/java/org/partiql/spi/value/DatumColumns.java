@@ -0,0 +1,34 @@
+package org.partiql.spi.value;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.partiql.spi.types.PType;
+
+/**
+ * The column vectors of a {@link PType#BAG} of rows which is stored by column; see
+ * {@link Datum#columnar(java.util.List, java.util.List)}.
+ * <p></p>
+ * An operator which reads the same field of every row (e.g. an aggregation) may read the field's column by row index,
+ * rather than materialize a {@link Datum} for the field of each row.
+ */
+public interface DatumColumns {
+
+    /**
+     * @return the number of rows.
+     */
+    int getSize();
+
+    /**
+     * @param name the field name (case-sensitive).
+     * @return the column of the field, or null if the rows have no such field.
+     */
+    @Nullable
+    DatumVector getColumn(@NotNull String name);
+
+    /**
+     * @param name the field name (case-insensitive).
+     * @return the column of the field, or null if the rows have no such field.
+     */
+    @Nullable
+    DatumVector getColumnInsensitive(@NotNull String name);
+}
@@ -0,0 +1,445 @@
+package org.partiql.spi.value;
+
+import org.jetbrains.annotations.NotNull;
+import org.partiql.spi.types.PType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Encodes a {@link Datum} (or a row of them) as a normalized key: a sequence of bytes whose unsigned lexicographic
+ * order is the order of {@link Datum#comparator(boolean)}, and which are equal if and only if the values are equal
+ * by the comparator. Operators may therefore sort, hash, and compare keys as raw bytes; see {@link #compare}.
+ * <p>
+ * Each value is prefixed by the precedence of its type family, so that values of different families are ordered as
+ * by the comparator. Within a family:
+ * </p>
+ * <ul>
+ *     <li>NULL and MISSING are equal, and ordered first or last.</li>
+ *     <li>Numbers of every type are encoded by their (exact) decimal value, so that {@code 1}, {@code 1.0}, and
+ *     {@code 1e0} share a key; NaN is ordered before negative infinity, and {@code -0.0} is equal to {@code 0}.</li>
+ *     <li>Strings are ordered by their UTF-16 code units, and LOBs by their (signed) bytes.</li>
+ *     <li>The fields of a STRUCT and the elements of a BAG are encoded in (canonical) sorted order.</li>
+ * </ul>
+ * <p>
+ * The encoding is a total order, whereas the comparator is not transitive for a few combinations of types; for these,
+ * the encoding follows the comparison of values of the same type. Year-month intervals are ordered before day-time
+ * intervals; values of TIME and TIMESTAMP are ordered as if they were at UTC relative to the values with a time zone;
+ * the fields of a ROW are encoded in order. An approximate number is compared with an exact number by its decimal
+ * representation (as by {@link BigDecimal#valueOf(double)}), rather than by rounding the exact number.
+ * </p>
+ * <p>
+ * The key of a value is self-delimiting, so the key of a row ({@link #encode(Datum[])}) is the concatenation of the
+ * keys of its values.
+ * </p>
+ */
+public final class DatumKeyEncoder {
+
+    private static final DatumKeyEncoder NULLS_FIRST = new DatumKeyEncoder(true);
+
+    private static final DatumKeyEncoder NULLS_LAST = new DatumKeyEncoder(false);
+
+    // the end of a collection, which is ordered before any element
+    private static final int END = 0x00;
+
+    // precedes each field of a struct, as a field name may begin with the END byte
+    private static final int FIELD = 0x01;
+
+    private static final int UNKNOWN_FIRST = 0x01;
+
+    private static final int UNKNOWN_LAST = 0xFF;
+
+    // the prefix of each type family, in order of their precedence
+    private static final int BOOL = 0x10;
+    private static final int NUMBER = 0x11;
+    private static final int DATE = 0x12;
+    private static final int TIME = 0x13;
+    private static final int TIMESTAMP = 0x14;
+    private static final int INTERVAL = 0x15;
+    private static final int TEXT = 0x16;
+    private static final int LOB = 0x17;
+    private static final int ARRAY = 0x18;
+    private static final int STRUCT = 0x19;
+    private static final int BAG = 0x1A;
+    private static final int OTHER = 0x7F;
+
+    // the sign (or special value) of a number
+    private static final int NAN = 0x01;
+    private static final int NEGATIVE_INFINITY = 0x02;
+    private static final int NEGATIVE = 0x03;
+    private static final int ZERO = 0x04;
+    private static final int POSITIVE = 0x05;
+    private static final int POSITIVE_INFINITY = 0x06;
+
+    private static final int INTERVAL_YM = 0x00;
+    private static final int INTERVAL_DT = 0x01;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final int unknown;
+
+    private DatumKeyEncoder(boolean nullsFirst) {
+        this.unknown = nullsFirst ? UNKNOWN_FIRST : UNKNOWN_LAST;
+    }
+
+    /**
+     * @param nullsFirst if true, nulls are ordered before non-null values, otherwise after.
+     * @return an encoder whose keys are ordered as by {@link Datum#comparator(boolean)}.
+     */
+    @NotNull
+    public static DatumKeyEncoder of(boolean nullsFirst) {
+        return nullsFirst ? NULLS_FIRST : NULLS_LAST;
+    }
+
+    /**
+     * @param value the value to encode.
+     * @return the key of the value.
+     */
+    @NotNull
+    public byte[] encode(@NotNull Datum value) {
+        Buffer out = new Buffer();
+        write(out, value);
+        return out.toByteArray();
+    }
+
+    /**
+     * @param values the values (e.g. of a row) to encode.
+     * @return the key of the values, which are ordered lexicographically.
+     */
+    @NotNull
+    public byte[] encode(@NotNull Datum[] values) {
+        Buffer out = new Buffer();
+        for (Datum value : values) {
+            write(out, value);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Compares two keys as unsigned bytes, lexicographically; a key which is a prefix of another is ordered first.
+     *
+     * @param lhs the left key.
+     * @param rhs the right key.
+     * @return a negative integer, zero, or a positive integer as the left key is less than, equal to, or greater than
+     * the right key.
+     */
+    public static int compare(@NotNull byte[] lhs, @NotNull byte[] rhs) {
+        int length = Math.min(lhs.length, rhs.length);
+        for (int i = 0; i < length; i++) {
+            int comparison = (lhs[i] & 0xFF) - (rhs[i] & 0xFF);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return lhs.length - rhs.length;
+    }
+
+    private void write(Buffer out, Datum value) {
+        if (value.isNull() || value.isMissing()) {
+            out.write(unknown);
+            return;
+        }
+        if (value.getType().code() == PType.VARIANT) {
+            value = value.lower();
+            if (value.isNull() || value.isMissing()) {
+                out.write(unknown);
+                return;
+            }
+        }
+        switch (value.getType().code()) {
+            case PType.BOOL:
+                out.write(BOOL);
+                out.write(value.getBoolean() ? 1 : 0);
+                break;
+            case PType.TINYINT:
+                writeExact(out, value.getByte());
+                break;
+            case PType.SMALLINT:
+                writeExact(out, value.getShort());
+                break;
+            case PType.INTEGER:
+                writeExact(out, value.getInt());
+                break;
+            case PType.BIGINT:
+                writeExact(out, value.getLong());
+                break;
+            case PType.NUMERIC:
+            case PType.DECIMAL:
+                writeExact(out, value.getBigDecimal());
+                break;
+            case PType.REAL:
+                writeApproximate(out, value.getFloat());
+                break;
+            case PType.DOUBLE:
+                writeApproximate(out, value.getDouble());
+                break;
+            case PType.DATE:
+                out.write(DATE);
+                out.writeLong(value.getLocalDate().toEpochDay());
+                break;
+            case PType.TIME: {
+                long nanos = value.getLocalTime().toNanoOfDay();
+                out.write(TIME);
+                out.writeLong(nanos);
+                out.writeLong(nanos);
+                break;
+            }
+            case PType.TIMEZ: {
+                // as by OffsetTime#compareTo, i.e. the instant and then the local time
+                OffsetTime time = value.getOffsetTime();
+                long nanos = time.toLocalTime().toNanoOfDay();
+                out.write(TIME);
+                out.writeLong(nanos - time.getOffset().getTotalSeconds() * NANOS_PER_SECOND);
+                out.writeLong(nanos);
+                break;
+            }
+            case PType.TIMESTAMP: {
+                LocalDateTime timestamp = value.getLocalDateTime();
+                long seconds = timestamp.toEpochSecond(ZoneOffset.UTC);
+                out.write(TIMESTAMP);
+                out.writeLong(seconds);
+                out.writeInt(timestamp.getNano());
+                out.writeLong(seconds);
+                out.writeInt(timestamp.getNano());
+                break;
+            }
+            case PType.TIMESTAMPZ: {
+                // as by OffsetDateTime#compareTo, i.e. the instant and then the local date-time
+                OffsetDateTime timestamp = value.getOffsetDateTime();
+                out.write(TIMESTAMP);
+                out.writeLong(timestamp.toEpochSecond());
+                out.writeInt(timestamp.getNano());
+                out.writeLong(timestamp.toLocalDateTime().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(timestamp.getNano());
+                break;
+            }
+            case PType.INTERVAL_YM:
+                out.write(INTERVAL);
+                out.write(INTERVAL_YM);
+                out.writeLong(value.getYears() * 12L + value.getMonths());
+                break;
+            case PType.INTERVAL_DT:
+                out.write(INTERVAL);
+                out.write(INTERVAL_DT);
+                out.writeLong(((value.getDays() * 24L + value.getHours()) * 60L + value.getMinutes()) * 60L + value.getSeconds());
+                out.writeInt(value.getNanos());
+                break;
+            case PType.CHAR:
+            case PType.VARCHAR:
+            case PType.STRING:
+                out.write(TEXT);
+                writeString(out, value.getString());
+                break;
+            case PType.CLOB:
+            case PType.BLOB:
+                out.write(LOB);
+                writeBytes(out, value.getBytes());
+                break;
+            case PType.ARRAY:
+                out.write(ARRAY);
+                for (Datum element : value) {
+                    write(out, element);
+                }
+                out.write(END);
+                break;
+            case PType.BAG:
+                out.write(BAG);
+                List<byte[]> elements = new ArrayList<>();
+                for (Datum element : value) {
+                    elements.add(encode(element));
+                }
+                writeSorted(out, elements);
+                break;
+            case PType.STRUCT:
+                out.write(STRUCT);
+                writeSorted(out, fields(value.getFields()));
+                break;
+            case PType.ROW:
+                out.write(STRUCT);
+                for (byte[] field : fields(value.getFields())) {
+                    out.write(field);
+                }
+                out.write(END);
+                break;
+            default:
+                out.write(OTHER);
+                break;
+        }
+    }
+
+    private List<byte[]> fields(Iterator<Field> fields) {
+        List<byte[]> keys = new ArrayList<>();
+        while (fields.hasNext()) {
+            Field field = fields.next();
+            Buffer key = new Buffer();
+            key.write(FIELD);
+            writeString(key, field.getName());
+            write(key, field.getValue());
+            keys.add(key.toByteArray());
+        }
+        return keys;
+    }
+
+    private static void writeSorted(Buffer out, List<byte[]> keys) {
+        keys.sort(DatumKeyEncoder::compare);
+        for (byte[] key : keys) {
+            out.write(key);
+        }
+        out.write(END);
+    }
+
+    /**
+     * Writes a finite, non-zero number as its sign, its (decimal) exponent, and its digits; the digits of a negative
+     * number are complemented, so that a greater magnitude is ordered first.
+     */
+    private static void writeDecimal(Buffer out, boolean negative, int exponent, CharSequence digits, int end) {
+        int mask = negative ? 0xFF : 0x00;
+        out.write(NUMBER);
+        out.write(negative ? NEGATIVE : POSITIVE);
+        out.writeInt(negative ? ~exponent : exponent);
+        // two digits per byte (1 through 100), followed by a terminator which is ordered before any digits
+        for (int i = 0; i < end; i += 2) {
+            int hi = digits.charAt(i) - '0';
+            int lo = i + 1 < end ? digits.charAt(i + 1) - '0' : 0;
+            out.write((hi * 10 + lo + 1) ^ mask);
+        }
+        out.write(mask);
+    }
+
+    private static void writeExact(Buffer out, long value) {
+        if (value == 0) {
+            out.write(NUMBER);
+            out.write(ZERO);
+            return;
+        }
+        String digits = Long.toString(value);
+        int start = value < 0 ? 1 : 0;
+        int exponent = digits.length() - start;
+        int end = digits.length();
+        while (digits.charAt(end - 1) == '0') {
+            end--;
+        }
+        writeDecimal(out, value < 0, exponent, digits.substring(start), end - start);
+    }
+
+    private static void writeExact(Buffer out, BigDecimal value) {
+        if (value.signum() == 0) {
+            out.write(NUMBER);
+            out.write(ZERO);
+            return;
+        }
+        BigDecimal normalized = value.stripTrailingZeros();
+        String digits = normalized.unscaledValue().abs().toString();
+        int exponent = digits.length() - normalized.scale();
+        writeDecimal(out, normalized.signum() < 0, exponent, digits, digits.length());
+    }
+
+    private static void writeApproximate(Buffer out, double value) {
+        if (Double.isNaN(value)) {
+            out.write(NUMBER);
+            out.write(NAN);
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            out.write(NUMBER);
+            out.write(NEGATIVE_INFINITY);
+        } else if (value == Double.POSITIVE_INFINITY) {
+            out.write(NUMBER);
+            out.write(POSITIVE_INFINITY);
+        } else {
+            writeExact(out, BigDecimal.valueOf(value));
+        }
+    }
+
+    /**
+     * Writes each UTF-16 code unit in one to three bytes (smaller units in fewer bytes, so the order of the units is
+     * preserved), followed by a terminator which is ordered before any unit.
+     */
+    private static void writeString(Buffer out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x7F) {
+                out.write(c + 1);
+            } else if (c < 0x7F + 0x4000) {
+                int offset = c - 0x7F;
+                out.write(0x80 | (offset >>> 8));
+                out.write(offset & 0xFF);
+            } else {
+                out.write(0xC0);
+                out.write(c >>> 8);
+                out.write(c & 0xFF);
+            }
+        }
+        out.write(END);
+    }
+
+    /**
+     * Writes each (signed) byte as an unsigned byte, escaping the two greatest bytes, followed by a terminator which is
+     * ordered before any byte.
+     */
+    private static void writeBytes(Buffer out, byte[] value) {
+        for (byte b : value) {
+            int unsigned = (b ^ 0x80) & 0xFF;
+            if (unsigned < 0xFE) {
+                out.write(unsigned + 1);
+            } else {
+                out.write(0xFF);
+                out.write(unsigned - 0xFE);
+            }
+        }
+        out.write(END);
+    }
+
+    /**
+     * A growable byte array; integers are written big-endian with their sign bit flipped, so that they are ordered as
+     * unsigned bytes.
+     */
+    private static final class Buffer {
+
+        private byte[] bytes = new byte[32];
+
+        private int size = 0;
+
+        void write(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        void write(byte[] b) {
+            ensure(b.length);
+            System.arraycopy(b, 0, bytes, size, b.length);
+            size += b.length;
+        }
+
+        void writeInt(int value) {
+            int v = value ^ Integer.MIN_VALUE;
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (v >>> shift);
+            }
+        }
+
+        void writeLong(long value) {
+            long v = value ^ Long.MIN_VALUE;
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (v >>> shift);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensure(int n) {
+            if (size + n > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + n));
+            }
+        }
+    }
+}
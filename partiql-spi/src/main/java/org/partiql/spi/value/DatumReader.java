@@ -2,9 +2,13 @@ package org.partiql.spi.value;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.partiql.spi.internal.value.ion.IonBinaryReader;
 import org.partiql.spi.internal.value.ion.IonDatumReader;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -36,6 +40,29 @@ public interface DatumReader extends AutoCloseable {
         return new IonDatumReader(input, new HashMap<>());
     }
 
+    /**
+     * The values are read lazily from the bytes of the buffer (from its position to its limit); the fields and
+     * elements of a value are decoded as they are accessed, and unread values are skipped by their length prefixes.
+     *
+     * @return a reader implementation for binary {@link Encoding#ION} in a buffer.
+     */
+    @NotNull
+    public static DatumReader ionBinary(@NotNull ByteBuffer buffer) {
+        return IonBinaryReader.buffer(buffer);
+    }
+
+    /**
+     * Like {@link #ionBinary(ByteBuffer)}, where the file is memory-mapped in windows as it is read, so that a scan of
+     * a large file only touches the bytes of the values which are accessed.
+     *
+     * @return a reader implementation for a binary {@link Encoding#ION} file.
+     * @throws IOException if the file cannot be opened.
+     */
+    @NotNull
+    public static DatumReader ionBinary(@NotNull Path path) throws IOException {
+        return IonBinaryReader.file(path);
+    }
+
     /**
      * A DatumReader can be re-used.
      */
@@ -0,0 +1,105 @@
+package org.partiql.spi.value;
+
+import org.jetbrains.annotations.NotNull;
+import org.partiql.spi.types.PType;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A struct which stores only its values; the field names belong to its (shared) {@link StructShape}.
+ * <br>
+ * This shall always be package-private (internal).
+ */
+class DatumStructShaped implements Datum {
+
+    @NotNull
+    private final StructShape _shape;
+
+    @NotNull
+    private final Datum[] _values;
+
+    private final static PType _type = PType.struct();
+
+    DatumStructShaped(@NotNull StructShape shape, @NotNull Datum[] values) {
+        if (shape.size() != values.length) {
+            String message = "expected " + shape.size() + " values for " + shape + ", found " + values.length;
+            throw new IllegalArgumentException(message);
+        }
+        _shape = shape;
+        _values = values;
+    }
+
+    @NotNull
+    @Override
+    public StructShape getShape() {
+        return _shape;
+    }
+
+    @Override
+    public Datum get(int position) {
+        return _values[position];
+    }
+
+    @Override
+    @NotNull
+    public Iterator<Field> getFields() {
+        return new Iterator<Field>() {
+
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < _values.length;
+            }
+
+            @Override
+            public Field next() {
+                if (position >= _values.length) {
+                    throw new NoSuchElementException();
+                }
+                Field field = Field.of(_shape.getName(position), _values[position]);
+                position++;
+                return field;
+            }
+        };
+    }
+
+    @Override
+    public Datum get(@NotNull String name) {
+        int position = _shape.indexOf(name);
+        if (position < 0) {
+            return null;
+        }
+        return _values[position];
+    }
+
+    @Override
+    public Datum getInsensitive(@NotNull String name) {
+        int position = _shape.indexOfInsensitive(name);
+        if (position < 0) {
+            return null;
+        }
+        return _values[position];
+    }
+
+    @NotNull
+    @Override
+    public PType getType() {
+        return _type;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("struct::{ ");
+        for (int i = 0; i < _values.length; i++) {
+            sb.append(_shape.getName(i));
+            sb.append(": ");
+            sb.append(_values[i].toString());
+            sb.append(", ");
+        }
+        sb.append(" }");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,143 @@
+package org.partiql.spi.value;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.partiql.spi.types.PType;
+
+import java.util.BitSet;
+
+/**
+ * A column of values of a single type which are stored as primitives (with a null bitmap) rather than as a
+ * {@link Datum} per value.
+ * <p></p>
+ * The typed accessors (e.g. {@link #getInt(int)}) read the primitives directly; a {@link Datum} is only materialized
+ * by {@link #get(int)}.
+ *
+ * @see Datum#columnar(java.util.List, java.util.List)
+ */
+public interface DatumVector {
+
+    /**
+     * @return the number of values.
+     */
+    int size();
+
+    /**
+     * @return the type of every (non-null) value.
+     */
+    @NotNull
+    PType getType();
+
+    /**
+     * @param index the value's index.
+     * @return true if the value is null.
+     */
+    boolean isNull(int index);
+
+    /**
+     * @param index the value's index.
+     * @return the value (materialized); a null value has the type of this vector.
+     */
+    @NotNull
+    Datum get(int index);
+
+    /**
+     * @param index the value's index; the value must not be null.
+     * @return the underlying value applicable to the type {@link PType#BOOL}.
+     * @throws InvalidOperationException if the operation is not applicable to the type returned from {@link #getType()}.
+     */
+    default boolean getBoolean(int index) throws InvalidOperationException {
+        throw new InvalidOperationException(getType(), "getBoolean");
+    }
+
+    /**
+     * @param index the value's index; the value must not be null.
+     * @return the underlying value applicable to the type {@link PType#INTEGER}.
+     * @throws InvalidOperationException if the operation is not applicable to the type returned from {@link #getType()}.
+     */
+    default int getInt(int index) throws InvalidOperationException {
+        throw new InvalidOperationException(getType(), "getInt");
+    }
+
+    /**
+     * @param index the value's index; the value must not be null.
+     * @return the underlying value applicable to the type {@link PType#BIGINT}.
+     * @throws InvalidOperationException if the operation is not applicable to the type returned from {@link #getType()}.
+     */
+    default long getLong(int index) throws InvalidOperationException {
+        throw new InvalidOperationException(getType(), "getLong");
+    }
+
+    /**
+     * @param index the value's index; the value must not be null.
+     * @return the underlying value applicable to the type {@link PType#DOUBLE}.
+     * @throws InvalidOperationException if the operation is not applicable to the type returned from {@link #getType()}.
+     */
+    default double getDouble(int index) throws InvalidOperationException {
+        throw new InvalidOperationException(getType(), "getDouble");
+    }
+
+    /**
+     * @param index the value's index; the value must not be null.
+     * @return the underlying value applicable to the type {@link PType#STRING}.
+     * @throws InvalidOperationException if the operation is not applicable to the type returned from {@link #getType()}.
+     */
+    @NotNull
+    default String getString(int index) throws InvalidOperationException {
+        throw new InvalidOperationException(getType(), "getString");
+    }
+
+    /**
+     * @param values the backing values.
+     * @param nulls the indexes of the null values; null if there are no null values.
+     * @return a vector of type {@link PType#BOOL}.
+     */
+    @NotNull
+    static DatumVector bool(@NotNull boolean[] values, @Nullable BitSet nulls) {
+        return new DatumVectorBoolean(values, nulls);
+    }
+
+    /**
+     * @param values the backing values.
+     * @param nulls the indexes of the null values; null if there are no null values.
+     * @return a vector of type {@link PType#INTEGER}.
+     */
+    @NotNull
+    static DatumVector integer(@NotNull int[] values, @Nullable BitSet nulls) {
+        return new DatumVectorInt(values, nulls);
+    }
+
+    /**
+     * @param values the backing values.
+     * @param nulls the indexes of the null values; null if there are no null values.
+     * @return a vector of type {@link PType#BIGINT}.
+     */
+    @NotNull
+    static DatumVector bigint(@NotNull long[] values, @Nullable BitSet nulls) {
+        return new DatumVectorLong(values, nulls);
+    }
+
+    /**
+     * @param values the backing values.
+     * @param nulls the indexes of the null values; null if there are no null values.
+     * @return a vector of type {@link PType#DOUBLE}.
+     */
+    @NotNull
+    static DatumVector doublePrecision(@NotNull double[] values, @Nullable BitSet nulls) {
+        return new DatumVectorDouble(values, nulls);
+    }
+
+    /**
+     * A dictionary-encoded vector of strings; value {@code i} is {@code dictionary[codes[i]]}. Each distinct string is
+     * stored (and materialized) once.
+     *
+     * @param dictionary the distinct values.
+     * @param codes the index of each value in the dictionary.
+     * @param nulls the indexes of the null values; null if there are no null values.
+     * @return a vector of type {@link PType#STRING}.
+     */
+    @NotNull
+    static DatumVector string(@NotNull String[] dictionary, @NotNull int[] codes, @Nullable BitSet nulls) {
+        return new DatumVectorString(dictionary, codes, nulls);
+    }
+}
@@ -0,0 +1,61 @@
+package org.partiql.spi.value;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.partiql.spi.types.PType;
+
+import java.util.BitSet;
+
+/**
+ * This shall always be package-private (internal).
+ * <p></p>
+ * The null bitmap of a {@link DatumVector}; subclasses materialize the non-null values.
+ */
+abstract class DatumVectorBase implements DatumVector {
+
+    @NotNull
+    private final PType _type;
+
+    private final int _size;
+
+    @Nullable
+    private final BitSet _nulls;
+
+    DatumVectorBase(@NotNull PType type, int size, @Nullable BitSet nulls) {
+        _type = type;
+        _size = size;
+        _nulls = (nulls == null || nulls.isEmpty()) ? null : nulls;
+    }
+
+    /**
+     * @param index the index of a non-null value.
+     * @return the value.
+     */
+    @NotNull
+    abstract Datum materialize(int index);
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @NotNull
+    @Override
+    public PType getType() {
+        return _type;
+    }
+
+    @Override
+    public boolean isNull(int index) {
+        return _nulls != null && _nulls.get(index);
+    }
+
+    @NotNull
+    @Override
+    public Datum get(int index) {
+        if (isNull(index)) {
+            return Datum.nullValue(_type);
+        }
+        return materialize(index);
+    }
+}
@@ -0,0 +1,32 @@
+package org.partiql.spi.value;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.partiql.spi.types.PType;
+
+import java.util.BitSet;
+
+/**
+ * This shall always be package-private (internal).
+ */
+class DatumVectorBoolean extends DatumVectorBase {
+
+    @NotNull
+    private final boolean[] _values;
+
+    DatumVectorBoolean(@NotNull boolean[] values, @Nullable BitSet nulls) {
+        super(PType.bool(), values.length, nulls);
+        _values = values;
+    }
+
+    @Override
+    public boolean getBoolean(int index) {
+        return _values[index];
+    }
+
+    @NotNull
+    @Override
+    Datum materialize(int index) {
+        return Datum.bool(_values[index]);
+    }
+}
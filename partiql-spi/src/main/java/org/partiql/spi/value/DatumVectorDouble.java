@@ -0,0 +1,32 @@
+package org.partiql.spi.value;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.partiql.spi.types.PType;
+
+import java.util.BitSet;
+
+/**
+ * This shall always be package-private (internal).
+ */
+class DatumVectorDouble extends DatumVectorBase {
+
+    @NotNull
+    private final double[] _values;
+
+    DatumVectorDouble(@NotNull double[] values, @Nullable BitSet nulls) {
+        super(PType.doublePrecision(), values.length, nulls);
+        _values = values;
+    }
+
+    @Override
+    public double getDouble(int index) {
+        return _values[index];
+    }
+
+    @NotNull
+    @Override
+    Datum materialize(int index) {
+        return Datum.doublePrecision(_values[index]);
+    }
+}
@@ -0,0 +1,32 @@
+package org.partiql.spi.value;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.partiql.spi.types.PType;
+
+import java.util.BitSet;
+
+/**
+ * This shall always be package-private (internal).
+ */
+class DatumVectorInt extends DatumVectorBase {
+
+    @NotNull
+    private final int[] _values;
+
+    DatumVectorInt(@NotNull int[] values, @Nullable BitSet nulls) {
+        super(PType.integer(), values.length, nulls);
+        _values = values;
+    }
+
+    @Override
+    public int getInt(int index) {
+        return _values[index];
+    }
+
+    @NotNull
+    @Override
+    Datum materialize(int index) {
+        return Datum.integer(_values[index]);
+    }
+}
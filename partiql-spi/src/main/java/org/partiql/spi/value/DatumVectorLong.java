@@ -0,0 +1,32 @@
+package org.partiql.spi.value;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.partiql.spi.types.PType;
+
+import java.util.BitSet;
+
+/**
+ * This shall always be package-private (internal).
+ */
+class DatumVectorLong extends DatumVectorBase {
+
+    @NotNull
+    private final long[] _values;
+
+    DatumVectorLong(@NotNull long[] values, @Nullable BitSet nulls) {
+        super(PType.bigint(), values.length, nulls);
+        _values = values;
+    }
+
+    @Override
+    public long getLong(int index) {
+        return _values[index];
+    }
+
+    @NotNull
+    @Override
+    Datum materialize(int index) {
+        return Datum.bigint(_values[index]);
+    }
+}
@@ -0,0 +1,49 @@
+package org.partiql.spi.value;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.partiql.spi.types.PType;
+
+import java.util.BitSet;
+
+/**
+ * This shall always be package-private (internal).
+ * <p></p>
+ * Dictionary-encoded strings; each dictionary entry is materialized at most once.
+ */
+class DatumVectorString extends DatumVectorBase {
+
+    @NotNull
+    private final String[] _dictionary;
+
+    @NotNull
+    private final int[] _codes;
+
+    @NotNull
+    private final Datum[] _materialized;
+
+    DatumVectorString(@NotNull String[] dictionary, @NotNull int[] codes, @Nullable BitSet nulls) {
+        super(PType.string(), codes.length, nulls);
+        _dictionary = dictionary;
+        _codes = codes;
+        _materialized = new Datum[dictionary.length];
+    }
+
+    @NotNull
+    @Override
+    public String getString(int index) {
+        return _dictionary[_codes[index]];
+    }
+
+    @NotNull
+    @Override
+    Datum materialize(int index) {
+        int code = _codes[index];
+        Datum value = _materialized[code];
+        if (value == null) {
+            value = Datum.string(_dictionary[code]);
+            _materialized[code] = value;
+        }
+        return value;
+    }
+}
@@ -1,5 +1,10 @@
 package org.partiql.spi.value;
 
+import org.jetbrains.annotations.NotNull;
+import org.partiql.spi.internal.value.ion.IonDatumWriter;
+
+import java.io.OutputStream;
+
 /**
  * The {@link DatumWriter} interface is a low-level writer interface for writing streams of PartiQL data.
  * <br>
@@ -13,4 +18,28 @@ public interface DatumWriter extends AutoCloseable {
      * @param datum to write.
      */
     public DatumWriter write(Datum datum);
+
+    /**
+     * Each {@link #write(Datum)} is a top-level Ion value, which may be read with
+     * {@link DatumReader#ion(java.io.InputStream)}. To stream a query result, write each of its rows rather than the
+     * result itself.
+     *
+     * @return a text writer implementation for {@link Encoding#ION}.
+     */
+    @NotNull
+    public static DatumWriter ion(@NotNull OutputStream output) {
+        return IonDatumWriter.text(output);
+    }
+
+    /**
+     * Each {@link #write(Datum)} is a top-level Ion value, which may be read with
+     * {@link DatumReader#ion(java.io.InputStream)}. To stream a query result, write each of its rows rather than the
+     * result itself, as a binary collection is buffered until it is complete.
+     *
+     * @return a binary writer implementation for {@link Encoding#ION}.
+     */
+    @NotNull
+    public static DatumWriter ionBinary(@NotNull OutputStream output) {
+        return IonDatumWriter.binary(output);
+    }
 }
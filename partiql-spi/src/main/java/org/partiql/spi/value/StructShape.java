@@ -0,0 +1,102 @@
+package org.partiql.spi.value;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The field names of structs which are stored by position; the names and their (case-sensitive and case-insensitive)
+ * indexes are computed once per shape and shared by every struct of the shape, which stores only its values.
+ * <p></p>
+ * A shape is compared by identity, so that a caller which has resolved the position of a field for one shape (e.g. a
+ * compiled path expression) may reuse the position for every struct of the same shape.
+ *
+ * @see Datum#struct(StructShape, Datum[])
+ * @see Datum#getShape()
+ */
+public final class StructShape {
+
+    @NotNull
+    private final String[] names;
+
+    /**
+     * The position of the first field with each name.
+     */
+    @NotNull
+    private final HashMap<String, Integer> positions;
+
+    /**
+     * The position of the first field with each lowercase name.
+     */
+    @NotNull
+    private final HashMap<String, Integer> positionsNormalized;
+
+    private StructShape(@NotNull String[] names) {
+        this.names = names;
+        this.positions = new HashMap<>(names.length * 2);
+        this.positionsNormalized = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            positions.putIfAbsent(names[i], i);
+            positionsNormalized.putIfAbsent(names[i].toLowerCase(), i);
+        }
+    }
+
+    /**
+     * @param names the field names, in order; a name may be repeated.
+     * @return a new shape.
+     */
+    @NotNull
+    public static StructShape of(@NotNull String... names) {
+        return new StructShape(names.clone());
+    }
+
+    /**
+     * @param names the field names, in order; a name may be repeated.
+     * @return a new shape.
+     */
+    @NotNull
+    public static StructShape of(@NotNull List<String> names) {
+        return new StructShape(names.toArray(new String[0]));
+    }
+
+    /**
+     * @return the number of fields.
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @param position the field's position.
+     * @return the name of the field.
+     */
+    @NotNull
+    public String getName(int position) {
+        return names[position];
+    }
+
+    /**
+     * @param name the field name (case-sensitive).
+     * @return the position of the first field with the name; -1 if there is no such field.
+     */
+    public int indexOf(@NotNull String name) {
+        Integer position = positions.get(name);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * @param name the field name (case-insensitive).
+     * @return the position of the first field with the name; -1 if there is no such field.
+     */
+    public int indexOfInsensitive(@NotNull String name) {
+        Integer position = positionsNormalized.get(name.toLowerCase());
+        return position == null ? -1 : position;
+    }
+
+    @Override
+    public String toString() {
+        return "shape::" + Arrays.toString(names);
+    }
+}
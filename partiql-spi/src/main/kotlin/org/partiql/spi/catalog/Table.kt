@@ -21,9 +21,24 @@ public interface Table {
 
     /**
      * The table's data.
+     *
+     * Tables which store their rows by column should return [Datum.columnar] over [org.partiql.spi.value.DatumVector]s;
+     * then a value is only materialized when a query reads it.
      */
     public fun getDatum(): Datum = Datum.nullValue()
 
+    /**
+     * Returns the rows of the table for a query which only uses the parts of the rows described by the [request]; a
+     * table which is backed by an external store may use the request to skip fields and rows at the source. The query
+     * is still evaluated over the returned rows, so the request may be applied partially (or not at all).
+     *
+     * The default implementation returns [getDatum], ignoring the request.
+     *
+     * @param request
+     * @return the table's data, which may omit the fields and rows which are not required by the request.
+     */
+    public fun scan(request: ScanRequest): Datum = getDatum()
+
     /**
      * Factory methods and builder.
      */
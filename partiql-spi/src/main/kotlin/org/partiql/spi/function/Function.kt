@@ -14,6 +14,7 @@ internal object Function {
      * @param returns
      * @param isNullCall
      * @param isMissingCall
+     * @param isDeterministic
      * @param invoke
      * @return
      */
@@ -24,6 +25,7 @@ internal object Function {
         returns: PType,
         isNullCall: Boolean = true,
         isMissingCall: Boolean = true,
+        isDeterministic: Boolean = true,
         invoke: (Array<Datum>) -> Datum,
     ): Fn {
         return Fn.Builder(name)
@@ -31,6 +33,7 @@ internal object Function {
             .addParameters(parameters.toList())
             .isNullCall(isNullCall)
             .isMissingCall(isMissingCall)
+            .isDeterministic(isDeterministic)
             .body(invoke)
             .build()
     }
@@ -41,6 +44,7 @@ internal object Function {
      * @param returns
      * @param isNullCall
      * @param isMissingCall
+     * @param isDeterministic
      * @param invoke
      * @return
      */
@@ -51,12 +55,14 @@ internal object Function {
         returns: PType,
         isNullCall: Boolean = true,
         isMissingCall: Boolean = true,
+        isDeterministic: Boolean = true,
         invoke: (Array<Datum>) -> Datum,
     ): FnOverload = FnOverload.Builder(name)
         .returns(returns)
         .addParameters(parameters.toList())
         .isNullCall(isNullCall)
         .isMissingCall(isMissingCall)
+        .isDeterministic(isDeterministic)
         .body(invoke)
         .build()
 }
@@ -42,6 +42,7 @@ internal abstract class Fn_COLL_AGG__BAG__ANY(
         .returns(PType.dynamic())
         .addParameters(*parameters)
         .returns(returns)
+        .isDeterministic(true)
         .body { args ->
             val bag = args[0]
             val accumulator = when (isDistinct) {
@@ -11,6 +11,7 @@ internal val Fn_CURRENT_DATE____DATE = FunctionUtils.hidden(
     name = "current_date",
     returns = PType.date(),
     parameters = arrayOf(),
+    isDeterministic = false,
 
 ) { args ->
     TODO("Function current_date not implemented")
@@ -11,6 +11,7 @@ internal val Fn_CURRENT_USER____STRING = FunctionUtils.hidden(
     name = "current_user",
     returns = PType.string(),
     parameters = arrayOf(),
+    isDeterministic = false,
 
 ) { args ->
     TODO("Function current_user not implemented")
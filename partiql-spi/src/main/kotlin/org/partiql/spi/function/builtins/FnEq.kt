@@ -37,4 +37,5 @@ internal val FnEq = FnOverload.Builder(name)
             Datum.bool(Datum.comparator().compare(lhs, rhs) == 0)
         }
     }
+    .isDeterministic(true)
     .build()
@@ -24,4 +24,5 @@ internal val FnInCollection = FnOverload.Builder(NAME)
         }
         return@body Datum.bool(false)
     }
+    .isDeterministic(true)
     .build()
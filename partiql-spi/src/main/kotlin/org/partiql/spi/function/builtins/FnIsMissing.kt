@@ -21,4 +21,5 @@ internal val Fn_IS_MISSING__ANY__BOOL = FnOverload.Builder(name)
     .body { args ->
         Datum.bool(args[0].isMissing)
     }
+    .isDeterministic(true)
     .build()
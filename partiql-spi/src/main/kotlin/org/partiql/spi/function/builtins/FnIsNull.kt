@@ -23,4 +23,5 @@ internal val Fn_IS_NULL__ANY__BOOL = FnOverload.Builder(name)
         }
         return@body Datum.bool(args[0].isNull)
     }
+    .isDeterministic(true)
     .build()
@@ -6,10 +6,8 @@ package org.partiql.spi.function.builtins
 import org.partiql.spi.function.Parameter
 import org.partiql.spi.types.PType
 import org.partiql.spi.utils.FunctionUtils
-import org.partiql.spi.utils.PatternUtils.matchRegexPattern
-import org.partiql.spi.utils.PatternUtils.parsePattern
+import org.partiql.spi.utils.LikeMatcher
 import org.partiql.spi.value.Datum
-import java.util.regex.Pattern
 
 internal val Fn_LIKE__STRING_STRING__BOOL = FunctionUtils.hidden(
 
@@ -23,14 +21,7 @@ internal val Fn_LIKE__STRING_STRING__BOOL = FunctionUtils.hidden(
 ) { args ->
     val value = args[0].string
     val pattern = args[1].string
-    val likeRegexPattern = when {
-        pattern.isEmpty() -> Pattern.compile("")
-        else -> parsePattern(pattern, null)
-    }
-    when (matchRegexPattern(value, likeRegexPattern)) {
-        true -> Datum.bool(true)
-        else -> Datum.bool(false)
-    }
+    Datum.bool(LikeMatcher.get(pattern, null).matches(value))
 }
 
 internal val Fn_LIKE__CLOB_CLOB__BOOL = FunctionUtils.hidden(
@@ -45,12 +36,5 @@ internal val Fn_LIKE__CLOB_CLOB__BOOL = FunctionUtils.hidden(
 ) { args ->
     val value = args[0].bytes.toString(Charsets.UTF_8)
     val pattern = args[1].bytes.toString(Charsets.UTF_8)
-    val likeRegexPattern = when {
-        pattern.isEmpty() -> Pattern.compile("")
-        else -> parsePattern(pattern, null)
-    }
-    when (matchRegexPattern(value, likeRegexPattern)) {
-        true -> Datum.bool(true)
-        else -> Datum.bool(false)
-    }
+    Datum.bool(LikeMatcher.get(pattern, null).matches(value))
 }
@@ -26,4 +26,5 @@ internal val Fn_NOT__BOOL__BOOL = FnOverload.Builder(name)
         val value = arg.boolean
         return@body Datum.bool(value.not())
     }
+    .isDeterministic(true)
     .build()
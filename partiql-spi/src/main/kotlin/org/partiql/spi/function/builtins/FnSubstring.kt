@@ -87,6 +87,7 @@ internal val Fn_SUBSTRING__STRING_INT32__STRING = FnOverload.Builder("substring"
         val result = value.codepointSubstring(start)
         Datum.string(result)
     }
+    .isDeterministic(true)
     .build()
 
 internal val Fn_SUBSTRING__CLOB_INT64__CLOB = FnOverload.Builder("substring")
@@ -98,6 +99,7 @@ internal val Fn_SUBSTRING__CLOB_INT64__CLOB = FnOverload.Builder("substring")
         val result = value.codepointSubstring(start)
         Datum.clob(result.toByteArray())
     }
+    .isDeterministic(true)
     .build()
 
 internal val Fn_SUBSTRING__STRING_INT32_INT32__STRING = FnOverload.Builder("substring")
@@ -113,6 +115,7 @@ internal val Fn_SUBSTRING__STRING_INT32_INT32__STRING = FnOverload.Builder("subs
         val result = value.codepointSubstring(start, end)
         Datum.string(result)
     }
+    .isDeterministic(true)
     .build()
 
 internal val Fn_SUBSTRING__CLOB_INT64_INT64__CLOB = FnOverload.Builder("substring")
@@ -128,4 +131,5 @@ internal val Fn_SUBSTRING__CLOB_INT64_INT64__CLOB = FnOverload.Builder("substrin
         val result = string.codepointSubstring(start, end)
         Datum.clob(result.toByteArray())
     }
+    .isDeterministic(true)
     .build()
@@ -13,6 +13,7 @@ internal val Fn_UTCNOW____TIMESTAMP = Function.overload(
     name = "utcnow",
     returns = PType.timestampz(6),
     parameters = arrayOf(),
+    isDeterministic = false,
 ) {
     val now = OffsetDateTime.now(ZoneOffset.UTC)
     Datum.timestampz(now, 6)
@@ -0,0 +1,167 @@
+package org.partiql.spi.internal.value.ion
+
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.DatumReader
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+/**
+ * A [DatumReader] implementation for binary Ion in a [ByteBuffer] or a (memory-mapped) file.
+ *
+ * Unlike [IonDatumReader], a top-level value is not materialized; it is returned as a lazy [Datum] over its bytes,
+ * whose fields and elements are decoded as they are accessed, and whose unread values are skipped by their length
+ * prefixes. A scan of a large file therefore only touches the bytes which a query reads.
+ *
+ *  - A file is mapped in windows of (at most) [window] bytes; the window moves forward as the values are read, and a
+ *    value which crosses the end of the window is remapped at its start, so a single value is limited to 2GB.
+ *  - Local symbol tables are supported, whereas shared symbol table imports and `ion::` values are not.
+ *  - The returned values reference the mapped bytes, so they remain valid after the reader is closed.
+ */
+internal class IonBinaryReader private constructor(
+    private var buffer: ByteBuffer,
+    private val channel: FileChannel?,
+    private val window: Int,
+) : DatumReader {
+
+    /**
+     * The total number of bytes to read.
+     */
+    private val size: Long = channel?.size() ?: buffer.limit().toLong()
+
+    /**
+     * The offset of the current window in the file; always 0 for a [ByteBuffer].
+     */
+    private var base = 0L
+
+    /**
+     * The position of the next top-level value within the current window.
+     */
+    private var position = 0
+
+    /**
+     * The symbols in effect, which are replaced (not modified) by each local symbol table.
+     */
+    private var symbols = IonBinaryValue.SYSTEM_SYMBOLS
+
+    /**
+     * From AutoCloseable.
+     */
+    override fun close() {
+        channel?.close()
+    }
+
+    /**
+     * Read next Datum or null.
+     */
+    @Throws(IOException::class, IonDatumException::class)
+    override fun next(): Datum? {
+        try {
+            while (base + position < size) {
+                map(IVM.size)
+                if (u8(position) == IVM[0]) {
+                    for (i in IVM.indices) {
+                        if (position + i >= buffer.limit() || u8(position + i) != IVM[i]) {
+                            throw IonDatumException("unsupported Ion version marker")
+                        }
+                    }
+                    symbols = IonBinaryValue.SYSTEM_SYMBOLS
+                    position += IVM.size
+                    continue
+                }
+                val value = value()
+                position = value.end
+                if (value.isPad) {
+                    continue
+                }
+                val table = value.symbols()
+                if (table != null) {
+                    symbols = table
+                    continue
+                }
+                return value.datum()
+            }
+            return null
+        } catch (ex: IndexOutOfBoundsException) {
+            throw IonDatumException("unexpected end of data", ex, null)
+        }
+    }
+
+    /**
+     * Read the top-level value at the current position, remapping the window so that it contains the entire value.
+     */
+    private fun value(): IonBinaryValue {
+        var length = HEADER
+        while (true) {
+            map(length)
+            val end = base + buffer.limit() >= size
+            try {
+                val value = IonBinaryValue.read(buffer, symbols, position)
+                if (value.end <= buffer.limit()) {
+                    return value
+                }
+                if (end) {
+                    throw IonDatumException("unexpected end of data")
+                }
+                length = value.end - position
+            } catch (ex: IndexOutOfBoundsException) {
+                // the header crosses the end of the window
+                if (end) {
+                    throw ex
+                }
+                length = (buffer.limit() - position) * 2
+            }
+        }
+    }
+
+    /**
+     * Remap the window at the current position if it does not contain the next [length] bytes (or the rest of the
+     * file, if it is shorter).
+     */
+    private fun map(length: Int) {
+        val offset = base + position
+        val required = minOf(offset + length, size)
+        if (channel == null || required <= base + buffer.limit()) {
+            return
+        }
+        val mapped = minOf(maxOf(window.toLong(), required - offset), size - offset)
+        if (mapped > Int.MAX_VALUE) {
+            throw IonDatumException("value exceeds the maximum size of a mapped window")
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, mapped)
+        base = offset
+        position = 0
+    }
+
+    private fun u8(position: Int): Int = buffer.get(position).toInt() and 0xFF
+
+    internal companion object {
+
+        /**
+         * The default size of a mapped window of a file.
+         */
+        private const val WINDOW = 1 shl 30
+
+        /**
+         * The number of bytes which are mapped before a value's header is read; a longer header is remapped.
+         */
+        private const val HEADER = 64
+
+        /**
+         * The Ion 1.0 binary version marker.
+         */
+        private val IVM = intArrayOf(0xE0, 0x01, 0x00, 0xEA)
+
+        @JvmStatic
+        fun buffer(buffer: ByteBuffer): IonBinaryReader = IonBinaryReader(buffer.slice(), null, 0)
+
+        @JvmStatic
+        @JvmOverloads
+        fun file(path: Path, window: Int = WINDOW): IonBinaryReader {
+            val channel = FileChannel.open(path, StandardOpenOption.READ)
+            return IonBinaryReader(ByteBuffer.allocate(0), channel, window)
+        }
+    }
+}
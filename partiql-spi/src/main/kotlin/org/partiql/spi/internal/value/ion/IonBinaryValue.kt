@@ -0,0 +1,632 @@
+package org.partiql.spi.internal.value.ion
+
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.Field
+import java.math.BigDecimal
+import java.math.BigInteger
+import java.nio.ByteBuffer
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.OffsetDateTime
+import java.time.OffsetTime
+import java.time.ZoneOffset
+import java.time.format.DateTimeParseException
+
+/**
+ * A value of binary Ion in a [ByteBuffer]: its annotations, type, and the bounds of its content. A value is decoded
+ * as a [Datum] with the conventions of [IonDatumReader]; scalars are decoded when they are reached, whereas lists and
+ * structs are lazy [Datum]s which decode their children as they are iterated or accessed. Unread children are skipped
+ * by their length prefixes, so only the bytes of the values which are accessed are decoded.
+ *
+ * The buffer is only read with absolute gets, so that the values of a buffer may be decoded concurrently.
+ *
+ * @property symbols    The symbol table in effect for the value, indexed by symbol ID.
+ * @property field      The symbol ID of the value's field name, or -1 if the value is not a field of a struct.
+ * @property start      The position of the content of the value.
+ * @property end        The position after the value.
+ */
+internal class IonBinaryValue private constructor(
+    private val buffer: ByteBuffer,
+    private val symbols: Array<String?>,
+    private val annotations: IntArray,
+    @JvmField val type: Int,
+    private val nibble: Int,
+    @JvmField val field: Int,
+    @JvmField val start: Int,
+    @JvmField val end: Int,
+) {
+
+    /**
+     * True if the value is a NOP pad, which is skipped.
+     */
+    val isPad: Boolean
+        get() = type == T_NULL && nibble != L_NULL
+
+    /**
+     * If this is a local symbol table, returns the symbols which are in effect after it; otherwise, returns null.
+     */
+    fun symbols(): Array<String?>? {
+        if (annotations.isEmpty() || annotations[0] != SID_SYMBOL_TABLE || type != T_STRUCT || nibble == L_NULL) {
+            return null
+        }
+        var append = false
+        val texts = ArrayList<String?>()
+        for (child in children()) {
+            if (child.nibble == L_NULL) {
+                continue
+            }
+            when (child.field) {
+                SID_IMPORTS -> when (child.type) {
+                    T_SYMBOL -> append = child.long() == SID_SYMBOL_TABLE.toLong()
+                    T_LIST -> if (child.children().hasNext()) {
+                        throw IonDatumException("shared symbol table imports are not supported")
+                    }
+                }
+                SID_SYMBOLS -> if (child.type == T_LIST) {
+                    for (symbol in child.children()) {
+                        texts.add(if (symbol.type == T_STRING && symbol.nibble != L_NULL) symbol.string() else null)
+                    }
+                }
+            }
+        }
+        return (if (append) symbols else SYSTEM_SYMBOLS) + texts
+    }
+
+    /**
+     * Decode the value as a [Datum], with its (optional) type annotation.
+     */
+    fun datum(): Datum {
+        if (annotations.isEmpty()) {
+            return read()
+        }
+        val annotation = symbol(annotations[0])
+        return when {
+            annotation == "ion" -> throw IonDatumException("ion values are not supported by the binary scan")
+            annotations.size == 1 -> read(annotation)
+            else -> throw IonDatumException("expected 0 or 1 annotations")
+        }
+    }
+
+    /**
+     * Read without any explicit PartiQL type information.
+     */
+    private fun read(): Datum {
+        if (nibble == L_NULL) {
+            return Datum.nullValue()
+        }
+        return when (type) {
+            T_BOOL -> bool()
+            T_POS_INT, T_NEG_INT -> Datum.bigint(long())
+            T_FLOAT -> Datum.doublePrecision(double())
+            T_DECIMAL -> decimal()
+            T_SYMBOL -> missing()
+            T_STRING -> Datum.string(string())
+            T_CLOB, T_BLOB -> Datum.clob(bytes())
+            T_LIST -> LazyCollection(this, ARRAY)
+            T_STRUCT -> LazyStruct(this)
+            T_SEXP -> {
+                val children = children()
+                val method = if (children.hasNext()) children.next() else throw IonDatumException("expected type, was null")
+                val value = if (children.hasNext()) children.next() else throw IonDatumException("expected value, was null")
+                if (children.hasNext()) {
+                    throw IonDatumException("expected end of s-expression pair")
+                }
+                if (method.type != T_SYMBOL) {
+                    throw IonDatumException("types with parameters are not supported")
+                }
+                value.read(method.symbol(method.long().toInt()))
+            }
+            T_TIMESTAMP -> throw IonDatumException("unsupported type")
+            else -> throw IonDatumException("unknown type")
+        }
+    }
+
+    /**
+     * Read with the type of a (short-form) annotation.
+     */
+    private fun read(annotation: String): Datum = when (annotation) {
+        "bool" -> expect(T_BOOL).bool()
+        "tinyint" -> {
+            val v = expect(T_POS_INT, T_NEG_INT).long()
+            if (v < Byte.MIN_VALUE || v > Byte.MAX_VALUE) {
+                throw IonDatumException("tinyint out of range")
+            }
+            Datum.tinyint(v.toByte())
+        }
+        "smallint" -> {
+            val v = expect(T_POS_INT, T_NEG_INT).long()
+            if (v < Short.MIN_VALUE || v > Short.MAX_VALUE) {
+                throw IonDatumException("smallint out of range")
+            }
+            Datum.smallint(v.toShort())
+        }
+        "int" -> {
+            val v = expect(T_POS_INT, T_NEG_INT).long()
+            if (v < Int.MIN_VALUE || v > Int.MAX_VALUE) {
+                throw IonDatumException("int out of range")
+            }
+            Datum.integer(v.toInt())
+        }
+        "bigint" -> Datum.bigint(expect(T_POS_INT, T_NEG_INT).long())
+        "real" -> {
+            val v = expect(T_FLOAT).double()
+            if (v.isFinite() && Math.abs(v) > Float.MAX_VALUE) {
+                throw IonDatumException("real out of range")
+            }
+            Datum.real(v.toFloat())
+        }
+        "double" -> Datum.doublePrecision(expect(T_FLOAT).double())
+        "char" -> {
+            val v = expect(T_STRING).string()
+            if (v.length != 1) {
+                throw IonDatumException("char(1) had length ${v.length}")
+            }
+            Datum.character(v, 1)
+        }
+        "varchar" -> Datum.string(expect(T_STRING).string())
+        "clob" -> Datum.clob(expect(T_CLOB, T_BLOB).bytes())
+        "blob" -> Datum.blob(expect(T_CLOB, T_BLOB).bytes())
+        "date" -> Datum.date(expect(T_TIMESTAMP).timestamp().toLocalDate())
+        "time" -> {
+            val v = expect(T_STRING).string()
+            Datum.time(parse(v) { LocalTime.parse(v) }, precision(v))
+        }
+        "timez" -> {
+            val v = expect(T_STRING).string()
+            Datum.timez(parse(v) { OffsetTime.parse(v) }, precision(v))
+        }
+        "timestamp" -> {
+            val v = expect(T_TIMESTAMP)
+            if (v.offset() != null) {
+                throw IonDatumException("timestamp had a time zone")
+            }
+            Datum.timestamp(v.timestamp(), v.precision())
+        }
+        "timestampz" -> {
+            val v = expect(T_TIMESTAMP)
+            val offset = v.offset() ?: throw IonDatumException("timestampz had an unknown offset")
+            Datum.timestampz(OffsetDateTime.of(v.timestamp(), ZoneOffset.ofTotalSeconds(offset * 60)), v.precision())
+        }
+        "array" -> LazyCollection(expect(T_LIST), ARRAY)
+        "bag" -> LazyCollection(expect(T_LIST), BAG)
+        "struct" -> LazyStruct(expect(T_STRUCT))
+        else -> throw IonDatumException("cannot read type $annotation without arguments")
+    }
+
+    private fun expect(vararg types: Int): IonBinaryValue {
+        if (type !in types || nibble == L_NULL) {
+            throw IonDatumException("unexpected Ion type code $type")
+        }
+        return this
+    }
+
+    private fun bool(): Datum {
+        if (type != T_BOOL) {
+            throw IonDatumException("expected bool")
+        }
+        return Datum.bool(nibble == 1)
+    }
+
+    private fun missing(): Datum {
+        val v = symbol(long().toInt())
+        if (v != "missing") {
+            throw IonDatumException("expected symbol `missing`, found $v")
+        }
+        return Datum.missing()
+    }
+
+    private fun long(): Long {
+        if (end - start > 8) {
+            throw IonDatumException("int out of range")
+        }
+        var magnitude = 0L
+        for (i in start until end) {
+            magnitude = (magnitude shl 8) or u8(i).toLong()
+        }
+        return when {
+            type == T_NEG_INT && magnitude == Long.MIN_VALUE -> magnitude
+            magnitude < 0 -> throw IonDatumException("int out of range")
+            type == T_NEG_INT -> -magnitude
+            else -> magnitude
+        }
+    }
+
+    private fun double(): Double = when (end - start) {
+        0 -> 0.0
+        4 -> Float.fromBits(bits(4).toInt()).toDouble()
+        8 -> Double.fromBits(bits(8))
+        else -> throw IonDatumException("invalid float length ${end - start}")
+    }
+
+    private fun bits(n: Int): Long {
+        var bits = 0L
+        for (i in start until start + n) {
+            bits = (bits shl 8) or u8(i).toLong()
+        }
+        return bits
+    }
+
+    private fun decimal(): Datum {
+        val v = if (start == end) {
+            BigDecimal.ZERO
+        } else {
+            val cursor = Cursor(start)
+            val exponent = cursor.varInt()
+            BigDecimal(integer(cursor.position, end), -exponent)
+        }
+        return Datum.decimal(v, v.precision(), v.scale())
+    }
+
+    private fun string(): String = String(bytes(), Charsets.UTF_8)
+
+    private fun bytes(): ByteArray {
+        val bytes = ByteArray(end - start)
+        val view = buffer.duplicate()
+        view.position(start)
+        view.get(bytes)
+        return bytes
+    }
+
+    /**
+     * The offset of a timestamp in minutes, or null if it is unknown.
+     */
+    private fun offset(): Int? {
+        if (u8(start) == UNKNOWN_OFFSET) {
+            return null
+        }
+        return Cursor(start).varInt()
+    }
+
+    /**
+     * The local date-time of a timestamp, i.e. its (UTC) fields in its own offset.
+     */
+    private fun timestamp(): LocalDateTime {
+        val cursor = Cursor(start)
+        val offset = offset()
+        cursor.varInt()
+        val year = cursor.varUInt()
+        val month = if (cursor.position < end) cursor.varUInt() else 1
+        val day = if (cursor.position < end) cursor.varUInt() else 1
+        if (cursor.position == end) {
+            return LocalDate.of(year, month, day).atStartOfDay()
+        }
+        val hour = cursor.varUInt()
+        val minute = cursor.varUInt()
+        val second = if (cursor.position < end) cursor.varUInt() else 0
+        var nanos = 0
+        if (cursor.position < end) {
+            val exponent = cursor.varInt()
+            val fraction = BigDecimal(integer(cursor.position, end), -exponent)
+            nanos = fraction.movePointRight(9).toInt()
+        }
+        val utc = LocalDateTime.of(year, month, day, hour, minute, second, nanos)
+        return if (offset == null) utc else utc.plusMinutes(offset.toLong())
+    }
+
+    /**
+     * The precision of a timestamp is the number of its fractional digits.
+     */
+    private fun precision(): Int {
+        val cursor = Cursor(start)
+        cursor.varInt()
+        repeat(6) {
+            if (cursor.position == end) {
+                return 0
+            }
+            cursor.varUInt()
+        }
+        if (cursor.position == end) {
+            return 0
+        }
+        return (-cursor.varInt()).coerceAtLeast(0)
+    }
+
+    /**
+     * A signed-magnitude integer of the bytes from [from] until [to].
+     */
+    private fun integer(from: Int, to: Int): BigInteger {
+        if (from == to) {
+            return BigInteger.ZERO
+        }
+        val bytes = ByteArray(to - from)
+        for (i in bytes.indices) {
+            bytes[i] = buffer.get(from + i)
+        }
+        val negative = bytes[0].toInt() and 0x80 != 0
+        bytes[0] = (bytes[0].toInt() and 0x7F).toByte()
+        val magnitude = BigInteger(1, bytes)
+        return if (negative) magnitude.negate() else magnitude
+    }
+
+    private fun symbol(sid: Int): String {
+        if (sid <= 0 || sid >= symbols.size) {
+            throw IonDatumException("unknown symbol $$sid")
+        }
+        return symbols[sid] ?: throw IonDatumException("unknown text of symbol $$sid")
+    }
+
+    private fun u8(position: Int): Int = buffer.get(position).toInt() and 0xFF
+
+    /**
+     * Returns the children of a list, s-expression, or struct, which are read as they are iterated.
+     */
+    fun children(): Iterator<IonBinaryValue> = object : Iterator<IonBinaryValue> {
+
+        private var position = start
+
+        private var next: IonBinaryValue? = null
+
+        override fun hasNext(): Boolean {
+            while (next == null && position < end) {
+                val cursor = Cursor(position)
+                val field = if (type == T_STRUCT) cursor.varUInt() else -1
+                val child = read(buffer, symbols, cursor.position, field)
+                position = child.end
+                if (!child.isPad) {
+                    next = child
+                }
+            }
+            if (position > end) {
+                throw IonDatumException("child exceeds the length of its container")
+            }
+            return next != null
+        }
+
+        override fun next(): IonBinaryValue {
+            if (!hasNext()) {
+                throw NoSuchElementException()
+            }
+            val child = next!!
+            next = null
+            return child
+        }
+    }
+
+    private inline fun <T> parse(v: String, parse: () -> T): T = try {
+        parse()
+    } catch (ex: DateTimeParseException) {
+        throw IonDatumException("invalid time $v", ex, null)
+    }
+
+    private fun precision(v: String): Int {
+        val dot = v.indexOf('.')
+        if (dot < 0) {
+            return 0
+        }
+        var i = dot + 1
+        while (i < v.length && v[i].isDigit()) {
+            i++
+        }
+        return i - dot - 1
+    }
+
+    /**
+     * A position within the buffer, for reading the variable-length integers of binary Ion.
+     */
+    private inner class Cursor(@JvmField var position: Int) {
+
+        fun varUInt(): Int {
+            val v = length(buffer, position, L_VAR)
+            position = lengthEnd(buffer, position, L_VAR)
+            return v
+        }
+
+        fun varInt(): Int {
+            var b = u8(position++)
+            val negative = b and 0x40 != 0
+            var magnitude = (b and 0x3F).toLong()
+            while (b and 0x80 == 0) {
+                b = u8(position++)
+                magnitude = (magnitude shl 7) or (b and 0x7F).toLong()
+                if (magnitude > Int.MAX_VALUE) {
+                    throw IonDatumException("VarInt out of range")
+                }
+            }
+            return if (negative) -magnitude.toInt() else magnitude.toInt()
+        }
+    }
+
+    /**
+     * A lazy ARRAY or BAG, whose elements are decoded as they are iterated.
+     */
+    private class LazyCollection(private val value: IonBinaryValue, private val type: PType) : Datum {
+
+        override fun getType(): PType = type
+
+        override fun iterator(): MutableIterator<Datum> = Elements(value.children())
+    }
+
+    /**
+     * A lazy STRUCT, whose fields are decoded as they are iterated; a lookup scans the field names, and decodes only
+     * the value of the matching field.
+     */
+    private class LazyStruct(private val value: IonBinaryValue) : Datum {
+
+        override fun getType(): PType = STRUCT
+
+        override fun getFields(): MutableIterator<Field> = Fields(value)
+
+        override fun get(name: String): Datum? {
+            for (child in value.children()) {
+                if (value.symbol(child.field) == name) {
+                    return child.datum()
+                }
+            }
+            return null
+        }
+
+        override fun getInsensitive(name: String): Datum? {
+            for (child in value.children()) {
+                if (value.symbol(child.field).equals(name, ignoreCase = true)) {
+                    return child.datum()
+                }
+            }
+            return null
+        }
+    }
+
+    /**
+     * Decodes the elements of a list as they are iterated.
+     */
+    private class Elements(private val children: Iterator<IonBinaryValue>) : MutableIterator<Datum> {
+
+        override fun hasNext(): Boolean = children.hasNext()
+
+        override fun next(): Datum = children.next().datum()
+
+        override fun remove() = throw UnsupportedOperationException("remove")
+    }
+
+    /**
+     * Decodes the fields of a struct as they are iterated.
+     */
+    private class Fields(private val struct: IonBinaryValue) : MutableIterator<Field> {
+
+        private val children = struct.children()
+
+        override fun hasNext(): Boolean = children.hasNext()
+
+        override fun next(): Field {
+            val child = children.next()
+            return Field.of(struct.symbol(child.field), child.datum())
+        }
+
+        override fun remove() = throw UnsupportedOperationException("remove")
+    }
+
+    internal companion object {
+
+        const val T_NULL = 0
+        const val T_BOOL = 1
+        const val T_POS_INT = 2
+        const val T_NEG_INT = 3
+        const val T_FLOAT = 4
+        const val T_DECIMAL = 5
+        const val T_TIMESTAMP = 6
+        const val T_SYMBOL = 7
+        const val T_STRING = 8
+        const val T_CLOB = 9
+        const val T_BLOB = 10
+        const val T_LIST = 11
+        const val T_SEXP = 12
+        const val T_STRUCT = 13
+        const val T_ANNOTATION = 14
+
+        private const val L_VAR = 14
+        private const val L_NULL = 15
+
+        // the VarInt of a timestamp offset which is unknown, i.e. negative zero
+        private const val UNKNOWN_OFFSET = 0xC0
+
+        private const val SID_SYMBOL_TABLE = 3
+        private const val SID_IMPORTS = 6
+        private const val SID_SYMBOLS = 7
+
+        /**
+         * The symbols of the Ion 1.0 system symbol table; symbol ID 0 has no text.
+         */
+        @JvmField
+        val SYSTEM_SYMBOLS: Array<String?> = arrayOf(
+            null,
+            "\$ion",
+            "\$ion_1_0",
+            "\$ion_symbol_table",
+            "name",
+            "version",
+            "imports",
+            "symbols",
+            "max_id",
+            "\$ion_shared_symbol_table",
+        )
+
+        private val NO_ANNOTATIONS = IntArray(0)
+
+        private val ARRAY = PType.array()
+        private val BAG = PType.bag()
+        private val STRUCT = PType.struct()
+
+        /**
+         * Read the header of the value at the [position], i.e. its annotations, type, and length.
+         */
+        @JvmStatic
+        fun read(buffer: ByteBuffer, symbols: Array<String?>, position: Int, field: Int = -1): IonBinaryValue {
+            var p = position
+            var td = buffer.get(p++).toInt() and 0xFF
+            var annotations = NO_ANNOTATIONS
+            var wrapperEnd = -1
+            if (td shr 4 == T_ANNOTATION) {
+                if (td and 0x0F == 0) {
+                    throw IonDatumException("unexpected Ion version marker")
+                }
+                val length = length(buffer, p, td and 0x0F)
+                p = lengthEnd(buffer, p, td and 0x0F)
+                wrapperEnd = p + length
+                val annotationsLength = length(buffer, p, L_VAR)
+                p = lengthEnd(buffer, p, L_VAR)
+                val annotationsEnd = p + annotationsLength
+                val sids = ArrayList<Int>(1)
+                while (p < annotationsEnd) {
+                    sids.add(length(buffer, p, L_VAR))
+                    p = lengthEnd(buffer, p, L_VAR)
+                }
+                annotations = sids.toIntArray()
+                td = buffer.get(p++).toInt() and 0xFF
+                if (td shr 4 == T_ANNOTATION) {
+                    throw IonDatumException("nested annotation wrapper")
+                }
+            }
+            val type = td shr 4
+            val nibble = td and 0x0F
+            val length = when {
+                type == T_BOOL || nibble == L_NULL -> 0
+                type == T_STRUCT && nibble == 1 -> length(buffer, p, L_VAR)
+                else -> length(buffer, p, nibble)
+            }
+            p = when {
+                type == T_BOOL || nibble == L_NULL -> p
+                type == T_STRUCT && nibble == 1 -> lengthEnd(buffer, p, L_VAR)
+                else -> lengthEnd(buffer, p, nibble)
+            }
+            val end = p + length
+            if (wrapperEnd >= 0 && wrapperEnd != end) {
+                throw IonDatumException("annotation wrapper length does not match its value")
+            }
+            if (end < p) {
+                throw IonDatumException("value length out of range")
+            }
+            return IonBinaryValue(buffer, symbols, annotations, type, nibble, field, p, end)
+        }
+
+        /**
+         * The length of a value with the length [nibble], whose (VarUInt) length, if any, is at the [position].
+         */
+        private fun length(buffer: ByteBuffer, position: Int, nibble: Int): Int {
+            if (nibble != L_VAR) {
+                return nibble
+            }
+            var p = position
+            var result = 0L
+            do {
+                val b = buffer.get(p++).toInt() and 0xFF
+                result = (result shl 7) or (b and 0x7F).toLong()
+                if (result > Int.MAX_VALUE) {
+                    throw IonDatumException("length out of range")
+                }
+            } while (b and 0x80 == 0)
+            return result.toInt()
+        }
+
+        private fun lengthEnd(buffer: ByteBuffer, position: Int, nibble: Int): Int {
+            if (nibble != L_VAR) {
+                return position
+            }
+            var p = position
+            while (buffer.get(p++).toInt() and 0x80 == 0) {
+                // continue to the last byte of the VarUInt
+            }
+            return p
+        }
+    }
+}
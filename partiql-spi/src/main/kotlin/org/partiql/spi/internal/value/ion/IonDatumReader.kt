@@ -4,6 +4,7 @@ import com.amazon.ion.IonException
 import com.amazon.ion.IonType
 import com.amazon.ion.Span
 import com.amazon.ion.SpanProvider
+import com.amazon.ion.Timestamp
 import com.amazon.ion.system.IonReaderBuilder
 import com.amazon.ionelement.api.loadSingleElement
 import org.partiql.spi.value.Datum
@@ -12,6 +13,15 @@ import org.partiql.spi.value.Encoding
 import org.partiql.spi.value.Field
 import java.io.IOException
 import java.io.InputStream
+import java.math.BigDecimal
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.OffsetDateTime
+import java.time.OffsetTime
+import java.time.ZoneOffset
+import java.time.format.DateTimeParseException
+import kotlin.math.abs
 
 /**
  * A [DatumReader] implementation for Ion encoded PartiQL data.
@@ -49,12 +59,7 @@ internal class IonDatumReader internal constructor(
     override fun next(): Datum? {
         return try {
             reader.next() ?: return null
-            val anno = reader.typeAnnotations
-            when (anno.size) {
-                0 -> read()
-                1 -> method(anno[0]).invoke()
-                else -> throw IonDatumException("expected 0 or 1 annotations", null, span())
-            }
+            value()
         } catch (ex: IonException) {
             throw IonDatumException("data exception", ex, span())
         } catch (ex: NotImplementedError) {
@@ -62,6 +67,19 @@ internal class IonDatumReader internal constructor(
         }
     }
 
+    /**
+     * Read the current value, with its (optional) type annotation; an `ion` value may have annotations of its own.
+     */
+    private fun value(): Datum {
+        val anno = reader.typeAnnotations
+        return when {
+            anno.isEmpty() -> read()
+            anno[0] == "ion" -> ion()
+            anno.size == 1 -> method(anno[0]).invoke()
+            else -> throw IonDatumException("expected 0 or 1 annotations", null, span())
+        }
+    }
+
     /**
      * Read without any explicit PartiQL type information.
      */
@@ -112,6 +130,11 @@ internal class IonDatumReader internal constructor(
         "varchar" -> ::varchar0
         "clob" -> ::clob0
         "blob" -> ::blob0
+        "date" -> ::date0
+        "time" -> ::time0
+        "timez" -> ::timez0
+        "timestamp" -> ::timestamp0
+        "timestampz" -> ::timestampz0
         "array" -> ::array
         "bag" -> ::bag
         "struct" -> ::struct
@@ -216,7 +239,7 @@ internal class IonDatumReader internal constructor(
 
     private fun real(): Datum {
         val v = reader.doubleValue()
-        if (v > Float.MAX_VALUE || v < Float.MIN_VALUE) {
+        if (v.isFinite() && abs(v) > Float.MAX_VALUE) {
             throw IonDatumException("real out of range", null, span())
         }
         return Datum.real(v.toFloat())
@@ -283,17 +306,46 @@ internal class IonDatumReader internal constructor(
     }
 
     private fun date0(): Datum {
-        throw IonDatumException("date not supported", null, span())
+        val v = reader.timestampValue()
+        return Datum.date(LocalDate.of(v.year, v.month, v.day))
+    }
+
+    private fun time0(): Datum {
+        val v = reader.stringValue()
+        val time = try {
+            LocalTime.parse(v)
+        } catch (ex: DateTimeParseException) {
+            throw IonDatumException("invalid time $v", ex, span())
+        }
+        return Datum.time(time, precision(v))
     }
 
     private fun time1(precision: Int): Datum {
         throw IonDatumException("time(p) not supported", null, span())
     }
 
+    private fun timez0(): Datum {
+        val v = reader.stringValue()
+        val time = try {
+            OffsetTime.parse(v)
+        } catch (ex: DateTimeParseException) {
+            throw IonDatumException("invalid time with time zone $v", ex, span())
+        }
+        return Datum.timez(time, precision(v))
+    }
+
     private fun timez1(precision: Int): Datum {
         throw IonDatumException("timez(p) not supported", null, span())
     }
 
+    private fun timestamp0(): Datum {
+        val v = reader.timestampValue()
+        if (v.localOffset != null) {
+            throw IonDatumException("timestamp had a time zone", null, span())
+        }
+        return Datum.timestamp(localDateTime(v), precision(v))
+    }
+
     private fun timestamp1(precision: Int): Datum {
         throw IonDatumException("timestamp(p) not supported", null, span())
     }
@@ -302,6 +354,38 @@ internal class IonDatumReader internal constructor(
         throw IonDatumException("timestampz(p) not supported", null, span())
     }
 
+    private fun timestampz0(): Datum {
+        val v = reader.timestampValue()
+        val offset = v.localOffset ?: throw IonDatumException("timestampz had an unknown offset", null, span())
+        val timestamp = OffsetDateTime.of(localDateTime(v), ZoneOffset.ofTotalSeconds(offset * 60))
+        return Datum.timestampz(timestamp, precision(v))
+    }
+
+    /**
+     * The local date-time of an Ion timestamp, i.e. its fields in its own offset.
+     */
+    private fun localDateTime(v: Timestamp): LocalDateTime {
+        val nanos = v.decimalSecond.remainder(BigDecimal.ONE).movePointRight(9).toInt()
+        return LocalDateTime.of(v.year, v.month, v.day, v.hour, v.minute, v.second, nanos)
+    }
+
+    /**
+     * The precision of a time is the number of its fractional digits.
+     */
+    private fun precision(v: String): Int {
+        val dot = v.indexOf('.')
+        if (dot < 0) {
+            return 0
+        }
+        var end = dot + 1
+        while (end < v.length && v[end].isDigit()) {
+            end++
+        }
+        return end - dot - 1
+    }
+
+    private fun precision(v: Timestamp): Int = v.decimalSecond.scale().coerceAtLeast(0)
+
     private fun array(): Datum {
         reader.stepIn()
         val elements = mutableListOf<Datum>()
@@ -331,7 +415,7 @@ internal class IonDatumReader internal constructor(
         val fields = mutableListOf<Field>()
         while (reader.next() != null) {
             val name = reader.fieldName
-            val value = read()
+            val value = value()
             fields.add(Field.of(name, value))
         }
         reader.stepOut()
@@ -340,6 +424,7 @@ internal class IonDatumReader internal constructor(
 
     private fun ion(): Datum {
         val v = loadSingleElement(reader)
-        return IonVariant(v)
+        // drop the leading `ion` annotation
+        return IonVariant(v.withoutAnnotations().withAnnotations(*v.annotations.drop(1).toTypedArray()))
     }
 }
@@ -1,15 +1,178 @@
 package org.partiql.spi.internal.value.ion
 
+import com.amazon.ion.IonType
+import com.amazon.ion.IonWriter
+import com.amazon.ion.Timestamp
+import com.amazon.ion.system.IonBinaryWriterBuilder
+import com.amazon.ion.system.IonTextWriterBuilder
+import org.partiql.spi.types.PType
 import org.partiql.spi.value.Datum
 import org.partiql.spi.value.DatumWriter
+import java.io.OutputStream
+import java.math.BigDecimal
+import java.math.RoundingMode
+import java.time.LocalDateTime
+import java.time.LocalTime
 
-internal class IonDatumWriter : DatumWriter {
+/**
+ * A [DatumWriter] implementation for Ion encoded PartiQL data; the inverse of [IonDatumReader].
+ *
+ * Each [write] is a single top-level Ion value, written to one (reused) Ion writer as the value is iterated, so a
+ * result is streamed by writing its rows one at a time. Types which [IonDatumReader] cannot infer from the Ion type
+ * are written with their short-form annotation, e.g. `int::1` or `bag::[ ... ]`.
+ *
+ *  - The binary writer appends to a single local symbol table, so the periodic flushes do not repeat symbols.
+ *  - Ion binary containers are length-prefixed, so a collection is buffered until it is complete; hence the rows of
+ *    a (large) result should be written individually rather than as a single bag.
+ */
+internal class IonDatumWriter internal constructor(private val writer: IonWriter) : DatumWriter {
 
+    /**
+     * The number of top-level values written since the last flush.
+     */
+    private var pending = 0
+
+    /**
+     * From AutoCloseable; this flushes the written values.
+     */
     override fun close() {
-        TODO("Not yet implemented")
+        writer.close()
     }
 
+    /**
+     * Write the Datum as a top-level value.
+     */
+    @Throws(IonDatumException::class)
     override fun write(datum: Datum?): DatumWriter {
-        TODO("Not yet implemented")
+        if (datum == null) {
+            return this
+        }
+        value(datum)
+        if (++pending == FLUSH_INTERVAL) {
+            writer.flush()
+            pending = 0
+        }
+        return this
+    }
+
+    private fun value(datum: Datum) {
+        if (datum.isNull) {
+            writer.writeNull()
+            return
+        }
+        if (datum.isMissing) {
+            writer.writeSymbol("missing")
+            return
+        }
+        when (datum.type.code()) {
+            PType.BOOL -> writer.writeBool(datum.boolean)
+            PType.TINYINT -> annotated("tinyint").writeInt(datum.byte.toLong())
+            PType.SMALLINT -> annotated("smallint").writeInt(datum.short.toLong())
+            PType.INTEGER -> annotated("int").writeInt(datum.int.toLong())
+            PType.BIGINT -> writer.writeInt(datum.long)
+            PType.NUMERIC, PType.DECIMAL -> writer.writeDecimal(datum.bigDecimal)
+            PType.REAL -> annotated("real").writeFloat(datum.float.toDouble())
+            PType.DOUBLE -> writer.writeFloat(datum.double)
+            PType.CHAR, PType.STRING -> writer.writeString(datum.string)
+            PType.VARCHAR -> annotated("varchar").writeString(datum.string)
+            PType.CLOB -> writer.writeClob(datum.bytes)
+            PType.BLOB -> annotated("blob").writeBlob(datum.bytes)
+            PType.DATE -> {
+                val date = datum.localDate
+                annotated("date").writeTimestamp(Timestamp.forDay(date.year, date.monthValue, date.dayOfMonth))
+            }
+            PType.TIME -> annotated("time").writeString(time(datum.localTime, datum.type.precision))
+            PType.TIMEZ -> {
+                val time = datum.offsetTime
+                annotated("timez").writeString(time(time.toLocalTime(), datum.type.precision) + time.offset.id)
+            }
+            PType.TIMESTAMP -> annotated("timestamp").writeTimestamp(timestamp(datum.localDateTime, datum.type.precision, null))
+            PType.TIMESTAMPZ -> {
+                val timestamp = datum.offsetDateTime
+                val offset = timestamp.offset.totalSeconds / 60
+                annotated("timestampz").writeTimestamp(timestamp(timestamp.toLocalDateTime(), datum.type.precision, offset))
+            }
+            PType.ARRAY -> list(datum)
+            PType.BAG -> {
+                annotated("bag")
+                list(datum)
+            }
+            PType.STRUCT, PType.ROW -> {
+                writer.stepIn(IonType.STRUCT)
+                for (field in datum.fields) {
+                    writer.setFieldName(field.name)
+                    value(field.value)
+                }
+                writer.stepOut()
+            }
+            PType.VARIANT -> variant(datum)
+            else -> throw IonDatumException("cannot write type ${datum.type}")
+        }
+    }
+
+    private fun list(datum: Datum) {
+        writer.stepIn(IonType.LIST)
+        for (element in datum) {
+            value(element)
+        }
+        writer.stepOut()
+    }
+
+    /**
+     * Ion values are written as-is (`ion::value`); any other variant is written as its lowered value.
+     */
+    private fun variant(datum: Datum) {
+        if (datum is IonVariant) {
+            val element = datum.element
+            element.withoutAnnotations().withAnnotations("ion", *element.annotations.toTypedArray()).writeTo(writer)
+        } else {
+            value(datum.lower())
+        }
+    }
+
+    private fun annotated(annotation: String): IonWriter {
+        writer.setTypeAnnotations(annotation)
+        return writer
+    }
+
+    /**
+     * Ion has no time type, so a time is written as its ISO-8601 text with the given number of fractional digits.
+     */
+    private fun time(time: LocalTime, precision: Int): String {
+        val text = String.format("%02d:%02d:%02d", time.hour, time.minute, time.second)
+        val digits = precision.coerceIn(0, 9)
+        if (digits == 0) {
+            return text
+        }
+        return text + "." + String.format("%09d", time.nano).substring(0, digits)
+    }
+
+    /**
+     * Returns an Ion timestamp with the given number of fractional digits and (unknown, if null) offset in minutes.
+     */
+    private fun timestamp(value: LocalDateTime, precision: Int, offset: Int?): Timestamp {
+        val second = BigDecimal.valueOf(value.second * NANOS_PER_SECOND + value.nano, 9)
+            .setScale(precision.coerceIn(0, 9), RoundingMode.DOWN)
+        return Timestamp.forSecond(value.year, value.monthValue, value.dayOfMonth, value.hour, value.minute, second, offset)
+    }
+
+    internal companion object {
+
+        /**
+         * The number of top-level values after which the Ion writer is flushed to the output.
+         */
+        private const val FLUSH_INTERVAL = 1024
+
+        private const val NANOS_PER_SECOND = 1_000_000_000L
+
+        @JvmStatic
+        fun text(output: OutputStream): IonDatumWriter = IonDatumWriter(
+            IonTextWriterBuilder.standard().withWriteTopLevelValuesOnNewLines(true).build(output)
+        )
+
+        @JvmStatic
+        fun binary(output: OutputStream): IonDatumWriter = IonDatumWriter(
+            IonBinaryWriterBuilder.standard().withLocalSymbolTableAppendEnabled().build(output)
+        )
     }
 }
@@ -18,6 +18,7 @@ import com.amazon.ionelement.api.ElementType.STRUCT
 import com.amazon.ionelement.api.ElementType.SYMBOL
 import com.amazon.ionelement.api.ElementType.TIMESTAMP
 import com.amazon.ionelement.api.IntElementSize
+import com.amazon.ionelement.api.StructField
 import org.partiql.spi.types.PType
 import org.partiql.spi.value.Datum
 import org.partiql.spi.value.Field
@@ -34,13 +35,28 @@ import java.time.ZoneOffset
 
 /**
  * A [Datum] implemented over Ion's [AnyElement].
+ *
+ * The children of a list or struct are wrapped on demand, as they are iterated or accessed, so that navigating a
+ * (wide) document only allocates the variants of the values which are touched.
  */
 internal class IonVariant(private var value: AnyElement) : Datum {
 
     /**
-     * VARIANT<ION>
+     * The underlying Ion value.
      */
-    private var type = PType.variant("ion")
+    internal val element: AnyElement
+        get() = value
+
+    /**
+     * The fields of a struct by their lower-case name; see [getInsensitive].
+     */
+    @Volatile
+    private var insensitive: Map<String, AnyElement>? = null
+
+    /**
+     * The number of case-insensitive lookups of a struct.
+     */
+    private var lookups = 0
 
     /**
      * Pack an IonDatum into a UTF-8 string byte[] using the textual Ion encoding.
@@ -94,9 +110,8 @@ internal class IonVariant(private var value: AnyElement) : Datum {
                 val decimal = value.decimalValue.bigDecimalValue()
                 Datum.decimal(decimal, decimal.precision(), decimal.scale())
             }
-            LIST -> Datum.array(value.listValues.map { IonVariant(it) })
-            SEXP -> Datum.array(value.sexpValues.map { IonVariant(it) })
-            STRUCT -> Datum.struct(value.structFields.map { Field.of(it.name, IonVariant(it.value)) })
+            LIST, SEXP -> Datum.array(this)
+            STRUCT -> LoweredStruct(this)
             ElementType.NULL -> error("The NULL type is impossible to be received.")
         }
     }
@@ -121,7 +136,7 @@ internal class IonVariant(private var value: AnyElement) : Datum {
         return PType.of(code)
     }
 
-    override fun getType(): PType = type
+    override fun getType(): PType = TYPE
 
     override fun isNull(): Boolean = false
 
@@ -200,8 +215,8 @@ internal class IonVariant(private var value: AnyElement) : Datum {
     }
 
     override fun iterator(): MutableIterator<Datum> = when (value.type) {
-        LIST -> value.listValues.map { IonVariant(it) }.toMutableList().iterator()
-        SEXP -> value.sexpValues.map { IonVariant(it) }.toMutableList().iterator()
+        LIST -> Elements(value.listValues.iterator())
+        SEXP -> Elements(value.sexpValues.iterator())
         else -> super.iterator()
     }
 
@@ -209,34 +224,62 @@ internal class IonVariant(private var value: AnyElement) : Datum {
         if (value.type != STRUCT) {
             return super.getFields()
         }
-        return value.structFields.map { Field.of(it.name, IonVariant(it.value)) }.toMutableList().iterator()
+        return Fields(value.structFields.iterator())
     }
 
     override fun get(name: String): Datum {
         if (value.type != STRUCT) {
             return super.get(name)
         }
-        // TODO handle multiple/ambiguous field names?
-        val v = value.asStruct().getOptional(name)
-        return if (v == null) {
-            Datum.missing()
-        } else {
-            IonVariant(v)
-        }
+        val v = field(name) ?: return Datum.missing()
+        return IonVariant(v)
     }
 
     override fun getInsensitive(name: String): Datum {
         if (value.type != STRUCT) {
-            return super.get(name)
+            return super.getInsensitive(name)
         }
+        val v = fieldInsensitive(name) ?: return Datum.missing()
+        return IonVariant(v)
+    }
+
+    /**
+     * Returns the value of the field of a struct, or null if there is no such field.
+     */
+    private fun field(name: String): AnyElement? {
         // TODO handle multiple/ambiguous field names?
-        val struct = value.asStruct()
-        for (field in struct.fields) {
+        return value.asStruct().getOptional(name)
+    }
+
+    /**
+     * The first lookup of a struct scans its fields; the fields are indexed by the second lookup, so that repeated
+     * lookups (e.g. of several paths of the same value) are constant-time, without indexing structs which are accessed
+     * once.
+     */
+    private fun fieldInsensitive(name: String): AnyElement? {
+        // TODO handle multiple/ambiguous field names?
+        val index = insensitive
+        if (index != null) {
+            return index[name.lowercase()]
+        }
+        if (lookups++ > 0) {
+            insensitive = index()
+            return fieldInsensitive(name)
+        }
+        for (field in value.asStruct().fields) {
             if (field.name.equals(name, ignoreCase = true)) {
-                return IonVariant(field.value)
+                return field.value
             }
         }
-        return Datum.missing()
+        return null
+    }
+
+    private fun index(): Map<String, AnyElement> {
+        val index = HashMap<String, AnyElement>()
+        for (field in value.asStruct().fields) {
+            index.putIfAbsent(field.name.lowercase(), field.value)
+        }
+        return index
     }
 
     /**
@@ -257,4 +300,56 @@ internal class IonVariant(private var value: AnyElement) : Datum {
         val time = LocalTime.of(ts.hour, ts.minute, second, nanoOfSecond)
         return OffsetDateTime.of(date, time, tz)
     }
+
+    /**
+     * Wraps the elements of a list (or s-expression) as they are iterated.
+     */
+    private class Elements(private val elements: Iterator<AnyElement>) : MutableIterator<Datum> {
+
+        override fun hasNext(): Boolean = elements.hasNext()
+
+        override fun next(): Datum = IonVariant(elements.next())
+
+        override fun remove() = throw UnsupportedOperationException("remove")
+    }
+
+    /**
+     * Wraps the fields of a struct as they are iterated.
+     */
+    private class Fields(private val fields: Iterator<StructField>) : MutableIterator<Field> {
+
+        override fun hasNext(): Boolean = fields.hasNext()
+
+        override fun next(): Field {
+            val field = fields.next()
+            return Field.of(field.name, IonVariant(field.value))
+        }
+
+        override fun remove() = throw UnsupportedOperationException("remove")
+    }
+
+    /**
+     * The lowered STRUCT of an Ion struct, which shares the (lazy) field access of its variant. Like any other STRUCT,
+     * the lookup of an absent field returns null (rather than the MISSING of the variant).
+     */
+    private class LoweredStruct(private val variant: IonVariant) : Datum {
+
+        override fun getType(): PType = STRUCT_TYPE
+
+        override fun getFields(): Iterator<Field> = variant.getFields()
+
+        override fun get(name: String): Datum? = variant.field(name)?.let { IonVariant(it) }
+
+        override fun getInsensitive(name: String): Datum? = variant.fieldInsensitive(name)?.let { IonVariant(it) }
+    }
+
+    private companion object {
+
+        /**
+         * VARIANT<ION>
+         */
+        private val TYPE = PType.variant("ion")
+
+        private val STRUCT_TYPE = PType.struct()
+    }
 }
@@ -43,6 +43,7 @@ internal object FunctionUtils {
         returns: PType,
         isNullCall: Boolean = true,
         isMissingCall: Boolean = true,
+        isDeterministic: Boolean = true,
         invoke: (Array<Datum>) -> Datum,
     ): FnOverload {
         val hiddenName = hide(name)
@@ -51,6 +52,7 @@ internal object FunctionUtils {
             .returns(returns)
             .isNullCall(isNullCall)
             .isMissingCall(isMissingCall)
+            .isDeterministic(isDeterministic)
             .body(invoke)
             .build()
     }
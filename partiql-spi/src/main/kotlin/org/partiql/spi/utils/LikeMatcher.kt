@@ -0,0 +1,170 @@
+package org.partiql.spi.utils
+
+import org.partiql.spi.utils.PatternUtils.checkPattern
+import org.partiql.spi.utils.PatternUtils.matchRegexPattern
+import org.partiql.spi.utils.PatternUtils.parsePattern
+import java.util.regex.Pattern
+
+/**
+ * A compiled SQL `LIKE` pattern.
+ *
+ * Patterns of the common shapes `abc`, `abc%`, `%abc`, and `%abc%` (where `abc` has no wildcards) are matched without a
+ * regular expression; all other patterns are matched by the regular expression of [parsePattern]. The `%` wildcard
+ * translates to `.*?`, which does not match line terminators, so a value with a line terminator is always matched by
+ * the regular expression.
+ */
+internal abstract class LikeMatcher private constructor() {
+
+    /**
+     * Returns true iff the [value] matches the pattern.
+     */
+    abstract fun matches(value: String): Boolean
+
+    companion object {
+
+        private const val CACHE_SIZE = 64
+
+        private const val ANY_MANY = '%'.code
+        private const val ANY_ONE = '_'.code
+
+        /**
+         * The matchers of the most recently used patterns of each thread; a LIKE whose pattern is a literal (or which
+         * is evaluated for the same pattern row after row) compiles its pattern once.
+         */
+        private val cache = ThreadLocal.withInitial {
+            object : LinkedHashMap<Key, LikeMatcher>(16, 0.75f, true) {
+                override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Key, LikeMatcher>?): Boolean {
+                    return size > CACHE_SIZE
+                }
+            }
+        }
+
+        /**
+         * Returns the (cached) matcher of the [pattern] with the given [escape] string, if any.
+         *
+         * @throws IllegalStateException if the [escape] is not a single character or the [pattern] has an invalid
+         * escape sequence.
+         */
+        @JvmStatic
+        fun get(pattern: String, escape: String?): LikeMatcher {
+            val cache = cache.get()
+            val key = Key(pattern, escape)
+            return cache[key] ?: compile(pattern, escape).also { cache[key] = it }
+        }
+
+        /**
+         * Returns the matcher of the [pattern] with the given [escape] string, if any.
+         *
+         * @throws IllegalStateException if the [escape] is not a single character or the [pattern] has an invalid
+         * escape sequence.
+         */
+        @JvmStatic
+        fun compile(pattern: String, escape: String?): LikeMatcher {
+            val escapeChar = if (escape != null) checkPattern(pattern, escape).second else null
+            // the literals and wildcards of the pattern; null is a sequence of '%'
+            val parts = mutableListOf<String?>()
+            val literal = StringBuilder()
+            var isEscaped = false
+            for (codepoint in pattern.codePoints()) {
+                when {
+                    isEscaped -> {
+                        literal.appendCodePoint(codepoint)
+                        isEscaped = false
+                    }
+                    codepoint == escapeChar -> isEscaped = true
+                    codepoint == ANY_ONE -> return Complex(pattern, escapeChar)
+                    codepoint == ANY_MANY -> {
+                        if (literal.isNotEmpty()) {
+                            parts.add(literal.toString())
+                            literal.clear()
+                        }
+                        if (parts.isEmpty() || parts.last() != null) {
+                            parts.add(null)
+                        }
+                    }
+                    else -> literal.appendCodePoint(codepoint)
+                }
+            }
+            if (literal.isNotEmpty()) {
+                parts.add(literal.toString())
+            }
+            return when {
+                parts.isEmpty() -> Exact("")
+                parts.size == 1 && parts[0] != null -> Exact(parts[0]!!)
+                parts.size == 1 -> Anything(pattern, escapeChar)
+                parts.size == 2 && parts[0] != null -> Prefix(pattern, escapeChar, parts[0]!!)
+                parts.size == 2 -> Suffix(pattern, escapeChar, parts[1]!!)
+                parts.size == 3 && parts[0] == null -> Contains(pattern, escapeChar, parts[1]!!)
+                else -> Complex(pattern, escapeChar)
+            }
+        }
+
+        private fun isSingleLine(value: String): Boolean {
+            for (c in value) {
+                when (c) {
+                    '\n', '\r', '\u0085', '\u2028', '\u2029' -> return false
+                }
+            }
+            return true
+        }
+    }
+
+    private data class Key(val pattern: String, val escape: String?)
+
+    private class Exact(private val literal: String) : LikeMatcher() {
+        override fun matches(value: String): Boolean = value == literal
+    }
+
+    /**
+     * Base class of the matchers with a '%' wildcard; values with a line terminator are matched by the regex.
+     */
+    private abstract class Wildcard(pattern: String, escapeChar: Int?) : LikeMatcher() {
+
+        private val regex: Pattern by lazy { parsePattern(pattern, escapeChar) }
+
+        override fun matches(value: String): Boolean = when (isSingleLine(value)) {
+            true -> matchesLine(value)
+            else -> matchRegexPattern(value, regex)
+        }
+
+        abstract fun matchesLine(value: String): Boolean
+    }
+
+    private class Anything(pattern: String, escapeChar: Int?) : Wildcard(pattern, escapeChar) {
+        override fun matchesLine(value: String): Boolean = true
+    }
+
+    private class Prefix(
+        pattern: String,
+        escapeChar: Int?,
+        private val prefix: String,
+    ) : Wildcard(pattern, escapeChar) {
+
+        override fun matchesLine(value: String): Boolean = value.startsWith(prefix)
+    }
+
+    private class Suffix(
+        pattern: String,
+        escapeChar: Int?,
+        private val suffix: String,
+    ) : Wildcard(pattern, escapeChar) {
+
+        override fun matchesLine(value: String): Boolean = value.endsWith(suffix)
+    }
+
+    private class Contains(
+        pattern: String,
+        escapeChar: Int?,
+        private val infix: String,
+    ) : Wildcard(pattern, escapeChar) {
+
+        override fun matchesLine(value: String): Boolean = value.contains(infix)
+    }
+
+    private class Complex(pattern: String, escapeChar: Int?) : LikeMatcher() {
+
+        private val regex = parsePattern(pattern, escapeChar)
+
+        override fun matches(value: String): Boolean = matchRegexPattern(value, regex)
+    }
+}
@@ -0,0 +1,51 @@
+package org.partiql.spi.utils
+
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import kotlin.test.assertEquals
+import kotlin.test.assertSame
+
+/**
+ * The matchers of the common pattern shapes must agree with the regular expression of each pattern.
+ */
+class LikeMatcherTest {
+
+    private val patterns = listOf(
+        "", "abc", "%", "%%", "abc%", "abc%%", "%abc", "%%abc", "%abc%", "%%abc%%", "a%c", "%a%c%", "_bc", "a_%",
+        "ab\\%", "\\%%", "%\\_%", "ü%", "%😀",
+    )
+
+    private val values = listOf(
+        "", "abc", "abcd", "zabc", "zabcd", "ab", "a", "ac", "abc\n", "\nabc", "ab\nc", "abc x", "ab%", "%x", "x_y",
+        "über", "x😀",
+    )
+
+    @Test
+    fun matchesRegex() {
+        for (escape in listOf(null, "\\")) {
+            for (pattern in patterns) {
+                if (escape == null && pattern.contains('\\')) {
+                    continue
+                }
+                val escapeChar = escape?.codePointAt(0)
+                val regex = PatternUtils.parsePattern(pattern, escapeChar)
+                val matcher = LikeMatcher.compile(pattern, escape)
+                for (value in values) {
+                    val expected = PatternUtils.matchRegexPattern(value, regex)
+                    assertEquals(expected, matcher.matches(value), "'$value' LIKE '$pattern' ESCAPE '$escape'")
+                }
+            }
+        }
+    }
+
+    @Test
+    fun cached() {
+        assertSame(LikeMatcher.get("abc%", null), LikeMatcher.get("abc%", null))
+    }
+
+    @Test
+    fun invalidEscape() {
+        assertThrows<IllegalStateException> { LikeMatcher.get("ab\\c", "\\") }
+        assertThrows<IllegalStateException> { LikeMatcher.get("abc", "") }
+    }
+}
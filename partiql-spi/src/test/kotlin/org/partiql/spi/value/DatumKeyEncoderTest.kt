@@ -0,0 +1,167 @@
+package org.partiql.spi.value
+
+import org.junit.jupiter.api.Test
+import org.partiql.spi.types.PType
+import java.math.BigDecimal
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.OffsetDateTime
+import java.time.OffsetTime
+import java.time.ZoneOffset
+import kotlin.math.sign
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class DatumKeyEncoderTest {
+
+    private val values = listOf(
+        Datum.nullValue(),
+        Datum.missing(),
+        Datum.nullValue(PType.integer()),
+        Datum.bool(false),
+        Datum.bool(true),
+        Datum.doublePrecision(Double.NaN),
+        Datum.real(Float.NaN),
+        Datum.doublePrecision(Double.NEGATIVE_INFINITY),
+        Datum.bigint(Long.MIN_VALUE),
+        Datum.decimal(BigDecimal("-1000.5"), 5, 1),
+        Datum.integer(-1000),
+        Datum.doublePrecision(-1.5),
+        Datum.smallint(-1),
+        Datum.decimal(BigDecimal("-0.25"), 3, 2),
+        Datum.doublePrecision(-0.0),
+        Datum.integer(0),
+        Datum.decimal(BigDecimal("0.000"), 4, 3),
+        Datum.doublePrecision(0.1),
+        Datum.decimal(BigDecimal("0.1"), 2, 1),
+        Datum.decimal(BigDecimal("0.101"), 4, 3),
+        Datum.real(0.5f),
+        Datum.tinyint(1),
+        Datum.decimal(BigDecimal("1.00"), 3, 2),
+        Datum.doublePrecision(1.0),
+        Datum.decimal(BigDecimal("1.01"), 3, 2),
+        Datum.integer(10),
+        Datum.doublePrecision(1e10),
+        Datum.bigint(Long.MAX_VALUE),
+        Datum.doublePrecision(Double.POSITIVE_INFINITY),
+        Datum.real(Float.POSITIVE_INFINITY),
+        Datum.date(LocalDate.of(1969, 12, 31)),
+        Datum.date(LocalDate.of(2024, 2, 29)),
+        Datum.time(LocalTime.of(9, 30), 6),
+        Datum.time(LocalTime.of(10, 0), 6),
+        Datum.timez(OffsetTime.of(10, 0, 0, 0, ZoneOffset.ofHours(2)), 6),
+        Datum.timez(OffsetTime.of(9, 0, 0, 0, ZoneOffset.ofHours(1)), 6),
+        Datum.timez(OffsetTime.of(10, 0, 0, 0, ZoneOffset.UTC), 6),
+        Datum.timestamp(LocalDateTime.of(1900, 1, 1, 0, 0, 0, 1), 9),
+        Datum.timestamp(LocalDateTime.of(2024, 1, 1, 12, 0), 6),
+        Datum.timestampz(OffsetDateTime.of(2024, 1, 1, 12, 0, 0, 0, ZoneOffset.ofHours(-8)), 6),
+        Datum.timestampz(OffsetDateTime.of(2024, 1, 1, 20, 0, 0, 0, ZoneOffset.UTC), 6),
+        Datum.intervalYearMonth(-1, 6, 2),
+        Datum.intervalMonth(12, 2),
+        Datum.intervalYear(1, 2),
+        Datum.intervalDaySecond(-1, 0, 0, 0, 0, 2, 6),
+        Datum.intervalHour(24, 2),
+        Datum.intervalSecond(1, 500, 2, 6),
+        Datum.string(""),
+        Datum.string("\u0000"),
+        Datum.string("a"),
+        Datum.varchar("a\u0000b", 10),
+        Datum.string("ab"),
+        Datum.string("z"),
+        Datum.string("é"),
+        Datum.string("😀"),
+        Datum.string("￿"),
+        Datum.blob(byteArrayOf()),
+        Datum.blob(byteArrayOf(-128)),
+        Datum.clob(byteArrayOf(-1, 0)),
+        Datum.blob(byteArrayOf(0)),
+        Datum.blob(byteArrayOf(126)),
+        Datum.blob(byteArrayOf(127)),
+        Datum.blob(byteArrayOf(127, 127)),
+        Datum.array(emptyList()),
+        Datum.array(listOf(Datum.nullValue())),
+        Datum.array(listOf(Datum.integer(1))),
+        Datum.array(listOf(Datum.integer(1), Datum.string("a"))),
+        Datum.array(listOf(Datum.decimal(BigDecimal("1.0"), 2, 1), Datum.string("b"))),
+        Datum.array(listOf(Datum.array(emptyList()), Datum.integer(5))),
+        Datum.array(listOf(Datum.array(listOf(Datum.integer(1))))),
+        Datum.struct(),
+        Datum.struct(Field.of("", Datum.integer(1))),
+        Datum.struct(Field.of("a", Datum.integer(1))),
+        Datum.struct(Field.of("a", Datum.integer(1)), Field.of("b", Datum.nullValue())),
+        Datum.struct(Field.of("b", Datum.string("x")), Field.of("a", Datum.doublePrecision(1.0))),
+        Datum.struct(Field.of("a", Datum.integer(2))),
+        Datum.struct(Field.of("a", Datum.integer(1)), Field.of("a", Datum.integer(0))),
+        Datum.bag(emptyList()),
+        Datum.bag(listOf(Datum.integer(2), Datum.integer(1))),
+        Datum.bag(listOf(Datum.integer(1), Datum.decimal(BigDecimal("2.0"), 2, 1))),
+        Datum.bag(listOf(Datum.integer(1), Datum.integer(2), Datum.missing())),
+        Datum.bag(listOf(Datum.integer(3))),
+    )
+
+    @Test
+    fun order() {
+        for (nullsFirst in listOf(true, false)) {
+            val comparator = Datum.comparator(nullsFirst)
+            val encoder = DatumKeyEncoder.of(nullsFirst)
+            val keys = values.map { encoder.encode(it) }
+            for (i in values.indices) {
+                for (j in values.indices) {
+                    if (!isTotal(values[i], values[j])) {
+                        continue
+                    }
+                    val expected = comparator.compare(values[i], values[j]).sign
+                    val actual = DatumKeyEncoder.compare(keys[i], keys[j]).sign
+                    assertEquals(expected, actual, "nullsFirst=$nullsFirst, ${values[i]} <=> ${values[j]}")
+                }
+            }
+        }
+    }
+
+    // the comparator is not a total order for these pairs, see DatumKeyEncoder
+    private fun isTotal(lhs: Datum, rhs: Datum): Boolean {
+        val types = setOf(lhs.type.code(), rhs.type.code())
+        val mixed = listOf(
+            setOf(PType.TIME, PType.TIMEZ),
+            setOf(PType.TIMESTAMP, PType.TIMESTAMPZ),
+            setOf(PType.INTERVAL_YM, PType.INTERVAL_DT),
+        )
+        if (types in mixed) {
+            return false
+        }
+        // -0.0 is less than an exact zero, but equal to 0.0 and to a decimal zero
+        val negativeZero = listOf(lhs, rhs).any { it.type.code() == PType.DOUBLE && 1.0 / it.double < 0 }
+        val integers = setOf(PType.TINYINT, PType.SMALLINT, PType.INTEGER, PType.BIGINT)
+        return !(negativeZero && types.any { it in integers })
+    }
+
+    @Test
+    fun equality() {
+        val encoder = DatumKeyEncoder.of(true)
+        assertTrue(encoder.encode(Datum.nullValue()).contentEquals(encoder.encode(Datum.missing())))
+        assertTrue(encoder.encode(Datum.integer(100)).contentEquals(encoder.encode(Datum.doublePrecision(100.0))))
+        assertTrue(encoder.encode(Datum.bigint(-5)).contentEquals(encoder.encode(Datum.decimal(BigDecimal("-5.000"), 4, 3))))
+        // fields and elements are encoded in canonical order
+        val ab = Datum.struct(Field.of("a", Datum.integer(1)), Field.of("b", Datum.integer(2)))
+        val ba = Datum.struct(Field.of("b", Datum.integer(2)), Field.of("a", Datum.bigint(1)))
+        assertTrue(encoder.encode(ab).contentEquals(encoder.encode(ba)))
+        val bag = Datum.bag(listOf(Datum.string("x"), Datum.integer(1)))
+        val reversed = Datum.bag(listOf(Datum.integer(1), Datum.string("x")))
+        assertTrue(encoder.encode(bag).contentEquals(encoder.encode(reversed)))
+    }
+
+    @Test
+    fun rows() {
+        val encoder = DatumKeyEncoder.of(false)
+        val rows = listOf(
+            arrayOf(Datum.integer(1), Datum.string("b")),
+            arrayOf(Datum.integer(1), Datum.nullValue()),
+            arrayOf(Datum.decimal(BigDecimal("1.5"), 2, 1), Datum.string("a")),
+            arrayOf(Datum.nullValue(), Datum.string("a")),
+        )
+        // the key of a row is ordered by its values, lexicographically
+        val sorted = rows.shuffled().sortedWith { l, r -> DatumKeyEncoder.compare(encoder.encode(l), encoder.encode(r)) }
+        assertEquals(rows, sorted)
+    }
+}
@@ -0,0 +1,85 @@
+package org.partiql.spi.value
+
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.partiql.spi.types.PType
+import java.util.BitSet
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class DatumVectorTest {
+
+    private val comparator = Datum.comparator()
+
+    @Test
+    fun primitives() {
+        val nulls = BitSet().apply { set(1) }
+        val ints = DatumVector.integer(intArrayOf(1, 0, 3), nulls)
+        assertEquals(3, ints.size())
+        assertEquals(PType.INTEGER, ints.type.code())
+        assertEquals(3, ints.getInt(2))
+        assertFalse(ints.isNull(0))
+        assertTrue(ints.isNull(1))
+        assertTrue(ints.get(1).isNull)
+        assertEquals(0, comparator.compare(Datum.integer(1), ints.get(0)))
+        assertThrows<InvalidOperationException> { ints.getLong(0) }
+
+        val longs = DatumVector.bigint(longArrayOf(Long.MAX_VALUE), null)
+        assertEquals(Long.MAX_VALUE, longs.get(0).long)
+        val doubles = DatumVector.doublePrecision(doubleArrayOf(1.5), null)
+        assertEquals(1.5, doubles.getDouble(0))
+        val bools = DatumVector.bool(booleanArrayOf(true, false), null)
+        assertFalse(bools.get(1).boolean)
+    }
+
+    @Test
+    fun dictionary() {
+        val strings = DatumVector.string(arrayOf("a", "b"), intArrayOf(1, 0, 1), BitSet())
+        assertEquals("b", strings.getString(0))
+        assertEquals("a", strings.get(1).string)
+        // each dictionary entry is materialized once
+        assertSame(strings.get(0), strings.get(2))
+    }
+
+    @Test
+    fun columnar() {
+        val bag = Datum.columnar(
+            listOf("id", "Name"),
+            listOf(
+                DatumVector.integer(intArrayOf(1, 2), null),
+                DatumVector.string(arrayOf("x"), intArrayOf(0, 0), BitSet().apply { set(1) }),
+            )
+        )
+        assertEquals(PType.BAG, bag.type.code())
+        val rows = bag.toList()
+        assertEquals(2, rows.size)
+        assertEquals(2, rows[1].get("id")!!.int)
+        assertEquals("x", rows[0].getInsensitive("name")!!.string)
+        assertTrue(rows[1].get("Name")!!.isNull)
+        assertNull(rows[0].get("name"))
+        assertEquals(listOf("id", "Name"), rows[0].fields.asSequence().map { it.name }.toList())
+        // a row is compared as a struct, whose fields are unordered
+        assertEquals(PType.STRUCT, rows[0].type.code())
+        val struct = Datum.struct(Field.of("Name", Datum.string("x")), Field.of("id", Datum.integer(1)))
+        assertEquals(0, comparator.compare(struct, rows[0]))
+        // the columns may be read directly
+        val columns = bag as DatumColumns
+        assertEquals(2, columns.size)
+        assertEquals(2, columns.getColumn("id")!!.getInt(1))
+        assertNull(columns.getColumn("name"))
+        assertEquals(PType.STRING, columns.getColumnInsensitive("name")!!.type.code())
+    }
+
+    @Test
+    fun columnarSizeMismatch() {
+        assertThrows<IllegalArgumentException> {
+            Datum.columnar(
+                listOf("a", "b"),
+                listOf(DatumVector.integer(intArrayOf(1), null), DatumVector.integer(intArrayOf(1, 2), null))
+            )
+        }
+    }
+}
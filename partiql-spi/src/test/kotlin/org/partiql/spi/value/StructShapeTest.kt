@@ -0,0 +1,52 @@
+package org.partiql.spi.value
+
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.partiql.spi.types.PType
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+
+class StructShapeTest {
+
+    private val comparator = Datum.comparator()
+
+    private val shape = StructShape.of("id", "Name", "name")
+
+    @Test
+    fun shape() {
+        assertEquals(3, shape.size())
+        assertEquals("Name", shape.getName(1))
+        assertEquals(2, shape.indexOf("name"))
+        assertEquals(-1, shape.indexOf("NAME"))
+        // the first field of a case-insensitive name
+        assertEquals(1, shape.indexOfInsensitive("NAME"))
+        assertEquals(-1, shape.indexOfInsensitive("other"))
+    }
+
+    @Test
+    fun struct() {
+        val struct = Datum.struct(shape, arrayOf(Datum.integer(1), Datum.string("x"), Datum.string("y")))
+        assertEquals(PType.STRUCT, struct.type.code())
+        assertSame(shape, struct.shape)
+        assertEquals("y", struct.get("name").string)
+        assertEquals("x", struct.getInsensitive("NAME").string)
+        assertEquals("x", struct.get(1).string)
+        assertNull(struct.get("other"))
+        assertNull(struct.getInsensitive("other"))
+        assertEquals(listOf("id", "Name", "name"), struct.fields.asSequence().map { it.name }.toList())
+        val expected = Datum.struct(
+            Field.of("id", Datum.integer(1)),
+            Field.of("Name", Datum.string("x")),
+            Field.of("name", Datum.string("y")),
+        )
+        assertEquals(0, comparator.compare(expected, struct))
+        assertNull(expected.shape)
+    }
+
+    @Test
+    fun size() {
+        assertThrows<IllegalArgumentException> { Datum.struct(shape, arrayOf(Datum.integer(1))) }
+        assertThrows<InvalidOperationException> { Datum.integer(1).get(0) }
+    }
+}
@@ -0,0 +1,126 @@
+package org.partiql.spi.value.ion
+
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+import org.partiql.spi.internal.value.ion.IonBinaryReader
+import org.partiql.spi.internal.value.ion.IonDatumException
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.DatumReader
+import org.partiql.spi.value.DatumWriter
+import org.partiql.spi.value.Field
+import java.io.ByteArrayOutputStream
+import java.math.BigDecimal
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.OffsetDateTime
+import java.time.OffsetTime
+import java.time.ZoneOffset
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class IonBinaryReaderTest {
+
+    private val comparator = Datum.comparator()
+
+    private val values = listOf(
+        Datum.nullValue(),
+        Datum.missing(),
+        Datum.bool(false),
+        Datum.tinyint(-1),
+        Datum.smallint(2),
+        Datum.integer(-3),
+        Datum.bigint(Long.MIN_VALUE),
+        Datum.decimal(BigDecimal("-12.30"), 4, 2),
+        Datum.real(-1.5f),
+        Datum.doublePrecision(1e23),
+        Datum.string("abc"),
+        Datum.varchar("déjà vu", 7),
+        Datum.clob("text".toByteArray()),
+        Datum.blob(byteArrayOf(0, 1, -1)),
+        Datum.date(LocalDate.of(2024, 2, 29)),
+        Datum.time(LocalTime.of(10, 30, 15, 123_000_000), 3),
+        Datum.timez(OffsetTime.of(10, 30, 15, 0, ZoneOffset.ofHours(-8)), 0),
+        Datum.timestamp(LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_000), 6),
+        Datum.timestampz(OffsetDateTime.of(2024, 1, 1, 23, 59, 0, 0, ZoneOffset.ofHoursMinutes(-5, -30)), 0),
+        Datum.array(listOf(Datum.integer(1), Datum.string("b"), Datum.bool(true))),
+        Datum.bag(listOf(Datum.bigint(1), Datum.bigint(1))),
+        Datum.struct(
+            Field.of("a", Datum.integer(1)),
+            Field.of("b", Datum.bag(listOf(Datum.struct(Field.of("c", Datum.missing()))))),
+        ),
+    )
+
+    @Test
+    fun buffer() {
+        assertValues(values, DatumReader.ionBinary(ByteBuffer.wrap(write(values))))
+    }
+
+    @Test
+    fun file(@TempDir dir: Path) {
+        val path = dir.resolve("values.10n")
+        Files.write(path, write(values))
+        assertValues(values, DatumReader.ionBinary(path))
+    }
+
+    @Test
+    fun windows(@TempDir dir: Path) {
+        // a small window is remapped many times, including at values which cross the end of a window
+        val rows = (0 until 5000).map { Datum.struct(Field.of("id", Datum.integer(it)), Field.of("name", Datum.string("n$it"))) }
+        val path = dir.resolve("rows.10n")
+        Files.write(path, write(rows))
+        assertValues(rows, IonBinaryReader.file(path, 100))
+    }
+
+    @Test
+    fun lazy() {
+        // the `b` field is only decoded when it is accessed, and ion values are not supported by the scan
+        val row = Datum.struct(
+            Field.of("a", Datum.integer(1)),
+            Field.of("b", Datum.ion("{ x: 1 }")),
+            Field.of("c", Datum.string("c")),
+        )
+        val actual = DatumReader.ionBinary(ByteBuffer.wrap(write(listOf(row)))).next()!!
+        assertEquals(PType.STRUCT, actual.type.code())
+        assertEquals(1, actual.get("a")!!.int)
+        assertEquals("c", actual.getInsensitive("C")!!.string)
+        assertNull(actual.get("d"))
+        assertThrows<IonDatumException> { actual.get("b") }
+    }
+
+    @Test
+    fun truncated() {
+        val bytes = write(values)
+        val reader = DatumReader.ionBinary(ByteBuffer.wrap(bytes, 0, bytes.size - 1))
+        assertThrows<IonDatumException> {
+            while (reader.next() != null) {
+                // read to the truncated value
+            }
+        }
+    }
+
+    private fun write(values: List<Datum>): ByteArray {
+        val out = ByteArrayOutputStream()
+        DatumWriter.ionBinary(out).use { w -> values.forEach { w.write(it) } }
+        return out.toByteArray()
+    }
+
+    private fun assertValues(expected: List<Datum>, reader: DatumReader) {
+        reader.use {
+            for (value in expected) {
+                val actual = assertNotNull(reader.next(), "Expected: $value, Actual: null")
+                assertEquals(0, comparator.compare(value, actual), "Expected: $value, Actual: $actual")
+                if (!value.isNull && !value.isMissing && value.type.code() != PType.VARCHAR) {
+                    assertEquals(value.type.code(), actual.type.code(), "Expected: $value, Actual: $actual")
+                }
+            }
+            assertNull(reader.next())
+        }
+    }
+}
@@ -1,3 +1,105 @@
 package org.partiql.spi.value.ion
 
-class IonDatumWriterTest
+import org.junit.jupiter.api.Test
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+import org.partiql.spi.value.DatumReader
+import org.partiql.spi.value.DatumWriter
+import org.partiql.spi.value.Field
+import java.io.ByteArrayOutputStream
+import java.io.OutputStream
+import java.math.BigDecimal
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.OffsetDateTime
+import java.time.OffsetTime
+import java.time.ZoneOffset
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class IonDatumWriterTest {
+
+    private val comparator = Datum.comparator()
+
+    private val values = listOf(
+        Datum.nullValue(),
+        Datum.missing(),
+        Datum.bool(true),
+        Datum.tinyint(-1),
+        Datum.smallint(2),
+        Datum.integer(3),
+        Datum.bigint(Long.MAX_VALUE),
+        Datum.decimal(BigDecimal("12.30"), 4, 2),
+        Datum.real(-1.5f),
+        Datum.doublePrecision(1e23),
+        Datum.string("abc"),
+        Datum.varchar("abc", 3),
+        Datum.clob("text".toByteArray()),
+        Datum.blob(byteArrayOf(0, 1, -1)),
+        Datum.date(LocalDate.of(2024, 2, 29)),
+        Datum.time(LocalTime.of(10, 30, 15, 123_000_000), 3),
+        Datum.timez(OffsetTime.of(10, 30, 15, 0, ZoneOffset.ofHours(-8)), 0),
+        Datum.timestamp(LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_000), 6),
+        Datum.timestampz(OffsetDateTime.of(2024, 1, 1, 12, 0, 0, 0, ZoneOffset.ofHoursMinutes(5, 30)), 0),
+        Datum.array(listOf(Datum.integer(1), Datum.string("b"), Datum.bool(true))),
+        Datum.bag(listOf(Datum.bigint(1), Datum.bigint(1))),
+        Datum.struct(
+            Field.of("a", Datum.integer(1)),
+            Field.of("b", Datum.bag(listOf(Datum.struct(Field.of("c", Datum.missing()))))),
+        ),
+    )
+
+    @Test
+    fun text() {
+        roundTrip { DatumWriter.ion(it) }
+    }
+
+    @Test
+    fun binary() {
+        roundTrip { DatumWriter.ionBinary(it) }
+    }
+
+    @Test
+    fun annotations() {
+        val out = ByteArrayOutputStream()
+        DatumWriter.ion(out).use {
+            it.write(Datum.integer(1))
+            it.write(Datum.bag(listOf(Datum.bigint(2))))
+            it.write(Datum.struct(Field.of("x", Datum.tinyint(3))))
+        }
+        assertEquals(listOf("int::1", "bag::[2]", "{x:tinyint::3}"), out.toString().trim().lines())
+    }
+
+    @Test
+    fun streaming() {
+        // the rows are flushed to the output as they are written, rather than when the writer is closed
+        val out = ByteArrayOutputStream()
+        val writer = DatumWriter.ionBinary(out)
+        val rows = (0 until 5000).map { Datum.struct(Field.of("id", Datum.integer(it)), Field.of("name", Datum.string("n$it"))) }
+        rows.forEach { writer.write(it) }
+        assertTrue(out.size() > 0)
+        writer.close()
+        val reader = DatumReader.ion(out.toByteArray().inputStream())
+        for (row in rows) {
+            assertEquals(0, comparator.compare(row, reader.next()!!))
+        }
+        assertNull(reader.next())
+    }
+
+    private fun roundTrip(writer: (OutputStream) -> DatumWriter) {
+        val out = ByteArrayOutputStream()
+        writer(out).use { w -> values.forEach { w.write(it) } }
+        val reader = DatumReader.ion(out.toByteArray().inputStream())
+        for (expected in values) {
+            val actual = reader.next()!!
+            assertEquals(0, comparator.compare(expected, actual), "Expected: $expected, Actual: $actual")
+            if (!expected.isNull && !expected.isMissing && expected.type.code() != PType.VARCHAR) {
+                assertEquals(expected.type.code(), actual.type.code(), "Expected: $expected, Actual: $actual")
+            }
+        }
+        assertNull(reader.next())
+        reader.close()
+    }
+}
@@ -0,0 +1,52 @@
+package org.partiql.spi.value.ion
+
+import org.junit.jupiter.api.Test
+import org.partiql.spi.types.PType
+import org.partiql.spi.value.Datum
+import java.math.BigDecimal
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class IonVariantTest {
+
+    private val comparator = Datum.comparator()
+
+    private val document = Datum.ion("{ id: 1, Name: \"x\", name: \"y\", tags: [\"a\", \"b\", \"c\"], nested: { v: 2.5 } }")
+
+    @Test
+    fun insensitive() {
+        // the first lookup scans the fields, and later lookups use the index; both return the first match
+        repeat(3) {
+            assertEquals("x", document.getInsensitive("NAME").string)
+            assertEquals(BigDecimal.ONE, document.getInsensitive("ID").bigDecimal)
+            assertTrue(document.getInsensitive("other").isMissing)
+        }
+        assertEquals("y", document.get("name").string)
+        assertTrue(document.get("ID").isMissing)
+    }
+
+    @Test
+    fun navigation() {
+        val tags = document.getInsensitive("tags")
+        assertEquals(listOf("a", "b", "c"), tags.map { it.string })
+        assertEquals(listOf("id", "Name", "name", "tags", "nested"), document.fields.asSequence().map { it.name }.toList())
+        assertEquals(0, comparator.compare(Datum.decimal(2.5.toBigDecimal()), document.get("nested").get("v")))
+    }
+
+    @Test
+    fun lower() {
+        val struct = document.lower()
+        assertEquals(PType.STRUCT, struct.type.code())
+        assertEquals("x", struct.getInsensitive("name").string)
+        assertEquals(5, struct.fields.asSequence().count())
+        // unlike the variant, the lowered struct has no MISSING fields
+        assertNull(struct.get("other"))
+        assertNull(struct.getInsensitive("other"))
+        val array = document.get("tags").lower()
+        assertEquals(PType.ARRAY, array.type.code())
+        assertEquals(3, array.count())
+        // the elements may be iterated again
+        assertEquals(3, array.count())
+    }
+}